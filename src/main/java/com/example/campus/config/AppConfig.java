@@ -2,6 +2,7 @@ package com.example.campus.config;
 
 import com.example.campus.repository.CourseRegistrationRepository;
 import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.CourseWaitlistRepository;
 import com.example.campus.repository.UserRepository;
 import com.example.campus.service.*;
 import org.springframework.context.annotation.Bean;
@@ -12,30 +13,44 @@ public class AppConfig {
 
     @Bean
     public CourseService courseService(
-            AuditableService auditableService,
+            ChangeHistoryWriter changeHistoryWriter,
+            CourseNotificationService courseNotificationService,
             CourseRepository courseRepository,
             CourseRegistrationRepository courseRegistrationRepository,
+            CourseRegistrationWriter courseRegistrationWriter,
+            CourseSeatCounter courseSeatCounter,
+            CourseStateWriter courseStateWriter,
+            CourseWaitlistRepository courseWaitlistRepository,
+            PermissionCache permissionCache,
             RoleService roleService
     ) {
-        return new CourseService(auditableService, courseRepository, courseRegistrationRepository, roleService);
+        return new CourseService(changeHistoryWriter, courseNotificationService, courseRepository, courseRegistrationRepository, courseRegistrationWriter, courseSeatCounter, courseStateWriter, courseWaitlistRepository, permissionCache, roleService);
     }
 
     @Bean
     public UserService userService(
-            AuditableService auditableService,
+            ChangeHistoryWriter changeHistoryWriter,
+            CredentialCache credentialCache,
+            PermissionCache permissionCache,
             RoleService roleService,
-            TextSanitizer textSanitizer,
+            TokenRevocationList tokenRevocationList,
+            UsernameAllocator usernameAllocator,
             UserRepository userRepository,
             CourseService courseService
     ) {
-        UserService userService = new UserService(auditableService, roleService, textSanitizer, userRepository);
+        UserService userService = new UserService(changeHistoryWriter, credentialCache, permissionCache, roleService, tokenRevocationList, usernameAllocator, userRepository);
         userService.setCourseService(courseService);
         courseService.setUserService(userService);
         return userService;
     }
 
+    @Bean
+    public UsernameAllocator usernameAllocator(TextSanitizer textSanitizer, UserRepository userRepository) {
+        return new UsernameAllocator(textSanitizer, userRepository);
+    }
+
     @Bean
     public TextSanitizer textSanitizer() {
-        return new NonAsciiNormalizer();
+        return new AsciiFoldingNormalizer();
     }
 }
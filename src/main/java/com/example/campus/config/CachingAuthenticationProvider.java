@@ -0,0 +1,49 @@
+package com.example.campus.config;
+
+import com.example.campus.service.CredentialCache;
+import com.example.campus.service.RateLimiter;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final CredentialCache credentialCache;
+    private final RateLimiter rateLimiter;
+
+    public CachingAuthenticationProvider(CredentialCache credentialCache, RateLimiter rateLimiter) {
+        this.credentialCache = credentialCache;
+        this.rateLimiter = rateLimiter;
+    }
+
+    // Only failed attempts are charged to the username, so flooding a username with bad
+    // passwords cannot lock its owner out once the bucket has refilled.
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        rateLimiter.checkUsername(username);
+        try {
+            return super.authenticate(authentication);
+        } catch (BadCredentialsException e) {
+            rateLimiter.chargeUsername(username);
+            throw e;
+        }
+    }
+
+    // Verified credentials are answered from the cache, so only attempts that reach the password
+    // encoder are charged to the client IP.
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        String presentedPassword = authentication.getCredentials() != null ? authentication.getCredentials().toString() : null;
+        if (credentialCache.isVerified(userDetails.getUsername(), presentedPassword, userDetails.getPassword())) return;
+        if (authentication.getDetails() instanceof WebAuthenticationDetails details) {
+            rateLimiter.acquire(details.getRemoteAddress(), null);
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        credentialCache.put(userDetails.getUsername(), presentedPassword, userDetails.getPassword());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.campus.config;
+
+import com.example.campus.entity.*;
+import com.example.campus.entity.ChangeHistory.Action;
+import com.example.campus.service.ChangeHistoryWriter;
+import com.example.campus.util.SecurityUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+@Component
+public class ChangeHistoryListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private static final Set<Class<?>> TRACKED_ENTITIES = Set.of(User.class, Course.class, Role.class, Permission.class, CourseRegistration.class);
+    private static final Set<String> IGNORED_FIELDS = Set.of("createdAt", "createdBy", "updatedAt", "updatedBy", "version");
+    private static final Set<String> REDACTED_FIELDS = Set.of("password");
+    private static final String REDACTED = "[REDACTED]";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChangeHistoryWriter changeHistoryWriter;
+
+    public ChangeHistoryListener(EntityManagerFactory entityManagerFactory, ChangeHistoryWriter changeHistoryWriter) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.changeHistoryWriter = changeHistoryWriter;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return TRACKED_ENTITIES.contains(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        EntityPersister persister = event.getPersister();
+        List<ChangeHistory> changes = new ArrayList<>();
+        Object[] state = event.getState();
+        for (int i = 0; i < state.length; i++) {
+            if (isTracked(persister, i) && state[i] != null) {
+                changes.add(change(persister, event.getId(), Action.CREATE, i, null, state[i]));
+            }
+        }
+        changeHistoryWriter.record(changes);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        List<ChangeHistory> changes = new ArrayList<>();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        for (int i = 0; i < state.length; i++) {
+            Object oldValue = oldState != null ? oldState[i] : null;
+            if (isTracked(persister, i) && isDirty(event.getDirtyProperties(), i, oldValue, state[i])) {
+                changes.add(change(persister, event.getId(), Action.UPDATE, i, oldValue, state[i]));
+            }
+        }
+        changeHistoryWriter.record(changes);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        ChangeHistory change = change(event.getPersister(), event.getId(), Action.DELETE, -1, null, null);
+        changeHistoryWriter.record(List.of(change));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private boolean isTracked(EntityPersister persister, int index) {
+        Type type = persister.getPropertyTypes()[index];
+        return !type.isCollectionType() && !IGNORED_FIELDS.contains(persister.getPropertyNames()[index]);
+    }
+
+    private static boolean isDirty(int[] dirtyProperties, int index, Object oldValue, Object newValue) {
+        if (dirtyProperties == null) return !Objects.equals(format(oldValue), format(newValue));
+        for (int dirty : dirtyProperties) {
+            if (dirty == index) return true;
+        }
+        return false;
+    }
+
+    private static ChangeHistory change(EntityPersister persister, Object id, Action action, int index, Object oldValue, Object newValue) {
+        ChangeHistory change = new ChangeHistory();
+        change.setEntityType(persister.getMappedClass().getSimpleName());
+        change.setEntityId((Long) id);
+        change.setAction(action);
+        if (index >= 0) {
+            String field = persister.getPropertyNames()[index];
+            boolean redacted = REDACTED_FIELDS.contains(field);
+            change.setField(field);
+            change.setOldValue(redacted && oldValue != null ? REDACTED : format(oldValue));
+            change.setNewValue(redacted && newValue != null ? REDACTED : format(newValue));
+        }
+        change.setChangedBy(SecurityUtil.getCurrentUsername().orElse(null));
+        change.setChangedAt(LocalDateTime.now());
+        return change;
+    }
+
+    private static String format(Object value) {
+        if (value == null) return null;
+        String formatted = value instanceof Auditable auditable ? String.valueOf(auditable.getId()) : value.toString();
+        return formatted.length() > ChangeHistory.MAX_VALUE_LENGTH ? formatted.substring(0, ChangeHistory.MAX_VALUE_LENGTH) : formatted;
+    }
+}
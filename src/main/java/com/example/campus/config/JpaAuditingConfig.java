@@ -0,0 +1,15 @@
+package com.example.campus.config;
+
+import com.example.campus.util.SecurityUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+
+@Configuration
+public class JpaAuditingConfig {
+
+    @Bean
+    public AuditorAware<String> auditorAware() {
+        return SecurityUtil::getCurrentUsername;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.campus.config;
+
+import com.example.campus.exception.PasswordHashingUnavailableException;
+import com.example.campus.exception.RateLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+
+import java.io.IOException;
+
+public class OverloadAwareAuthenticationEntryPoint extends BasicAuthenticationEntryPoint {
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    public OverloadAwareAuthenticationEntryPoint() {
+        setRealmName("Realm");
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException) throws IOException {
+        if (authException instanceof PasswordHashingUnavailableException) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, authException.getMessage());
+            return;
+        }
+        if (authException instanceof RateLimitExceededException rateLimitExceeded) {
+            long retryAfterSeconds = Math.max(1, (rateLimitExceeded.getRetryAfter().toMillis() + 999) / 1000);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), authException.getMessage());
+            return;
+        }
+        super.commence(request, response, authException);
+    }
+}
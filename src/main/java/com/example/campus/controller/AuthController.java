@@ -0,0 +1,43 @@
+package com.example.campus.controller;
+
+import com.example.campus.dto.AccessTokenDTO;
+import com.example.campus.dto.LoginRequestDTO;
+import com.example.campus.service.AccessTokenService;
+import com.example.campus.util.PermissionSet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+@Slf4j
+public class AuthController {
+    private final AccessTokenService accessTokenService;
+    private final AuthenticationManager authenticationManager;
+
+    public AuthController(AccessTokenService accessTokenService, AuthenticationManager authenticationManager) {
+        this.accessTokenService = accessTokenService;
+        this.authenticationManager = authenticationManager;
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<AccessTokenDTO> login(@Valid @RequestBody LoginRequestDTO loginRequest, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken credentials = UsernamePasswordAuthenticationToken.unauthenticated(loginRequest.getUsername(), loginRequest.getPassword());
+        credentials.setDetails(new WebAuthenticationDetails(request));
+        Authentication authentication = authenticationManager.authenticate(credentials);
+        String accessToken = accessTokenService.issue(authentication.getName(), PermissionSet.ofAuthorities(authentication.getAuthorities()));
+        log.info("Issued access token for user: {}", authentication.getName());
+        AccessTokenDTO accessTokenDTO = new AccessTokenDTO(accessToken, "Bearer", accessTokenService.getTtl().toSeconds());
+        return new ResponseEntity<>(accessTokenDTO, HttpStatus.OK);
+    }
+}
@@ -1,9 +1,44 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.entity.Auditable;
+import com.example.campus.exception.VersionMismatchException;
 import com.example.campus.util.SecurityUtil;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 public abstract class BaseController {
+    private static final String ANY_VERSION = "*";
+    private static final String WEAK_PREFIX = "W/";
+
     protected String getRequester() {
         return SecurityUtil.getUsername();
     }
+
+    protected static Long parseIfMatch(String ifMatch) throws VersionMismatchException {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY_VERSION)) return null;
+        String tag = ifMatch.trim();
+        if (tag.startsWith(WEAK_PREFIX)) tag = tag.substring(WEAK_PREFIX.length());
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) tag = tag.substring(1, tag.length() - 1);
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new VersionMismatchException("Unrecognized entity tag: " + ifMatch);
+        }
+    }
+
+    protected static <T extends Auditable> ResponseEntity<T> withETag(T entity, HttpStatus status) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (entity != null && entity.getVersion() != null) response.eTag(String.valueOf(entity.getVersion()));
+        return response.body(entity);
+    }
+
+    // An unpaged request asked for a plain list, so the page wrapper is dropped.
+    protected static <T> ResponseEntity<?> pageOrList(CursorPageDTO<T> page, boolean unpaged) {
+        return new ResponseEntity<>(unpaged ? page.getItems() : page, HttpStatus.OK);
+    }
+
+    protected static ResponseEntity<Void> noContent(long version) {
+        return ResponseEntity.noContent().eTag(String.valueOf(version)).build();
+    }
 }
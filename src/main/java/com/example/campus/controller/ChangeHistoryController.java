@@ -0,0 +1,56 @@
+package com.example.campus.controller;
+
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.entity.ChangeHistory;
+import com.example.campus.service.ChangeHistoryService;
+import com.example.campus.util.Cursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/history")
+@Slf4j
+public class ChangeHistoryController extends BaseController {
+    private final ChangeHistoryService changeHistoryService;
+
+    public ChangeHistoryController(ChangeHistoryService changeHistoryService) {
+        this.changeHistoryService = changeHistoryService;
+    }
+
+    @GetMapping
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_HISTORY)")
+    public ResponseEntity<CursorPageDTO<ChangeHistory>> getHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        String requester = getRequester();
+        log.info("Fetching change history from: {} to: {} requested by: {}", from, to, requester);
+        CursorPageDTO<ChangeHistory> history = changeHistoryService.findHistory(from, to, after, Cursor.resolveLimit(limit, false));
+        return new ResponseEntity<>(history, HttpStatus.OK);
+    }
+
+    @GetMapping("/{entityType}/{entityId}")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_HISTORY)")
+    public ResponseEntity<CursorPageDTO<ChangeHistory>> getEntityHistory(
+            @PathVariable String entityType,
+            @PathVariable Long entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        String requester = getRequester();
+        log.info("Fetching change history of {} with ID: {} requested by: {}", entityType, entityId, requester);
+        CursorPageDTO<ChangeHistory> history = changeHistoryService.findEntityHistory(
+                entityType, entityId, from, to, after, Cursor.resolveLimit(limit, false));
+        return new ResponseEntity<>(history, HttpStatus.OK);
+    }
+}
@@ -1,16 +1,33 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.BulkUpdateRequestDTO;
+import com.example.campus.dto.BulkUpdateResultDTO;
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.dto.EnrollmentResultDTO;
 import com.example.campus.dto.UserRoleDTO;
 import com.example.campus.entity.Course;
 import com.example.campus.entity.User;
+import com.example.campus.service.BulkUpdateService;
 import com.example.campus.service.CourseService;
+import com.example.campus.service.ExportService;
+import com.example.campus.util.Cursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -18,22 +35,32 @@ import java.util.List;
 @Slf4j
 public class CourseController extends BaseController {
     private final CourseService courseService;
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+    private final BulkUpdateService bulkUpdateService;
 
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, ExportService exportService, ObjectMapper objectMapper, BulkUpdateService bulkUpdateService) {
         this.courseService = courseService;
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
+        this.bulkUpdateService = bulkUpdateService;
     }
 
     @GetMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE)")
-    public ResponseEntity<List<Course>> getAllCourses() {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE)")
+    public ResponseEntity<?> getAllCourses(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
         String requester = getRequester();
-        log.info("Fetching all courses requested by: {}", requester);
-        List<Course> courses = courseService.findAllCourses();
-        return new ResponseEntity<>(courses, HttpStatus.OK);
+        log.info("Fetching courses after cursor: {} requested by: {}", after, requester);
+        CursorPageDTO<Course> courses = courseService.findAllCourses(after, Cursor.resolveLimit(limit, unpaged));
+        return pageOrList(courses, unpaged);
     }
 
     @PostMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
     public ResponseEntity<Course> createCourse(@Valid @RequestBody Course course) {
         String requester = getRequester();
         log.info("Creating course with name: {} requested by: {}", course.getName(), requester);
@@ -41,44 +68,65 @@ public class CourseController extends BaseController {
         return new ResponseEntity<>(createdCourse, HttpStatus.CREATED);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE)")
+    public ResponseEntity<StreamingResponseBody> exportCourses() {
+        String requester = getRequester();
+        log.info("Exporting courses requested by: {}", requester);
+        StreamingResponseBody courses = exportService::exportCourses;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(courses);
+    }
+
     @GetMapping("/active")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE)")
-    public ResponseEntity<List<Course>> getActiveCourses() {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE)")
+    public ResponseEntity<?> getActiveCourses(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
         String requester = getRequester();
-        log.info("Fetching active courses requested by: {}", requester);
-        List<Course> courses = courseService.getActiveCourses();
-        return new ResponseEntity<>(courses, HttpStatus.OK);
+        log.info("Fetching active courses after cursor: {} requested by: {}", after, requester);
+        CursorPageDTO<Course> courses = courseService.getActiveCourses(after, Cursor.resolveLimit(limit, unpaged));
+        return pageOrList(courses, unpaged);
     }
 
     @GetMapping("/open")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE)")
-    public ResponseEntity<List<Course>> getOpenCourses() {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE)")
+    public ResponseEntity<?> getOpenCourses(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
         String requester = getRequester();
-        log.info("Fetching open courses requested by: {}", requester);
-        List<Course> courses = courseService.getOpenCourses();
-        return new ResponseEntity<>(courses, HttpStatus.OK);
+        log.info("Fetching open courses after cursor: {} requested by: {}", after, requester);
+        CursorPageDTO<Course> courses = courseService.getOpenCourses(after, Cursor.resolveLimit(limit, unpaged));
+        return pageOrList(courses, unpaged);
     }
 
     @GetMapping("/{courseId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE)")
     public ResponseEntity<Course> getCourseById(@PathVariable Long courseId) {
         String requester = getRequester();
         log.info("Fetching course with ID: {} requested by: {}", courseId, requester);
         Course course = courseService.findCourseById(courseId);
-        return new ResponseEntity<>(course, HttpStatus.OK);
+        return withETag(course, HttpStatus.OK);
     }
 
     @PutMapping("/{courseId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
-    public ResponseEntity<Course> updateCourse(@PathVariable Long courseId, @Valid @RequestBody Course courseDetails) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<Course> updateCourse(
+            @PathVariable Long courseId,
+            @Valid @RequestBody Course courseDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         String requester = getRequester();
         log.info("Updating course with ID: {} requested by: {}", courseId, requester);
-        Course updatedCourse = courseService.updateCourse(requester, courseId, courseDetails);
-        return new ResponseEntity<>(updatedCourse, HttpStatus.OK);
+        Course updatedCourse = courseService.updateCourse(requester, courseId, courseDetails, parseIfMatch(ifMatch));
+        return withETag(updatedCourse, HttpStatus.OK);
     }
 
     @DeleteMapping("/{courseId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
     public ResponseEntity<Void> deleteCourse(@PathVariable Long courseId) {
         String requester = getRequester();
         log.info("Deleting course with ID: {} requested by: {}", courseId, requester);
@@ -87,7 +135,7 @@ public class CourseController extends BaseController {
     }
 
     @GetMapping("/{courseId}/users")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<User>> getUsersByCourseId(@PathVariable Long courseId) {
         String requester = getRequester();
         log.info("Fetching users for course ID: {} requested by: {}", courseId, requester);
@@ -96,16 +144,17 @@ public class CourseController extends BaseController {
     }
 
     @PostMapping("/{courseId}/user/{userId}/role/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_USER) and hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
-    public ResponseEntity<Course> addUserToCourse(@PathVariable Long courseId, @PathVariable Long userId, @PathVariable Long roleId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_USER, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<EnrollmentResultDTO> addUserToCourse(@PathVariable Long courseId, @PathVariable Long userId, @PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Adding user ID: {} with role ID: {} to course ID: {} requested by: {}", userId, roleId, courseId, requester);
-        Course course = courseService.addUserToCourse(requester, courseId, userId, roleId);
-        return new ResponseEntity<>(course, HttpStatus.OK);
+        EnrollmentResultDTO enrollment = courseService.addUserToCourse(requester, courseId, userId, roleId);
+        HttpStatus status = enrollment.getStatus() == EnrollmentResultDTO.Status.WAITLISTED ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return new ResponseEntity<>(enrollment, status);
     }
 
     @DeleteMapping("/{courseId}/user/{userId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_USER) and hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_USER, T(com.example.campus.util.Permissions).WRITE_COURSE)")
     public ResponseEntity<Course> removeUserFromCourse(@PathVariable Long courseId, @PathVariable Long userId) {
         String requester = getRequester();
         log.info("Removing user ID: {} from course ID: {} requested by: {}", userId, courseId, requester);
@@ -114,16 +163,48 @@ public class CourseController extends BaseController {
     }
 
     @GetMapping("/{courseId}/users-roles")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
-    public ResponseEntity<List<UserRoleDTO>> getUsersAndRolesByCourseId(@PathVariable Long courseId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
+    public ResponseEntity<List<UserRoleDTO>> getUsersAndRolesByCourseId(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "REGISTRATION") UserRoleDTO.Sort sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size
+    ) {
         String requester = getRequester();
         log.info("Fetching users and roles for course ID: {} requested by: {}", courseId, requester);
-        List<UserRoleDTO> userRoleDTOs = courseService.getUsersAndRolesByCourseId(courseId);
+        Pageable pageable = size != null ? PageRequest.of(page != null ? page : 0, size) : Pageable.unpaged();
+        List<UserRoleDTO> userRoleDTOs = courseService.getUsersAndRolesByCourseId(courseId, sort, pageable);
         return new ResponseEntity<>(userRoleDTOs, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/{courseId}/users-roles", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
+    public ResponseEntity<StreamingResponseBody> streamUsersAndRolesByCourseId(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "REGISTRATION") UserRoleDTO.Sort sort
+    ) {
+        String requester = getRequester();
+        log.info("Streaming users and roles for course ID: {} requested by: {}", courseId, requester);
+        courseService.findCourseById(courseId);
+        StreamingResponseBody userRoleDTOs = output -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(output)) {
+                courseService.forEachUserAndRoleByCourseId(courseId, sort, userRoleDTO -> {
+                    try {
+                        writer.write(userRoleDTO);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(userRoleDTOs);
+    }
+
     @GetMapping("/{courseId}/users-with-role/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<User>> getUsersWithRole(@PathVariable Long courseId, @PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Fetching users with role ID: {} for course ID: {} requested by: {}", roleId, courseId, requester);
@@ -132,7 +213,7 @@ public class CourseController extends BaseController {
     }
 
     @GetMapping("/{courseId}/users-without-role/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<User>> getUsersWithoutRole(@PathVariable Long courseId, @PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Fetching users without role ID: {} for course ID: {} requested by: {}", roleId, courseId, requester);
@@ -140,39 +221,103 @@ public class CourseController extends BaseController {
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
+    @GetMapping("/{courseId}/users-with-role")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
+    public ResponseEntity<List<User>> getUsersWithRoles(
+            @PathVariable Long courseId,
+            @RequestParam("roleId") List<Long> roleIds,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        String requester = getRequester();
+        log.info("Fetching users with role IDs: {} for course ID: {} after user ID: {} requested by: {}", roleIds, courseId, after, requester);
+        List<User> users = courseService.getUsersWithRoles(courseId, roleIds, after, Cursor.resolveLimit(limit, false));
+        return new ResponseEntity<>(users, HttpStatus.OK);
+    }
+
+    @GetMapping("/{courseId}/users-without-role")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
+    public ResponseEntity<List<User>> getUsersWithoutRoles(
+            @PathVariable Long courseId,
+            @RequestParam("roleId") List<Long> roleIds,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        String requester = getRequester();
+        log.info("Fetching users without role IDs: {} for course ID: {} after user ID: {} requested by: {}", roleIds, courseId, after, requester);
+        List<User> users = courseService.getUsersWithoutRoles(courseId, roleIds, after, Cursor.resolveLimit(limit, false));
+        return new ResponseEntity<>(users, HttpStatus.OK);
+    }
+
     @PutMapping("/{courseId}/open")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
-    public ResponseEntity<Course> openCourse(@PathVariable Long courseId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<Void> openCourse(@PathVariable Long courseId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String requester = getRequester();
         log.info("Opening course with ID: {} requested by: {}", courseId, requester);
-        Course course = courseService.openCourse(requester, courseId);
-        return new ResponseEntity<>(course, HttpStatus.OK);
+        long version = courseService.openCourse(requester, courseId, parseIfMatch(ifMatch));
+        return noContent(version);
     }
 
     @PutMapping("/{courseId}/close")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
-    public ResponseEntity<Course> closeCourse(@PathVariable Long courseId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<Void> closeCourse(@PathVariable Long courseId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String requester = getRequester();
         log.info("Closing course with ID: {} requested by: {}", courseId, requester);
-        Course course = courseService.closeCourse(requester, courseId);
-        return new ResponseEntity<>(course, HttpStatus.OK);
+        long version = courseService.closeCourse(requester, courseId, parseIfMatch(ifMatch));
+        return noContent(version);
     }
 
     @PutMapping("/{courseId}/activate")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
-    public ResponseEntity<Course> activateCourse(@PathVariable Long courseId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<Void> activateCourse(@PathVariable Long courseId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String requester = getRequester();
         log.info("Activating course with ID: {} requested by: {}", courseId, requester);
-        Course course = courseService.activateCourse(requester, courseId);
-        return new ResponseEntity<>(course, HttpStatus.OK);
+        long version = courseService.activateCourse(requester, courseId, parseIfMatch(ifMatch));
+        return noContent(version);
     }
 
     @PutMapping("/{courseId}/deactivate")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_COURSE)")
-    public ResponseEntity<Course> deactivateCourse(@PathVariable Long courseId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<Void> deactivateCourse(@PathVariable Long courseId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String requester = getRequester();
         log.info("Deactivating course with ID: {} requested by: {}", courseId, requester);
-        Course course = courseService.deactivateCourse(requester, courseId);
-        return new ResponseEntity<>(course, HttpStatus.OK);
+        long version = courseService.deactivateCourse(requester, courseId, parseIfMatch(ifMatch));
+        return noContent(version);
+    }
+
+    @PutMapping("/bulk/open")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<BulkUpdateResultDTO> openCourses(@RequestBody BulkUpdateRequestDTO request) {
+        String requester = getRequester();
+        log.info("Bulk opening courses requested by: {}", requester);
+        BulkUpdateResultDTO result = bulkUpdateService.updateCourses(requester, BulkUpdateResultDTO.Action.OPEN, request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PutMapping("/bulk/close")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<BulkUpdateResultDTO> closeCourses(@RequestBody BulkUpdateRequestDTO request) {
+        String requester = getRequester();
+        log.info("Bulk closing courses requested by: {}", requester);
+        BulkUpdateResultDTO result = bulkUpdateService.updateCourses(requester, BulkUpdateResultDTO.Action.CLOSE, request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PutMapping("/bulk/activate")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<BulkUpdateResultDTO> activateCourses(@RequestBody BulkUpdateRequestDTO request) {
+        String requester = getRequester();
+        log.info("Bulk activating courses requested by: {}", requester);
+        BulkUpdateResultDTO result = bulkUpdateService.updateCourses(requester, BulkUpdateResultDTO.Action.ACTIVATE, request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PutMapping("/bulk/deactivate")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<BulkUpdateResultDTO> deactivateCourses(@RequestBody BulkUpdateRequestDTO request) {
+        String requester = getRequester();
+        log.info("Bulk deactivating courses requested by: {}", requester);
+        BulkUpdateResultDTO result = bulkUpdateService.updateCourses(requester, BulkUpdateResultDTO.Action.DEACTIVATE, request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
     }
 }
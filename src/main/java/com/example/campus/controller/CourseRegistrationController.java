@@ -0,0 +1,47 @@
+package com.example.campus.controller;
+
+import com.example.campus.dto.RegistrationDedupResultDTO;
+import com.example.campus.service.ExportService;
+import com.example.campus.service.RegistrationDedupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/registrations")
+@Slf4j
+public class CourseRegistrationController extends BaseController {
+    private final ExportService exportService;
+    private final RegistrationDedupService registrationDedupService;
+
+    public CourseRegistrationController(ExportService exportService, RegistrationDedupService registrationDedupService) {
+        this.exportService = exportService;
+        this.registrationDedupService = registrationDedupService;
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
+    public ResponseEntity<StreamingResponseBody> exportRegistrations() {
+        String requester = getRequester();
+        log.info("Exporting course registrations requested by: {}", requester);
+        StreamingResponseBody registrations = exportService::exportRegistrations;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(registrations);
+    }
+
+    @PostMapping("/dedup")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_COURSE)")
+    public ResponseEntity<RegistrationDedupResultDTO> deduplicateRegistrations(@RequestParam(required = false) Long after) {
+        String requester = getRequester();
+        log.info("Removing duplicate course registrations requested by: {}", requester);
+        RegistrationDedupResultDTO result = registrationDedupService.deduplicate(requester, after);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
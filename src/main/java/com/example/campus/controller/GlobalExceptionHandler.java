@@ -4,10 +4,15 @@ import com.example.campus.exception.*;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.mail.MailException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -23,6 +28,20 @@ public class GlobalExceptionHandler {
     @Value("${app.support.email}")
     private String supportEmail;
 
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDeniedException(AccessDeniedException exception) {
+        log.error("Access denied: {}", exception.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("Access denied", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException exception) {
+        log.error("Authentication failed: {}", exception.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("Authentication failed", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException exception) {
         log.error("Validation error: {}", exception.getMessage(), exception);
@@ -36,6 +55,13 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException exception) {
+        log.error("Conflicting write: {}", exception.getMostSpecificCause().getMessage(), exception);
+        ErrorResponse errorResponse = new ErrorResponse("Conflicting write", "The request conflicts with existing data");
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(Exception exception) {
         log.error("An error occurred: {}", exception.getMessage(), exception);
@@ -50,6 +76,34 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidBulkUpdateException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBulkUpdateException(InvalidBulkUpdateException exception) {
+        log.error("Invalid bulk update: {}", exception.getMessage(), exception);
+        ErrorResponse errorResponse = new ErrorResponse("Invalid bulk update", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException exception) {
+        log.error("Invalid cursor: {}", exception.getMessage(), exception);
+        ErrorResponse errorResponse = new ErrorResponse("Invalid cursor", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportException(InvalidImportException exception) {
+        log.error("Invalid import: {}", exception.getMessage(), exception);
+        ErrorResponse errorResponse = new ErrorResponse("Invalid import", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidLimitException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidLimitException(InvalidLimitException exception) {
+        log.error("Invalid limit: {}", exception.getMessage(), exception);
+        ErrorResponse errorResponse = new ErrorResponse("Invalid limit", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(InvalidTokenException.class)
     public ResponseEntity<ErrorResponse> handleInvalidTokenException(InvalidTokenException exception) {
         log.error("Invalid token: {}", exception.getMessage(), exception);
@@ -85,6 +139,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException exception) {
+        log.warn("Password hashing unavailable: {}", exception.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse("Service unavailable", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(PermissionNotFoundException.class)
     public ResponseEntity<ErrorResponse> handlePermissionNotFoundException(PermissionNotFoundException exception) {
         log.error("Permission not found: {}", exception.getMessage(), exception);
@@ -92,6 +155,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception) {
+        log.error("Concurrent modification: {}", exception.getMessage(), exception);
+        ErrorResponse errorResponse = new ErrorResponse("Concurrent modification", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException exception) {
+        log.warn("Rate limit exceeded: {}", exception.getMessage());
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        ErrorResponse errorResponse = new ErrorResponse("Rate limit exceeded", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(RoleNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleRoleNotFoundException(RoleNotFoundException exception) {
         log.error("Role not found: {}", exception.getMessage(), exception);
@@ -119,4 +199,11 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse("User not found", exception.getMessage());
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(VersionMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleVersionMismatchException(VersionMismatchException exception) {
+        log.error("Version mismatch: {}", exception.getMessage(), exception);
+        ErrorResponse errorResponse = new ErrorResponse("Version mismatch", exception.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
 }
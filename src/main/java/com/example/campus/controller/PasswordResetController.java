@@ -1,6 +1,8 @@
 package com.example.campus.controller;
 
 import com.example.campus.service.PasswordResetService;
+import com.example.campus.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,19 +14,23 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/password-resets")
 public class PasswordResetController {
     private final PasswordResetService passwordResetService;
+    private final RateLimiter rateLimiter;
 
-    public PasswordResetController(PasswordResetService passwordResetService) {
+    public PasswordResetController(PasswordResetService passwordResetService, RateLimiter rateLimiter) {
         this.passwordResetService = passwordResetService;
+        this.rateLimiter = rateLimiter;
     }
 
     @PostMapping("/request/{username}")
-    public ResponseEntity<?> createPasswordResetToken(@PathVariable String username) {
+    public ResponseEntity<?> createPasswordResetToken(@PathVariable String username, HttpServletRequest request) {
+        rateLimiter.acquire(request.getRemoteAddr(), username);
         passwordResetService.createPasswordResetTokenForUser(username);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @PostMapping("/reset/{token}/{newPassword}")
-    public ResponseEntity<?> resetPassword(@PathVariable String token, @PathVariable String newPassword) {
+    public ResponseEntity<?> resetPassword(@PathVariable String token, @PathVariable String newPassword, HttpServletRequest request) {
+        rateLimiter.acquire(request.getRemoteAddr(), null);
         passwordResetService.resetPassword(token, newPassword);
         return new ResponseEntity<>(HttpStatus.OK);
     }
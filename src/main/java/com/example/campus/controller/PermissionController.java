@@ -1,9 +1,12 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.Permission;
 import com.example.campus.service.PermissionService;
+import com.example.campus.util.Cursor;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,16 +26,20 @@ public class PermissionController extends BaseController {
     }
 
     @GetMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_PERMISSION)")
-    public ResponseEntity<List<Permission>> getAllPermissions() {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_PERMISSION)")
+    public ResponseEntity<?> getAllPermissions(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
         String requester = getRequester();
-        log.info("Fetching all permissions requested by: {}", requester);
-        List<Permission> permissions = permissionService.findAllPermissions();
-        return new ResponseEntity<>(permissions, HttpStatus.OK);
+        log.info("Fetching permissions after cursor: {} requested by: {}", after, requester);
+        CursorPageDTO<Permission> permissions = permissionService.findAllPermissions(after, Cursor.resolveLimit(limit, unpaged));
+        return pageOrList(permissions, unpaged);
     }
 
     @PostMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_PERMISSION)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_PERMISSION)")
     public ResponseEntity<Permission> createPermission(@Valid @RequestBody Permission permission) {
         String requester = getRequester();
         log.info("Creating permission with name: {} requested by: {}", permission.getName(), requester);
@@ -41,25 +48,29 @@ public class PermissionController extends BaseController {
     }
 
     @GetMapping("/{permissionId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_PERMISSION)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_PERMISSION)")
     public ResponseEntity<Permission> getPermissionById(@PathVariable Long permissionId) {
         String requester = getRequester();
         log.info("Fetching permission with ID: {} requested by: {}", permissionId, requester);
         Permission permission = permissionService.findPermissionById(permissionId);
-        return new ResponseEntity<>(permission, HttpStatus.OK);
+        return withETag(permission, HttpStatus.OK);
     }
 
     @PutMapping("/{permissionId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_PERMISSION)")
-    public ResponseEntity<Permission> updatePermission(@PathVariable Long permissionId, @RequestBody Permission permissionDetails) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_PERMISSION)")
+    public ResponseEntity<Permission> updatePermission(
+            @PathVariable Long permissionId,
+            @RequestBody Permission permissionDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         String requester = getRequester();
         log.info("Updating permission with ID: {} requested by: {}", permissionId, requester);
-        Permission updatedPermission = permissionService.updatePermission(requester, permissionId, permissionDetails);
-        return new ResponseEntity<>(updatedPermission, HttpStatus.OK);
+        Permission updatedPermission = permissionService.updatePermission(requester, permissionId, permissionDetails, parseIfMatch(ifMatch));
+        return withETag(updatedPermission, HttpStatus.OK);
     }
 
     @DeleteMapping("/{permissionId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_PERMISSION)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_PERMISSION)")
     public ResponseEntity<Void> deletePermission(@PathVariable Long permissionId) {
         String requester = getRequester();
         log.info("Deleting permission with ID: {} requested by: {}", permissionId, requester);
@@ -1,10 +1,13 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.Permission;
 import com.example.campus.entity.Role;
 import com.example.campus.service.RoleService;
+import com.example.campus.util.Cursor;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,16 +26,20 @@ public class RoleController extends BaseController {
     }
 
     @GetMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE)")
-    public ResponseEntity<List<Role>> getAllRoles() {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_ROLE)")
+    public ResponseEntity<?> getAllRoles(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
         String requester = getRequester();
-        log.info("Fetching all roles requested by: {}", requester);
-        List<Role> roles = roleService.findAllRoles();
-        return new ResponseEntity<>(roles, HttpStatus.OK);
+        log.info("Fetching roles after cursor: {} requested by: {}", after, requester);
+        CursorPageDTO<Role> roles = roleService.findAllRoles(after, Cursor.resolveLimit(limit, unpaged));
+        return pageOrList(roles, unpaged);
     }
 
     @PostMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_ROLE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_ROLE)")
     public ResponseEntity<Role> createRole(@Valid @RequestBody Role role) {
         String requester = getRequester();
         log.info("Creating role with name: {} requested by: {}", role.getName(), requester);
@@ -41,25 +48,29 @@ public class RoleController extends BaseController {
     }
 
     @GetMapping("/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_ROLE)")
     public ResponseEntity<Role> getRoleById(@PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Fetching role with ID: {} requested by: {}", roleId, requester);
         Role role = roleService.findRoleById(roleId);
-        return new ResponseEntity<>(role, HttpStatus.OK);
+        return withETag(role, HttpStatus.OK);
     }
 
     @PutMapping("/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_ROLE)")
-    public ResponseEntity<Role> updateRole(@PathVariable Long roleId, @RequestBody Role roleDetails) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_ROLE)")
+    public ResponseEntity<Role> updateRole(
+            @PathVariable Long roleId,
+            @RequestBody Role roleDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         String requester = getRequester();
         log.info("Updating role with ID: {} requested by: {}", roleId, requester);
-        Role updatedRole = roleService.updateRole(requester, roleId, roleDetails);
-        return new ResponseEntity<>(updatedRole, HttpStatus.OK);
+        Role updatedRole = roleService.updateRole(requester, roleId, roleDetails, parseIfMatch(ifMatch));
+        return withETag(updatedRole, HttpStatus.OK);
     }
 
     @DeleteMapping("/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_ROLE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_ROLE)")
     public ResponseEntity<Void> deleteRole(@PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Deleting role with ID: {} requested by: {}", roleId, requester);
@@ -68,7 +79,7 @@ public class RoleController extends BaseController {
     }
 
     @GetMapping("/{roleId}/permissions")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_PERMISSION) and hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_PERMISSION, T(com.example.campus.util.Permissions).READ_ROLE)")
     public ResponseEntity<List<Permission>> getPermissionsByRoleId(@PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Fetching permissions for role with ID: {} requested by: {}", roleId, requester);
@@ -77,7 +88,7 @@ public class RoleController extends BaseController {
     }
 
     @PostMapping("/{roleId}/permission/{permissionId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_PERMISSION) and hasAuthority(T(com.example.campus.util.Permissions).WRITE_ROLE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_PERMISSION, T(com.example.campus.util.Permissions).WRITE_ROLE)")
     public ResponseEntity<Role> addPermissionToRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
         String requester = getRequester();
         log.info("Adding permission with ID: {} to role with ID: {} requested by: {}", permissionId, roleId, requester);
@@ -86,7 +97,7 @@ public class RoleController extends BaseController {
     }
 
     @DeleteMapping("/{roleId}/permission/{permissionId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_PERMISSION) and hasAuthority(T(com.example.campus.util.Permissions).WRITE_ROLE)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_PERMISSION, T(com.example.campus.util.Permissions).WRITE_ROLE)")
     public ResponseEntity<Role> removePermissionFromRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
         String requester = getRequester();
         log.info("Removing permission with ID: {} from role with ID: {} requested by: {}", permissionId, roleId, requester);
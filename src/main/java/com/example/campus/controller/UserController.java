@@ -1,17 +1,30 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.BulkUpdateRequestDTO;
+import com.example.campus.dto.BulkUpdateResultDTO;
 import com.example.campus.dto.CourseRoleDTO;
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.Course;
 import com.example.campus.entity.Permission;
 import com.example.campus.entity.User;
+import com.example.campus.service.BulkUpdateService;
+import com.example.campus.service.ExportService;
+import com.example.campus.service.UserImportService;
 import com.example.campus.service.UserService;
+import com.example.campus.util.Cursor;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,48 +32,82 @@ import java.util.List;
 @Slf4j
 public class UserController extends BaseController {
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ExportService exportService;
+    private final BulkUpdateService bulkUpdateService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService, ExportService exportService, BulkUpdateService bulkUpdateService) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.exportService = exportService;
+        this.bulkUpdateService = bulkUpdateService;
     }
 
     @GetMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
-    public ResponseEntity<List<User>> getAllUsers() {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_USER)")
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unpaged
+    ) {
         String requester = getRequester();
-        log.info("Fetching all users requested by: {}", requester);
-        List<User> users = userService.findAllUsers();
-        return new ResponseEntity<>(users, HttpStatus.OK);
+        log.info("Fetching users after cursor: {} requested by: {}", after, requester);
+        CursorPageDTO<User> users = userService.findAllUsers(after, Cursor.resolveLimit(limit, unpaged));
+        return pageOrList(users, unpaged);
     }
 
     @PostMapping
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
     public ResponseEntity<User> createUser(@Valid @RequestBody User user) {
         String requester = getRequester();
         log.info("Creating user with username: {} requested by: {}", user.getUsername(), requester);
         User createdUser = userService.createUser(requester, user);
         return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
     }
+
+    @PostMapping(value = "/bulk", consumes = {UserImportService.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
+    public ResponseEntity<StreamingResponseBody> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, HttpServletRequest request) throws IOException {
+        String requester = getRequester();
+        log.info("Importing users from {} requested by: {}", contentType, requester);
+        InputStream body = request.getInputStream();
+        StreamingResponseBody results = userImportService.openImport(requester, contentType, body)::writeTo;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(results);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_USER)")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        String requester = getRequester();
+        log.info("Exporting users requested by: {}", requester);
+        StreamingResponseBody users = exportService::exportUsers;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(users);
+    }
+
     @GetMapping("/{userId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<User> getUserById(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching user with ID: {} requested by: {}", userId, requester);
         User user = userService.findUserById(userId);
-        return new ResponseEntity<>(user, HttpStatus.OK);
+        return withETag(user, HttpStatus.OK);
     }
 
     @PutMapping("/{userId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_USER)")
-    public ResponseEntity<User> updateUser(@PathVariable Long userId, @RequestBody User userDetails) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
+    public ResponseEntity<User> updateUser(
+            @PathVariable Long userId,
+            @RequestBody User userDetails,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         String requester = getRequester();
         log.info("Updating user with ID: {} requested by: {}", userId, requester);
-        User updatedUser = userService.updateUser(requester, userId, userDetails);
-        return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+        User updatedUser = userService.updateUser(requester, userId, userDetails, parseIfMatch(ifMatch));
+        return withETag(updatedUser, HttpStatus.OK);
     }
 
     @DeleteMapping("/{userId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
     public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Deleting user with ID: {} requested by: {}", userId, requester);
@@ -69,7 +116,7 @@ public class UserController extends BaseController {
     }
 
     @GetMapping("/{userId}/courses")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<Course>> getCoursesByUserId(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching courses for user ID: {} requested by: {}", userId, requester);
@@ -78,7 +125,7 @@ public class UserController extends BaseController {
     }
 
     @GetMapping("/{userId}/courses-active")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<Course>> getActiveCoursesByUserId(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching active courses for user ID: {} requested by: {}", userId, requester);
@@ -87,7 +134,7 @@ public class UserController extends BaseController {
     }
 
     @GetMapping("/{userId}/courses-open")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<Course>> getOpenCoursesByUserId(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching open courses for user ID: {} requested by: {}", userId, requester);
@@ -96,7 +143,7 @@ public class UserController extends BaseController {
     }
 
     @GetMapping("/{userId}/courses-roles")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<CourseRoleDTO>> getCoursesAndRolesByUserId(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching courses and roles for user ID: {} requested by: {}", userId, requester);
@@ -105,7 +152,7 @@ public class UserController extends BaseController {
     }
 
     @GetMapping("/{userId}/courses-roles-active")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<CourseRoleDTO>> getActiveCoursesAndRolesByUserId(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching active courses and roles for user ID: {} requested by: {}", userId, requester);
@@ -114,7 +161,7 @@ public class UserController extends BaseController {
     }
 
     @GetMapping("/{userId}/courses-roles-open")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_COURSE) and hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_COURSE, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<CourseRoleDTO>> getOpenCoursesAndRolesByUserId(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching open courses and roles for user ID: {} requested by: {}", userId, requester);
@@ -123,7 +170,7 @@ public class UserController extends BaseController {
     }
 
     @GetMapping("/{userId}/permissions")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_PERMISSION) and hasAuthority(T(com.example.campus.util.Permissions).READ_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_PERMISSION, T(com.example.campus.util.Permissions).READ_USER)")
     public ResponseEntity<List<Permission>> getPermissionsByUserId(@PathVariable Long userId) {
         String requester = getRequester();
         log.info("Fetching permissions for user ID: {} requested by: {}", userId, requester);
@@ -132,7 +179,7 @@ public class UserController extends BaseController {
     }
 
     @PostMapping("/{userId}/role/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).WRITE_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).WRITE_USER)")
     public ResponseEntity<User> addRoleToUser(@PathVariable Long userId, @PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Adding role ID: {} to user ID: {} requested by: {}", roleId, userId, requester);
@@ -141,7 +188,7 @@ public class UserController extends BaseController {
     }
 
     @DeleteMapping("/{userId}/role/{roleId}")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).READ_ROLE) and hasAuthority(T(com.example.campus.util.Permissions).WRITE_USER)")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).READ_ROLE, T(com.example.campus.util.Permissions).WRITE_USER)")
     public ResponseEntity<User> removeRoleFromUser(@PathVariable Long userId, @PathVariable Long roleId) {
         String requester = getRequester();
         log.info("Removing role ID: {} from user ID: {} requested by: {}", roleId, userId, requester);
@@ -150,20 +197,38 @@ public class UserController extends BaseController {
     }
 
     @PutMapping("/{userId}/activate")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_USER)")
-    public ResponseEntity<User> activateUser(@PathVariable Long userId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
+    public ResponseEntity<Void> activateUser(@PathVariable Long userId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String requester = getRequester();
         log.info("Activating user with ID: {} requested by: {}", userId, requester);
-        User user = userService.activateUser(requester, userId);
-        return new ResponseEntity<>(user, HttpStatus.OK);
+        long version = userService.activateUser(requester, userId, parseIfMatch(ifMatch));
+        return noContent(version);
     }
 
     @PutMapping("/{userId}/deactivate")
-    @PreAuthorize("hasAuthority(T(com.example.campus.util.Permissions).WRITE_USER)")
-    public ResponseEntity<User> deactivateUser(@PathVariable Long userId) {
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
+    public ResponseEntity<Void> deactivateUser(@PathVariable Long userId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         String requester = getRequester();
         log.info("Deactivating user with ID: {} requested by: {}", userId, requester);
-        User user = userService.deactivateUser(requester, userId);
-        return new ResponseEntity<>(user, HttpStatus.OK);
+        long version = userService.deactivateUser(requester, userId, parseIfMatch(ifMatch));
+        return noContent(version);
+    }
+
+    @PutMapping("/bulk/activate")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
+    public ResponseEntity<BulkUpdateResultDTO> activateUsers(@RequestBody BulkUpdateRequestDTO request) {
+        String requester = getRequester();
+        log.info("Bulk activating users requested by: {}", requester);
+        BulkUpdateResultDTO result = bulkUpdateService.updateUsers(requester, BulkUpdateResultDTO.Action.ACTIVATE, request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PutMapping("/bulk/deactivate")
+    @PreAuthorize("@permissionGuard.hasAll(authentication, T(com.example.campus.util.Permissions).WRITE_USER)")
+    public ResponseEntity<BulkUpdateResultDTO> deactivateUsers(@RequestBody BulkUpdateRequestDTO request) {
+        String requester = getRequester();
+        log.info("Bulk deactivating users requested by: {}", requester);
+        BulkUpdateResultDTO result = bulkUpdateService.updateUsers(requester, BulkUpdateResultDTO.Action.DEACTIVATE, request);
+        return new ResponseEntity<>(result, HttpStatus.OK);
     }
 }
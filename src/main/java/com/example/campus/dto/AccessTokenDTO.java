@@ -0,0 +1,14 @@
+package com.example.campus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class AccessTokenDTO {
+    private String accessToken;
+    private String tokenType;
+    private long expiresIn;
+}
@@ -0,0 +1,18 @@
+package com.example.campus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class BulkUpdateRequestDTO {
+    private List<Long> ids;
+    private LocalDateTime endedBefore;
+    private Boolean withoutActiveCourses;
+    private Long after;
+}
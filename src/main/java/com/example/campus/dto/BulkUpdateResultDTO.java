@@ -0,0 +1,22 @@
+package com.example.campus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class BulkUpdateResultDTO {
+    private Action action;
+    private long updated;
+    private int chunks;
+    private Long lastId;
+
+    public enum Action {
+        ACTIVATE,
+        DEACTIVATE,
+        OPEN,
+        CLOSE
+    }
+}
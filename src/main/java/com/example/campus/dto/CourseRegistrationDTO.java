@@ -0,0 +1,18 @@
+package com.example.campus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class CourseRegistrationDTO {
+    private Long id;
+    private Long userId;
+    private String username;
+    private Long courseId;
+    private String courseName;
+    private Long roleId;
+    private String roleName;
+}
@@ -1,8 +1,12 @@
 package com.example.campus.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+@AllArgsConstructor
 @Data
+@NoArgsConstructor
 public class CourseRoleDTO {
     private Long courseId;
     private String courseName;
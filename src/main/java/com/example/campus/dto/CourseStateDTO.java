@@ -0,0 +1,16 @@
+package com.example.campus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class CourseStateDTO {
+    private Long version;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+}
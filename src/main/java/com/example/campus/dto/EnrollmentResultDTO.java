@@ -0,0 +1,19 @@
+package com.example.campus.dto;
+
+import com.example.campus.entity.Course;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class EnrollmentResultDTO {
+    private Status status;
+    private Course course;
+
+    public enum Status {
+        ENROLLED,
+        WAITLISTED
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.campus.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class LoginRequestDTO {
+    @NotBlank
+    private String username;
+    @NotBlank
+    private String password;
+}
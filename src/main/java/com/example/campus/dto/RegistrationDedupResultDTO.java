@@ -0,0 +1,14 @@
+package com.example.campus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+public class RegistrationDedupResultDTO {
+    private long removed;
+    private int chunks;
+    private Long lastUserId;
+}
@@ -0,0 +1,19 @@
+package com.example.campus.dto;
+
+import lombok.Data;
+
+@Data
+public class UserImportResultDTO {
+    private long row;
+    private Status status;
+    private String nationalId;
+    private String username;
+    private String message;
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.campus.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+@AllArgsConstructor
 @Data
+@NoArgsConstructor
 public class UserRoleDTO {
     private Long userId;
     private String username;
@@ -11,4 +15,9 @@ public class UserRoleDTO {
     private String secondSurname;
     private Long roleId;
     private String roleName;
+
+    public enum Sort {
+        REGISTRATION,
+        SURNAME
+    }
 }
@@ -1,23 +1,29 @@
 package com.example.campus.entity;
 
+import com.example.campus.exception.VersionMismatchException;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.PastOrPresent;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
 @Getter
 @Setter
+@EntityListeners(AuditingEntityListener.class)
 @MappedSuperclass
 public abstract class Auditable {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "created_at")
@@ -42,15 +48,15 @@ public abstract class Auditable {
     @LastModifiedBy
     private String updatedBy;
 
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    @Version
+    private Long version;
 
-    @PrePersist
-    protected void onCreate() {
-        this.createdAt = LocalDateTime.now();
-    }
-
-    @PreUpdate
-    protected void onUpdate() {
-        this.updatedAt = LocalDateTime.now();
+    public void requireVersion(Long expectedVersion) throws VersionMismatchException {
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            throw new VersionMismatchException("Expected version " + expectedVersion + " but found " + version);
+        }
     }
-
 }
@@ -0,0 +1,55 @@
+package com.example.campus.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "change_history", indexes = {
+        @Index(name = "idx_change_history_entity", columnList = "entity_type, entity_id, changed_at, id"),
+        @Index(name = "idx_change_history_changed_at", columnList = "changed_at, id")
+})
+public class ChangeHistory {
+    public static final int MAX_VALUE_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 50)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Action action;
+
+    @Column(length = 50)
+    private String field;
+
+    @Column(name = "old_value", length = MAX_VALUE_LENGTH)
+    private String oldValue;
+
+    @Column(name = "new_value", length = MAX_VALUE_LENGTH)
+    private String newValue;
+
+    @Column(name = "changed_by")
+    private String changedBy;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
@@ -2,10 +2,13 @@ package com.example.campus.entity;
 
 import com.example.campus.validation.EndDateAfterStartDate;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,7 +19,10 @@ import java.util.List;
 @Entity
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+        @Index(name = "idx_courses_name", columnList = "name, id"),
+        @Index(name = "idx_courses_active_name", columnList = "is_active, name, id")
+})
 public class Course extends Auditable {
     @NotBlank
     @Size(max = 100)
@@ -35,6 +41,15 @@ public class Course extends Auditable {
     @Builder.Default
     private Boolean isActive = true;
 
+    @PositiveOrZero
+    private Integer capacity;
+
+    @Column(name = "seats_taken", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Builder.Default
+    private Integer seatsTaken = 0;
+
     @JsonIgnore
     public List<User> getUsers() {
         List<User> users = new ArrayList<>();
@@ -43,24 +58,4 @@ public class Course extends Auditable {
         }
         return users;
     }
-
-    public List<User> getUsersWithRole(Long roleId) {
-        List<User> users = new ArrayList<>();
-        for (CourseRegistration registration : registrations) {
-            if (registration.getRole().getId().equals(roleId)) {
-                users.add(registration.getUser());
-            }
-        }
-        return users;
-    }
-
-    public List<User> getUsersWithoutRole(Long roleId) {
-        List<User> users = new ArrayList<>();
-        for (CourseRegistration registration : registrations) {
-            if (!registration.getRole().getId().equals(roleId)) {
-                users.add(registration.getUser());
-            }
-        }
-        return users;
-    }
 }
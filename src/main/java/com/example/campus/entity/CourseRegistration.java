@@ -1,9 +1,11 @@
 package com.example.campus.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -11,7 +13,11 @@ import lombok.ToString;
 @Data
 @Entity
 @EqualsAndHashCode(callSuper = false)
-@Table(name = "course_registrations")
+@Table(
+        name = "course_registrations",
+        indexes = @Index(name = "idx_course_registrations_course_role", columnList = "course_id, role_id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_course_registrations_user_course", columnNames = {"user_id", "course_id"})
+)
 public class CourseRegistration extends Auditable {
     @ManyToOne
     @JoinColumn(name = "user_id")
@@ -0,0 +1,35 @@
+package com.example.campus.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@EqualsAndHashCode(callSuper = false)
+@Table(
+        name = "course_waitlist",
+        indexes = @Index(name = "idx_course_waitlist_course_requested", columnList = "course_id, requested_at, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_course_waitlist_course_user", columnNames = {"course_id", "user_id"})
+)
+public class CourseWaitlistEntry extends Auditable {
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    private User user;
+
+    @ManyToOne
+    @JoinColumn(name = "course_id", nullable = false)
+    @ToString.Exclude
+    private Course course;
+
+    @ManyToOne
+    @JoinColumn(name = "role_id")
+    private Role role;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+}
@@ -11,11 +11,17 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @EqualsAndHashCode(callSuper = false)
-@Table(name = "password_reset_tokens")
+@Table(
+        name = "password_reset_tokens",
+        indexes = @Index(name = "idx_password_reset_tokens_expiry", columnList = "expiry_date, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_password_reset_tokens_token_hash", columnNames = "token_hash")
+)
 public class PasswordResetToken extends Auditable {
+    public static final int TOKEN_HASH_LENGTH = 64;
+
     @NotBlank
-    @Column(nullable = false, length = 60)
-    private String token;
+    @Column(name = "token_hash", nullable = false, length = TOKEN_HASH_LENGTH, columnDefinition = "char(64)")
+    private String tokenHash;
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
@@ -2,6 +2,7 @@ package com.example.campus.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
@@ -15,7 +16,7 @@ import java.util.List;
 @Data
 @Entity
 @EqualsAndHashCode(callSuper = false)
-@Table(name = "permissions")
+@Table(name = "permissions", indexes = @Index(name = "idx_permissions_name", columnList = "name, id"))
 public class Permission extends Auditable {
     @NotBlank
     @Size(max = 100)
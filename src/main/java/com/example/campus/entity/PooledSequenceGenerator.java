@@ -0,0 +1,23 @@
+package com.example.campus.entity;
+
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// Keeps the implicit per-entity sequence (users_seq, courses_seq, ...) that a plain
+// @GeneratedValue(strategy = SEQUENCE) would use, but with the allocation size fixed by the annotation.
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    private final int allocationSize;
+
+    public PooledSequenceGenerator(PooledSequence config) {
+        this.allocationSize = config.allocationSize();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.campus.entity;
 
+import com.example.campus.util.PermissionSet;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,7 +17,7 @@ import java.util.List;
 @Entity
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
-@Table(name = "roles")
+@Table(name = "roles", indexes = @Index(name = "idx_roles_name", columnList = "name, id"))
 public class Role extends Auditable {
     @NotBlank
     @Size(max = 100)
@@ -28,6 +30,7 @@ public class Role extends Auditable {
             inverseJoinColumns = @JoinColumn(name = "permission_id")
     )
     @JsonIgnore
+    @OptimisticLock(excluded = true)
     private List<Permission> permissions = new ArrayList<>();
 
     @OneToMany(mappedBy = "role")
@@ -37,4 +40,9 @@ public class Role extends Auditable {
     @ManyToMany(mappedBy = "roles")
     @JsonIgnore
     private List<User> users = new ArrayList<>();
+
+    @JsonIgnore
+    public PermissionSet getPermissionSet() {
+        return PermissionSet.ofPermissions(permissions);
+    }
 }
@@ -9,10 +9,13 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @AllArgsConstructor
 @Builder
@@ -20,7 +23,11 @@ import java.util.List;
 @Entity
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
-@Table(name = "users", uniqueConstraints = @UniqueConstraint(columnNames = "username"))
+@Table(
+        name = "users",
+        uniqueConstraints = @UniqueConstraint(columnNames = "username"),
+        indexes = @Index(name = "idx_users_national_id", columnList = "national_id, country")
+)
 @Slf4j
 public class User extends Auditable {
     @Column(length = 50, nullable = false)
@@ -75,6 +82,7 @@ public class User extends Auditable {
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
     @JsonIgnore
+    @OptimisticLock(excluded = true)
     @ToString.Exclude
     private List<Role> roles = new ArrayList<>();
 
@@ -112,21 +120,21 @@ public class User extends Auditable {
     }
 
     @JsonIgnore
-    public List<Permission> getPermissions() {
-        log.info("Fetching permissions for user: {}", this);
-        List<Permission> permissions = new ArrayList<>();
-        log.info("Fetching permissions for roles: {}", roles);
-        for (Role role : roles) {
-            log.info("Fetching permissions for role: {}", role);
-            permissions.addAll(role.getPermissions());
-        }
+    public Set<Role> getEffectiveRoles() {
+        Set<Role> effectiveRoles = new LinkedHashSet<>(roles);
         for (CourseRegistration registration : registrations) {
-            log.info("Fetching permissions for registration: {}", registration);
-            Role role = registration.getRole();
-            log.info("Fetching permissions for role: {}", role);
+            effectiveRoles.add(registration.getRole());
+        }
+        return effectiveRoles;
+    }
+
+    @JsonIgnore
+    public List<Permission> getPermissions() {
+        Set<Permission> permissions = new LinkedHashSet<>();
+        for (Role role : getEffectiveRoles()) {
             permissions.addAll(role.getPermissions());
         }
-        log.info("Returning permissions: {}", permissions);
-        return permissions;
+        log.debug("Resolved {} permissions for user: {}", permissions.size(), username);
+        return new ArrayList<>(permissions);
     }
 }
@@ -0,0 +1,7 @@
+package com.example.campus.exception;
+
+public class InvalidBulkUpdateException extends RuntimeException {
+    public InvalidBulkUpdateException(String message) {
+        super(message);
+    }
+}
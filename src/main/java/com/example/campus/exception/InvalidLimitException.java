@@ -0,0 +1,7 @@
+package com.example.campus.exception;
+
+public class InvalidLimitException extends RuntimeException {
+    public InvalidLimitException(String message) {
+        super(message);
+    }
+}
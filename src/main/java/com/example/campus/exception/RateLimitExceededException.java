@@ -0,0 +1,18 @@
+package com.example.campus.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends AuthenticationException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
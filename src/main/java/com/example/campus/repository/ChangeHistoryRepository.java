@@ -0,0 +1,37 @@
+package com.example.campus.repository;
+
+import com.example.campus.entity.ChangeHistory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeHistoryRepository extends JpaRepository<ChangeHistory, Long> {
+    String IN_RANGE_AFTER_CURSOR = "h.changedAt >= :from AND h.changedAt < :to AND " +
+            "(h.changedAt > :at OR (h.changedAt = :at AND h.id > :id)) ORDER BY h.changedAt, h.id";
+
+    @Query("SELECT h FROM ChangeHistory h WHERE h.entityType = :entityType AND h.entityId = :entityId AND " + IN_RANGE_AFTER_CURSOR)
+    List<ChangeHistory> findByEntityAfter(
+            @Param("entityType") String entityType,
+            @Param("entityId") Long entityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("at") LocalDateTime at,
+            @Param("id") long id,
+            Limit limit
+    );
+
+    @Query("SELECT h FROM ChangeHistory h WHERE " + IN_RANGE_AFTER_CURSOR)
+    List<ChangeHistory> findAfter(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("at") LocalDateTime at,
+            @Param("id") long id,
+            Limit limit
+    );
+}
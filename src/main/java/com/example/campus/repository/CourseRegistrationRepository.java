@@ -1,9 +1,67 @@
 package com.example.campus.repository;
 
+import com.example.campus.dto.CourseRegistrationDTO;
+import com.example.campus.dto.UserRoleDTO;
 import com.example.campus.entity.CourseRegistration;
+import com.example.campus.entity.Role;
+import com.example.campus.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CourseRegistrationRepository extends JpaRepository<CourseRegistration, Long> {
+    String USER_ROLES_BY_COURSE = "SELECT new com.example.campus.dto.UserRoleDTO(u.id, u.username, u.name, u.firstSurname, u.secondSurname, r.id, r.name) " +
+            "FROM CourseRegistration cr JOIN cr.user u LEFT JOIN cr.role r WHERE cr.course.id = :courseId ";
+    String BY_REGISTRATION = "ORDER BY cr.id";
+    String BY_SURNAME = "ORDER BY u.firstSurname, u.secondSurname, u.name, cr.id";
+    String FETCH_SIZE = "500";
+
+    @Query("SELECT DISTINCT u FROM CourseRegistration cr JOIN cr.user u " +
+            "WHERE cr.course.id = :courseId AND cr.role.id IN :roleIds AND u.id > :afterUserId ORDER BY u.id")
+    List<User> findUsersByCourseIdAndRoleIdIn(@Param("courseId") Long courseId, @Param("roleIds") Collection<Long> roleIds, @Param("afterUserId") long afterUserId, Limit limit);
+    @Query("SELECT DISTINCT u FROM CourseRegistration cr JOIN cr.user u " +
+            "WHERE cr.course.id = :courseId AND (cr.role.id IS NULL OR cr.role.id NOT IN :roleIds) AND u.id > :afterUserId ORDER BY u.id")
+    List<User> findUsersByCourseIdAndRoleIdNotIn(@Param("courseId") Long courseId, @Param("roleIds") Collection<Long> roleIds, @Param("afterUserId") long afterUserId, Limit limit);
+    @Query(USER_ROLES_BY_COURSE + BY_REGISTRATION)
+    List<UserRoleDTO> findUserRolesByCourseId(@Param("courseId") Long courseId, Pageable pageable);
+    @Query(USER_ROLES_BY_COURSE + BY_SURNAME)
+    List<UserRoleDTO> findUserRolesByCourseIdOrderBySurname(@Param("courseId") Long courseId, Pageable pageable);
+    @Query(USER_ROLES_BY_COURSE + BY_REGISTRATION)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE))
+    Stream<UserRoleDTO> streamUserRolesByCourseId(@Param("courseId") Long courseId);
+    @Query(USER_ROLES_BY_COURSE + BY_SURNAME)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE))
+    Stream<UserRoleDTO> streamUserRolesByCourseIdOrderBySurname(@Param("courseId") Long courseId);
+    @Query("SELECT new com.example.campus.dto.CourseRegistrationDTO(cr.id, u.id, u.username, c.id, c.name, r.id, r.name) " +
+            "FROM CourseRegistration cr JOIN cr.user u JOIN cr.course c LEFT JOIN cr.role r ORDER BY cr.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE))
+    Stream<CourseRegistrationDTO> streamAllRegistrations();
+
+    @Query("SELECT DISTINCT u.email FROM CourseRegistration cr JOIN cr.user u " +
+            "WHERE cr.course.id = :courseId AND u.isActive = true AND u.email IS NOT NULL")
+    List<String> findRecipientEmailsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT cr.role FROM CourseRegistration cr WHERE cr.user.id = :userId AND cr.course.id = :courseId")
+    Optional<Role> findRoleByUserIdAndCourseId(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    boolean existsByUserIdAndCourseId(Long userId, Long courseId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CourseRegistration cr WHERE cr.id = :id")
+    @Transactional
+    int deleteRegistration(@Param("id") Long id);
 }
@@ -1,20 +1,67 @@
 package com.example.campus.repository;
 
 import com.example.campus.entity.Course;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CourseRepository  extends JpaRepository<Course, Long> {
-    List<Course> findByIsActiveTrue();
+public interface CourseRepository extends JpaRepository<Course, Long> {
+    String AFTER_CURSOR = "(c.name > :name OR (c.name = :name AND c.id > :id))";
+    String TOUCH = "c.version = c.version + 1, c.updatedAt = :now, c.updatedBy = :requester";
+    String ID_AND_VERSION_MATCH = "c.id = :id AND (:version IS NULL OR c.version = :version)";
 
-    @Query("SELECT c FROM Course c WHERE " +
+    @Query("SELECT c FROM Course c WHERE " + AFTER_CURSOR + " ORDER BY c.name, c.id")
+    List<Course> findAfter(@Param("name") String name, @Param("id") long id, Limit limit);
+
+    @Query("SELECT c FROM Course c WHERE c.isActive = true AND " + AFTER_CURSOR + " ORDER BY c.name, c.id")
+    List<Course> findActiveAfter(@Param("name") String name, @Param("id") long id, Limit limit);
+
+    @Query("SELECT c FROM Course c WHERE (" +
             "(c.dates.startDate < :now AND (c.dates.endDate > :now OR c.dates.endDate IS NULL)) OR " +
-            "(c.dates.startDate IS NULL AND c.dates.endDate > :now)")
-    List<Course> findOpenCourses(@Param("now") LocalDateTime now);
+            "(c.dates.startDate IS NULL AND c.dates.endDate > :now)) AND " + AFTER_CURSOR + " ORDER BY c.name, c.id")
+    List<Course> findOpenAfter(@Param("now") LocalDateTime now, @Param("name") String name, @Param("id") long id, Limit limit);
+
+    @Query("SELECT c FROM Course c ORDER BY c.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CourseRegistrationRepository.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Course> streamAll();
+
+    @Query("SELECT c.version FROM Course c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Course c SET c.isActive = :isActive, " + TOUCH + " WHERE " + ID_AND_VERSION_MATCH)
+    @Transactional
+    int updateIsActive(
+            @Param("id") Long id,
+            @Param("version") Long version,
+            @Param("isActive") boolean isActive,
+            @Param("requester") String requester,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Course c SET c.seatsTaken = c.seatsTaken + 1 WHERE c.id = :id AND (c.capacity IS NULL OR c.seatsTaken < c.capacity)")
+    @Transactional
+    int claimSeat(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Course c SET c.seatsTaken = c.seatsTaken - 1 WHERE c.id = :id AND c.seatsTaken > 0")
+    @Transactional
+    int releaseSeat(@Param("id") Long id);
 }
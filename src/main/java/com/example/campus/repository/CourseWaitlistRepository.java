@@ -0,0 +1,30 @@
+package com.example.campus.repository;
+
+import com.example.campus.entity.CourseWaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface CourseWaitlistRepository extends JpaRepository<CourseWaitlistEntry, Long> {
+    Optional<CourseWaitlistEntry> findFirstByCourseIdOrderByRequestedAtAscIdAsc(Long courseId);
+
+    boolean existsByCourseIdAndUserId(Long courseId, Long userId);
+
+    long countByCourseId(Long courseId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CourseWaitlistEntry w WHERE w.id = :id")
+    @Transactional
+    int deleteEntry(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM CourseWaitlistEntry w WHERE w.course.id = :courseId AND w.user.id = :userId")
+    @Transactional
+    int deleteByCourseIdAndUserId(@Param("courseId") Long courseId, @Param("userId") Long userId);
+}
@@ -0,0 +1,54 @@
+package com.example.campus.repository;
+
+import com.example.campus.entity.OutboxMail;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<OutboxMail, Long> {
+    @Query("SELECT m.id FROM OutboxMail m WHERE m.status = com.example.campus.entity.OutboxMail.Status.PENDING " +
+            "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt, m.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+    List<OutboxMail> findByClaimOrderById(String claim);
+
+    long countByStatus(OutboxMail.Status status);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OutboxMail m SET m.claim = :claim, m.attempts = m.attempts + 1, m.nextAttemptAt = :leaseUntil " +
+            "WHERE m.id IN :ids AND m.status = com.example.campus.entity.OutboxMail.Status.PENDING AND m.nextAttemptAt <= :now")
+    @Transactional
+    int claim(@Param("ids") Collection<Long> ids, @Param("claim") String claim, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OutboxMail m SET m.status = com.example.campus.entity.OutboxMail.Status.SENT, m.sentAt = :now, m.nextAttemptAt = :now, " +
+            "m.text = NULL, m.claim = NULL, m.lastError = NULL " +
+            "WHERE m.id IN :ids AND m.claim = :claim")
+    @Transactional
+    int markSent(@Param("ids") Collection<Long> ids, @Param("claim") String claim, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OutboxMail m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.claim = NULL, m.lastError = :error, " +
+            "m.text = CASE WHEN :status = com.example.campus.entity.OutboxMail.Status.DEAD THEN NULL ELSE m.text END " +
+            "WHERE m.id = :id AND m.claim = :claim")
+    @Transactional
+    int markFailed(@Param("id") Long id, @Param("claim") String claim, @Param("status") OutboxMail.Status status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Query("SELECT m.id FROM OutboxMail m WHERE m.status = :status AND m.nextAttemptAt < :before ORDER BY m.nextAttemptAt, m.id")
+    List<Long> findFinishedIds(@Param("status") OutboxMail.Status status, @Param("before") LocalDateTime before, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OutboxMail m WHERE m.id IN :ids")
+    @Transactional
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
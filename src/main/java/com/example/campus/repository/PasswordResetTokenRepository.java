@@ -1,10 +1,34 @@
 package com.example.campus.repository;
 
 import com.example.campus.entity.PasswordResetToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
-    PasswordResetToken findByToken(String token);
+    @Query("SELECT t FROM PasswordResetToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<PasswordResetToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Query("SELECT t.id FROM PasswordResetToken t WHERE t.expiryDate < :now ORDER BY t.expiryDate, t.id")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM PasswordResetToken t WHERE t.id IN :ids")
+    @Transactional
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM PasswordResetToken t WHERE t.user.id = :userId")
+    @Transactional
+    int deleteByUserId(@Param("userId") Long userId);
 }
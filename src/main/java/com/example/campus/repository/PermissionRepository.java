@@ -1,9 +1,16 @@
 package com.example.campus.repository;
 
 import com.example.campus.entity.Permission;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PermissionRepository extends JpaRepository<Permission, Long> {
+    @Query("SELECT p FROM Permission p WHERE p.name > :name OR (p.name = :name AND p.id > :id) ORDER BY p.name, p.id")
+    List<Permission> findAfter(@Param("name") String name, @Param("id") long id, Limit limit);
 }
@@ -1,9 +1,19 @@
 package com.example.campus.repository;
 
 import com.example.campus.entity.Role;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @Query("SELECT r FROM Role r WHERE r.name > :name OR (r.name = :name AND r.id > :id) ORDER BY r.name, r.id")
+    List<Role> findAfter(@Param("name") String name, @Param("id") long id, Limit limit);
+
+    Optional<Role> findFirstByNameOrderByIdAsc(String name);
 }
@@ -1,18 +1,69 @@
 package com.example.campus.repository;
 
+import com.example.campus.dto.CourseRoleDTO;
 import com.example.campus.entity.NationalIdInfo;
 import com.example.campus.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Query("SELECT u FROM User u WHERE u.username > :username OR (u.username = :username AND u.id > :id) ORDER BY u.username, u.id")
+    List<User> findAfter(@Param("username") String username, @Param("id") long id, Limit limit);
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CourseRegistrationRepository.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAll();
     Optional<User> findByUsername(String username);
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(@Param("id") Long id);
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
     Optional<User> findByNationalIdInfo(NationalIdInfo nationalIdInfo);
-    @Query("SELECT u.username FROM User u")
-    List<String> findAllUsernames();
+    @Query("SELECT u.nationalIdInfo FROM User u WHERE u.nationalIdInfo.nationalId IN :nationalIds")
+    List<NationalIdInfo> findNationalIdInfosByNationalIdIn(@Param("nationalIds") Collection<String> nationalIds);
+    @Query("SELECT u.username FROM User u WHERE u.id IN (SELECT holder.id FROM User holder JOIN holder.roles r WHERE r.id = :roleId) " +
+            "OR u.id IN (SELECT cr.user.id FROM CourseRegistration cr WHERE cr.role.id = :roleId)")
+    List<String> findUsernamesByRoleId(@Param("roleId") Long roleId);
+    @Query("SELECT u.username FROM User u WHERE u.username LIKE :prefix%")
+    List<String> findUsernamesByPrefix(@Param("prefix") String prefix);
+    @Query("SELECT new com.example.campus.dto.CourseRoleDTO(c.id, c.name, r.id, COALESCE(r.name, 'No Role')) " +
+            "FROM CourseRegistration cr JOIN cr.course c LEFT JOIN cr.role r " +
+            "WHERE cr.user.id = :userId ORDER BY cr.id")
+    List<CourseRoleDTO> findCourseRolesByUserId(@Param("userId") Long userId);
+    @Query("SELECT new com.example.campus.dto.CourseRoleDTO(c.id, c.name, r.id, COALESCE(r.name, 'No Role')) " +
+            "FROM CourseRegistration cr JOIN cr.course c LEFT JOIN cr.role r " +
+            "WHERE cr.user.id = :userId AND c.isActive = true ORDER BY cr.id")
+    List<CourseRoleDTO> findActiveCourseRolesByUserId(@Param("userId") Long userId);
+    @Query("SELECT new com.example.campus.dto.CourseRoleDTO(c.id, c.name, r.id, COALESCE(r.name, 'No Role')) " +
+            "FROM CourseRegistration cr JOIN cr.course c LEFT JOIN cr.role r " +
+            "WHERE cr.user.id = :userId AND c.dates.startDate < :now AND c.dates.endDate > :now ORDER BY cr.id")
+    List<CourseRoleDTO> findOpenCourseRolesByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE User u SET u.isActive = :isActive, u.version = u.version + 1, u.updatedAt = :now, u.updatedBy = :requester " +
+            "WHERE u.id = :id AND (:version IS NULL OR u.version = :version)")
+    @Transactional
+    int updateIsActive(
+            @Param("id") Long id,
+            @Param("version") Long version,
+            @Param("isActive") boolean isActive,
+            @Param("requester") String requester,
+            @Param("now") LocalDateTime now
+    );
 }
@@ -0,0 +1,124 @@
+package com.example.campus.service;
+
+import com.example.campus.util.PermissionSet;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class AccessTokenService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final SecretKeySpec secretKey;
+    private final ObjectMapper objectMapper;
+    private final TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    public AccessTokenService(
+            @Value("${app.access-token.secret:}") String secret,
+            @Value("${app.access-token.ttl:PT15M}") Duration ttl,
+            ObjectMapper objectMapper,
+            TokenRevocationList tokenRevocationList
+    ) {
+        this(secret, ttl, Clock.systemUTC(), objectMapper, tokenRevocationList);
+    }
+
+    AccessTokenService(String secret, Duration ttl, Clock clock, ObjectMapper objectMapper, TokenRevocationList tokenRevocationList) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.secretKey = new SecretKeySpec(secretBytes(secret), HMAC_ALGORITHM);
+        this.objectMapper = objectMapper;
+        this.tokenRevocationList = tokenRevocationList;
+    }
+
+    public String issue(String username, PermissionSet permissionSet) {
+        Instant issuedAt = clock.instant();
+        Claims claims = new Claims(
+                username,
+                permissionSet.getMask(),
+                List.copyOf(permissionSet.getOverflow()),
+                issuedAt.toEpochMilli(),
+                issuedAt.plus(ttl).toEpochMilli()
+        );
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return payload + "." + ENCODER.encodeToString(sign(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to write access token", e);
+        }
+    }
+
+    public Optional<AccessToken> verify(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0 || separator != token.lastIndexOf('.')) return Optional.empty();
+        String payload = token.substring(0, separator);
+        try {
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) return Optional.empty();
+            Claims claims = objectMapper.readValue(DECODER.decode(payload), Claims.class);
+            Instant issuedAt = Instant.ofEpochMilli(claims.iat());
+            Instant expiresAt = Instant.ofEpochMilli(claims.exp());
+            if (claims.sub() == null || !expiresAt.isAfter(clock.instant())) return Optional.empty();
+            if (tokenRevocationList.isRevoked(claims.sub(), issuedAt)) return Optional.empty();
+            PermissionSet permissionSet = PermissionSet.of(claims.perm(), claims.ext() != null ? claims.ext() : List.of());
+            return Optional.of(new AccessToken(claims.sub(), permissionSet, issuedAt, expiresAt));
+        } catch (IllegalArgumentException | IOException e) {
+            log.debug("Rejected malformed access token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign access token", e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            byte[] bytes = Base64.getDecoder().decode(secret.trim());
+            if (bytes.length < 32) throw new IllegalArgumentException("app.access-token.secret must be at least 256 bits");
+            return bytes;
+        }
+        log.warn("No app.access-token.secret configured, using a random key; tokens will not be accepted by other nodes or after a restart");
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+
+    public record AccessToken(String username, PermissionSet permissionSet, Instant issuedAt, Instant expiresAt) {
+    }
+
+    private record Claims(String sub, long perm, List<String> ext, long iat, long exp) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.Permission;
+import com.example.campus.entity.Role;
+import com.example.campus.entity.User;
+import com.example.campus.repository.PermissionRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import com.example.campus.util.Permissions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class AdminBootstrap implements ApplicationRunner {
+    static final String ADMIN_ROLE = "Administrator";
+
+    private final PasswordEncoder passwordEncoder;
+    private final PermissionRepository permissionRepository;
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String username;
+    private final String password;
+    private final String email;
+
+    public AdminBootstrap(
+            PasswordEncoder passwordEncoder,
+            PermissionRepository permissionRepository,
+            RoleRepository roleRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.bootstrap.admin.username:}") String username,
+            @Value("${app.bootstrap.admin.password:}") String password,
+            @Value("${app.bootstrap.admin.email:admin@example.com}") String email
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.permissionRepository = permissionRepository;
+        this.roleRepository = roleRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.username = username;
+        this.password = password;
+        this.email = email;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        bootstrap();
+    }
+
+    public boolean bootstrap() {
+        if (username.isBlank()) return false;
+        if (password.isBlank()) {
+            log.warn("Skipping initial admin {}: app.bootstrap.admin.password is not set", username);
+            return false;
+        }
+        Boolean created = transactionTemplate.execute(status -> {
+            if (userRepository.findByUsername(username).isPresent()) return false;
+            User admin = new User();
+            admin.setName("Admin");
+            admin.setFirstSurname("Admin");
+            admin.setEmail(email);
+            NationalIdInfo nationalIdInfo = new NationalIdInfo();
+            nationalIdInfo.setNationalId(username);
+            nationalIdInfo.setCountry("N/A");
+            admin.setNationalIdInfo(nationalIdInfo);
+            admin.setUsername(username);
+            admin.setPassword(passwordEncoder.encode(password));
+            admin.setRoles(new ArrayList<>(List.of(adminRole())));
+            userRepository.save(admin);
+            return true;
+        });
+        if (Boolean.TRUE.equals(created)) log.info("Created initial admin user: {}", username);
+        return Boolean.TRUE.equals(created);
+    }
+
+    private Role adminRole() {
+        Map<String, Permission> existing = permissionRepository.findAll().stream()
+                .collect(Collectors.toMap(Permission::getName, Function.identity(), (first, second) -> first));
+        List<Permission> permissions = new ArrayList<>();
+        for (Permissions permission : Permissions.values()) {
+            permissions.add(existing.computeIfAbsent(permission.name(), name -> {
+                Permission created = new Permission();
+                created.setName(name);
+                return permissionRepository.save(created);
+            }));
+        }
+        Role role = roleRepository.findFirstByNameOrderByIdAsc(ADMIN_ROLE).orElseGet(() -> {
+            Role created = new Role();
+            created.setName(ADMIN_ROLE);
+            return created;
+        });
+        Set<Long> granted = role.getPermissions().stream().map(Permission::getId).collect(Collectors.toSet());
+        for (Permission permission : permissions) {
+            if (granted.add(permission.getId())) role.getPermissions().add(permission);
+        }
+        return roleRepository.save(role);
+    }
+}
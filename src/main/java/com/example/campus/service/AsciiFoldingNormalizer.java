@@ -0,0 +1,82 @@
+package com.example.campus.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+public class AsciiFoldingNormalizer implements TextSanitizer {
+    private static final int TABLE_END = 0x250;
+    private static final String[] FOLDED = new String[TABLE_END];
+
+    static {
+        for (char c = 0x80; c < TABLE_END; c++) {
+            FOLDED[c] = asciiOf(Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD));
+        }
+    }
+
+    @Override
+    public String normalize(String input) {
+        int length = input.length();
+        int start = 0;
+        while (start < length && isKept(input.charAt(start))) {
+            start++;
+        }
+        if (start == length) return input;
+
+        // String.toLowerCase() maps 'I' to a dotless i under Turkish and Azeri default locales
+        boolean localeSensitive = isLocaleSensitive(Locale.getDefault());
+        StringBuilder output = new StringBuilder(length);
+        output.append(input, 0, start);
+        for (int i = start; i < length; i++) {
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                append(output, c, localeSensitive);
+            } else if (c < TABLE_END) {
+                append(output, FOLDED[c], localeSensitive);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(input.charAt(i + 1))) {
+                append(output, asciiOf(Normalizer.normalize(input.substring(i, i + 2), Normalizer.Form.NFD)), localeSensitive);
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                append(output, asciiOf(Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD)), localeSensitive);
+            }
+        }
+        return localeSensitive ? output.toString().toLowerCase() : output.toString();
+    }
+
+    private static boolean isKept(char c) {
+        return c < 0x80 && !isWhitespace(c) && !(c >= 'A' && c <= 'Z');
+    }
+
+    private static void append(StringBuilder output, String ascii, boolean localeSensitive) {
+        if (ascii == null) return;
+        for (int i = 0; i < ascii.length(); i++) {
+            append(output, ascii.charAt(i), localeSensitive);
+        }
+    }
+
+    private static void append(StringBuilder output, char c, boolean localeSensitive) {
+        if (isWhitespace(c)) return;
+        output.append(!localeSensitive && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+    }
+
+    // Same set as the regex \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLocaleSensitive(Locale locale) {
+        String language = locale.getLanguage();
+        return language.equals("tr") || language.equals("az");
+    }
+
+    private static String asciiOf(String decomposed) {
+        StringBuilder ascii = null;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (c < 0x80) {
+                if (ascii == null) ascii = new StringBuilder(2);
+                ascii.append(c);
+            }
+        }
+        return ascii != null ? ascii.toString() : null;
+    }
+}
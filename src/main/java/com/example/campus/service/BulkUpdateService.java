@@ -0,0 +1,183 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.BulkUpdateRequestDTO;
+import com.example.campus.dto.BulkUpdateResultDTO;
+import com.example.campus.dto.BulkUpdateResultDTO.Action;
+import com.example.campus.entity.ChangeHistory;
+import com.example.campus.entity.Course;
+import com.example.campus.entity.User;
+import com.example.campus.exception.InvalidBulkUpdateException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@Service
+@Slf4j
+public class BulkUpdateService {
+    public static final int CHUNK_SIZE = 500;
+    private static final String AUDIT_ASSIGNMENTS = "e.version = e.version + 1, e.updatedAt = :now, e.updatedBy = :requester";
+    private static final String WITHOUT_ACTIVE_COURSES = "NOT EXISTS (SELECT cr.id FROM CourseRegistration cr " +
+            "WHERE cr.user = e AND cr.course.isActive = true)";
+
+    private final ChangeHistoryWriter changeHistoryWriter;
+    private final CourseNotificationService courseNotificationService;
+    private final CredentialCache credentialCache;
+    private final EntityManager entityManager;
+    private final TokenRevocationList tokenRevocationList;
+    private final TransactionTemplate transactionTemplate;
+
+    public BulkUpdateService(
+            ChangeHistoryWriter changeHistoryWriter,
+            CourseNotificationService courseNotificationService,
+            CredentialCache credentialCache,
+            EntityManager entityManager,
+            TokenRevocationList tokenRevocationList,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.changeHistoryWriter = changeHistoryWriter;
+        this.courseNotificationService = courseNotificationService;
+        this.credentialCache = credentialCache;
+        this.entityManager = entityManager;
+        this.tokenRevocationList = tokenRevocationList;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public BulkUpdateResultDTO updateCourses(String requester, Action action, BulkUpdateRequestDTO request) throws InvalidBulkUpdateException {
+        Map<String, Object> parameters = new HashMap<>();
+        List<String> criteria = new ArrayList<>();
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            criteria.add("e.id IN :ids");
+            parameters.put("ids", request.getIds());
+        }
+        if (request.getEndedBefore() != null) {
+            criteria.add("e.dates.endDate < :endedBefore");
+            parameters.put("endedBefore", request.getEndedBefore());
+        }
+        if (criteria.isEmpty()) throw new InvalidBulkUpdateException("Bulk course updates require ids or endedBefore");
+        BulkUpdate update = switch (action) {
+            case ACTIVATE -> new BulkUpdate("e.isActive = false", "e.isActive = true", "isActive", null);
+            case DEACTIVATE -> new BulkUpdate("e.isActive = true", "e.isActive = false", "isActive", null);
+            case OPEN -> new BulkUpdate(
+                    "(e.dates.startDate IS NULL OR e.dates.startDate > :now OR e.dates.endDate < :now)",
+                    "e.dates.startDate = :now, e.dates.endDate = CASE WHEN e.dates.endDate < :now THEN NULL ELSE e.dates.endDate END",
+                    "dates.startDate",
+                    CourseNotificationService.Event.OPENED);
+            case CLOSE -> new BulkUpdate(
+                    "(e.dates.endDate IS NULL OR e.dates.endDate > :now)",
+                    "e.dates.endDate = :now, e.dates.startDate = CASE WHEN e.dates.startDate > :now THEN NULL ELSE e.dates.startDate END",
+                    "dates.endDate",
+                    CourseNotificationService.Event.CLOSED);
+        };
+        return run(requester, Course.class, action, String.join(" AND ", criteria), parameters, update, request.getAfter());
+    }
+
+    public BulkUpdateResultDTO updateUsers(String requester, Action action, BulkUpdateRequestDTO request) throws InvalidBulkUpdateException {
+        Map<String, Object> parameters = new HashMap<>();
+        List<String> criteria = new ArrayList<>();
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            criteria.add("e.id IN :ids");
+            parameters.put("ids", request.getIds());
+        }
+        if (Boolean.TRUE.equals(request.getWithoutActiveCourses())) criteria.add(WITHOUT_ACTIVE_COURSES);
+        if (criteria.isEmpty()) throw new InvalidBulkUpdateException("Bulk user updates require ids or withoutActiveCourses");
+        BulkUpdate update = switch (action) {
+            case ACTIVATE -> new BulkUpdate("e.isActive = false", "e.isActive = true", "isActive", null);
+            case DEACTIVATE -> new BulkUpdate("e.isActive = true", "e.isActive = false", "isActive", null);
+            default -> throw new InvalidBulkUpdateException("Users cannot be bulk updated with action: " + action);
+        };
+        return run(requester, User.class, action, String.join(" AND ", criteria), parameters, update, request.getAfter());
+    }
+
+    private BulkUpdateResultDTO run(
+            String requester,
+            Class<?> entityType,
+            Action action,
+            String criteria,
+            Map<String, Object> parameters,
+            BulkUpdate update,
+            Long after
+    ) {
+        String entityName = entityType.getSimpleName();
+        log.info("Bulk {} of {} entities matching: {} requested by: {}", action, entityName, criteria, requester);
+        // Truncated to the column precision so updated rows can be matched on updatedAt afterwards.
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        parameters.put("now", now);
+        parameters.put("requester", requester);
+        String selectIds = "SELECT e.id FROM " + entityName + " e WHERE e.id > :after AND " + criteria +
+                " AND " + update.pending() + " ORDER BY e.id";
+        String updateChunk = "UPDATE " + entityName + " e SET " + update.assignments() + ", " + AUDIT_ASSIGNMENTS +
+                " WHERE e.id IN :chunk AND " + update.pending();
+        String selectUpdated = "SELECT e.id FROM " + entityName + " e WHERE e.id IN :chunk AND e.updatedAt = :now " +
+                "AND e.updatedBy = :requester ORDER BY e.id";
+        BulkUpdateResultDTO result = new BulkUpdateResultDTO(action, 0, 0, after);
+        while (true) {
+            parameters.put("after", result.getLastId() != null ? result.getLastId() : 0L);
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = bind(entityManager.createQuery(selectIds, Long.class), parameters)
+                        .setMaxResults(CHUNK_SIZE)
+                        .getResultList();
+                if (ids.isEmpty()) return null;
+                parameters.put("chunk", ids);
+                int updated = bind(entityManager.createQuery(updateChunk), parameters).executeUpdate();
+                // A row changed concurrently between the select and the update is skipped by the
+                // update, so it must not be recorded or notified either.
+                List<Long> updatedIds = updated == ids.size()
+                        ? ids
+                        : bind(entityManager.createQuery(selectUpdated, Long.class), parameters).getResultList();
+                List<String> usernames = action == Action.DEACTIVATE && entityType == User.class && !updatedIds.isEmpty()
+                        ? entityManager.createQuery("SELECT e.username FROM User e WHERE e.id IN :updated", String.class)
+                                .setParameter("updated", updatedIds)
+                                .getResultList()
+                        : List.of();
+                if (update.event() != null) {
+                    updatedIds.forEach(id -> courseNotificationService.notifyRegistrants(requester, id, update.event()));
+                }
+                return new Chunk(ids, updatedIds, usernames);
+            });
+            if (chunk == null) break;
+            chunk.usernames().forEach(username -> {
+                credentialCache.evictUser(username);
+                tokenRevocationList.revoke(username);
+            });
+            recordChanges(requester, entityName, update, action, now, chunk.updatedIds());
+            result.setUpdated(result.getUpdated() + chunk.updatedIds().size());
+            result.setChunks(result.getChunks() + 1);
+            result.setLastId(chunk.ids().get(chunk.ids().size() - 1));
+        }
+        log.info("Bulk {} updated {} {} entities in {} chunks requested by: {}", action, result.getUpdated(), entityName, result.getChunks(), requester);
+        return result;
+    }
+
+    private void recordChanges(String requester, String entityName, BulkUpdate update, Action action, LocalDateTime now, List<Long> ids) {
+        String newValue = switch (action) {
+            case ACTIVATE -> "true";
+            case DEACTIVATE -> "false";
+            case OPEN, CLOSE -> now.toString();
+        };
+        List<ChangeHistory> changes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            changes.add(new ChangeHistory(null, entityName, id, ChangeHistory.Action.UPDATE, update.field(), null, newValue, requester, now));
+        }
+        changeHistoryWriter.record(changes);
+    }
+
+    private static <Q extends Query> Q bind(Q query, Map<String, Object> parameters) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            query.setParameter(parameter.getName(), parameters.get(parameter.getName()));
+        }
+        return query;
+    }
+
+    private record BulkUpdate(String pending, String assignments, String field, CourseNotificationService.Event event) {
+    }
+
+    private record Chunk(List<Long> ids, List<Long> updatedIds, List<String> usernames) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.Permission;
+import com.example.campus.entity.User;
+import com.example.campus.repository.UserRepository;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class CampusUserDetailsService implements UserDetailsService {
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+
+    public CampusUserDetailsService(UserRepository userRepository, UserService userService) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
+                .password(user.getPassword() != null ? user.getPassword() : "")
+                .disabled(!Boolean.TRUE.equals(user.getIsActive()))
+                .authorities(userService.getPermissionsByUsername(username).stream()
+                        .map(Permission::getName)
+                        .toArray(String[]::new))
+                .build();
+    }
+}
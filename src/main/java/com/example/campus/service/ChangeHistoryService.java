@@ -0,0 +1,56 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.entity.ChangeHistory;
+import com.example.campus.exception.InvalidCursorException;
+import com.example.campus.repository.ChangeHistoryRepository;
+import com.example.campus.util.Cursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Service
+@Slf4j
+public class ChangeHistoryService {
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final ChangeHistoryRepository changeHistoryRepository;
+
+    public ChangeHistoryService(ChangeHistoryRepository changeHistoryRepository) {
+        this.changeHistoryRepository = changeHistoryRepository;
+    }
+
+    public CursorPageDTO<ChangeHistory> findHistory(LocalDateTime from, LocalDateTime to, String after, int limit) throws InvalidCursorException {
+        LocalDateTime start = from != null ? from : EARLIEST;
+        Cursor cursor = Cursor.decode(after);
+        List<ChangeHistory> changes = changeHistoryRepository.findAfter(
+                start, to != null ? to : LATEST, changedAt(cursor, start), cursor.id(), Limit.of(limit + 1));
+        return Cursor.page(changes, limit, ChangeHistoryService::cursorOf);
+    }
+
+    public CursorPageDTO<ChangeHistory> findEntityHistory(String entityType, Long entityId, LocalDateTime from, LocalDateTime to, String after, int limit) throws InvalidCursorException {
+        LocalDateTime start = from != null ? from : EARLIEST;
+        Cursor cursor = Cursor.decode(after);
+        List<ChangeHistory> changes = changeHistoryRepository.findByEntityAfter(
+                entityType, entityId, start, to != null ? to : LATEST, changedAt(cursor, start), cursor.id(), Limit.of(limit + 1));
+        return Cursor.page(changes, limit, ChangeHistoryService::cursorOf);
+    }
+
+    private static LocalDateTime changedAt(Cursor cursor, LocalDateTime start) throws InvalidCursorException {
+        if (cursor.key().isEmpty()) return start;
+        try {
+            return LocalDateTime.parse(cursor.key());
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor.encode());
+        }
+    }
+
+    private static Cursor cursorOf(ChangeHistory change) {
+        return new Cursor(change.getChangedAt().toString(), change.getId());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.ChangeHistory;
+import com.example.campus.entity.ChangeHistory.Action;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class ChangeHistoryWriter implements SmartLifecycle, MeterBinder {
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final String INSERT_CHANGE_SQL = "INSERT INTO change_history (entity_type, entity_id, action, field, " +
+            "old_value, new_value, changed_by, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<ChangeHistory> buffer;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread worker;
+
+    public ChangeHistoryWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.change-history.capacity:10000}") int capacity,
+            @Value("${app.change-history.batch-size:500}") int batchSize,
+            @Value("${app.change-history.shutdown-timeout:PT30S}") Duration shutdownTimeout
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    // Callers never write history themselves: a change that does not fit in the buffer is dropped
+    // and counted, so audit I/O stays off the request thread and out of its transaction.
+    public void record(Collection<ChangeHistory> changes) {
+        int rejected = 0;
+        for (ChangeHistory change : changes) {
+            if (!buffer.offer(change)) {
+                rejected++;
+            } else if (stopped && buffer.remove(change)) {
+                // stop() has already drained the buffer, so nothing would write this change.
+                rejected++;
+            }
+        }
+        if (rejected == 0) return;
+        dropped.addAndGet(rejected);
+        log.warn("Dropped {} change history records: buffer full or writer stopped", rejected);
+    }
+
+    // Changes made by a service inside a transaction are recorded only once it commits, the same
+    // way ChangeHistoryListener records entity changes.
+    public void recordAfterCommit(Collection<ChangeHistory> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(changes);
+            }
+        });
+    }
+
+    public void recordUpdate(String requester, String entityType, Long entityId, String field, Object newValue) {
+        String value = newValue != null ? newValue.toString() : null;
+        recordAfterCommit(List.of(new ChangeHistory(null, entityType, entityId, Action.UPDATE, field, null, value, requester, LocalDateTime.now())));
+    }
+
+    public void recordCreate(String requester, String entityType, Long entityId, Map<String, ?> newValues) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ChangeHistory> changes = new ArrayList<>();
+        newValues.forEach((field, value) -> {
+            if (value != null) changes.add(new ChangeHistory(null, entityType, entityId, Action.CREATE, field, null, value.toString(), requester, now));
+        });
+        recordAfterCommit(changes);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        stopped = false;
+        worker = new Thread(this::drainLoop, "change-history-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Change history writer started with capacity: {} and batch size: {}", buffer.remainingCapacity() + buffer.size(), batchSize);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            worker.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<ChangeHistory> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        stopped = true;
+        if (!remaining.isEmpty()) write(remaining);
+        log.info("Change history writer stopped after writing {} changes", written.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public int getQueued() {
+        return buffer.size();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("change.history.queued", buffer, BlockingQueue::size)
+                .register(registry);
+        FunctionCounter.builder("change.history.written", written, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("change.history.dropped", dropped, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("change.history.failed", failed, AtomicLong::get)
+                .register(registry);
+    }
+
+    private void drainLoop() {
+        List<ChangeHistory> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                ChangeHistory first = buffer.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ChangeHistory> changes) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_CHANGE_SQL, changes, changes.size(), (ps, change) -> {
+                ps.setString(1, change.getEntityType());
+                ps.setLong(2, change.getEntityId());
+                ps.setString(3, change.getAction().name());
+                ps.setString(4, change.getField());
+                ps.setString(5, change.getOldValue());
+                ps.setString(6, change.getNewValue());
+                ps.setString(7, change.getChangedBy());
+                ps.setTimestamp(8, Timestamp.valueOf(change.getChangedAt()));
+            });
+            written.addAndGet(changes.size());
+        } catch (DataAccessException e) {
+            failed.addAndGet(changes.size());
+            log.error("Failed to write {} change history records: {}", changes.size(), e.getMostSpecificCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.Auditable;
+import com.example.campus.entity.Course;
+import com.example.campus.entity.DateRange;
+import com.example.campus.entity.OutboxMail;
+import com.example.campus.exception.CourseNotFoundException;
+import com.example.campus.repository.CourseRegistrationRepository;
+import com.example.campus.repository.CourseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Slf4j
+public class CourseNotificationService {
+    public static final int INSERT_BATCH_SIZE = 500;
+    private static final String NEXT_MAIL_ID_SQL = "SELECT NEXT VALUE FOR mail_outbox_seq";
+    private static final String INSERT_MAIL_SQL = "INSERT INTO mail_outbox (id, recipient, subject, text, status, attempts, " +
+            "next_attempt_at, created_at, created_by, updated_at, updated_by, version) VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, 0)";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String UNSCHEDULED = "-";
+
+    private final CourseRegistrationRepository courseRegistrationRepository;
+    private final CourseRepository courseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MailDispatcher mailDispatcher;
+    private final MailProperties mailProperties;
+
+    public CourseNotificationService(
+            CourseRegistrationRepository courseRegistrationRepository,
+            CourseRepository courseRepository,
+            JdbcTemplate jdbcTemplate,
+            MailDispatcher mailDispatcher,
+            MailProperties mailProperties
+    ) {
+        this.courseRegistrationRepository = courseRegistrationRepository;
+        this.courseRepository = courseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mailDispatcher = mailDispatcher;
+        this.mailProperties = mailProperties;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int notifyRegistrants(String requester, Long courseId, Event event) throws CourseNotFoundException {
+        List<String> recipients = courseRegistrationRepository.findRecipientEmailsByCourseId(courseId);
+        if (recipients.isEmpty()) return 0;
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + courseId));
+        Object[] arguments = {course.getName(), format(course.getDates(), true), format(course.getDates(), false)};
+        String subject = String.format(subjectTemplate(event), arguments);
+        String text = String.format(textTemplate(event), arguments);
+        if (text.length() > OutboxMail.MAX_TEXT_LENGTH) text = text.substring(0, OutboxMail.MAX_TEXT_LENGTH);
+        insert(requester, recipients, subject, text);
+        mailDispatcher.wakeUpAfterCommit();
+        log.info("Queued {} {} notifications for course with ID: {} requested by: {}", recipients.size(), event, courseId, requester);
+        return recipients.size();
+    }
+
+    private void insert(String requester, List<String> recipients, String subject, String text) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        List<Mail> mails = new ArrayList<>(recipients.size());
+        long low = 0;
+        for (int i = 0; i < recipients.size(); i++) {
+            int offset = i % Auditable.ID_ALLOCATION_SIZE;
+            if (offset == 0) low = jdbcTemplate.queryForObject(NEXT_MAIL_ID_SQL, Long.class);
+            mails.add(new Mail(low + offset, recipients.get(i)));
+        }
+        jdbcTemplate.batchUpdate(INSERT_MAIL_SQL, mails, INSERT_BATCH_SIZE, (ps, mail) -> {
+            ps.setLong(1, mail.id());
+            ps.setString(2, mail.recipient());
+            ps.setString(3, subject);
+            ps.setString(4, text);
+            ps.setString(5, OutboxMail.Status.PENDING.name());
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+            ps.setString(8, requester);
+            ps.setTimestamp(9, now);
+            ps.setString(10, requester);
+        });
+    }
+
+    private String subjectTemplate(Event event) {
+        return switch (event) {
+            case OPENED -> mailProperties.getCourseOpenedSubject();
+            case CLOSED -> mailProperties.getCourseClosedSubject();
+            case RESCHEDULED -> mailProperties.getCourseRescheduledSubject();
+        };
+    }
+
+    private String textTemplate(Event event) {
+        return switch (event) {
+            case OPENED -> mailProperties.getCourseOpenedText();
+            case CLOSED -> mailProperties.getCourseClosedText();
+            case RESCHEDULED -> mailProperties.getCourseRescheduledText();
+        };
+    }
+
+    private static String format(DateRange dates, boolean start) {
+        LocalDateTime date = dates == null ? null : start ? dates.getStartDate() : dates.getEndDate();
+        return date != null ? date.format(DATE_FORMAT) : UNSCHEDULED;
+    }
+
+    private record Mail(long id, String recipient) {
+    }
+
+    public enum Event {
+        OPENED,
+        CLOSED,
+        RESCHEDULED
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.campus.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class CourseRegistrationWriter {
+    // Changes the role of an existing registration, or inserts one when the last parameter is set.
+    // Each insert takes a whole pooled-lo block from the sequence so Hibernate's own ids never collide.
+    private static final String UPSERT_ROLE_SQL = "SELECT id, version FROM FINAL TABLE (MERGE INTO course_registrations cr " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR))) " +
+            "v(user_id, course_id, role_id, changed_at, changed_by) " +
+            "ON cr.user_id = v.user_id AND cr.course_id = v.course_id " +
+            "WHEN MATCHED AND (cr.role_id IS NULL OR cr.role_id <> v.role_id) THEN " +
+            "UPDATE SET role_id = v.role_id, version = cr.version + 1, updated_at = v.changed_at, updated_by = v.changed_by " +
+            "WHEN NOT MATCHED AND ? THEN " +
+            "INSERT (id, user_id, course_id, role_id, created_at, created_by, updated_at, updated_by, version) " +
+            "VALUES (NEXT VALUE FOR course_registrations_seq, v.user_id, v.course_id, v.role_id, v.changed_at, v.changed_by, v.changed_at, v.changed_by, 0))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseRegistrationWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns the written row, with version 0 when it was inserted, or empty when nothing changed.
+    public Optional<Upserted> upsertRole(String requester, Long userId, Long courseId, Long roleId, boolean insert) {
+        try {
+            return upsert(requester, userId, courseId, roleId, insert);
+        } catch (DuplicateKeyException e) {
+            // A concurrent retry of the same enrollment inserted the row first. H2 only rolls back the
+            // failed statement, so the second attempt matches the committed row instead.
+            log.info("Registration of user with ID: {} in course with ID: {} was inserted concurrently, retrying", userId, courseId);
+            return upsert(requester, userId, courseId, roleId, insert);
+        }
+    }
+
+    private Optional<Upserted> upsert(String requester, Long userId, Long courseId, Long roleId, boolean insert) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Upserted> rows = jdbcTemplate.query(UPSERT_ROLE_SQL,
+                (rs, rowNum) -> new Upserted(rs.getLong("id"), rs.getLong("version")),
+                userId, courseId, roleId, now, requester, insert);
+        return rows.stream().findFirst();
+    }
+
+    public record Upserted(Long id, long version) {
+        public boolean inserted() {
+            return version == 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.campus.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+@Service
+public class CourseSeatCounter {
+
+    private final long recheckMillis;
+    private final Clock clock;
+    private final Map<Long, Seats> seatsByCourseId = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CourseSeatCounter(@Value("${app.enrollment.seat-recheck-interval:PT1S}") Duration recheckInterval) {
+        this(recheckInterval, Clock.systemUTC());
+    }
+
+    CourseSeatCounter(Duration recheckInterval, Clock clock) {
+        this.recheckMillis = recheckInterval.toMillis();
+        this.clock = clock;
+    }
+
+    // Seats freed on another node or by a recount never reach this counter, so a counter that has
+    // read empty for longer than the recheck interval is rebuilt from the caller's fresh course row.
+    public boolean tryAcquire(Long courseId, IntSupplier available) {
+        Seats seats = load(courseId, available);
+        if (!seats.tryAcquire()) return false;
+        Seats acquired = seats;
+        afterCompletion(status -> {
+            if (status == TransactionSynchronization.STATUS_ROLLED_BACK) acquired.available.incrementAndGet();
+        });
+        return true;
+    }
+
+    public boolean hasSeats(Long courseId, IntSupplier available) {
+        return load(courseId, available).available.get() > 0;
+    }
+
+    public void markFull(Long courseId) {
+        Seats seats = seatsByCourseId.get(courseId);
+        if (seats == null) return;
+        seats.available.set(0);
+        seats.checkedAt = clock.millis();
+    }
+
+    public void evict(Long courseId) {
+        afterCompletion(status -> seatsByCourseId.remove(courseId));
+    }
+
+    private Seats load(Long courseId, IntSupplier available) {
+        long now = clock.millis();
+        Seats seats = seatsByCourseId.get(courseId);
+        if (seats != null && !seats.isStale(now, recheckMillis)) return seats;
+        Seats loaded = new Seats(available.getAsInt(), now);
+        Seats current = seats == null
+                ? seatsByCourseId.putIfAbsent(courseId, loaded)
+                : seatsByCourseId.replace(courseId, seats, loaded) ? null : seatsByCourseId.get(courseId);
+        return current != null ? current : loaded;
+    }
+
+    private static void afterCompletion(IntConsumer action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(TransactionSynchronization.STATUS_UNKNOWN);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status);
+            }
+        });
+    }
+
+    private static final class Seats {
+        private final AtomicInteger available;
+        private volatile long checkedAt;
+
+        Seats(int available, long checkedAt) {
+            this.available = new AtomicInteger(available);
+            this.checkedAt = checkedAt;
+        }
+
+        boolean isStale(long now, long recheckMillis) {
+            return available.get() <= 0 && now - checkedAt >= recheckMillis;
+        }
+
+        boolean tryAcquire() {
+            int current;
+            do {
+                current = available.get();
+                if (current <= 0) return false;
+            } while (!available.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
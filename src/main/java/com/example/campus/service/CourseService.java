@@ -1,39 +1,71 @@
 package com.example.campus.service;
 
+import com.example.campus.dto.CourseStateDTO;
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.dto.EnrollmentResultDTO;
 import com.example.campus.dto.UserRoleDTO;
 import com.example.campus.entity.*;
 import com.example.campus.exception.CourseNotFoundException;
+import com.example.campus.exception.InvalidCursorException;
 import com.example.campus.exception.RoleNotFoundException;
 import com.example.campus.exception.UserNotFoundException;
+import com.example.campus.exception.VersionMismatchException;
 import com.example.campus.repository.CourseRegistrationRepository;
 import com.example.campus.repository.CourseRepository;
-import com.example.campus.util.EntitySaver;
+import com.example.campus.repository.CourseWaitlistRepository;
+import com.example.campus.util.Cursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class CourseService {
-    private final AuditableService auditableService;
+    private final ChangeHistoryWriter changeHistoryWriter;
+    private final CourseNotificationService courseNotificationService;
     private final CourseRepository courseRepository;
     private final CourseRegistrationRepository courseRegistrationRepository;
+    private final CourseRegistrationWriter courseRegistrationWriter;
+    private final CourseSeatCounter courseSeatCounter;
+    private final CourseStateWriter courseStateWriter;
+    private final CourseWaitlistRepository courseWaitlistRepository;
+    private final PermissionCache permissionCache;
     private final RoleService roleService;
     private UserService userService;
 
     public CourseService(
-            AuditableService auditableService,
+            ChangeHistoryWriter changeHistoryWriter,
+            CourseNotificationService courseNotificationService,
             CourseRepository courseRepository,
             CourseRegistrationRepository courseRegistrationRepository,
+            CourseRegistrationWriter courseRegistrationWriter,
+            CourseSeatCounter courseSeatCounter,
+            CourseStateWriter courseStateWriter,
+            CourseWaitlistRepository courseWaitlistRepository,
+            PermissionCache permissionCache,
             RoleService roleService
     ) {
-        this.auditableService = auditableService;
+        this.changeHistoryWriter = changeHistoryWriter;
+        this.courseNotificationService = courseNotificationService;
         this.courseRepository = courseRepository;
         this.courseRegistrationRepository = courseRegistrationRepository;
+        this.courseRegistrationWriter = courseRegistrationWriter;
+        this.courseSeatCounter = courseSeatCounter;
+        this.courseStateWriter = courseStateWriter;
+        this.courseWaitlistRepository = courseWaitlistRepository;
+        this.permissionCache = permissionCache;
         this.roleService = roleService;
     }
 
@@ -41,20 +73,24 @@ public class CourseService {
         this.userService = userService;
     }
 
-    public List<Course> findAllCourses() {
-        return courseRepository.findAll();
+    public CursorPageDTO<Course> findAllCourses(String after, int limit) throws InvalidCursorException {
+        Cursor cursor = Cursor.decode(after);
+        return toPage(courseRepository.findAfter(cursor.key(), cursor.id(), Limit.of(limit + 1)), limit);
     }
 
     public Course saveCourse(String requester, Course course) {
-        return EntitySaver.saveEntity(auditableService, courseRepository, requester, course);
+        log.info("Saving course with ID: {} requested by: {}", course.getId(), requester);
+        return courseRepository.save(course);
     }
 
-    public List<Course> getActiveCourses() {
-        return courseRepository.findByIsActiveTrue();
+    public CursorPageDTO<Course> getActiveCourses(String after, int limit) throws InvalidCursorException {
+        Cursor cursor = Cursor.decode(after);
+        return toPage(courseRepository.findActiveAfter(cursor.key(), cursor.id(), Limit.of(limit + 1)), limit);
     }
 
-    public List<Course> getOpenCourses() {
-        return courseRepository.findOpenCourses(LocalDateTime.now());
+    public CursorPageDTO<Course> getOpenCourses(String after, int limit) throws InvalidCursorException {
+        Cursor cursor = Cursor.decode(after);
+        return toPage(courseRepository.findOpenAfter(LocalDateTime.now(), cursor.key(), cursor.id(), Limit.of(limit + 1)), limit);
     }
 
     public Course findCourseById(Long courseId) throws CourseNotFoundException {
@@ -62,10 +98,22 @@ public class CourseService {
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + courseId));
     }
 
-    public Course updateCourse(String requester, Long courseId, Course courseDetails) throws CourseNotFoundException {
+    @Transactional
+    public Course updateCourse(String requester, Long courseId, Course courseDetails, Long expectedVersion) throws CourseNotFoundException, VersionMismatchException {
         Course course = findCourseById(courseId);
+        course.requireVersion(expectedVersion);
+        Integer capacity = course.getCapacity();
+        DateRange dates = course.getDates();
         updateCourseDetails(courseDetails, course);
-        return saveCourse(requester, course);
+        Course saved = saveCourse(requester, course);
+        if (!Objects.equals(capacity, saved.getCapacity())) {
+            courseSeatCounter.evict(courseId);
+            promoteWaitlisted(saved);
+        }
+        if (!Objects.equals(dates, saved.getDates())) {
+            courseNotificationService.notifyRegistrants(requester, courseId, CourseNotificationService.Event.RESCHEDULED);
+        }
+        return saved;
     }
 
     public void deleteCourse(String requester, Long courseId) {
@@ -78,89 +126,161 @@ public class CourseService {
         return course.getUsers();
     }
 
-    public Course addUserToCourse(String requester, Long courseId, Long userId, Long roleId) throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
+    @Transactional
+    public EnrollmentResultDTO addUserToCourse(String requester, Long courseId, Long userId, Long roleId) throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
         Course course = findCourseById(courseId);
         User user = userService.findUserById(userId);
         Role role = roleService.findRoleById(roleId);
-        CourseRegistration registration = new CourseRegistration();
-        registration.setUser(user);
-        registration.setRole(role);
-        registration.setCourse(course);
-        courseRegistrationRepository.save(registration);
-        return saveCourse(requester, course);
+        boolean seatsLeft = course.getCapacity() == null
+                || courseSeatCounter.hasSeats(courseId, () -> course.getCapacity() - course.getSeatsTaken());
+        Optional<CourseRegistrationWriter.Upserted> upserted = courseRegistrationWriter.upsertRole(requester, userId, courseId, role.getId(), seatsLeft);
+        if (upserted.isEmpty()) {
+            if (seatsLeft || courseRegistrationRepository.existsByUserIdAndCourseId(userId, courseId)) {
+                log.info("User with ID: {} already enrolled in course with ID: {} with role with ID: {}", userId, courseId, role.getId());
+                return new EnrollmentResultDTO(EnrollmentResultDTO.Status.ENROLLED, course);
+            }
+            return waitlist(requester, course, user, role);
+        }
+        Long registrationId = upserted.get().id();
+        if (!upserted.get().inserted()) {
+            log.info("User with ID: {} already enrolled in course with ID: {}, assigned role with ID: {} requested by: {}", userId, courseId, role.getId(), requester);
+            permissionCache.evictUser(userId);
+            userService.revokeTokens(user.getUsername());
+            changeHistoryWriter.recordUpdate(requester, CourseRegistration.class.getSimpleName(), registrationId, "role", role.getId());
+            return new EnrollmentResultDTO(EnrollmentResultDTO.Status.ENROLLED, course);
+        }
+        if (!claimSeat(course)) {
+            courseRegistrationRepository.deleteRegistration(registrationId);
+            return waitlist(requester, course, user, role);
+        }
+        log.info("Enrolling user with ID: {} in course with ID: {} requested by: {}", userId, courseId, requester);
+        permissionCache.evictUser(userId);
+        userService.revokeTokens(user.getUsername());
+        changeHistoryWriter.recordCreate(requester, CourseRegistration.class.getSimpleName(), registrationId,
+                Map.of("user", userId, "course", courseId, "role", role.getId()));
+        // A waitlisted user who retries and finds a free seat must not be promoted again later.
+        if (course.getCapacity() != null) courseWaitlistRepository.deleteByCourseIdAndUserId(courseId, userId);
+        return new EnrollmentResultDTO(EnrollmentResultDTO.Status.ENROLLED, course);
     }
 
+    @Transactional
     public Course removeUserFromCourse(String requester, Long courseId, Long userId) throws CourseNotFoundException, UserNotFoundException {
         Course course = findCourseById(courseId);
         User user = userService.findUserById(userId);
-        CourseRegistration registration = course.getRegistrations().stream()
+        Optional<CourseRegistration> found = course.getRegistrations().stream()
                 .filter(reg -> reg.getUser().equals(user))
-                .findFirst()
-                .orElseThrow(() -> new UserNotFoundException("User not found in course with id: " + courseId));
+                .findFirst();
+        if (found.isEmpty()) {
+            if (courseWaitlistRepository.deleteByCourseIdAndUserId(courseId, userId) == 0) {
+                throw new UserNotFoundException("User not found in course with id: " + courseId);
+            }
+            log.info("Removed user with ID: {} from waitlist of course with ID: {} requested by: {}", userId, courseId, requester);
+            return course;
+        }
+        CourseRegistration registration = found.get();
         course.getRegistrations().remove(registration);
         log.info("Deleting registration with id: {} by user: {}", registration.getId(), requester);
         courseRegistrationRepository.delete(registration);
+        courseRepository.releaseSeat(courseId);
+        permissionCache.evictUser(userId);
+        userService.revokeTokens(user.getUsername());
+        if (course.getCapacity() != null) {
+            courseSeatCounter.evict(courseId);
+            promoteWaitlisted(course);
+        }
         return saveCourse(requester, course);
     }
 
     public List<UserRoleDTO> getUsersAndRolesByCourseId(Long courseId) throws CourseNotFoundException {
-        List<User> users = getUsersByCourseId(courseId);
-        return getUserRoleDTOS(courseId, users);
+        return getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.REGISTRATION, Pageable.unpaged());
+    }
+
+    public List<UserRoleDTO> getUsersAndRolesByCourseId(Long courseId, UserRoleDTO.Sort sort, Pageable pageable) throws CourseNotFoundException {
+        requireCourseExists(courseId);
+        return sort == UserRoleDTO.Sort.SURNAME
+                ? courseRegistrationRepository.findUserRolesByCourseIdOrderBySurname(courseId, pageable)
+                : courseRegistrationRepository.findUserRolesByCourseId(courseId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachUserAndRoleByCourseId(Long courseId, UserRoleDTO.Sort sort, Consumer<UserRoleDTO> action) throws CourseNotFoundException {
+        requireCourseExists(courseId);
+        try (Stream<UserRoleDTO> userRoles = sort == UserRoleDTO.Sort.SURNAME
+                ? courseRegistrationRepository.streamUserRolesByCourseIdOrderBySurname(courseId)
+                : courseRegistrationRepository.streamUserRolesByCourseId(courseId)) {
+            userRoles.forEach(action);
+        }
     }
 
     public List<User> getUsersWithRole(Long courseId, Long roleId) throws CourseNotFoundException {
-        Course course = findCourseById(courseId);
-        return course.getUsersWithRole(roleId);
+        return getUsersWithRoles(courseId, List.of(roleId), null, Cursor.UNPAGED_LIMIT);
     }
 
     public List<User> getUsersWithoutRole(Long courseId, Long roleId) throws CourseNotFoundException {
-        Course course = findCourseById(courseId);
-        return course.getUsersWithoutRole(roleId);
+        return getUsersWithoutRoles(courseId, List.of(roleId), null, Cursor.UNPAGED_LIMIT);
+    }
+
+    public List<User> getUsersWithRoles(Long courseId, Collection<Long> roleIds, Long afterUserId, int limit) throws CourseNotFoundException {
+        requireCourseExists(courseId);
+        return courseRegistrationRepository.findUsersByCourseIdAndRoleIdIn(courseId, roleIds, keysetStart(afterUserId), Limit.of(limit));
+    }
+
+    public List<User> getUsersWithoutRoles(Long courseId, Collection<Long> roleIds, Long afterUserId, int limit) throws CourseNotFoundException {
+        requireCourseExists(courseId);
+        return courseRegistrationRepository.findUsersByCourseIdAndRoleIdNotIn(courseId, roleIds, keysetStart(afterUserId), Limit.of(limit));
     }
 
     public Optional<Role> getRoleByUserIdAndCourseId(Long userId, Long courseId) throws CourseNotFoundException, UserNotFoundException {
-        Course course = findCourseById(courseId);
-        User user = userService.findUserById(userId);
-        return course.getRegistrations().stream()
-                .filter(registration -> registration.getUser().equals(user))
-                .map(CourseRegistration::getRole)
-                .findFirst();
+        requireCourseExists(courseId);
+        userService.findUserById(userId);
+        return courseRegistrationRepository.findRoleByUserIdAndCourseId(userId, courseId);
     }
 
-    public Course openCourse(String requester, Long courseId) throws CourseNotFoundException {
-        Course course = findCourseById(courseId);
-        DateRange dates = course.getDates();
-        dates.setStartDate(LocalDateTime.now());
-        if (dates.getEndDate() != null && dates.getEndDate().isBefore(dates.getStartDate())) {
-            dates.setEndDate(null);
+    @Transactional
+    public long openCourse(String requester, Long courseId, Long expectedVersion) throws CourseNotFoundException, VersionMismatchException {
+        log.info("Opening course with ID: {} requested by: {}", courseId, requester);
+        LocalDateTime now = LocalDateTime.now();
+        Optional<CourseStateDTO> previous = courseStateWriter.open(requester, courseId, expectedVersion, now);
+        requireUpdated(courseId, expectedVersion, previous.isPresent() ? 1 : 0);
+        CourseStateDTO state = previous.get();
+        changeHistoryWriter.recordUpdate(requester, Course.class.getSimpleName(), courseId, "dates.startDate", now);
+        if (state.getEndDate() != null && state.getEndDate().isBefore(now)) {
+            changeHistoryWriter.recordUpdate(requester, Course.class.getSimpleName(), courseId, "dates.endDate", null);
         }
-        course.setDates(dates);
-        return saveCourse(requester, course);
+        courseNotificationService.notifyRegistrants(requester, courseId, CourseNotificationService.Event.OPENED);
+        return state.getVersion() + 1;
     }
 
-    public Course closeCourse(String requester, Long courseId) throws CourseNotFoundException {
-        Course course = findCourseById(courseId);
-        DateRange dates = course.getDates();
-        dates.setEndDate(LocalDateTime.now());
-        if (dates.getStartDate() != null && dates.getStartDate().isAfter(dates.getEndDate())) {
-            dates.setStartDate(null);
+    @Transactional
+    public long closeCourse(String requester, Long courseId, Long expectedVersion) throws CourseNotFoundException, VersionMismatchException {
+        log.info("Closing course with ID: {} requested by: {}", courseId, requester);
+        LocalDateTime now = LocalDateTime.now();
+        Optional<CourseStateDTO> previous = courseStateWriter.close(requester, courseId, expectedVersion, now);
+        requireUpdated(courseId, expectedVersion, previous.isPresent() ? 1 : 0);
+        CourseStateDTO state = previous.get();
+        changeHistoryWriter.recordUpdate(requester, Course.class.getSimpleName(), courseId, "dates.endDate", now);
+        if (state.getStartDate() != null && state.getStartDate().isAfter(now)) {
+            changeHistoryWriter.recordUpdate(requester, Course.class.getSimpleName(), courseId, "dates.startDate", null);
         }
-        course.setDates(dates);
-        return saveCourse(requester, course);
+        courseNotificationService.notifyRegistrants(requester, courseId, CourseNotificationService.Event.CLOSED);
+        return state.getVersion() + 1;
     }
 
-    public Course activateCourse(String requester, Long courseId) throws CourseNotFoundException {
-        return changeCourseActivationStatus(requester, courseId, true);
+    @Transactional
+    public long activateCourse(String requester, Long courseId, Long expectedVersion) throws CourseNotFoundException, VersionMismatchException {
+        return changeCourseActivationStatus(requester, courseId, expectedVersion, true);
     }
 
-    public Course deactivateCourse(String requester, Long courseId) throws CourseNotFoundException {
-        return changeCourseActivationStatus(requester, courseId, false);
+    @Transactional
+    public long deactivateCourse(String requester, Long courseId, Long expectedVersion) throws CourseNotFoundException, VersionMismatchException {
+        return changeCourseActivationStatus(requester, courseId, expectedVersion, false);
     }
 
     private void updateCourseDetails(Course courseDetails, Course course) {
         if (courseDetails.getName() != null) course.setName(courseDetails.getName());
         if (courseDetails.getDates() != null) course.setDates(updateDates(courseDetails));
         if (courseDetails.getIsActive() != null) course.setIsActive(courseDetails.getIsActive());
+        if (courseDetails.getCapacity() != null) course.setCapacity(courseDetails.getCapacity());
     }
 
     private DateRange updateDates(Course courseDetails) {
@@ -170,26 +290,84 @@ public class CourseService {
         return dates;
     }
 
-    private List<UserRoleDTO> getUserRoleDTOS(Long courseId, List<User> users) throws CourseNotFoundException, UserNotFoundException {
-        return users.stream().map(user -> {
-            Optional<Role> role = getRoleByUserIdAndCourseId(user.getId(), courseId);
-            UserRoleDTO dto = new UserRoleDTO();
-            dto.setUserId(user.getId());
-            dto.setUsername(user.getUsername());
-            dto.setName(user.getName());
-            dto.setFirstSurname(user.getFirstSurname());
-            dto.setSecondSurname(user.getSecondSurname());
-            if (role.isPresent()) {
-                dto.setRoleId(role.get().getId());
-                dto.setRoleName(role.get().getName());
+    private static CursorPageDTO<Course> toPage(List<Course> courses, int limit) {
+        return Cursor.page(courses, limit, course -> new Cursor(course.getName(), course.getId()));
+    }
+
+    private static long keysetStart(Long afterUserId) {
+        return afterUserId != null ? afterUserId : 0L;
+    }
+
+    private void requireCourseExists(Long courseId) throws CourseNotFoundException {
+        if (!courseRepository.existsById(courseId)) throw new CourseNotFoundException("Course not found with id: " + courseId);
+    }
+
+    // Without If-Match the written version is unknown, so it is read back; the updated row stays
+    // locked until commit, so that read sees the version this update wrote.
+    private long changeCourseActivationStatus(String requester, Long courseId, Long expectedVersion, boolean isActive) throws CourseNotFoundException, VersionMismatchException {
+        log.info("Setting active status of course with ID: {} to: {} requested by: {}", courseId, isActive, requester);
+        requireUpdated(courseId, expectedVersion, courseRepository.updateIsActive(courseId, expectedVersion, isActive, requester, LocalDateTime.now()));
+        changeHistoryWriter.recordUpdate(requester, Course.class.getSimpleName(), courseId, "isActive", isActive);
+        if (expectedVersion != null) return expectedVersion + 1;
+        return courseRepository.findVersionById(courseId).orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + courseId));
+    }
+
+    private boolean claimSeat(Course course) {
+        Long courseId = course.getId();
+        if (course.getCapacity() == null) return courseRepository.claimSeat(courseId) > 0;
+        if (!courseSeatCounter.tryAcquire(courseId, () -> course.getCapacity() - course.getSeatsTaken())) return false;
+        if (courseRepository.claimSeat(courseId) > 0) return true;
+        courseSeatCounter.markFull(courseId);
+        return false;
+    }
+
+    private void register(Course course, User user, Role role) {
+        CourseRegistration registration = new CourseRegistration();
+        registration.setUser(user);
+        registration.setRole(role);
+        registration.setCourse(course);
+        courseRegistrationRepository.save(registration);
+        permissionCache.evictUser(user.getId());
+        userService.revokeTokens(user.getUsername());
+    }
+
+    private EnrollmentResultDTO waitlist(String requester, Course course, User user, Role role) {
+        if (courseWaitlistRepository.existsByCourseIdAndUserId(course.getId(), user.getId())) {
+            return new EnrollmentResultDTO(EnrollmentResultDTO.Status.WAITLISTED, course);
+        }
+        log.info("Course with ID: {} is full, waitlisting user with ID: {} requested by: {}", course.getId(), user.getId(), requester);
+        CourseWaitlistEntry entry = new CourseWaitlistEntry();
+        entry.setUser(user);
+        entry.setRole(role);
+        entry.setCourse(course);
+        entry.setRequestedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        courseWaitlistRepository.save(entry);
+        return new EnrollmentResultDTO(EnrollmentResultDTO.Status.WAITLISTED, course);
+    }
+
+    private void promoteWaitlisted(Course course) {
+        Long courseId = course.getId();
+        Optional<CourseWaitlistEntry> next = courseWaitlistRepository.findFirstByCourseIdOrderByRequestedAtAscIdAsc(courseId);
+        while (next.isPresent()) {
+            CourseWaitlistEntry entry = next.get();
+            if (courseRegistrationRepository.existsByUserIdAndCourseId(entry.getUser().getId(), courseId)) {
+                log.info("Dropping waitlist entry of already enrolled user with ID: {} in course with ID: {}", entry.getUser().getId(), courseId);
+                courseWaitlistRepository.deleteEntry(entry.getId());
+            } else if (courseRepository.claimSeat(courseId) == 0) {
+                return;
+            } else if (courseWaitlistRepository.deleteEntry(entry.getId()) > 0) {
+                log.info("Promoting user with ID: {} from waitlist of course with ID: {}", entry.getUser().getId(), courseId);
+                register(course, entry.getUser(), entry.getRole());
+            } else {
+                courseRepository.releaseSeat(courseId);
             }
-            return dto;
-        }).collect(Collectors.toList());
+            next = courseWaitlistRepository.findFirstByCourseIdOrderByRequestedAtAscIdAsc(courseId);
+        }
     }
 
-    private Course changeCourseActivationStatus(String requester, Long courseId, boolean isActive) {
-        Course course = findCourseById(courseId);
-        course.setIsActive(isActive);
-        return saveCourse(requester, course);
+    private void requireUpdated(Long courseId, Long expectedVersion, int updated) throws CourseNotFoundException, VersionMismatchException {
+        if (updated > 0) return;
+        requireCourseExists(courseId);
+        throw new VersionMismatchException("Course with id: " + courseId + " is not at version " + expectedVersion);
     }
 }
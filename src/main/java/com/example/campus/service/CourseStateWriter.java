@@ -0,0 +1,46 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.CourseStateDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class CourseStateWriter {
+    // Each statement returns the row as it was before the update, so callers learn which date it
+    // cleared and which version it replaced without locking or re-reading the course.
+    private static final String TOUCH_AND_MATCH = "version = version + 1, updated_at = ?, updated_by = ? " +
+            "WHERE id = ? AND (CAST(? AS BIGINT) IS NULL OR version = ?)";
+    private static final String OPEN_SQL = "SELECT version, start_date, end_date FROM OLD TABLE (UPDATE courses SET start_date = ?, " +
+            "end_date = CASE WHEN end_date < ? THEN NULL ELSE end_date END, " + TOUCH_AND_MATCH + ")";
+    private static final String CLOSE_SQL = "SELECT version, start_date, end_date FROM OLD TABLE (UPDATE courses SET end_date = ?, " +
+            "start_date = CASE WHEN start_date > ? THEN NULL ELSE start_date END, " + TOUCH_AND_MATCH + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseStateWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<CourseStateDTO> open(String requester, Long courseId, Long version, LocalDateTime now) {
+        return update(OPEN_SQL, requester, courseId, version, now);
+    }
+
+    public Optional<CourseStateDTO> close(String requester, Long courseId, Long version, LocalDateTime now) {
+        return update(CLOSE_SQL, requester, courseId, version, now);
+    }
+
+    private Optional<CourseStateDTO> update(String sql, String requester, Long courseId, Long version, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<CourseStateDTO> states = jdbcTemplate.query(sql, (rs, rowNum) -> new CourseStateDTO(
+                        rs.getLong("version"),
+                        rs.getObject("start_date", LocalDateTime.class),
+                        rs.getObject("end_date", LocalDateTime.class)),
+                timestamp, timestamp, timestamp, requester, courseId, version, version);
+        return states.stream().findFirst();
+    }
+}
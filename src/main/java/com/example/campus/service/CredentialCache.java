@@ -0,0 +1,139 @@
+package com.example.campus.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class CredentialCache implements MeterBinder {
+    private static final String CACHE_NAME = "credentials";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+    private final SecretKeySpec secretKey;
+    private final Map<String, Entry> entriesByKey;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public CredentialCache(
+            @Value("${app.credential-cache.max-size:10000}") int maxSize,
+            @Value("${app.credential-cache.ttl:PT5M}") Duration ttl
+    ) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    CredentialCache(int maxSize, Duration ttl, Clock clock) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.secretKey = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.entriesByKey = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= CredentialCache.this.maxSize) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    public boolean isVerified(String username, String presentedPassword, String storedPassword) {
+        if (username == null || presentedPassword == null || storedPassword == null) return false;
+        String key = key(username, presentedPassword, storedPassword);
+        synchronized (this) {
+            Entry entry = entriesByKey.get(key);
+            if (entry != null && entry.expiresAt().isAfter(clock.instant())) {
+                hits.incrementAndGet();
+                return true;
+            }
+            if (entry != null) entriesByKey.remove(key);
+            misses.incrementAndGet();
+            return false;
+        }
+    }
+
+    public void put(String username, String presentedPassword, String storedPassword) {
+        if (username == null || presentedPassword == null || storedPassword == null) return;
+        String key = key(username, presentedPassword, storedPassword);
+        Entry entry = new Entry(username, clock.instant().plus(ttl));
+        synchronized (this) {
+            entriesByKey.put(key, entry);
+        }
+    }
+
+    public synchronized void evictUser(String username) {
+        entriesByKey.values().removeIf(entry -> entry.username().equals(username));
+    }
+
+    public synchronized void evictAll() {
+        entriesByKey.clear();
+    }
+
+    public synchronized int size() {
+        return entriesByKey.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.size", this, CredentialCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    private String key(String username, String presentedPassword, String storedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(presentedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(storedPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to hash credentials", e);
+        }
+    }
+
+    private record Entry(String username, Instant expiresAt) {
+    }
+}
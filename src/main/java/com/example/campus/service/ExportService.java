@@ -0,0 +1,84 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.CourseRegistrationDTO;
+import com.example.campus.entity.Course;
+import com.example.campus.entity.User;
+import com.example.campus.repository.CourseRegistrationRepository;
+import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class ExportService {
+    public static final int CLEAR_INTERVAL = 500;
+
+    private final CourseRegistrationRepository courseRegistrationRepository;
+    private final CourseRepository courseRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+
+    public ExportService(
+            CourseRegistrationRepository courseRegistrationRepository,
+            CourseRepository courseRepository,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            UserRepository userRepository
+    ) {
+        this.courseRegistrationRepository = courseRegistrationRepository;
+        this.courseRepository = courseRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream output) throws IOException {
+        try (Stream<User> users = userRepository.streamAll()) {
+            log.info("Exported {} users", write(users, output));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCourses(OutputStream output) throws IOException {
+        try (Stream<Course> courses = courseRepository.streamAll()) {
+            log.info("Exported {} courses", write(courses, output));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportRegistrations(OutputStream output) throws IOException {
+        try (Stream<CourseRegistrationDTO> registrations = courseRegistrationRepository.streamAllRegistrations()) {
+            log.info("Exported {} course registrations", write(registrations, output));
+        }
+    }
+
+    private <T> long write(Stream<T> rows, OutputStream output) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(output)) {
+            for (Iterator<T> iterator = rows.iterator(); iterator.hasNext(); ) {
+                writer.write(iterator.next());
+                if (++count % CLEAR_INTERVAL == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
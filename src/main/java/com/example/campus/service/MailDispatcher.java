@@ -0,0 +1,308 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.OutboxMail;
+import com.example.campus.entity.OutboxMail.Status;
+import com.example.campus.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class MailDispatcher implements SmartLifecycle, MeterBinder {
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 2048;
+
+    private final JavaMailSender mailSender;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int maxPerSecond;
+    private final Duration pollInterval;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration shutdownTimeout;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private final AtomicLong nextPermitAt = new AtomicLong(System.nanoTime());
+    private volatile boolean running;
+    private ExecutorService senders;
+    private Thread poller;
+
+    @Autowired
+    public MailDispatcher(
+            JavaMailSender mailSender,
+            MailOutboxRepository mailOutboxRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.mail.outbox.workers:4}") int workers,
+            @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+            @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.mail.outbox.max-per-second:0}") int maxPerSecond,
+            @Value("${app.mail.outbox.poll-interval:PT5S}") Duration pollInterval,
+            @Value("${app.mail.outbox.initial-backoff:PT30S}") Duration initialBackoff,
+            @Value("${app.mail.outbox.max-backoff:PT1H}") Duration maxBackoff,
+            @Value("${app.mail.outbox.lease:PT5M}") Duration lease,
+            @Value("${app.mail.outbox.shutdown-timeout:PT30S}") Duration shutdownTimeout
+    ) {
+        this(mailSender, mailOutboxRepository, transactionTemplate, Clock.systemDefaultZone(), workers, batchSize, maxAttempts, maxPerSecond,
+                pollInterval, initialBackoff, maxBackoff, lease, shutdownTimeout);
+    }
+
+    MailDispatcher(
+            JavaMailSender mailSender,
+            MailOutboxRepository mailOutboxRepository,
+            TransactionTemplate transactionTemplate,
+            Clock clock,
+            int workers,
+            int batchSize,
+            int maxAttempts,
+            int maxPerSecond,
+            Duration pollInterval,
+            Duration initialBackoff,
+            Duration maxBackoff,
+            Duration lease,
+            Duration shutdownTimeout
+    ) {
+        this.mailSender = mailSender;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.maxPerSecond = maxPerSecond;
+        this.pollInterval = pollInterval;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) wakeUps.release();
+    }
+
+    public void wakeUpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    public int dispatchDue() {
+        String claim = UUID.randomUUID().toString();
+        LocalDateTime now = now();
+        List<OutboxMail> claimed = transactionTemplate.execute(status -> {
+            List<Long> ids = mailOutboxRepository.findDueIds(now, Limit.of(batchSize * workers));
+            if (ids.isEmpty() || mailOutboxRepository.claim(ids, claim, now, now.plus(lease)) == 0) return List.of();
+            return mailOutboxRepository.findByClaimOrderById(claim);
+        });
+        if (claimed == null || claimed.isEmpty()) return 0;
+        List<Callable<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<OutboxMail> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+            batches.add(() -> {
+                send(claim, batch);
+                return null;
+            });
+        }
+        try {
+            if (senders != null) {
+                senders.invokeAll(batches);
+            } else {
+                for (Callable<Void> batch : batches) batch.call();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Failed to dispatch {} outbox mails", claimed.size(), e);
+        }
+        return claimed.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        senders = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller = new Thread(this::pollLoop, "mail-dispatcher");
+        poller.setDaemon(true);
+        poller.start();
+        log.info("Mail dispatcher started with {} workers and batch size: {}", workers, batchSize);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        wakeUp();
+        try {
+            poller.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        senders.shutdownNow();
+        senders = null;
+        log.info("Mail dispatcher stopped after sending {} mails", sent.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getDead() {
+        return dead.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mail.outbox.sent", sent, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("mail.outbox.failed", failed, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("mail.outbox.dead", dead, AtomicLong::get)
+                .register(registry);
+    }
+
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = initialBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                if (dispatchDue() > 0) continue;
+                wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to poll mail outbox: {}", e.getMessage());
+                sleep();
+            }
+        }
+    }
+
+    private void send(String claim, List<OutboxMail> batch) throws InterruptedException {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        Map<Object, OutboxMail> mailsByMessage = new IdentityHashMap<>();
+        for (int i = 0; i < messages.length; i++) {
+            OutboxMail mail = batch.get(i);
+            messages[i] = new SimpleMailMessage();
+            messages[i].setTo(mail.getRecipient());
+            messages[i].setSubject(mail.getSubject());
+            messages[i].setText(mail.getText());
+            mailsByMessage.put(messages[i], mail);
+        }
+        Map<OutboxMail, Exception> failures = new IdentityHashMap<>();
+        throttle(messages.length);
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                batch.forEach(mail -> failures.put(mail, e));
+            } else {
+                e.getFailedMessages().forEach((message, cause) -> {
+                    OutboxMail mail = mailsByMessage.get(message);
+                    if (mail != null) failures.put(mail, cause);
+                });
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> failures.put(mail, e));
+        }
+        LocalDateTime now = now();
+        List<Long> delivered = batch.stream().filter(mail -> !failures.containsKey(mail)).map(OutboxMail::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) mailOutboxRepository.markSent(delivered, claim, now);
+            failures.forEach((mail, cause) -> markFailed(claim, mail, cause, now));
+        });
+        sent.addAndGet(delivered.size());
+        if (!failures.isEmpty()) failed.addAndGet(failures.size());
+    }
+
+    private void markFailed(String claim, OutboxMail mail, Exception cause, LocalDateTime now) {
+        String error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        if (error.length() > OutboxMail.MAX_ERROR_LENGTH) error = error.substring(0, OutboxMail.MAX_ERROR_LENGTH);
+        if (mail.getAttempts() >= maxAttempts) {
+            log.error("Giving up on mail with ID: {} to {} after {} attempts: {}", mail.getId(), mail.getRecipient(), mail.getAttempts(), error);
+            mailOutboxRepository.markFailed(mail.getId(), claim, Status.DEAD, now, error);
+            dead.incrementAndGet();
+        } else {
+            LocalDateTime nextAttemptAt = now.plus(backoff(mail.getAttempts()));
+            log.warn("Failed to send mail with ID: {} to {} on attempt {}, retrying at {}: {}", mail.getId(), mail.getRecipient(), mail.getAttempts(), nextAttemptAt, error);
+            mailOutboxRepository.markFailed(mail.getId(), claim, Status.PENDING, nextAttemptAt, error);
+        }
+    }
+
+    private void throttle(int permits) throws InterruptedException {
+        if (maxPerSecond <= 0) return;
+        long cost = TimeUnit.SECONDS.toNanos(permits) / maxPerSecond;
+        long now = System.nanoTime();
+        long start = Math.max(nextPermitAt.getAndAccumulate(cost, (next, reserved) -> Math.max(next, now) + reserved), now);
+        if (start > now) TimeUnit.NANOSECONDS.sleep(start - now);
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
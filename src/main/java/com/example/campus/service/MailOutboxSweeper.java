@@ -0,0 +1,64 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.OutboxMail.Status;
+import com.example.campus.repository.MailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class MailOutboxSweeper {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration sentRetention;
+    private final Duration deadRetention;
+    private final int chunkSize;
+
+    public MailOutboxSweeper(
+            MailOutboxRepository mailOutboxRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.mail.outbox.sent-retention:PT24H}") Duration sentRetention,
+            @Value("${app.mail.outbox.dead-retention:P7D}") Duration deadRetention,
+            @Value("${app.mail.outbox.sweep-chunk-size:500}") int chunkSize
+    ) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sentRetention = sentRetention;
+        this.deadRetention = deadRetention;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.sweep-interval:PT10M}", initialDelayString = "${app.mail.outbox.sweep-interval:PT10M}")
+    public void sweep() {
+        sweepFinishedBefore(LocalDateTime.now());
+    }
+
+    public long sweepFinishedBefore(LocalDateTime now) {
+        long sent = sweep(Status.SENT, now.minus(sentRetention));
+        long dead = sweep(Status.DEAD, now.minus(deadRetention));
+        if (sent + dead > 0) log.info("Deleted {} sent and {} dead outbox mails", sent, dead);
+        return sent + dead;
+    }
+
+    private long sweep(Status status, LocalDateTime before) {
+        long deleted = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(transaction -> {
+                List<Long> ids = mailOutboxRepository.findFinishedIds(status, before, Limit.of(chunkSize));
+                return ids.isEmpty() ? 0 : mailOutboxRepository.deleteByIdIn(ids);
+            });
+            if (chunk == null || chunk == 0) break;
+            deleted += chunk;
+        }
+        return deleted;
+    }
+}
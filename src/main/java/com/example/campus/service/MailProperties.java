@@ -10,6 +10,12 @@ public class MailProperties {
     private String resetPasswordUrl;
     private String resetPasswordSubject;
     private String resetPasswordText;
+    private String courseOpenedSubject;
+    private String courseOpenedText;
+    private String courseClosedSubject;
+    private String courseClosedText;
+    private String courseRescheduledSubject;
+    private String courseRescheduledText;
 
     public String getResetPasswordUrl() {
         return resetPasswordUrl;
@@ -34,4 +40,52 @@ public class MailProperties {
     public void setResetPasswordText(String resetPasswordText) {
         this.resetPasswordText = resetPasswordText;
     }
+
+    public String getCourseOpenedSubject() {
+        return courseOpenedSubject;
+    }
+
+    public void setCourseOpenedSubject(String courseOpenedSubject) {
+        this.courseOpenedSubject = courseOpenedSubject;
+    }
+
+    public String getCourseOpenedText() {
+        return courseOpenedText;
+    }
+
+    public void setCourseOpenedText(String courseOpenedText) {
+        this.courseOpenedText = courseOpenedText;
+    }
+
+    public String getCourseClosedSubject() {
+        return courseClosedSubject;
+    }
+
+    public void setCourseClosedSubject(String courseClosedSubject) {
+        this.courseClosedSubject = courseClosedSubject;
+    }
+
+    public String getCourseClosedText() {
+        return courseClosedText;
+    }
+
+    public void setCourseClosedText(String courseClosedText) {
+        this.courseClosedText = courseClosedText;
+    }
+
+    public String getCourseRescheduledSubject() {
+        return courseRescheduledSubject;
+    }
+
+    public void setCourseRescheduledSubject(String courseRescheduledSubject) {
+        this.courseRescheduledSubject = courseRescheduledSubject;
+    }
+
+    public String getCourseRescheduledText() {
+        return courseRescheduledText;
+    }
+
+    public void setCourseRescheduledText(String courseRescheduledText) {
+        this.courseRescheduledText = courseRescheduledText;
+    }
 }
@@ -1,36 +1,45 @@
 package com.example.campus.service;
 
+import com.example.campus.entity.OutboxMail;
 import com.example.campus.entity.User;
+import com.example.campus.repository.MailOutboxRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Service
 @Slf4j
 public class MailService {
 
-    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
+    private final MailOutboxRepository mailOutboxRepository;
     private final MailProperties mailProperties;
 
-    public MailService(JavaMailSender mailSender, MailProperties mailProperties) {
-        this.mailSender = mailSender;
+    public MailService(MailDispatcher mailDispatcher, MailOutboxRepository mailOutboxRepository, MailProperties mailProperties) {
+        this.mailDispatcher = mailDispatcher;
+        this.mailOutboxRepository = mailOutboxRepository;
         this.mailProperties = mailProperties;
     }
 
-    public void sendPasswordResetMail(User user, String token) {
-        SimpleMailMessage passwordResetEmail = new SimpleMailMessage();
-        passwordResetEmail.setTo(user.getEmail());
-        passwordResetEmail.setSubject(mailProperties.getResetPasswordSubject());
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queuePasswordResetMail(User user, String token) {
         String resetUrl = String.format(mailProperties.getResetPasswordUrl(), token);
-        passwordResetEmail.setText(String.format(mailProperties.getResetPasswordText(), resetUrl));
-        try {
-            mailSender.send(passwordResetEmail);
-            log.info("Password reset mail sent to {}", user.getEmail());
-        } catch (MailException e) {
-            log.error("Error occurred when sending password reset mail to {}", user.getEmail(), e);
-            throw e;
-        }
+        OutboxMail mail = queue(user.getEmail(), mailProperties.getResetPasswordSubject(), String.format(mailProperties.getResetPasswordText(), resetUrl));
+        log.info("Password reset mail with ID: {} queued for {}", mail.getId(), user.getEmail());
+    }
+
+    private OutboxMail queue(String recipient, String subject, String text) {
+        OutboxMail mail = new OutboxMail();
+        mail.setRecipient(recipient);
+        mail.setSubject(subject);
+        mail.setText(text);
+        mail.setNextAttemptAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        OutboxMail queued = mailOutboxRepository.save(mail);
+        mailDispatcher.wakeUpAfterCommit();
+        return queued;
     }
 }
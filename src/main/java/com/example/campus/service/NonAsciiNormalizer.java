@@ -1,10 +1,7 @@
 package com.example.campus.service;
 
-import org.springframework.stereotype.Service;
-
 import java.text.Normalizer;
 
-@Service
 public class NonAsciiNormalizer implements TextSanitizer {
     @Override
     public String normalize(String input) {
@@ -6,58 +6,90 @@ import com.example.campus.exception.InvalidTokenException;
 import com.example.campus.exception.UserNotFoundException;
 import com.example.campus.repository.PasswordResetTokenRepository;
 import com.example.campus.util.SecurityUtil;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
 
 @Service
 public class PasswordResetService {
+    private static final int TOKEN_BYTES = 32;
 
+    private final CredentialCache credentialCache;
     private final UserService userService;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final MailService mailService;
+    private final SecureRandom random = new SecureRandom();
 
-    public PasswordResetService(UserService userService,
+    public PasswordResetService(CredentialCache credentialCache,
+                                UserService userService,
                                 PasswordResetTokenRepository passwordResetTokenRepository,
-                                BCryptPasswordEncoder passwordEncoder,
+                                PasswordEncoder passwordEncoder,
                                 MailService mailService
     ) {
+        this.credentialCache = credentialCache;
         this.userService = userService;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.passwordEncoder = passwordEncoder;
         this.mailService = mailService;
     }
 
+    @Transactional
     public void createPasswordResetTokenForUser(String username) throws UserNotFoundException {
         User user = userService.findUserByUsername(username);
-        String token = UUID.randomUUID().toString();
+        byte[] secret = new byte[TOKEN_BYTES];
+        random.nextBytes(secret);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        passwordResetTokenRepository.deleteByUserId(user.getId());
         PasswordResetToken passwordResetToken = new PasswordResetToken();
         passwordResetToken.setUser(user);
-        passwordResetToken.setToken(token);
+        passwordResetToken.setTokenHash(hash(token));
         passwordResetToken.setExpiryDate(LocalDateTime.now().plusHours(1));
         passwordResetTokenRepository.save(passwordResetToken);
 
-        mailService.sendPasswordResetMail(user, token);
+        mailService.queuePasswordResetMail(user, token);
     }
 
+    @Transactional
     public void resetPassword(String token, String newPassword) throws InvalidTokenException {
-        String username = SecurityUtil.getUsername();
-        if (validatePasswordResetToken(token)) {
-            PasswordResetToken passwordResetToken = passwordResetTokenRepository.findByToken(token);
-            User user = passwordResetToken.getUser();
-            user.setPassword(passwordEncoder.encode(newPassword));
-            userService.saveUser(username, user);
-            passwordResetTokenRepository.delete(passwordResetToken);
-        } else {
-            throw new InvalidTokenException("Invalid or expired token");
-        }
+        PasswordResetToken passwordResetToken = findValidToken(token)
+                .orElseThrow(() -> new InvalidTokenException("Invalid or expired token"));
+        User user = passwordResetToken.getUser();
+        String requester = SecurityUtil.getCurrentUsername().orElse(user.getUsername());
+        // Auditing leaves updatedBy untouched for anonymous callers, so the token's owner is recorded explicitly
+        user.setUpdatedBy(requester);
+        user.setPassword(passwordEncoder.encode(newPassword));
+        userService.saveUser(requester, user);
+        credentialCache.evictUser(user.getUsername());
+        userService.revokeTokens(user.getUsername());
+        passwordResetTokenRepository.delete(passwordResetToken);
     }
 
     public boolean validatePasswordResetToken(String token) {
-        PasswordResetToken passwordResetToken = passwordResetTokenRepository.findByToken(token);
-        return passwordResetToken != null && passwordResetToken.getExpiryDate().isAfter(LocalDateTime.now());
+        return findValidToken(token).isPresent();
+    }
+
+    private Optional<PasswordResetToken> findValidToken(String token) {
+        if (token == null) return Optional.empty();
+        return passwordResetTokenRepository.findByTokenHash(hash(token))
+                .filter(passwordResetToken -> passwordResetToken.getExpiryDate().isAfter(LocalDateTime.now()));
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,50 @@
+package com.example.campus.service;
+
+import com.example.campus.repository.PasswordResetTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class PasswordResetTokenSweeper {
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public PasswordResetTokenSweeper(
+            PasswordResetTokenRepository passwordResetTokenRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.password-reset.sweep-chunk-size:500}") int chunkSize
+    ) {
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.password-reset.sweep-interval:PT10M}", initialDelayString = "${app.password-reset.sweep-interval:PT10M}")
+    public void sweep() {
+        sweepExpiredBefore(LocalDateTime.now());
+    }
+
+    public long sweepExpiredBefore(LocalDateTime now) {
+        long deleted = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = passwordResetTokenRepository.findExpiredIds(now, Limit.of(chunkSize));
+                return ids.isEmpty() ? 0 : passwordResetTokenRepository.deleteByIdIn(ids);
+            });
+            if (chunk == null || chunk == 0) break;
+            deleted += chunk;
+        }
+        if (deleted > 0) log.info("Deleted {} expired password reset tokens", deleted);
+        return deleted;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.Permission;
+import com.example.campus.entity.Role;
+import com.example.campus.entity.User;
+import com.example.campus.util.PermissionSet;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class PermissionCache implements MeterBinder {
+    private static final String CACHE_NAME = "permissions";
+
+    private final int maxSize;
+    private final Map<Long, Entry> entriesByUserId;
+    private final Map<String, Long> userIdsByUsername = new HashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PermissionCache(@Value("${app.permission-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entriesByUserId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= PermissionCache.this.maxSize) return false;
+                userIdsByUsername.remove(eldest.getValue().username(), eldest.getKey());
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    public synchronized Optional<Entry> getByUserId(Long userId) {
+        return record(entriesByUserId.get(userId));
+    }
+
+    public synchronized Optional<Entry> getByUsername(String username) {
+        Long userId = userIdsByUsername.get(username);
+        return record(userId != null ? entriesByUserId.get(userId) : null);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public Entry put(long loadedAtGeneration, User user) {
+        Set<Long> roleIds = new HashSet<>();
+        PermissionSet permissionSet = PermissionSet.EMPTY;
+        for (Role role : user.getEffectiveRoles()) {
+            if (role.getId() != null) roleIds.add(role.getId());
+            permissionSet = permissionSet.or(role.getPermissionSet());
+        }
+        Entry entry = new Entry(user.getUsername(), List.copyOf(user.getPermissions()), permissionSet, Set.copyOf(roleIds));
+        synchronized (this) {
+            if (loadedAtGeneration == generation.get() && user.getId() != null) {
+                evict(user.getId());
+                entriesByUserId.put(user.getId(), entry);
+                if (user.getUsername() != null) userIdsByUsername.put(user.getUsername(), user.getId());
+            }
+        }
+        return entry;
+    }
+
+    public void evictUser(Long userId) {
+        nowAndAfterCompletion(() -> evict(userId));
+    }
+
+    public void evictRole(Long roleId) {
+        nowAndAfterCompletion(() -> entriesByUserId.entrySet().removeIf(entry -> {
+            if (!entry.getValue().roleIds().contains(roleId)) return false;
+            userIdsByUsername.remove(entry.getValue().username(), entry.getKey());
+            return true;
+        }));
+    }
+
+    public void evictAll() {
+        nowAndAfterCompletion(() -> {
+            entriesByUserId.clear();
+            userIdsByUsername.clear();
+        });
+    }
+
+    public synchronized int size() {
+        return entriesByUserId.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.size", this, PermissionCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    // Evicting only before commit would let a concurrent load re-cache the old permissions
+    // between the eviction and the commit, so the eviction is repeated once the
+    // transaction has completed.
+    private void nowAndAfterCompletion(Runnable eviction) {
+        Runnable generationalEviction = () -> {
+            synchronized (this) {
+                generation.incrementAndGet();
+                eviction.run();
+            }
+        };
+        generationalEviction.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                generationalEviction.run();
+            }
+        });
+    }
+
+    private Optional<Entry> record(Entry entry) {
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(entry);
+    }
+
+    private void evict(Long userId) {
+        Entry entry = entriesByUserId.remove(userId);
+        if (entry != null) userIdsByUsername.remove(entry.username(), userId);
+    }
+
+    public record Entry(String username, List<Permission> permissions, PermissionSet permissionSet, Set<Long> roleIds) {
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.campus.service;
 
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.Permission;
+import com.example.campus.exception.InvalidCursorException;
 import com.example.campus.exception.PermissionNotFoundException;
+import com.example.campus.exception.VersionMismatchException;
 import com.example.campus.repository.PermissionRepository;
-import com.example.campus.util.EntitySaver;
+import com.example.campus.util.Cursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,16 +17,20 @@ import java.util.List;
 @Slf4j
 public class PermissionService {
 
-    private final AuditableService auditableService;
+    private final PermissionCache permissionCache;
     private final PermissionRepository permissionRepository;
+    private final TokenRevocationList tokenRevocationList;
 
-    public PermissionService(AuditableService auditableService, PermissionRepository permissionRepository) {
-        this.auditableService = auditableService;
+    public PermissionService(PermissionCache permissionCache, PermissionRepository permissionRepository, TokenRevocationList tokenRevocationList) {
+        this.permissionCache = permissionCache;
         this.permissionRepository = permissionRepository;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
-    public List<Permission> findAllPermissions() {
-        return permissionRepository.findAll();
+    public CursorPageDTO<Permission> findAllPermissions(String after, int limit) throws InvalidCursorException {
+        Cursor cursor = Cursor.decode(after);
+        List<Permission> permissions = permissionRepository.findAfter(cursor.key(), cursor.id(), Limit.of(limit + 1));
+        return Cursor.page(permissions, limit, permission -> new Cursor(permission.getName(), permission.getId()));
     }
 
     public Permission findPermissionById(Long permissionId) throws PermissionNotFoundException {
@@ -30,18 +38,24 @@ public class PermissionService {
     }
 
     public Permission savePermission(String requester, Permission permission) {
-        return EntitySaver.saveEntity(auditableService, permissionRepository, requester, permission);
-
+        log.info("Saving permission with ID: {} requested by: {}", permission.getId(), requester);
+        return permissionRepository.save(permission);
     }
 
-    public Permission updatePermission(String requester, Long permissionId, Permission permissionDetails) throws PermissionNotFoundException {
+    public Permission updatePermission(String requester, Long permissionId, Permission permissionDetails, Long expectedVersion) throws PermissionNotFoundException, VersionMismatchException {
         Permission permission = findPermissionById(permissionId);
+        permission.requireVersion(expectedVersion);
         if (permissionDetails.getName() != null) permission.setName(permissionDetails.getName());
-        return savePermission(requester, permission);
+        Permission updatedPermission = savePermission(requester, permission);
+        permissionCache.evictAll();
+        tokenRevocationList.revokeAll();
+        return updatedPermission;
     }
 
     public void deletePermission(String requester, Long permissionId) {
         log.info("Deleting permission with id: {} by user: {}", permissionId, requester);
         permissionRepository.deleteById(permissionId);
+        permissionCache.evictAll();
+        tokenRevocationList.revokeAll();
     }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.example.campus.service;
+
+import com.example.campus.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class RateLimiter implements MeterBinder {
+    static final int SHARDS = 16;
+
+    private final Clock clock;
+    private final Buckets usernames;
+    private final Buckets clientIps;
+
+    @Autowired
+    public RateLimiter(
+            @Value("${app.rate-limit.username.capacity:5}") int usernameCapacity,
+            @Value("${app.rate-limit.username.refill-interval:PT1M}") Duration usernameRefillInterval,
+            @Value("${app.rate-limit.client-ip.capacity:50}") int clientIpCapacity,
+            @Value("${app.rate-limit.client-ip.refill-interval:PT0.2S}") Duration clientIpRefillInterval
+    ) {
+        this(usernameCapacity, usernameRefillInterval, clientIpCapacity, clientIpRefillInterval, Clock.systemUTC());
+    }
+
+    RateLimiter(int usernameCapacity, Duration usernameRefillInterval, int clientIpCapacity, Duration clientIpRefillInterval, Clock clock) {
+        this.clock = clock;
+        this.usernames = new Buckets("username", usernameCapacity, usernameRefillInterval);
+        this.clientIps = new Buckets("client-ip", clientIpCapacity, clientIpRefillInterval);
+    }
+
+    public void acquire(String clientIp, String username) {
+        long now = clock.millis();
+        if (clientIp != null) clientIps.acquire(clientIp, now);
+        if (username != null) usernames.acquire(username, now);
+    }
+
+    public void checkUsername(String username) {
+        usernames.check(username, clock.millis());
+    }
+
+    public void chargeUsername(String username) {
+        usernames.charge(username, clock.millis());
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval:PT1M}", initialDelayString = "${app.rate-limit.eviction-interval:PT1M}")
+    public void evictIdle() {
+        long now = clock.millis();
+        usernames.evictIdle(now);
+        clientIps.evictIdle(now);
+    }
+
+    public int size() {
+        return usernames.size() + clientIps.size();
+    }
+
+    public long getRejected() {
+        return usernames.rejected.get() + clientIps.rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Buckets buckets : new Buckets[]{usernames, clientIps}) {
+            FunctionCounter.builder("rate.limit.rejected", buckets.rejected, AtomicLong::get)
+                    .tags("key", buckets.name)
+                    .register(registry);
+            FunctionCounter.builder("rate.limit.evictions", buckets.evictions, AtomicLong::get)
+                    .tags("key", buckets.name)
+                    .register(registry);
+            Gauge.builder("rate.limit.buckets", buckets, Buckets::size)
+                    .tags("key", buckets.name)
+                    .register(registry);
+        }
+    }
+
+    private static final class Buckets {
+        private final String name;
+        private final long interval;
+        private final long burst;
+        private final Map<String, AtomicLong>[] shards;
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        @SuppressWarnings("unchecked")
+        Buckets(String name, int capacity, Duration refillInterval) {
+            if (capacity < 1) throw new IllegalArgumentException("Rate limit capacity must be positive");
+            if (refillInterval.toMillis() < 1) throw new IllegalArgumentException("Rate limit refill interval must be at least 1ms");
+            this.name = name;
+            this.interval = refillInterval.toMillis();
+            this.burst = interval * capacity;
+            this.shards = new Map[SHARDS];
+            for (int i = 0; i < SHARDS; i++) {
+                shards[i] = new ConcurrentHashMap<>();
+            }
+        }
+
+        // Each bucket holds only the time at which it would be empty again (GCRA): a request
+        // is allowed while that time stays within capacity * interval of now.
+        void acquire(String key, long now) {
+            Map<String, AtomicLong> shard = shard(key);
+            AtomicLong bucket = shard.get(key);
+            if (bucket == null) bucket = shard.computeIfAbsent(key, k -> new AtomicLong(now));
+            while (true) {
+                long drainedAt = bucket.get();
+                long next = Math.max(drainedAt, now) + interval;
+                long wait = next - now - burst;
+                if (wait > 0) reject(wait);
+                if (bucket.compareAndSet(drainedAt, next)) return;
+            }
+        }
+
+        void check(String key, long now) {
+            AtomicLong bucket = shard(key).get(key);
+            if (bucket == null) return;
+            long wait = Math.max(bucket.get(), now) + interval - now - burst;
+            if (wait > 0) reject(wait);
+        }
+
+        // Charging never rejects, but stops at an empty bucket so repeated charges cannot push
+        // the key further out than a single interval.
+        void charge(String key, long now) {
+            Map<String, AtomicLong> shard = shard(key);
+            AtomicLong bucket = shard.get(key);
+            if (bucket == null) bucket = shard.computeIfAbsent(key, k -> new AtomicLong(now));
+            while (true) {
+                long drainedAt = bucket.get();
+                long next = Math.min(Math.max(drainedAt, now) + interval, now + burst);
+                if (next <= drainedAt || bucket.compareAndSet(drainedAt, next)) return;
+            }
+        }
+
+        // A bucket whose drain time has passed is full again, so dropping it is indistinguishable
+        // from keeping it.
+        void evictIdle(long now) {
+            for (Map<String, AtomicLong> shard : shards) {
+                for (Map.Entry<String, AtomicLong> entry : shard.entrySet()) {
+                    if (entry.getValue().get() <= now && shard.remove(entry.getKey(), entry.getValue())) {
+                        evictions.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Map<String, AtomicLong> shard : shards) {
+                size += shard.size();
+            }
+            return size;
+        }
+
+        private void reject(long wait) {
+            rejected.incrementAndGet();
+            throw new RateLimitExceededException("Too many requests for " + name, Duration.ofMillis(wait));
+        }
+
+        private Map<String, AtomicLong> shard(String key) {
+            int hash = key.hashCode();
+            return shards[(hash ^ (hash >>> 16)) & (SHARDS - 1)];
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.RegistrationDedupResultDTO;
+import com.example.campus.entity.ChangeHistory;
+import com.example.campus.entity.CourseRegistration;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+@Slf4j
+public class RegistrationDedupService {
+    public static final int CHUNK_SIZE = 500;
+    private static final String SELECT_USER_IDS = "SELECT DISTINCT cr.user.id FROM CourseRegistration cr " +
+            "WHERE cr.user.id > :after ORDER BY cr.user.id";
+    private static final String SELECT_DUPLICATES = "SELECT new com.example.campus.service.RegistrationDedupService$Duplicate(cr.id, cr.user.id, cr.course.id) " +
+            "FROM CourseRegistration cr WHERE cr.user.id IN :userIds AND EXISTS (SELECT newer.id FROM CourseRegistration newer " +
+            "WHERE newer.user = cr.user AND newer.course = cr.course AND newer.id > cr.id)";
+    private static final String DELETE_DUPLICATES = "DELETE FROM CourseRegistration cr WHERE cr.id IN :ids";
+    private static final String RECOUNT_SEATS = "UPDATE Course c SET c.seatsTaken = " +
+            "(SELECT COUNT(cr.id) FROM CourseRegistration cr WHERE cr.course = c) WHERE c.id IN :courseIds";
+
+    private final ChangeHistoryWriter changeHistoryWriter;
+    private final CourseSeatCounter courseSeatCounter;
+    private final EntityManager entityManager;
+    private final PermissionCache permissionCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public RegistrationDedupService(
+            ChangeHistoryWriter changeHistoryWriter,
+            CourseSeatCounter courseSeatCounter,
+            EntityManager entityManager,
+            PermissionCache permissionCache,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.changeHistoryWriter = changeHistoryWriter;
+        this.courseSeatCounter = courseSeatCounter;
+        this.entityManager = entityManager;
+        this.permissionCache = permissionCache;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public RegistrationDedupResultDTO deduplicate(String requester, Long after) {
+        log.info("Removing duplicate course registrations after user ID: {} requested by: {}", after, requester);
+        RegistrationDedupResultDTO result = new RegistrationDedupResultDTO(0, 0, after);
+        while (true) {
+            long start = result.getLastUserId() != null ? result.getLastUserId() : 0L;
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<Long> userIds = entityManager.createQuery(SELECT_USER_IDS, Long.class)
+                        .setParameter("after", start)
+                        .setMaxResults(CHUNK_SIZE)
+                        .getResultList();
+                if (userIds.isEmpty()) return null;
+                List<Duplicate> duplicates = entityManager.createQuery(SELECT_DUPLICATES, Duplicate.class)
+                        .setParameter("userIds", userIds)
+                        .getResultList();
+                if (!duplicates.isEmpty()) {
+                    entityManager.createQuery(DELETE_DUPLICATES)
+                            .setParameter("ids", duplicates.stream().map(Duplicate::id).toList())
+                            .executeUpdate();
+                    entityManager.createQuery(RECOUNT_SEATS)
+                            .setParameter("courseIds", duplicates.stream().map(Duplicate::courseId).distinct().toList())
+                            .executeUpdate();
+                }
+                return new Chunk(userIds.get(userIds.size() - 1), duplicates);
+            });
+            if (chunk == null) break;
+            afterChunk(requester, chunk.duplicates());
+            result.setRemoved(result.getRemoved() + chunk.duplicates().size());
+            result.setChunks(result.getChunks() + 1);
+            result.setLastUserId(chunk.lastUserId());
+        }
+        log.info("Removed {} duplicate course registrations in {} chunks requested by: {}", result.getRemoved(), result.getChunks(), requester);
+        return result;
+    }
+
+    private void afterChunk(String requester, List<Duplicate> duplicates) {
+        if (duplicates.isEmpty()) return;
+        Set<Long> courseIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        List<ChangeHistory> changes = new ArrayList<>(duplicates.size());
+        for (Duplicate duplicate : duplicates) {
+            courseIds.add(duplicate.courseId());
+            userIds.add(duplicate.userId());
+            changes.add(new ChangeHistory(null, CourseRegistration.class.getSimpleName(), duplicate.id(), ChangeHistory.Action.DELETE, null, null, null, requester, now));
+        }
+        courseIds.forEach(courseSeatCounter::evict);
+        userIds.forEach(permissionCache::evictUser);
+        changeHistoryWriter.record(changes);
+    }
+
+    public record Duplicate(Long id, Long userId, Long courseId) {
+    }
+
+    private record Chunk(Long lastUserId, List<Duplicate> duplicates) {
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.campus.service;
 
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.Permission;
 import com.example.campus.entity.Role;
+import com.example.campus.exception.InvalidCursorException;
 import com.example.campus.exception.PermissionNotFoundException;
 import com.example.campus.exception.RoleNotFoundException;
+import com.example.campus.exception.VersionMismatchException;
 import com.example.campus.repository.RoleRepository;
-import com.example.campus.util.EntitySaver;
+import com.example.campus.repository.UserRepository;
+import com.example.campus.util.Cursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,41 +19,53 @@ import java.util.List;
 @Service
 @Slf4j
 public class RoleService {
-    private final AuditableService auditableService;
+    private final PermissionCache permissionCache;
     private final PermissionService permissionService;
     private final RoleRepository roleRepository;
+    private final TokenRevocationList tokenRevocationList;
+    private final UserRepository userRepository;
 
     public RoleService(
-            AuditableService auditableService,
+            PermissionCache permissionCache,
             PermissionService permissionService,
-            RoleRepository roleRepository
+            RoleRepository roleRepository,
+            TokenRevocationList tokenRevocationList,
+            UserRepository userRepository
     ) {
-        this.auditableService = auditableService;
+        this.permissionCache = permissionCache;
         this.permissionService = permissionService;
         this.roleRepository = roleRepository;
+        this.tokenRevocationList = tokenRevocationList;
+        this.userRepository = userRepository;
     }
 
-    public List<Role> findAllRoles() {
-        return roleRepository.findAll();
+    public CursorPageDTO<Role> findAllRoles(String after, int limit) throws InvalidCursorException {
+        Cursor cursor = Cursor.decode(after);
+        List<Role> roles = roleRepository.findAfter(cursor.key(), cursor.id(), Limit.of(limit + 1));
+        return Cursor.page(roles, limit, role -> new Cursor(role.getName(), role.getId()));
     }
 
     public Role saveRole(String requester, Role role) {
-        return EntitySaver.saveEntity(auditableService, roleRepository, requester, role);
+        log.info("Saving role with ID: {} requested by: {}", role.getId(), requester);
+        return roleRepository.save(role);
     }
 
     public Role findRoleById(Long roleId) throws RoleNotFoundException {
         return roleRepository.findById(roleId).orElseThrow(() -> new RoleNotFoundException("Role not found with id: " + roleId));
     }
 
-    public Role updateRole(String requester, Long roleId, Role roleDetails) throws RoleNotFoundException {
+    public Role updateRole(String requester, Long roleId, Role roleDetails, Long expectedVersion) throws RoleNotFoundException, VersionMismatchException {
         Role role = findRoleById(roleId);
+        role.requireVersion(expectedVersion);
         if (role.getName() != null) role.setName(roleDetails.getName());
         return saveRole(requester, role);
     }
 
     public void deleteRole(String requester, Long roleId) {
         log.info("Deleting role with id: {} by user: {}", roleId, requester);
+        revokeHolderTokens(roleId);
         roleRepository.deleteById(roleId);
+        permissionCache.evictRole(roleId);
     }
 
     public List<Permission> getPermissionsByRoleId(Long roleId) throws RoleNotFoundException {
@@ -60,13 +77,24 @@ public class RoleService {
         Role role = findRoleById(roleId);
         Permission permission = permissionService.findPermissionById(permissionId);
         role.getPermissions().add(permission);
-        return saveRole(requester, role);
+        Role updatedRole = saveRole(requester, role);
+        permissionCache.evictRole(roleId);
+        return updatedRole;
     }
 
     public Role removePermissionFromRole(String requester, Long roleId, Long permissionId) throws PermissionNotFoundException, RoleNotFoundException {
         Role role = findRoleById(roleId);
         Permission permission = permissionService.findPermissionById(permissionId);
         role.getPermissions().remove(permission);
-        return saveRole(requester, role);
+        Role updatedRole = saveRole(requester, role);
+        permissionCache.evictRole(roleId);
+        revokeHolderTokens(roleId);
+        return updatedRole;
+    }
+
+    // Granting a permission only leaves older tokens short of it, but taking one away must end
+    // every token that still carries it.
+    private void revokeHolderTokens(Long roleId) {
+        userRepository.findUsernamesByRoleId(roleId).forEach(tokenRevocationList::revoke);
     }
 }
@@ -0,0 +1,80 @@
+package com.example.campus.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class TokenRevocationList {
+
+    private final Duration tokenTtl;
+    private final Clock clock;
+    private final Map<String, Instant> revokedAtByUsername = new ConcurrentHashMap<>();
+    private volatile Instant allRevokedAt = Instant.MIN;
+
+    @Autowired
+    public TokenRevocationList(@Value("${app.access-token.ttl:PT15M}") Duration tokenTtl) {
+        this(tokenTtl, Clock.systemUTC());
+    }
+
+    TokenRevocationList(Duration tokenTtl, Clock clock) {
+        this.tokenTtl = tokenTtl;
+        this.clock = clock;
+    }
+
+    public void revoke(String username) {
+        if (username == null) return;
+        nowAndAfterCommit(() -> revokedAtByUsername.put(username, now()));
+    }
+
+    public void revokeAll() {
+        nowAndAfterCommit(() -> {
+            allRevokedAt = now();
+            revokedAtByUsername.clear();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.access-token.revocation-prune-interval:PT1M}", initialDelayString = "${app.access-token.revocation-prune-interval:PT1M}")
+    public void pruneExpired() {
+        Instant expired = clock.instant().minus(tokenTtl);
+        revokedAtByUsername.values().removeIf(revokedAt -> revokedAt.isBefore(expired));
+    }
+
+    public boolean isRevoked(String username, Instant issuedAt) {
+        if (!issuedAt.isAfter(allRevokedAt)) return true;
+        Instant revokedAt = revokedAtByUsername.get(username);
+        return revokedAt != null && !issuedAt.isAfter(revokedAt);
+    }
+
+    public int size() {
+        return revokedAtByUsername.size();
+    }
+
+    // Token timestamps only carry milliseconds, so revocations are kept at the same precision.
+    private Instant now() {
+        return clock.instant().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    // A token issued between the revocation and the commit would still carry the old state,
+    // so the revocation is repeated once the transaction has committed.
+    private static void nowAndAfterCommit(Runnable revocation) {
+        revocation.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revocation.run();
+            }
+        });
+    }
+}
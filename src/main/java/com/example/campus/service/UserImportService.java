@@ -0,0 +1,356 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.UserImportResultDTO;
+import com.example.campus.dto.UserImportResultDTO.Status;
+import com.example.campus.entity.Auditable;
+import com.example.campus.entity.Gender;
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.User;
+import com.example.campus.exception.InvalidImportException;
+import com.example.campus.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class UserImportService {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+    public static final int BATCH_SIZE = 500;
+    private static final String INSERT_USER_SQL = "INSERT INTO users (id, name, first_surname, second_surname, email, " +
+            "national_id, country, username, gender, is_active, created_at, created_by, updated_at, updated_by, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_USER_ID_SQL = "SELECT NEXT VALUE FOR users_seq";
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "firstSurname", "email", "nationalId", "country");
+
+    private final ChangeHistoryWriter changeHistoryWriter;
+    private final UsernameAllocator usernameAllocator;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public UserImportService(
+            ChangeHistoryWriter changeHistoryWriter,
+            UsernameAllocator usernameAllocator,
+            UserRepository userRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            ObjectMapper objectMapper
+    ) {
+        this.changeHistoryWriter = changeHistoryWriter;
+        this.usernameAllocator = usernameAllocator;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    // The CSV header is read before any result is streamed, so a malformed upload can still be
+    // answered with an error status instead of a truncated 200.
+    public UserImport openImport(String requester, MediaType contentType, InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        if (!TEXT_CSV.isCompatibleWith(contentType)) {
+            return output -> writeResults(output, results -> importRows(requester, reader, 0, this::parseJsonUser, results));
+        }
+        String header = reader.readLine();
+        if (header == null) return output -> writeResults(output, results -> { });
+        List<String> columns;
+        try {
+            columns = parseCsvLine(header).stream().map(String::trim).toList();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportException("Unreadable CSV header: " + e.getMessage());
+        }
+        if (!columns.containsAll(REQUIRED_CSV_COLUMNS)) {
+            throw new InvalidImportException("CSV header must contain the columns: " + REQUIRED_CSV_COLUMNS);
+        }
+        return output -> writeResults(output, results -> importRows(requester, reader, 1, line -> parseCsvUser(columns, line), results));
+    }
+
+    private void writeResults(OutputStream output, ResultProducer producer) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(output)) {
+            producer.produce(result -> {
+                try {
+                    writer.write(result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void importRows(String requester, BufferedReader reader, long firstRow, RowParser parser, Consumer<UserImportResultDTO> results) throws IOException {
+        log.info("Importing users requested by: {}", requester);
+        List<ImportRow> chunk = new ArrayList<>(BATCH_SIZE);
+        long rowNumber = firstRow;
+        int created = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            rowNumber++;
+            if (line.isBlank()) continue;
+            ImportRow row = new ImportRow(rowNumber);
+            try {
+                row.user = parser.parse(line);
+            } catch (JsonProcessingException e) {
+                row.reject(Status.INVALID, "Unreadable row: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                row.reject(Status.INVALID, "Unreadable row: " + e.getMessage());
+            }
+            chunk.add(row);
+            if (chunk.size() == BATCH_SIZE) {
+                created += importChunk(requester, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) created += importChunk(requester, chunk, results);
+        log.info("Imported {} users out of {} rows requested by: {}", created, rowNumber - firstRow, requester);
+    }
+
+    private int importChunk(String requester, List<ImportRow> chunk, Consumer<UserImportResultDTO> results) {
+        rejectDuplicates(chunk);
+        int created = insertRows(requester, chunk, 1);
+        chunk.forEach(row -> results.accept(row.toResult()));
+        return created;
+    }
+
+    // A failing batch is split in halves until the offending rows are isolated, so one bad row
+    // does not fail the rest of its chunk. A single row is retried with a fresh username first.
+    private int insertRows(String requester, List<ImportRow> rows, int attempt) {
+        List<ImportRow> accepted = allocateAndValidate(rows);
+        try {
+            insert(requester, accepted);
+        } catch (DataIntegrityViolationException e) {
+            log.error("Data integrity violation while importing {} users: {}", accepted.size(), e.getMostSpecificCause().getMessage());
+            if (accepted.size() > 1) {
+                int middle = accepted.size() / 2;
+                return insertRows(requester, accepted.subList(0, middle), attempt)
+                        + insertRows(requester, accepted.subList(middle, accepted.size()), attempt);
+            }
+            if (attempt < UserService.MAX_RETRIES) return insertRows(requester, accepted, attempt + 1);
+            accepted.get(0).reject(Status.FAILED, "Failed to create user after " + UserService.MAX_RETRIES + " attempts");
+            return 0;
+        }
+        for (ImportRow row : accepted) {
+            row.status = Status.CREATED;
+            recordCreated(requester, row.user);
+        }
+        return accepted.size();
+    }
+
+    // Rows inserted through JDBC bypass the Hibernate listener that records history for entity writes.
+    private void recordCreated(String requester, User user) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", user.getName());
+        values.put("firstSurname", user.getFirstSurname());
+        values.put("secondSurname", user.getSecondSurname());
+        values.put("email", user.getEmail());
+        values.put("nationalIdInfo", user.getNationalIdInfo());
+        values.put("username", user.getUsername());
+        values.put("gender", user.getGender());
+        values.put("isActive", user.getIsActive());
+        changeHistoryWriter.recordCreate(requester, User.class.getSimpleName(), user.getId(), values);
+    }
+
+    private void rejectDuplicates(List<ImportRow> chunk) {
+        Set<String> nationalIds = chunk.stream()
+                .filter(row -> row.status == null && row.user.getNationalIdInfo() != null)
+                .map(row -> row.user.getNationalIdInfo().getNationalId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<NationalIdInfo> existing = nationalIds.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(userRepository.findNationalIdInfosByNationalIdIn(nationalIds));
+        for (ImportRow row : chunk) {
+            if (row.status != null) continue;
+            NationalIdInfo nationalIdInfo = row.user.getNationalIdInfo();
+            if (nationalIdInfo == null) {
+                row.reject(Status.INVALID, "{nationalIdInfo=must not be null}");
+            } else if (!existing.add(nationalIdInfo)) {
+                row.reject(Status.DUPLICATE, "User already exists");
+            }
+        }
+    }
+
+    private List<ImportRow> allocateAndValidate(List<ImportRow> chunk) {
+        UsernameAllocator.Batch batch = usernameAllocator.newBatch();
+        List<ImportRow> accepted = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.status != null) continue;
+            User user = row.user;
+            user.setIsActive(user.getIsActive() == null || user.getIsActive());
+            user.setUsername(null);
+            Set<ConstraintViolation<User>> violations = validator.validate(user);
+            if (violations.isEmpty()) {
+                user.setUsername(batch.allocate(user));
+                violations = validator.validateProperty(user, "username");
+            }
+            if (violations.isEmpty()) {
+                accepted.add(row);
+            } else {
+                row.reject(Status.INVALID, violations.stream()
+                        .collect(Collectors.toMap(v -> v.getPropertyPath().toString(), ConstraintViolation::getMessage, (a, b) -> a))
+                        .toString());
+            }
+        }
+        return accepted;
+    }
+
+    private void insert(String requester, List<ImportRow> rows) {
+        if (rows.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            allocateIds(rows);
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, rows, rows.size(), (ps, row) -> {
+                User user = row.user;
+                ps.setLong(1, user.getId());
+                ps.setString(2, user.getName());
+                ps.setString(3, user.getFirstSurname());
+                ps.setString(4, user.getSecondSurname());
+                ps.setString(5, user.getEmail());
+                ps.setString(6, user.getNationalIdInfo().getNationalId());
+                ps.setString(7, user.getNationalIdInfo().getCountry());
+                ps.setString(8, user.getUsername());
+                ps.setString(9, user.getGender() != null ? user.getGender().name() : null);
+                ps.setBoolean(10, user.getIsActive());
+                ps.setTimestamp(11, now);
+                ps.setString(12, requester);
+                ps.setTimestamp(13, now);
+                ps.setString(14, requester);
+                ps.setLong(15, 0);
+            });
+        });
+    }
+
+    private void allocateIds(List<ImportRow> rows) {
+        long low = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            int offset = i % Auditable.ID_ALLOCATION_SIZE;
+            if (offset == 0) low = jdbcTemplate.queryForObject(NEXT_USER_ID_SQL, Long.class);
+            rows.get(i).user.setId(low + offset);
+        }
+    }
+
+    private User parseJsonUser(String line) throws JsonProcessingException {
+        return objectMapper.readValue(line, User.class);
+    }
+
+    private User parseCsvUser(List<String> columns, String line) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " columns but found " + values.size());
+        }
+        User user = new User();
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = values.get(i).isBlank() ? null : values.get(i).trim();
+            switch (columns.get(i)) {
+                case "name" -> user.setName(value);
+                case "firstSurname" -> user.setFirstSurname(value);
+                case "secondSurname" -> user.setSecondSurname(value);
+                case "email" -> user.setEmail(value);
+                case "nationalId" -> nationalIdInfo.setNationalId(value);
+                case "country" -> nationalIdInfo.setCountry(value);
+                case "gender" -> user.setGender(value != null ? Gender.valueOf(value.toUpperCase()) : null);
+                default -> { }
+            }
+        }
+        user.setNationalIdInfo(nationalIdInfo);
+        return user;
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted value");
+        values.add(value.toString());
+        return values;
+    }
+
+    @FunctionalInterface
+    public interface UserImport {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ResultProducer {
+        void produce(Consumer<UserImportResultDTO> results) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        User parse(String line) throws JsonProcessingException;
+    }
+
+    private static class ImportRow {
+        private final long rowNumber;
+        private User user;
+        private Status status;
+        private String message;
+
+        private ImportRow(long rowNumber) {
+            this.rowNumber = rowNumber;
+        }
+
+        private void reject(Status status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        private UserImportResultDTO toResult() {
+            UserImportResultDTO result = new UserImportResultDTO();
+            result.setRow(rowNumber);
+            result.setStatus(status);
+            result.setMessage(message);
+            if (user != null) {
+                if (user.getNationalIdInfo() != null) result.setNationalId(user.getNationalIdInfo().getNationalId());
+                if (status == Status.CREATED) result.setUsername(user.getUsername());
+            }
+            return result;
+        }
+    }
+}
@@ -1,37 +1,49 @@
 package com.example.campus.service;
 
 import com.example.campus.dto.CourseRoleDTO;
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.*;
 import com.example.campus.exception.*;
 import com.example.campus.repository.UserRepository;
-import com.example.campus.util.EntitySaver;
+import com.example.campus.util.Cursor;
+import com.example.campus.util.PermissionSet;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class UserService {
-    public static final int USERNAME_MAX_LENGTH = 20;
     public static final int MAX_RETRIES = 3;
-    private final AuditableService auditableService;
+    private final ChangeHistoryWriter changeHistoryWriter;
+    private final CredentialCache credentialCache;
+    private final PermissionCache permissionCache;
     private final RoleService roleService;
-    private final TextSanitizer textSanitizer;
+    private final TokenRevocationList tokenRevocationList;
+    private final UsernameAllocator usernameAllocator;
     private final UserRepository userRepository;
     private CourseService courseService;
 
     public UserService(
-            AuditableService auditableService,
+            ChangeHistoryWriter changeHistoryWriter,
+            CredentialCache credentialCache,
+            PermissionCache permissionCache,
             RoleService roleService,
-            TextSanitizer textSanitizer,
+            TokenRevocationList tokenRevocationList,
+            UsernameAllocator usernameAllocator,
             UserRepository userRepository
     ) {
-        this.auditableService = auditableService;
+        this.changeHistoryWriter = changeHistoryWriter;
+        this.credentialCache = credentialCache;
+        this.permissionCache = permissionCache;
         this.roleService = roleService;
-        this.textSanitizer = textSanitizer;
+        this.tokenRevocationList = tokenRevocationList;
+        this.usernameAllocator = usernameAllocator;
         this.userRepository = userRepository;
     }
 
@@ -39,8 +51,10 @@ public class UserService {
         this.courseService = courseService;
     }
 
-    public List<User> findAllUsers() {
-        return userRepository.findAll();
+    public CursorPageDTO<User> findAllUsers(String after, int limit) throws InvalidCursorException {
+        Cursor cursor = Cursor.decode(after);
+        List<User> users = userRepository.findAfter(cursor.key(), cursor.id(), Limit.of(limit + 1));
+        return Cursor.page(users, limit, user -> new Cursor(user.getUsername(), user.getId()));
     }
 
     public User createUser(String requester, User user) throws UserAlreadyExistsException, UserCreationFailedException {
@@ -49,7 +63,7 @@ public class UserService {
             log.error("Attempted to create user that already exists: {}", user);
             throw new UserAlreadyExistsException("User already exists");
         }
-        String username = generateUsername(user);
+        String username = usernameAllocator.allocate(user);
         user.setUsername(username);
         log.info("User created with username: {} by user: {}", username, requester);
 
@@ -61,7 +75,7 @@ public class UserService {
             } catch (DataIntegrityViolationException e) {
                 cause = e.getCause();
                 log.error("Data integrity violation: {}", cause != null ? cause.getMessage() : "Unknown cause");
-                user.setUsername(generateUsername(user));
+                user.setUsername(usernameAllocator.allocate(user));
                 retryCount++;
             }
         }
@@ -76,8 +90,10 @@ public class UserService {
         return userRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
     }
 
-    public User updateUser(String requester, Long userId, User userDetails) throws UserNotFoundException {
+    public User updateUser(String requester, Long userId, User userDetails, Long expectedVersion) throws UserNotFoundException, VersionMismatchException {
         User user = findUserById(userId);
+        user.requireVersion(expectedVersion);
+        String previousUsername = user.getUsername();
         if (userDetails.getName() != null) user.setName(userDetails.getName());
         if (userDetails.getFirstSurname() != null) user.setFirstSurname(userDetails.getFirstSurname());
         if (userDetails.getSecondSurname() != null) user.setSecondSurname(userDetails.getSecondSurname());
@@ -86,12 +102,20 @@ public class UserService {
         if (userDetails.getUsername() != null) user.setUsername(userDetails.getUsername());
         if (userDetails.getGender() != null) user.setGender(userDetails.getGender());
         if (userDetails.getIsActive() != null) user.setIsActive(userDetails.getIsActive());
-        return saveUser(requester, user);
+        User updatedUser = saveUser(requester, user);
+        permissionCache.evictUser(userId);
+        credentialCache.evictUser(previousUsername);
+        if (!updatedUser.getIsActive() || !updatedUser.getUsername().equals(previousUsername)) {
+            tokenRevocationList.revoke(previousUsername);
+        }
+        return updatedUser;
     }
 
     public void deleteUser(String requester, Long userId) {
         log.info("Deleting user with id: {} by user: {}", userId, requester);
+        userRepository.findById(userId).ifPresent(user -> tokenRevocationList.revoke(user.getUsername()));
         userRepository.deleteById(userId);
+        permissionCache.evictUser(userId);
     }
 
     public List<Course> getCoursesByUserId(Long userId) throws UserNotFoundException {
@@ -109,109 +133,109 @@ public class UserService {
         return user.getOpenCourses();
     }
 
-    public List<CourseRoleDTO> getCoursesAndRolesByUserId(Long userId) throws CourseNotFoundException, UserNotFoundException {
-        List<Course> courses = getCoursesByUserId(userId);
-        return getCourseRoleDTOS(userId, courses);
+    public List<CourseRoleDTO> getCoursesAndRolesByUserId(Long userId) throws UserNotFoundException {
+        requireUserExists(userId);
+        return userRepository.findCourseRolesByUserId(userId);
     }
 
-    public List<CourseRoleDTO> getActiveCoursesAndRolesByUserId(Long userId) throws CourseNotFoundException, UserNotFoundException {
-        List<Course> courses = getActiveCoursesByUserId(userId);
-        return getCourseRoleDTOS(userId, courses);
+    public List<CourseRoleDTO> getActiveCoursesAndRolesByUserId(Long userId) throws UserNotFoundException {
+        requireUserExists(userId);
+        return userRepository.findActiveCourseRolesByUserId(userId);
     }
 
-    public List<CourseRoleDTO> getOpenCoursesAndRolesByUserId(Long userId) throws CourseNotFoundException, UserNotFoundException {
-        List<Course> courses = getOpenCoursesByUserId(userId);
-        return getCourseRoleDTOS(userId, courses);
+    public List<CourseRoleDTO> getOpenCoursesAndRolesByUserId(Long userId) throws UserNotFoundException {
+        requireUserExists(userId);
+        return userRepository.findOpenCourseRolesByUserId(userId, LocalDateTime.now());
     }
 
     public List<Permission> getPermissionsByUserId(Long userId) throws UserNotFoundException {
-        log.info("Getting permissions for user with id: {}", userId);
-        User user = findUserById(userId);
-        log.info("User found: {}", user);
-        return user.getPermissions();
+        return getCachedPermissionsByUserId(userId).permissions();
     }
 
     public List<Permission> getPermissionsByUsername(String username) throws UserNotFoundException {
-        User user = findUserByUsername(username);
-        return user.getPermissions();
+        return getCachedPermissionsByUsername(username).permissions();
+    }
+
+    public PermissionSet getPermissionSetByUsername(String username) throws UserNotFoundException {
+        return getCachedPermissionsByUsername(username).permissionSet();
     }
 
     public User addRoleToUser(String requester, Long userId, Long roleId) throws RoleNotFoundException, UserNotFoundException {
         User user = findUserById(userId);
         Role role = roleService.findRoleById(roleId);
         user.getRoles().add(role);
-        return saveUser(requester, user);
+        User updatedUser = saveUser(requester, user);
+        permissionCache.evictUser(userId);
+        revokeTokens(updatedUser.getUsername());
+        return updatedUser;
     }
 
     public User removeRoleFromUser(String requester, Long userId, Long roleId) throws RoleNotFoundException, UserNotFoundException {
         User user = findUserById(userId);
         Role role = roleService.findRoleById(roleId);
         user.getRoles().remove(role);
-        return saveUser(requester, user);
+        User updatedUser = saveUser(requester, user);
+        permissionCache.evictUser(userId);
+        revokeTokens(updatedUser.getUsername());
+        return updatedUser;
     }
 
-    public User activateUser(String requester, Long userId) throws UserNotFoundException {
-        User user = findUserById(userId);
-        user.setIsActive(true);
-        return saveUser(requester, user);
+    // Access tokens carry the permissions they were issued with, so any change to a user's
+    // roles ends the tokens issued before it.
+    public void revokeTokens(String username) {
+        tokenRevocationList.revoke(username);
     }
 
-    public User deactivateUser(String requester, Long userId) throws UserNotFoundException {
-        User user = findUserById(userId);
-        user.setIsActive(false);
-        return saveUser(requester, user);
+    @Transactional
+    public long activateUser(String requester, Long userId, Long expectedVersion) throws UserNotFoundException, VersionMismatchException {
+        return changeUserActivationStatus(requester, userId, expectedVersion, true);
     }
 
-    public User saveUser(String requester, User user) {
-        return EntitySaver.saveEntity(auditableService, userRepository, requester, user);
+    @Transactional
+    public long deactivateUser(String requester, Long userId, Long expectedVersion) throws UserNotFoundException, VersionMismatchException {
+        long version = changeUserActivationStatus(requester, userId, expectedVersion, false);
+        userRepository.findUsernameById(userId).ifPresent(username -> {
+            credentialCache.evictUser(username);
+            tokenRevocationList.revoke(username);
+        });
+        return version;
     }
 
-    private String generateUsername(User user) {
-        Set<String> allUsernames = new HashSet<>(userRepository.findAllUsernames());
-        String name = textSanitizer.normalize(user.getName());
-        String firstSurname = textSanitizer.normalize(user.getFirstSurname());
-        String secondSurname = user.getSecondSurname();
-        if (secondSurname != null) secondSurname = textSanitizer.normalize(secondSurname);
-
-        String potentialUsername = obtainPotentialUsername(allUsernames, name, firstSurname, secondSurname, "");
-        if (potentialUsername != null) return potentialUsername;
+    public User saveUser(String requester, User user) {
+        log.info("Saving user with ID: {} requested by: {}", user.getId(), requester);
+        return userRepository.save(user);
+    }
 
-        int num = 1;
-        while (true) {
-            potentialUsername = obtainPotentialUsername(allUsernames, name, firstSurname, secondSurname, String.valueOf(num));
-            if (potentialUsername != null) return potentialUsername;
-            num++;
+    // Without If-Match the written version is unknown, so it is read back; the updated row stays
+    // locked until commit, so that read sees the version this update wrote.
+    private long changeUserActivationStatus(String requester, Long userId, Long expectedVersion, boolean isActive) throws UserNotFoundException, VersionMismatchException {
+        log.info("Setting active status of user with ID: {} to: {} requested by: {}", userId, isActive, requester);
+        if (userRepository.updateIsActive(userId, expectedVersion, isActive, requester, LocalDateTime.now()) == 0) {
+            requireUserExists(userId);
+            throw new VersionMismatchException("User with id: " + userId + " is not at version " + expectedVersion);
         }
+        changeHistoryWriter.recordUpdate(requester, User.class.getSimpleName(), userId, "isActive", isActive);
+        if (expectedVersion != null) return expectedVersion + 1;
+        return userRepository.findVersionById(userId).orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
     }
 
-    private static String obtainPotentialUsername(Set<String> allUsernames, String name, String firstSurname, String secondSurname, String num) {
-        for (int nameIndex = 1; nameIndex <= name.length(); nameIndex++) {
-            if (secondSurname != null) {
-                for (int secondSurnameIndex = 0; secondSurnameIndex <= secondSurname.length(); secondSurnameIndex++) {
-                    StringBuilder potentialUsername = new StringBuilder(name.substring(0, nameIndex) + firstSurname + secondSurname.substring(0, secondSurnameIndex));
-                    StringBuilder username = evaluatePotentialUsername(allUsernames, num, potentialUsername);
-                    if (username != null) return username.toString();
-                }
-            } else {
-                StringBuilder potentialUsername = new StringBuilder(name.substring(0, nameIndex) + firstSurname);
-                StringBuilder username = evaluatePotentialUsername(allUsernames, num, potentialUsername);
-                if (username != null) return username.toString();
-            }
-        }
-        return null;
+    private void requireUserExists(Long userId) throws UserNotFoundException {
+        if (!userRepository.existsById(userId)) throw new UserNotFoundException("User not found with id: " + userId);
     }
 
-    private static StringBuilder evaluatePotentialUsername(Set<String> allUsernames, String num, StringBuilder potentialUsername) {
-        if (potentialUsername.length() > USERNAME_MAX_LENGTH) {
-            potentialUsername = new StringBuilder(potentialUsername.substring(0, USERNAME_MAX_LENGTH));
-        }
-        if (!Objects.equals(num, "")) {
-            potentialUsername.append(num);
-        }
-        if (!allUsernames.contains(potentialUsername.toString())) {
-            return potentialUsername;
-        }
-        return null;
+    private PermissionCache.Entry getCachedPermissionsByUserId(Long userId) throws UserNotFoundException {
+        Optional<PermissionCache.Entry> cachedPermissions = permissionCache.getByUserId(userId);
+        if (cachedPermissions.isPresent()) return cachedPermissions.get();
+        log.info("Getting permissions for user with id: {}", userId);
+        long generation = permissionCache.generation();
+        return permissionCache.put(generation, findUserById(userId));
+    }
+
+    private PermissionCache.Entry getCachedPermissionsByUsername(String username) throws UserNotFoundException {
+        Optional<PermissionCache.Entry> cachedPermissions = permissionCache.getByUsername(username);
+        if (cachedPermissions.isPresent()) return cachedPermissions.get();
+        long generation = permissionCache.generation();
+        return permissionCache.put(generation, findUserByUsername(username));
     }
 
     private static NationalIdInfo updateNationalIdInfo(User userDetails) {
@@ -224,21 +248,4 @@ public class UserService {
         }
         return nationalIdInfo;
     }
-
-    private List<CourseRoleDTO> getCourseRoleDTOS(Long userId, List<Course> courses) throws CourseNotFoundException {
-        return courses.stream().map(course -> {
-            Optional<Role> role = courseService.getRoleByUserIdAndCourseId(userId, course.getId());
-            CourseRoleDTO dto = new CourseRoleDTO();
-            dto.setCourseId(course.getId());
-            dto.setCourseName(course.getName());
-            if (role.isPresent()) {
-                dto.setRoleId(role.get().getId());
-                dto.setRoleName(role.get().getName());
-            } else {
-                dto.setRoleId(null);
-                dto.setRoleName("No Role");
-            }
-            return dto;
-        }).collect(Collectors.toList());
-    }
 }
@@ -0,0 +1,97 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.User;
+import com.example.campus.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+@Slf4j
+public class UsernameAllocator {
+    public static final int USERNAME_MAX_LENGTH = 20;
+    private static final int MAX_TRACKED_BASE_NAMES = 10_000;
+
+    private final TextSanitizer textSanitizer;
+    private final UserRepository userRepository;
+    private final Map<String, Integer> suffixCounters = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > MAX_TRACKED_BASE_NAMES;
+                }
+            });
+
+    public UsernameAllocator(TextSanitizer textSanitizer, UserRepository userRepository) {
+        this.textSanitizer = textSanitizer;
+        this.userRepository = userRepository;
+    }
+
+    public String allocate(User user) {
+        return newBatch().allocate(user);
+    }
+
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    public class Batch {
+        private final Map<String, Set<String>> usernamesByPrefix = new HashMap<>();
+
+        private Batch() {
+        }
+
+        public String allocate(User user) {
+            String name = textSanitizer.normalize(user.getName());
+            String firstSurname = textSanitizer.normalize(user.getFirstSurname());
+            String secondSurname = user.getSecondSurname();
+            if (secondSurname != null) secondSurname = textSanitizer.normalize(secondSurname);
+
+            String baseName = name + "|" + firstSurname + "|" + (secondSurname != null ? secondSurname : "");
+            int num = suffixCounters.getOrDefault(baseName, 0);
+            while (true) {
+                String username = obtainPotentialUsername(name, firstSurname, secondSurname, num == 0 ? "" : String.valueOf(num));
+                if (username != null) {
+                    suffixCounters.put(baseName, num);
+                    reserve(username);
+                    return username;
+                }
+                num++;
+            }
+        }
+
+        private String obtainPotentialUsername(String name, String firstSurname, String secondSurname, String num) {
+            for (int nameIndex = 1; nameIndex <= name.length(); nameIndex++) {
+                String namePart = name.substring(0, nameIndex) + firstSurname;
+                Set<String> takenUsernames = usernamesWithPrefix(truncate(namePart));
+                if (secondSurname != null) {
+                    for (int secondSurnameIndex = 0; secondSurnameIndex <= secondSurname.length(); secondSurnameIndex++) {
+                        String username = truncate(namePart + secondSurname.substring(0, secondSurnameIndex)) + num;
+                        if (!takenUsernames.contains(username)) return username;
+                    }
+                } else {
+                    String username = truncate(namePart) + num;
+                    if (!takenUsernames.contains(username)) return username;
+                }
+            }
+            return null;
+        }
+
+        private Set<String> usernamesWithPrefix(String prefix) {
+            return usernamesByPrefix.computeIfAbsent(prefix, key -> {
+                log.debug("Loading usernames with prefix: {}", key);
+                return new HashSet<>(userRepository.findUsernamesByPrefix(key));
+            });
+        }
+
+        private void reserve(String username) {
+            for (int length = 1; length <= username.length(); length++) {
+                Set<String> usernames = usernamesByPrefix.get(username.substring(0, length));
+                if (usernames != null) usernames.add(username);
+            }
+        }
+    }
+
+    private static String truncate(String potentialUsername) {
+        return potentialUsername.length() > USERNAME_MAX_LENGTH ? potentialUsername.substring(0, USERNAME_MAX_LENGTH) : potentialUsername;
+    }
+}
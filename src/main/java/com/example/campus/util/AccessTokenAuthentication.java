@@ -0,0 +1,31 @@
+package com.example.campus.util;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+public class AccessTokenAuthentication extends AbstractAuthenticationToken {
+
+    private final String username;
+    private final PermissionSet permissionSet;
+
+    public AccessTokenAuthentication(String username, PermissionSet permissionSet) {
+        super(AuthorityUtils.createAuthorityList(permissionSet.getNames()));
+        this.username = username;
+        this.permissionSet = permissionSet;
+        setAuthenticated(true);
+    }
+
+    public PermissionSet getPermissionSet() {
+        return permissionSet;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return username;
+    }
+}
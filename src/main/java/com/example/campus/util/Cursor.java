@@ -0,0 +1,52 @@
+package com.example.campus.util;
+
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.exception.InvalidCursorException;
+import com.example.campus.exception.InvalidLimitException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public record Cursor(String key, long id) {
+    public static final Cursor START = new Cursor("", 0L);
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+    public static final int UNPAGED_LIMIT = 10_000;
+    private static final char SEPARATOR = ':';
+
+    public Cursor {
+        if (key == null) throw new IllegalArgumentException("Cursor key must not be null");
+    }
+
+    public String encode() {
+        String value = Long.toString(id) + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String after) throws InvalidCursorException {
+        if (after == null || after.isEmpty()) return START;
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 1) throw new InvalidCursorException("Invalid cursor: " + after);
+            return new Cursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + after);
+        }
+    }
+
+    public static int resolveLimit(Integer limit, boolean unpaged) {
+        if (unpaged) return UNPAGED_LIMIT;
+        if (limit == null) return DEFAULT_LIMIT;
+        if (limit < 1) throw new InvalidLimitException("Limit must be positive: " + limit);
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static <T> CursorPageDTO<T> page(List<T> rows, int limit, Function<T, Cursor> cursorOf) {
+        if (rows.size() <= limit) return new CursorPageDTO<>(rows, null);
+        List<T> items = List.copyOf(rows.subList(0, limit));
+        return new CursorPageDTO<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.campus.util;
+
+import com.example.campus.exception.UserNotFoundException;
+import com.example.campus.service.UserService;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+@Component("permissionGuard")
+public class PermissionGuard {
+    private final UserService userService;
+
+    public PermissionGuard(UserService userService) {
+        this.userService = userService;
+    }
+
+    public boolean hasAll(Authentication authentication, Permissions... required) {
+        if (authentication == null || !authentication.isAuthenticated()) return false;
+        long requiredMask = 0L;
+        for (Permissions permission : required) {
+            requiredMask |= permission.mask();
+        }
+        return granted(authentication).containsAll(requiredMask);
+    }
+
+    private PermissionSet granted(Authentication authentication) {
+        if (authentication instanceof AccessTokenAuthentication accessToken) return accessToken.getPermissionSet();
+        try {
+            return userService.getPermissionSetByUsername(authentication.getName());
+        } catch (UserNotFoundException e) {
+            return PermissionSet.EMPTY;
+        }
+    }
+}
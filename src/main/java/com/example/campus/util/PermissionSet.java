@@ -0,0 +1,112 @@
+package com.example.campus.util;
+
+import com.example.campus.entity.Permission;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.*;
+
+public final class PermissionSet {
+    public static final PermissionSet EMPTY = new PermissionSet(0L, Set.of());
+
+    private final long mask;
+    private final Set<String> overflow;
+
+    private PermissionSet(long mask, Set<String> overflow) {
+        this.mask = mask;
+        this.overflow = overflow;
+    }
+
+    public static PermissionSet of(Permissions... permissions) {
+        long mask = 0L;
+        for (Permissions permission : permissions) {
+            mask |= permission.mask();
+        }
+        return new PermissionSet(mask, Set.of());
+    }
+
+    public static PermissionSet of(long mask, Collection<String> overflow) {
+        return new PermissionSet(mask, Set.copyOf(overflow));
+    }
+
+    public static PermissionSet ofNames(Collection<String> names) {
+        long mask = 0L;
+        Set<String> overflow = new HashSet<>();
+        for (String name : names) {
+            Permissions permission = Permissions.fromName(name);
+            if (permission != null) {
+                mask |= permission.mask();
+            } else if (name != null) {
+                overflow.add(name);
+            }
+        }
+        return new PermissionSet(mask, Set.copyOf(overflow));
+    }
+
+    public static PermissionSet ofPermissions(Collection<Permission> permissions) {
+        return ofNames(permissions.stream().map(Permission::getName).toList());
+    }
+
+    public static PermissionSet ofAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        return ofNames(authorities.stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    public PermissionSet or(PermissionSet other) {
+        if (other.overflow.isEmpty() || overflow.containsAll(other.overflow)) {
+            return new PermissionSet(mask | other.mask, overflow);
+        }
+        Set<String> union = new HashSet<>(overflow);
+        union.addAll(other.overflow);
+        return new PermissionSet(mask | other.mask, Set.copyOf(union));
+    }
+
+    public boolean containsAll(PermissionSet required) {
+        return containsAll(required.mask) && (required.overflow.isEmpty() || overflow.containsAll(required.overflow));
+    }
+
+    public boolean containsAll(long requiredMask) {
+        return (mask & requiredMask) == requiredMask;
+    }
+
+    public boolean containsAllNames(Collection<String> names) {
+        for (String name : names) {
+            Permissions permission = Permissions.fromName(name);
+            boolean granted = permission != null ? (mask & permission.mask()) != 0 : overflow.contains(name);
+            if (!granted) return false;
+        }
+        return true;
+    }
+
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>();
+        for (Permissions permission : Permissions.values()) {
+            if ((mask & permission.mask()) != 0) names.add(permission.name());
+        }
+        names.addAll(overflow);
+        return names;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public Set<String> getOverflow() {
+        return overflow;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PermissionSet that)) return false;
+        return mask == that.mask && overflow.equals(that.overflow);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(mask) * 31 + overflow.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionSet(mask=" + Long.toBinaryString(mask) + ", overflow=" + overflow + ")";
+    }
+}
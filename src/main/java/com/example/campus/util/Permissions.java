@@ -1,12 +1,44 @@
 package com.example.campus.util;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum Permissions {
-   READ_COURSE,
-    WRITE_COURSE,
-    READ_PERMISSION,
-    WRITE_PERMISSION,
-    READ_ROLE,
-    WRITE_ROLE,
-    READ_USER,
-    WRITE_USER
+    // Bits are carried in issued access tokens, so a permission keeps its bit for good:
+    // new permissions take the next free bit and retired bits are never reused.
+    READ_COURSE(0),
+    WRITE_COURSE(1),
+    READ_PERMISSION(2),
+    WRITE_PERMISSION(3),
+    READ_ROLE(4),
+    WRITE_ROLE(5),
+    READ_USER(6),
+    WRITE_USER(7),
+    READ_HISTORY(8);
+
+    private static final Map<String, Permissions> BY_NAME = new HashMap<>();
+
+    private final long mask;
+
+    static {
+        long assigned = 0L;
+        for (Permissions permission : values()) {
+            if ((assigned & permission.mask) != 0) throw new IllegalStateException("Duplicate permission bit for " + permission);
+            assigned |= permission.mask;
+            BY_NAME.put(permission.name(), permission);
+        }
+    }
+
+    Permissions(int bit) {
+        if (bit < 0 || bit >= Long.SIZE) throw new IllegalArgumentException("Permission bit out of range: " + bit);
+        this.mask = 1L << bit;
+    }
+
+    public long mask() {
+        return mask;
+    }
+
+    public static Permissions fromName(String name) {
+        return BY_NAME.get(name);
+    }
 }
@@ -1,16 +1,16 @@
 package com.example.campus.util;
 
-import com.example.campus.entity.Permission;
 import com.example.campus.exception.UserNotFoundException;
 import com.example.campus.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Component
 public class SecurityUtil {
@@ -31,12 +31,15 @@ public class SecurityUtil {
         }
     }
 
-    public static boolean isAuthorized(String requester, List<String> requiredPermissions) throws UserNotFoundException {
-        List<Permission> userPermissions = userService.getPermissionsByUsername(requester);
-        Set<String> userPermissionNames = userPermissions.stream()
-                .map(Permission::getName)
-                .collect(Collectors.toSet());
+    public static Optional<String> getCurrentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        return Optional.of(getUsername());
+    }
 
-        return userPermissionNames.containsAll(requiredPermissions);
+    public static boolean isAuthorized(String requester, List<String> requiredPermissions) throws UserNotFoundException {
+        return userService.getPermissionSetByUsername(requester).containsAllNames(requiredPermissions);
     }
 }
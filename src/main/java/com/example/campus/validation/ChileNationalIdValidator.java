@@ -2,49 +2,33 @@ package com.example.campus.validation;
 
 import jakarta.validation.ConstraintValidatorContext;
 
-import java.util.regex.Pattern;
-
 public class ChileNationalIdValidator implements CountryNationalIdValidator {
-    private static final Pattern CHILE_ID_PATTERN = Pattern.compile("^\\d{7,8}-[\\dK]$");
+    private static final int MIN_DIGITS = 7;
+    private static final int MAX_DIGITS = 8;
     private static final int[] SERIES = {2, 3, 4, 5, 6, 7};
     private static final int REMAINDER_DIVISOR = 11;
 
     @Override
-    public boolean validate(String nationalId, ConstraintValidatorContext context) {
-        if (!CHILE_ID_PATTERN.matcher(nationalId).matches()) {
-            return false;
-        }
-        return checkChileId(nationalId);
+    public String country() {
+        return "chile";
     }
 
-    private boolean checkChileId(String nationalId) {
-        try {
-            String[] parts = nationalId.split("-");
-            int sum = calculateSum(parts[0]);
-            int remainder = calculateRemainder(sum);
-            return checkRemainder(remainder, parts[1]);
-        } catch (ArrayIndexOutOfBoundsException e) {
+    @Override
+    public boolean validate(String nationalId, ConstraintValidatorContext context) {
+        int length = nationalId.length();
+        int digits = length - 2;
+        if (digits < MIN_DIGITS || digits > MAX_DIGITS || nationalId.charAt(digits) != '-') {
             return false;
         }
-    }
-
-    private int calculateSum(String digits) {
         int sum = 0;
-        for (int i = 0; i < digits.length(); i++) {
-            sum += Character.getNumericValue(digits.charAt(digits.length() - 1 - i)) * SERIES[i % SERIES.length];
-        }
-        return sum;
-    }
-
-    private int calculateRemainder(int sum) {
-        return REMAINDER_DIVISOR - (sum % REMAINDER_DIVISOR);
-    }
-
-    private boolean checkRemainder(int remainder, String checkDigit) {
-        if (remainder == 10 && checkDigit.equalsIgnoreCase("K")) {
-            return true;
-        } else {
-            return remainder == Integer.parseInt(checkDigit);
+        for (int i = 0; i < digits; i++) {
+            char c = nationalId.charAt(digits - 1 - i);
+            if (c < '0' || c > '9') return false;
+            sum += (c - '0') * SERIES[i % SERIES.length];
         }
+        int remainder = REMAINDER_DIVISOR - (sum % REMAINDER_DIVISOR);
+        char checkDigit = nationalId.charAt(length - 1);
+        if (checkDigit == 'K') return remainder == 10;
+        return checkDigit >= '0' && checkDigit <= '9' && remainder == checkDigit - '0';
     }
 }
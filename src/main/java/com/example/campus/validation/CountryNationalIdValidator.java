@@ -3,5 +3,7 @@ package com.example.campus.validation;
 import jakarta.validation.ConstraintValidatorContext;
 
 public interface CountryNationalIdValidator {
+    String country();
+
     boolean validate(String nationalId, ConstraintValidatorContext context);
 }
@@ -5,31 +5,62 @@ import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
 
 @Slf4j
 public class NationalIdValidator implements ConstraintValidator<ValidNationalId, NationalIdInfo> {
-    private final Map<String, CountryNationalIdValidator> validators = new HashMap<>();
+    private static final Map<String, CountryNationalIdValidator> REGISTERED_VALIDATORS =
+            byCountry(ServiceLoader.load(CountryNationalIdValidator.class, NationalIdValidator.class.getClassLoader()));
+
+    private final Map<String, CountryNationalIdValidator> validators;
 
     public NationalIdValidator() {
-        validators.put("chile", new ChileNationalIdValidator());
-        validators.put("spain", new SpainNationalIdValidator());
+        this.validators = REGISTERED_VALIDATORS;
+    }
+
+    NationalIdValidator(Iterable<? extends CountryNationalIdValidator> validators) {
+        this.validators = byCountry(validators);
     }
 
     @Override
     public boolean isValid(NationalIdInfo nationalIdInfo, ConstraintValidatorContext context) {
         String nationalId = nationalIdInfo.getNationalId();
         String country = nationalIdInfo.getCountry();
-        log.info("Validating national ID: {}", nationalId);
         if (nationalId == null || country == null) {
-            log.info("National ID or country is null");
+            log.debug("National ID or country is null");
             return false;
         }
-        CountryNationalIdValidator validator = validators.get(country.toLowerCase());
+        CountryNationalIdValidator validator = validators.get(country);
         if (validator == null) {
-            return nationalId.matches("^[a-zA-Z0-9-]*$");
+            return isAlphanumericOrDash(nationalId);
         }
         return validator.validate(nationalId, context);
     }
+
+    public static Map<String, CountryNationalIdValidator> getRegisteredValidators() {
+        return REGISTERED_VALIDATORS;
+    }
+
+    private static boolean isAlphanumericOrDash(String nationalId) {
+        for (int i = 0; i < nationalId.length(); i++) {
+            char c = nationalId.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-')) return false;
+        }
+        return true;
+    }
+
+    private static Map<String, CountryNationalIdValidator> byCountry(Iterable<? extends CountryNationalIdValidator> validators) {
+        Map<String, CountryNationalIdValidator> byCountry = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (CountryNationalIdValidator validator : validators) {
+            CountryNationalIdValidator previous = byCountry.putIfAbsent(validator.country(), validator);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate national ID validators for " + validator.country()
+                        + ": " + previous.getClass().getName() + ", " + validator.getClass().getName());
+            }
+        }
+        return Collections.unmodifiableMap(byCountry);
+    }
 }
@@ -2,42 +2,47 @@ package com.example.campus.validation;
 
 import jakarta.validation.ConstraintValidatorContext;
 
-import java.util.regex.Pattern;
-
 public class SpainNationalIdValidator implements CountryNationalIdValidator {
-    private static final Pattern SPAIN_ID_PATTERN = Pattern.compile("^[XYZ]?\\d{7,8}-[A-Z]$");
     private static final String SPAIN_ID_LETTERS = "TRWAGMYFPDXBNJZSQVHLCKE";
     private static final int LETTER_INDEX_DIVISOR = 23;
+    private static final int DNI_DIGITS = 8;
+    private static final int NIE_DIGITS = 7;
+
+    @Override
+    public String country() {
+        return "spain";
+    }
 
     @Override
     public boolean validate(String nationalId, ConstraintValidatorContext context) {
-        if (!SPAIN_ID_PATTERN.matcher(nationalId).matches()) {
+        int length = nationalId.length();
+        if (length < NIE_DIGITS + 2 || nationalId.charAt(length - 2) != '-') {
             return false;
         }
-        return checkSpainId(nationalId);
-    }
-
-    private boolean checkSpainId(String nationalId) {
-        try {
-            int dniNumber = calculateDniNumber(nationalId);
-            char expectedLetter = calculateExpectedLetter(dniNumber);
-            char actualLetter = nationalId.charAt(nationalId.length() - 1);
-            return expectedLetter == actualLetter;
-        } catch (NumberFormatException e) {
+        char actualLetter = nationalId.charAt(length - 1);
+        if (actualLetter < 'A' || actualLetter > 'Z') {
             return false;
         }
-    }
-
-    private int calculateDniNumber(String nationalId) {
-        return switch (nationalId.charAt(0)) {
-            case 'X' -> Integer.parseInt(nationalId.substring(1, 8));
-            case 'Y' -> Integer.parseInt("1" + nationalId.substring(1, 8));
-            case 'Z' -> Integer.parseInt("2" + nationalId.substring(1, 8));
-            default -> Integer.parseInt(nationalId.substring(0, 8));
-        };
-    }
-
-    private char calculateExpectedLetter(int dniNumber) {
-        return SPAIN_ID_LETTERS.charAt(dniNumber % LETTER_INDEX_DIVISOR);
+        int dniNumber;
+        int start;
+        switch (nationalId.charAt(0)) {
+            case 'X' -> { dniNumber = 0; start = 1; }
+            case 'Y' -> { dniNumber = 1; start = 1; }
+            case 'Z' -> { dniNumber = 2; start = 1; }
+            default -> { dniNumber = 0; start = 0; }
+        }
+        int end = length - 2;
+        int digits = end - start;
+        // A DNI has eight digits; an NIE has a prefix letter and seven, and only those seven count
+        if (start == 0 ? digits != DNI_DIGITS : digits < NIE_DIGITS || digits > DNI_DIGITS) {
+            return false;
+        }
+        int significantEnd = start + (start == 0 ? DNI_DIGITS : NIE_DIGITS);
+        for (int i = start; i < end; i++) {
+            char c = nationalId.charAt(i);
+            if (c < '0' || c > '9') return false;
+            if (i < significantEnd) dniNumber = dniNumber * 10 + (c - '0');
+        }
+        return SPAIN_ID_LETTERS.charAt(dniNumber % LETTER_INDEX_DIVISOR) == actualLetter;
     }
 }
@@ -0,0 +1,4 @@
+-- Enforces one registration per user and course.
+-- Run POST /api/registrations/dedup first: the constraint cannot be added while duplicate rows exist.
+
+ALTER TABLE course_registrations ADD CONSTRAINT IF NOT EXISTS uk_course_registrations_user_course UNIQUE (user_id, course_id);
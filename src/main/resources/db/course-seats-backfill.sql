@@ -0,0 +1,7 @@
+-- Adds the optional course capacity and the seat counter, counting the registrations that already exist.
+-- Without the backfill a course with registrations would start at seats_taken = 0 and overbook once a capacity is set.
+-- Run it before setting any capacity, and while registrations are not being written.
+
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS capacity INTEGER;
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS seats_taken INTEGER DEFAULT 0 NOT NULL;
+UPDATE courses c SET seats_taken = (SELECT COUNT(*) FROM course_registrations cr WHERE cr.course_id = c.id);
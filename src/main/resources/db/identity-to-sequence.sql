@@ -0,0 +1,27 @@
+-- Moves tables created with IDENTITY ids onto the pooled-lo sequences used by Auditable entities.
+-- Each sequence restarts just past the current maximum id and hands out blocks of Auditable.ID_ALLOCATION_SIZE.
+-- change_history keeps its IDENTITY column because it is only written through JDBC batches.
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM users);
+
+ALTER TABLE courses ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS courses_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE courses_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM courses);
+
+ALTER TABLE course_registrations ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS course_registrations_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE course_registrations_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM course_registrations);
+
+ALTER TABLE roles ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS roles_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE roles_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM roles);
+
+ALTER TABLE permissions ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS permissions_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE permissions_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM permissions);
+
+ALTER TABLE password_reset_tokens ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE IF NOT EXISTS password_reset_tokens_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE password_reset_tokens_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM password_reset_tokens);
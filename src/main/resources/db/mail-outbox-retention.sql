@@ -0,0 +1,5 @@
+-- Lets sent and dead outbox mails drop their body, which may carry a password reset link.
+-- Sent rows are stamped with next_attempt_at = sent_at so the retention sweep can use the status index.
+
+ALTER TABLE mail_outbox ALTER COLUMN text SET NULL;
+UPDATE mail_outbox SET text = NULL, next_attempt_at = COALESCE(sent_at, next_attempt_at) WHERE status IN ('SENT', 'DEAD');
@@ -0,0 +1,10 @@
+-- Replaces plaintext password reset tokens with their SHA-256 hex digest.
+-- Outstanding tokens keep working because the reset flow hashes the presented token before looking it up.
+
+DELETE FROM password_reset_tokens WHERE expiry_date < LOCALTIMESTAMP;
+ALTER TABLE password_reset_tokens ADD COLUMN token_hash CHAR(64);
+UPDATE password_reset_tokens SET token_hash = LOWER(RAWTOHEX(HASH('SHA-256', CAST(token AS VARBINARY))));
+ALTER TABLE password_reset_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE password_reset_tokens DROP COLUMN token;
+ALTER TABLE password_reset_tokens ADD CONSTRAINT uk_password_reset_tokens_token_hash UNIQUE (token_hash);
+CREATE INDEX IF NOT EXISTS idx_password_reset_tokens_expiry ON password_reset_tokens (expiry_date, id);
@@ -0,0 +1,98 @@
+package com.example.campus.config;
+
+import com.example.campus.entity.*;
+import com.example.campus.repository.PermissionRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import com.example.campus.service.CredentialCache;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.rate-limit.username.capacity=1000000",
+        "app.rate-limit.client-ip.capacity=1000000"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class BasicAuthThroughputBenchmarkTest {
+    private static final int REQUESTS = Integer.getInteger("benchmark.iterations", 500);
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("jdoe:password".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BCryptPasswordEncoder bcryptPasswordEncoder;
+    @Autowired
+    private CredentialCache credentialCache;
+    private Long userId;
+
+    @BeforeEach
+    public void setup() {
+        Permission permission = new Permission();
+        permission.setName("READ_USER");
+        permission = permissionRepository.save(permission);
+        Role role = new Role();
+        role.setName("Reader");
+        role.setPermissions(List.of(permission));
+        role = roleRepository.save(role);
+
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId("100");
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("jdoe");
+        user.setPassword(bcryptPasswordEncoder.encode("password"));
+        user.setRoles(List.of(role));
+        userId = userRepository.save(user).getId();
+    }
+
+    @Test
+    public void testBasicAuthThroughputWithAndWithoutCredentialCache() throws Exception {
+        measure(REQUESTS / 10, false);
+        double uncached = measure(REQUESTS, false);
+        measure(REQUESTS / 10, true);
+        double cached = measure(REQUESTS, true);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        log.info("Basic auth GET /api/users/{id}: {} requests/s per core verifying BCrypt every request, {} requests/s per core with the credential cache ({} cores)",
+                String.format("%.0f", uncached / cores), String.format("%.0f", cached / cores), cores);
+    }
+
+    private double measure(int requests, boolean cached) throws Exception {
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            if (!cached) credentialCache.evictAll();
+            mockMvc.perform(get("/api/users/" + userId).header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                    .andExpect(status().isOk());
+        }
+        return requests * 1e9 / (System.nanoTime() - startedAt);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.campus.config;
+
+import com.example.campus.entity.*;
+import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.PermissionRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import com.example.campus.service.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.rate-limit.username.capacity=1000000",
+        "app.rate-limit.client-ip.capacity=1000000"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class LoginStormBenchmarkTest {
+    private static final int READS = Integer.getInteger("benchmark.reads", 2_000);
+    private static final int STORM_THREADS = Runtime.getRuntime().availableProcessors() * 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BCryptPasswordEncoder bcryptPasswordEncoder;
+    @Autowired
+    private BoundedPasswordEncoder boundedPasswordEncoder;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private String accessToken;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        Permission permission = new Permission();
+        permission.setName("READ_COURSE");
+        permission = permissionRepository.save(permission);
+        Role role = new Role();
+        role.setName("Reader");
+        role.setPermissions(List.of(permission));
+        role = roleRepository.save(role);
+
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId("100");
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("jdoe");
+        user.setPassword(bcryptPasswordEncoder.encode("password"));
+        user.setRoles(List.of(role));
+        userRepository.save(user);
+        for (int i = 0; i < 20; i++) {
+            courseRepository.save(Course.builder().name("Course " + i).build());
+        }
+
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"jdoe\", \"password\": \"password\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        accessToken = objectMapper.readTree(response).get("accessToken").asText();
+    }
+
+    @Test
+    public void testCourseReadsKeepLatencyDuringLoginStorm() throws Exception {
+        measureReads(READS);
+        long baseline = percentile(measureReads(READS), 0.99);
+
+        AtomicBoolean storming = new AtomicBoolean(true);
+        AtomicInteger logins = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+        ExecutorService storm = Executors.newFixedThreadPool(STORM_THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < STORM_THREADS; i++) {
+            futures.add(storm.submit(() -> {
+                while (storming.get()) {
+                    int status = mockMvc.perform(post("/api/auth/login")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"username\": \"jdoe\", \"password\": \"wrong\"}"))
+                            .andReturn().getResponse().getStatus();
+                    if (status == 503) unavailable.incrementAndGet();
+                    logins.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        long duringStorm;
+        try {
+            Thread.sleep(500);
+            duringStorm = percentile(measureReads(READS), 0.99);
+        } finally {
+            storming.set(false);
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            storm.shutdown();
+        }
+
+        log.info("Course read p99 {}us alone, {}us during a storm of {} logins ({} rejected with 503, {} hashing rejections)",
+                TimeUnit.NANOSECONDS.toMicros(baseline), TimeUnit.NANOSECONDS.toMicros(duringStorm), logins.get(), unavailable.get(),
+                boundedPasswordEncoder.getRejected());
+        assertTrue(duringStorm < baseline * 5 + TimeUnit.MILLISECONDS.toNanos(20),
+                "p99 grew from " + baseline + "ns to " + duringStorm + "ns");
+    }
+
+    private long[] measureReads(int reads) throws Exception {
+        long[] latencies = new long[reads];
+        for (int i = 0; i < reads; i++) {
+            long startedAt = System.nanoTime();
+            mockMvc.perform(get("/api/courses/active").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                    .andExpect(status().isOk());
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] latencies, double percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+}
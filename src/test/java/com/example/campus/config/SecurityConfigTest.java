@@ -0,0 +1,199 @@
+package com.example.campus.config;
+
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.Permission;
+import com.example.campus.entity.Role;
+import com.example.campus.entity.User;
+import com.example.campus.exception.PasswordHashingUnavailableException;
+import com.example.campus.repository.PermissionRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import com.example.campus.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @SpyBean
+    private BCryptPasswordEncoder passwordEncoder;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        Permission permission = new Permission();
+        permission.setName("READ_USER");
+        permission = permissionRepository.save(permission);
+        Role role = new Role();
+        role.setName("Reader");
+        role.setPermissions(List.of(permission));
+        role = roleRepository.save(role);
+
+        user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId("100");
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("jdoe");
+        user.setPassword(passwordEncoder.encode("password"));
+        user.setRoles(List.of(role));
+        user = userRepository.save(user);
+        clearInvocations(passwordEncoder);
+    }
+
+    @Test
+    public void testAuthenticatesAgainstUsersTableAndCachesVerification() throws Exception {
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isOk());
+
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    public void testRejectsWrongPasswordAndMissingAuthority() throws Exception {
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "wrong")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/users").header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/roles").header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testDeactivatedUserIsRejected() throws Exception {
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isOk());
+
+        userService.deactivateUser("admin", user.getId(), null);
+
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testLoginIssuesAccessTokenUsedWithoutPasswordChecks() throws Exception {
+        String accessToken = login();
+        clearInvocations(passwordEncoder);
+
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/roles").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken + "x"))
+                .andExpect(status().isUnauthorized());
+
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    public void testLoginRejectsWrongPassword() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"jdoe\", \"password\": \"wrong\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testPasswordHashingOverloadReturnsServiceUnavailable() throws Exception {
+        doThrow(new PasswordHashingUnavailableException("Password hashing queue is full", null))
+                .when(passwordEncoder).matches(anyString(), anyString());
+
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"jdoe\", \"password\": \"password\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    public void testFailedAttemptsRateLimitUsername() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "wrong")))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"jdoe\", \"password\": \"password\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testSuccessfulAttemptsDoNotRateLimitUsername() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, basic("jdoe", "password")))
+                    .andExpect(status().isOk());
+            login();
+        }
+    }
+
+    @Test
+    public void testDeactivationRevokesAccessTokens() throws Exception {
+        String accessToken = login();
+
+        userService.deactivateUser("admin", user.getId(), null);
+
+        mockMvc.perform(get("/api/users/" + user.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String login() throws Exception {
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"jdoe\", \"password\": \"password\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("accessToken").asText();
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
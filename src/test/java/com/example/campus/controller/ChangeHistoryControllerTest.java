@@ -0,0 +1,89 @@
+package com.example.campus.controller;
+
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.entity.ChangeHistory;
+import com.example.campus.service.ChangeHistoryService;
+import com.example.campus.util.Cursor;
+import com.example.campus.util.SecurityUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.campus.util.Permissions.READ_HISTORY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ChangeHistoryControllerTest {
+
+    @InjectMocks
+    private ChangeHistoryController changeHistoryController;
+
+    @Mock
+    private ChangeHistoryService changeHistoryService;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        securityContext = mock(SecurityContext.class);
+        authentication = mock(Authentication.class);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+    }
+
+    @Test
+    public void testGetHistory() {
+        String requester = "testUser";
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        CursorPageDTO<ChangeHistory> mockHistory = new CursorPageDTO<>(Collections.singletonList(new ChangeHistory()), "next");
+
+        mockSecurityUtil(requester, Collections.singletonList(READ_HISTORY.name()));
+        when(changeHistoryService.findHistory(from, null, null, 10)).thenReturn(mockHistory);
+
+        ResponseEntity<CursorPageDTO<ChangeHistory>> response = changeHistoryController.getHistory(from, null, null, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockHistory, response.getBody());
+        verify(changeHistoryService, times(1)).findHistory(from, null, null, 10);
+    }
+
+    @Test
+    public void testGetEntityHistory() {
+        String requester = "testUser";
+        CursorPageDTO<ChangeHistory> mockHistory = new CursorPageDTO<>(Collections.singletonList(new ChangeHistory()), null);
+
+        mockSecurityUtil(requester, Collections.singletonList(READ_HISTORY.name()));
+        when(changeHistoryService.findEntityHistory("Course", 1L, null, null, "cursor", Cursor.DEFAULT_LIMIT)).thenReturn(mockHistory);
+
+        ResponseEntity<CursorPageDTO<ChangeHistory>> response = changeHistoryController.getEntityHistory("Course", 1L, null, null, "cursor", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockHistory, response.getBody());
+        verify(changeHistoryService, times(1)).findEntityHistory("Course", 1L, null, null, "cursor", Cursor.DEFAULT_LIMIT);
+    }
+
+    private void mockSecurityUtil(String requester, List<String> permissions) {
+        try (MockedStatic<SecurityUtil> mockedSecurityUtil = mockStatic(SecurityUtil.class)) {
+            when(authentication.getPrincipal()).thenReturn(requester);
+            mockedSecurityUtil.when(SecurityUtil::getUsername).thenReturn(requester);
+            mockedSecurityUtil.when(() -> SecurityUtil.isAuthorized(requester, permissions)).thenReturn(true);
+        }
+    }
+}
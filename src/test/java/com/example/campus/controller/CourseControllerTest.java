@@ -1,28 +1,48 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.BulkUpdateRequestDTO;
+import com.example.campus.dto.BulkUpdateResultDTO;
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.dto.EnrollmentResultDTO;
 import com.example.campus.dto.UserRoleDTO;
 import com.example.campus.entity.Course;
 import com.example.campus.entity.User;
+import com.example.campus.exception.InvalidLimitException;
 import com.example.campus.service.CourseService;
+import com.example.campus.service.BulkUpdateService;
+import com.example.campus.service.ExportService;
+import com.example.campus.util.Cursor;
 import com.example.campus.util.SecurityUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static com.example.campus.util.Permissions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 public class CourseControllerTest {
@@ -33,6 +53,15 @@ public class CourseControllerTest {
     @Mock
     private CourseService courseService;
 
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private BulkUpdateService bulkUpdateService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @Mock
     private SecurityContext securityContext;
 
@@ -51,16 +80,16 @@ public class CourseControllerTest {
     @Test
     public void testGetAllCourses() {
         String requester = "testUser";
-        List<Course> mockCourses = Collections.singletonList(new Course());
+        CursorPageDTO<Course> mockCourses = new CursorPageDTO<>(Collections.singletonList(new Course()), null);
 
         mockSecurityUtil(requester, Collections.singletonList(READ_COURSE.name()));
-        when(courseService.findAllCourses()).thenReturn(mockCourses);
+        when(courseService.findAllCourses(null, Cursor.DEFAULT_LIMIT)).thenReturn(mockCourses);
 
-        ResponseEntity<List<Course>> response = courseController.getAllCourses();
+        ResponseEntity<?> response = courseController.getAllCourses(null, null, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockCourses, response.getBody());
-        verify(courseService, times(1)).findAllCourses();
+        verify(courseService, times(1)).findAllCourses(null, Cursor.DEFAULT_LIMIT);
     }
 
     @Test
@@ -79,34 +108,49 @@ public class CourseControllerTest {
         verify(courseService, times(1)).saveCourse(requester, mockCourse);
     }
 
+    @Test
+    public void testExportCourses() throws IOException {
+        String requester = "testUser";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        mockSecurityUtil(requester, Collections.singletonList(READ_COURSE.name()));
+
+        ResponseEntity<StreamingResponseBody> response = courseController.exportCourses();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(exportService, times(1)).exportCourses(output);
+    }
+
     @Test
     public void testGetActiveCourses() {
         String requester = "testUser";
-        List<Course> mockActiveCourses = Collections.singletonList(new Course());
+        CursorPageDTO<Course> mockActiveCourses = new CursorPageDTO<>(Collections.singletonList(new Course()), null);
 
         mockSecurityUtil(requester, Collections.singletonList(READ_COURSE.name()));
-        when(courseService.getActiveCourses()).thenReturn(mockActiveCourses);
+        when(courseService.getActiveCourses(null, Cursor.DEFAULT_LIMIT)).thenReturn(mockActiveCourses);
 
-        ResponseEntity<List<Course>> response = courseController.getActiveCourses();
+        ResponseEntity<?> response = courseController.getActiveCourses(null, null, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockActiveCourses, response.getBody());
-        verify(courseService, times(1)).getActiveCourses();
+        verify(courseService, times(1)).getActiveCourses(null, Cursor.DEFAULT_LIMIT);
     }
 
     @Test
     public void testGetOpenCourses() {
         String requester = "testUser";
-        List<Course> mockOpenCourses = Collections.singletonList(new Course());
+        CursorPageDTO<Course> mockOpenCourses = new CursorPageDTO<>(Collections.singletonList(new Course()), null);
 
         mockSecurityUtil(requester, Collections.singletonList(READ_COURSE.name()));
-        when(courseService.getOpenCourses()).thenReturn(mockOpenCourses);
+        when(courseService.getOpenCourses(null, Cursor.DEFAULT_LIMIT)).thenReturn(mockOpenCourses);
 
-        ResponseEntity<List<Course>> response = courseController.getOpenCourses();
+        ResponseEntity<?> response = courseController.getOpenCourses(null, null, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockOpenCourses, response.getBody());
-        verify(courseService, times(1)).getOpenCourses();
+        verify(courseService, times(1)).getOpenCourses(null, Cursor.DEFAULT_LIMIT);
     }
 
     @Test
@@ -131,15 +175,17 @@ public class CourseControllerTest {
         Long courseId = 1L;
         Course courseDetails = new Course();
         Course updatedCourse = new Course();
+        updatedCourse.setVersion(3L);
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_COURSE.name()));
-        when(courseService.updateCourse(requester, courseId, courseDetails)).thenReturn(updatedCourse);
+        when(courseService.updateCourse(requester, courseId, courseDetails, 2L)).thenReturn(updatedCourse);
 
-        ResponseEntity<Course> response = courseController.updateCourse(courseId, courseDetails);
+        ResponseEntity<Course> response = courseController.updateCourse(courseId, courseDetails, "\"2\"");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedCourse, response.getBody());
-        verify(courseService, times(1)).updateCourse(requester, courseId, courseDetails);
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verify(courseService, times(1)).updateCourse(requester, courseId, courseDetails, 2L);
     }
 
     @Test
@@ -161,18 +207,35 @@ public class CourseControllerTest {
         Long courseId = 1L;
         Long userId = 2L;
         Long roleId = 3L;
-        Course updatedCourse = new Course();
+        EnrollmentResultDTO enrollment = new EnrollmentResultDTO(EnrollmentResultDTO.Status.ENROLLED, new Course());
 
         mockSecurityUtil(requester, Arrays.asList(READ_USER.name(), WRITE_COURSE.name()));
-        when(courseService.addUserToCourse(requester, courseId, userId, roleId)).thenReturn(updatedCourse);
+        when(courseService.addUserToCourse(requester, courseId, userId, roleId)).thenReturn(enrollment);
 
-        ResponseEntity<Course> response = courseController.addUserToCourse(courseId, userId, roleId);
+        ResponseEntity<EnrollmentResultDTO> response = courseController.addUserToCourse(courseId, userId, roleId);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedCourse, response.getBody());
+        assertEquals(enrollment, response.getBody());
         verify(courseService, times(1)).addUserToCourse(requester, courseId, userId, roleId);
     }
 
+    @Test
+    public void testAddUserToFullCourse() {
+        String requester = "testUser";
+        Long courseId = 1L;
+        Long userId = 2L;
+        Long roleId = 3L;
+        EnrollmentResultDTO enrollment = new EnrollmentResultDTO(EnrollmentResultDTO.Status.WAITLISTED, new Course());
+
+        mockSecurityUtil(requester, Arrays.asList(READ_USER.name(), WRITE_COURSE.name()));
+        when(courseService.addUserToCourse(requester, courseId, userId, roleId)).thenReturn(enrollment);
+
+        ResponseEntity<EnrollmentResultDTO> response = courseController.addUserToCourse(courseId, userId, roleId);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(enrollment, response.getBody());
+    }
+
     @Test
     public void testRemoveUserFromCourse() {
         String requester = "testUser";
@@ -213,13 +276,39 @@ public class CourseControllerTest {
         List<UserRoleDTO> mockUserRoles = Collections.singletonList(new UserRoleDTO());
 
         mockSecurityUtil(requester, Arrays.asList(READ_COURSE.name(), READ_ROLE.name(), READ_USER.name()));
-        when(courseService.getUsersAndRolesByCourseId(courseId)).thenReturn(mockUserRoles);
+        when(courseService.getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.SURNAME, PageRequest.of(2, 50))).thenReturn(mockUserRoles);
 
-        ResponseEntity<List<UserRoleDTO>> response = courseController.getUsersAndRolesByCourseId(courseId);
+        ResponseEntity<List<UserRoleDTO>> response = courseController.getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.SURNAME, 2, 50);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockUserRoles, response.getBody());
-        verify(courseService, times(1)).getUsersAndRolesByCourseId(courseId);
+        verify(courseService, times(1)).getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.SURNAME, PageRequest.of(2, 50));
+    }
+
+    @Test
+    public void testStreamUsersAndRolesByCourseId() throws IOException {
+        String requester = "testUser";
+        Long courseId = 1L;
+
+        mockSecurityUtil(requester, Arrays.asList(READ_COURSE.name(), READ_ROLE.name(), READ_USER.name()));
+        doAnswer(invocation -> {
+            Consumer<UserRoleDTO> action = invocation.getArgument(2);
+            action.accept(new UserRoleDTO(3L, "jdoe", "Jo", "Doe", null, 2L, "Student"));
+            action.accept(new UserRoleDTO(4L, "asmith", "Ann", "Smith", null, null, null));
+            return null;
+        }).when(courseService).forEachUserAndRoleByCourseId(eq(courseId), eq(UserRoleDTO.Sort.REGISTRATION), any());
+
+        ResponseEntity<StreamingResponseBody> response = courseController.streamUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.REGISTRATION);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("jdoe", objectMapper.readValue(lines[0], UserRoleDTO.class).getUsername());
+        assertEquals("asmith", objectMapper.readValue(lines[1], UserRoleDTO.class).getUsername());
+        verify(courseService, times(1)).findCourseById(courseId);
     }
 
     @Test
@@ -256,68 +345,121 @@ public class CourseControllerTest {
         verify(courseService, times(1)).getUsersWithoutRole(courseId, roleId);
     }
 
+    @Test
+    public void testGetUsersWithRoles() {
+        String requester = "testUser";
+        Long courseId = 1L;
+        List<Long> roleIds = List.of(1L, 3L);
+        List<User> mockUsers = Collections.singletonList(new User());
+
+        mockSecurityUtil(requester, Arrays.asList(READ_COURSE.name(), READ_ROLE.name(), READ_USER.name()));
+        when(courseService.getUsersWithRoles(courseId, roleIds, 10L, 12)).thenReturn(mockUsers);
+
+        ResponseEntity<List<User>> response = courseController.getUsersWithRoles(courseId, roleIds, 10L, 12);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockUsers, response.getBody());
+        verify(courseService, times(1)).getUsersWithRoles(courseId, roleIds, 10L, 12);
+    }
+
+    @Test
+    public void testGetUsersWithoutRoles() {
+        String requester = "testUser";
+        Long courseId = 1L;
+        List<Long> roleIds = List.of(1L, 3L);
+        List<User> mockUsers = Collections.singletonList(new User());
+
+        mockSecurityUtil(requester, Arrays.asList(READ_COURSE.name(), READ_ROLE.name(), READ_USER.name()));
+        when(courseService.getUsersWithoutRoles(courseId, roleIds, null, Cursor.DEFAULT_LIMIT)).thenReturn(mockUsers);
+
+        ResponseEntity<List<User>> response = courseController.getUsersWithoutRoles(courseId, roleIds, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockUsers, response.getBody());
+        verify(courseService, times(1)).getUsersWithoutRoles(courseId, roleIds, null, Cursor.DEFAULT_LIMIT);
+    }
+
+    @Test
+    public void testGetUsersWithRolesRejectsNonPositiveLimit() {
+        mockSecurityUtil("testUser", Arrays.asList(READ_COURSE.name(), READ_ROLE.name(), READ_USER.name()));
+
+        assertThrows(InvalidLimitException.class, () -> courseController.getUsersWithRoles(1L, List.of(1L), null, 0));
+        verifyNoInteractions(courseService);
+    }
+
     @Test
     public void testOpenCourse() {
         String requester = "testUser";
         Long courseId = 1L;
-        Course updatedCourse = new Course();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_COURSE.name()));
-        when(courseService.openCourse(requester, courseId)).thenReturn(updatedCourse);
+        when(courseService.openCourse(requester, courseId, null)).thenReturn(2L);
 
-        ResponseEntity<Course> response = courseController.openCourse(courseId);
+        ResponseEntity<Void> response = courseController.openCourse(courseId, null);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedCourse, response.getBody());
-        verify(courseService, times(1)).openCourse(requester, courseId);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        verify(courseService, times(1)).openCourse(requester, courseId, null);
     }
 
     @Test
     public void testCloseCourse() {
         String requester = "testUser";
         Long courseId = 1L;
-        Course updatedCourse = new Course();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_COURSE.name()));
-        when(courseService.closeCourse(requester, courseId)).thenReturn(updatedCourse);
+        when(courseService.closeCourse(requester, courseId, 3L)).thenReturn(4L);
 
-        ResponseEntity<Course> response = courseController.closeCourse(courseId);
+        ResponseEntity<Void> response = courseController.closeCourse(courseId, "W/\"3\"");
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedCourse, response.getBody());
-        verify(courseService, times(1)).closeCourse(requester, courseId);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        verify(courseService, times(1)).closeCourse(requester, courseId, 3L);
     }
 
     @Test
     public void testActivateCourse() {
         String requester = "testUser";
         Long courseId = 1L;
-        Course updatedCourse = new Course();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_COURSE.name()));
-        when(courseService.activateCourse(requester, courseId)).thenReturn(updatedCourse);
+        when(courseService.activateCourse(requester, courseId, null)).thenReturn(6L);
 
-        ResponseEntity<Course> response = courseController.activateCourse(courseId);
+        ResponseEntity<Void> response = courseController.activateCourse(courseId, null);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedCourse, response.getBody());
-        verify(courseService, times(1)).activateCourse(requester, courseId);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"6\"", response.getHeaders().getETag());
+        verify(courseService, times(1)).activateCourse(requester, courseId, null);
     }
 
     @Test
     public void testDeactivateCourse() {
         String requester = "testUser";
         Long courseId = 1L;
-        Course updatedCourse = new Course();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_COURSE.name()));
-        when(courseService.deactivateCourse(requester, courseId)).thenReturn(updatedCourse);
+        when(courseService.deactivateCourse(requester, courseId, null)).thenReturn(7L);
+
+        ResponseEntity<Void> response = courseController.deactivateCourse(courseId, null);
 
-        ResponseEntity<Course> response = courseController.deactivateCourse(courseId);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"7\"", response.getHeaders().getETag());
+        verify(courseService, times(1)).deactivateCourse(requester, courseId, null);
+    }
+
+    @Test
+    public void testCloseCourses() {
+        String requester = "testUser";
+        BulkUpdateRequestDTO request = new BulkUpdateRequestDTO(null, LocalDateTime.of(2024, 1, 1, 0, 0), null, null);
+        BulkUpdateResultDTO result = new BulkUpdateResultDTO(BulkUpdateResultDTO.Action.CLOSE, 2, 1, 2L);
+
+        mockSecurityUtil(requester, Collections.singletonList(WRITE_COURSE.name()));
+        when(bulkUpdateService.updateCourses(requester, BulkUpdateResultDTO.Action.CLOSE, request)).thenReturn(result);
+
+        ResponseEntity<BulkUpdateResultDTO> response = courseController.closeCourses(request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedCourse, response.getBody());
-        verify(courseService, times(1)).deactivateCourse(requester, courseId);
+        assertEquals(result, response.getBody());
     }
 
     private void mockSecurityUtil(String requester, List<String> permissions) {
@@ -0,0 +1,93 @@
+package com.example.campus.controller;
+
+import com.example.campus.dto.RegistrationDedupResultDTO;
+import com.example.campus.service.ExportService;
+import com.example.campus.service.RegistrationDedupService;
+import com.example.campus.util.SecurityUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.campus.util.Permissions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class CourseRegistrationControllerTest {
+
+    @InjectMocks
+    private CourseRegistrationController courseRegistrationController;
+
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private RegistrationDedupService registrationDedupService;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        securityContext = mock(SecurityContext.class);
+        authentication = mock(Authentication.class);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+    }
+
+    @Test
+    public void testExportRegistrations() throws IOException {
+        String requester = "testUser";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        mockSecurityUtil(requester, Arrays.asList(READ_COURSE.name(), READ_ROLE.name(), READ_USER.name()));
+
+        ResponseEntity<StreamingResponseBody> response = courseRegistrationController.exportRegistrations();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(exportService, times(1)).exportRegistrations(output);
+    }
+
+    @Test
+    public void testDeduplicateRegistrations() {
+        String requester = "testUser";
+        RegistrationDedupResultDTO result = new RegistrationDedupResultDTO(3, 2, 40L);
+
+        mockSecurityUtil(requester, List.of(WRITE_COURSE.name()));
+        when(registrationDedupService.deduplicate(requester, 10L)).thenReturn(result);
+
+        ResponseEntity<RegistrationDedupResultDTO> response = courseRegistrationController.deduplicateRegistrations(10L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+        verify(registrationDedupService, times(1)).deduplicate(requester, 10L);
+    }
+
+    private void mockSecurityUtil(String requester, List<String> permissions) {
+        try (MockedStatic<SecurityUtil> mockedSecurityUtil = mockStatic(SecurityUtil.class)) {
+            when(authentication.getPrincipal()).thenReturn(requester);
+            mockedSecurityUtil.when(SecurityUtil::getUsername).thenReturn(requester);
+            mockedSecurityUtil.when(() -> SecurityUtil.isAuthorized(requester, permissions)).thenReturn(true);
+        }
+    }
+}
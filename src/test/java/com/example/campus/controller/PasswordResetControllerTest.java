@@ -1,14 +1,22 @@
 package com.example.campus.controller;
 
+import com.example.campus.exception.ErrorResponse;
+import com.example.campus.exception.RateLimitExceededException;
 import com.example.campus.service.PasswordResetService;
+import com.example.campus.service.RateLimiter;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -20,17 +28,38 @@ public class PasswordResetControllerTest {
     @Mock
     private PasswordResetService passwordResetService;
 
+    @Mock
+    private RateLimiter rateLimiter;
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
     @Test
     public void testCreatePasswordResetToken() {
         String username = "jdoe";
         doNothing().when(passwordResetService).createPasswordResetTokenForUser(username);
 
-        ResponseEntity<?> response = userController.createPasswordResetToken(username);
+        ResponseEntity<?> response = userController.createPasswordResetToken(username, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(rateLimiter, times(1)).acquire(request.getRemoteAddr(), username);
         verify(passwordResetService, times(1)).createPasswordResetTokenForUser(username);
     }
 
+    @Test
+    public void testCreatePasswordResetTokenRateLimited() {
+        String username = "jdoe";
+        doThrow(new RateLimitExceededException("Too many requests for username", Duration.ofMillis(1500)))
+                .when(rateLimiter).acquire(request.getRemoteAddr(), username);
+
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> userController.createPasswordResetToken(username, request));
+        ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler().handleRateLimitExceededException(exception);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(passwordResetService, never()).createPasswordResetTokenForUser(username);
+    }
+
     @Test
     public void testResetPasswordSuccess() {
         String token = "token";
@@ -38,9 +67,10 @@ public class PasswordResetControllerTest {
         when(passwordResetService.validatePasswordResetToken(token)).thenReturn(true);
         doNothing().when(passwordResetService).resetPassword(token, newPassword);
 
-        ResponseEntity<?> response = userController.resetPassword(token, newPassword);
+        ResponseEntity<?> response = userController.resetPassword(token, newPassword, request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(rateLimiter, times(1)).acquire(request.getRemoteAddr(), null);
         verify(passwordResetService, times(1)).resetPassword(token, newPassword);
     }
 }
\ No newline at end of file
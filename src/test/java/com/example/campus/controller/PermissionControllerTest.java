@@ -1,7 +1,9 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.Permission;
 import com.example.campus.service.PermissionService;
+import com.example.campus.util.Cursor;
 import com.example.campus.util.SecurityUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -49,16 +51,16 @@ public class PermissionControllerTest {
     @Test
     public void testGetAllPermissions() {
         String requester = "testUser";
-        List<Permission> mockPermissions = Collections.singletonList(new Permission());
+        CursorPageDTO<Permission> mockPermissions = new CursorPageDTO<>(Collections.singletonList(new Permission()), null);
 
         mockSecurityUtil(requester, Collections.singletonList(READ_PERMISSION.name()));
-        when(permissionService.findAllPermissions()).thenReturn(mockPermissions);
+        when(permissionService.findAllPermissions(null, Cursor.DEFAULT_LIMIT)).thenReturn(mockPermissions);
 
-        ResponseEntity<List<Permission>> response = permissionController.getAllPermissions();
+        ResponseEntity<?> response = permissionController.getAllPermissions(null, null, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockPermissions, response.getBody());
-        verify(permissionService, times(1)).findAllPermissions();
+        verify(permissionService, times(1)).findAllPermissions(null, Cursor.DEFAULT_LIMIT);
     }
 
     @Test
@@ -101,13 +103,13 @@ public class PermissionControllerTest {
         Permission updatedPermission = new Permission();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_PERMISSION.name()));
-        when(permissionService.updatePermission(requester, permissionId, permissionDetails)).thenReturn(updatedPermission);
+        when(permissionService.updatePermission(requester, permissionId, permissionDetails, 2L)).thenReturn(updatedPermission);
 
-        ResponseEntity<Permission> response = permissionController.updatePermission(permissionId, permissionDetails);
+        ResponseEntity<Permission> response = permissionController.updatePermission(permissionId, permissionDetails, "\"2\"");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedPermission, response.getBody());
-        verify(permissionService, times(1)).updatePermission(requester, permissionId, permissionDetails);
+        verify(permissionService, times(1)).updatePermission(requester, permissionId, permissionDetails, 2L);
     }
 
     @Test
@@ -1,8 +1,10 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.Permission;
 import com.example.campus.entity.Role;
 import com.example.campus.service.RoleService;
+import com.example.campus.util.Cursor;
 import com.example.campus.util.SecurityUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -50,16 +52,16 @@ public class RoleControllerTest {
     @Test
     public void testGetAllRoles() {
         String requester = "testUser";
-        List<Role> mockRoles = Collections.singletonList(new Role());
+        CursorPageDTO<Role> mockRoles = new CursorPageDTO<>(Collections.singletonList(new Role()), null);
 
         mockSecurityUtil(requester, Collections.singletonList(READ_ROLE.name()));
-        when(roleService.findAllRoles()).thenReturn(mockRoles);
+        when(roleService.findAllRoles(null, Cursor.DEFAULT_LIMIT)).thenReturn(mockRoles);
 
-        ResponseEntity<List<Role>> response = roleController.getAllRoles();
+        ResponseEntity<?> response = roleController.getAllRoles(null, null, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockRoles, response.getBody());
-        verify(roleService, times(1)).findAllRoles();
+        verify(roleService, times(1)).findAllRoles(null, Cursor.DEFAULT_LIMIT);
     }
 
     @Test
@@ -102,13 +104,13 @@ public class RoleControllerTest {
         Role updatedRole = new Role();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_ROLE.name()));
-        when(roleService.updateRole(requester, roleId, roleDetails)).thenReturn(updatedRole);
+        when(roleService.updateRole(requester, roleId, roleDetails, 2L)).thenReturn(updatedRole);
 
-        ResponseEntity<Role> response = roleController.updateRole(roleId, roleDetails);
+        ResponseEntity<Role> response = roleController.updateRole(roleId, roleDetails, "\"2\"");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedRole, response.getBody());
-        verify(roleService, times(1)).updateRole(requester, roleId, roleDetails);
+        verify(roleService, times(1)).updateRole(requester, roleId, roleDetails, 2L);
     }
 
     @Test
@@ -1,10 +1,17 @@
 package com.example.campus.controller;
 
+import com.example.campus.dto.BulkUpdateRequestDTO;
+import com.example.campus.dto.BulkUpdateResultDTO;
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.dto.CourseRoleDTO;
 import com.example.campus.entity.Course;
 import com.example.campus.entity.Permission;
 import com.example.campus.entity.User;
+import com.example.campus.service.BulkUpdateService;
+import com.example.campus.service.ExportService;
+import com.example.campus.service.UserImportService;
 import com.example.campus.service.UserService;
+import com.example.campus.util.Cursor;
 import com.example.campus.util.SecurityUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,18 +19,25 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static com.example.campus.util.Permissions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 public class UserControllerTest {
@@ -34,6 +48,15 @@ public class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserImportService userImportService;
+
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private BulkUpdateService bulkUpdateService;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -52,16 +75,31 @@ public class UserControllerTest {
     @Test
     public void testGetAllUsers() {
         String requester = "testUser";
-        List<User> mockUsers = Collections.singletonList(new User());
+        CursorPageDTO<User> mockUsers = new CursorPageDTO<>(Collections.singletonList(new User()), null);
 
         mockSecurityUtil(requester, Collections.singletonList(READ_USER.name()));
-        when(userService.findAllUsers()).thenReturn(mockUsers);
+        when(userService.findAllUsers(null, Cursor.DEFAULT_LIMIT)).thenReturn(mockUsers);
 
-        ResponseEntity<List<User>> response = userController.getAllUsers();
+        ResponseEntity<?> response = userController.getAllUsers(null, null, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockUsers, response.getBody());
-        verify(userService, times(1)).findAllUsers();
+        verify(userService, times(1)).findAllUsers(null, Cursor.DEFAULT_LIMIT);
+    }
+
+    @Test
+    public void testGetAllUsersCapsLimit() {
+        String requester = "testUser";
+        CursorPageDTO<User> mockUsers = new CursorPageDTO<>(Collections.singletonList(new User()), null);
+
+        mockSecurityUtil(requester, Collections.singletonList(READ_USER.name()));
+        when(userService.findAllUsers("cursor", Cursor.MAX_LIMIT)).thenReturn(mockUsers);
+        when(userService.findAllUsers(null, Cursor.UNPAGED_LIMIT)).thenReturn(mockUsers);
+
+        assertEquals(mockUsers, userController.getAllUsers("cursor", Integer.MAX_VALUE, false).getBody());
+        assertEquals(mockUsers.getItems(), userController.getAllUsers(null, 1, true).getBody());
+        verify(userService, times(1)).findAllUsers("cursor", Cursor.MAX_LIMIT);
+        verify(userService, times(1)).findAllUsers(null, Cursor.UNPAGED_LIMIT);
     }
 
     @Test
@@ -80,6 +118,41 @@ public class UserControllerTest {
         verify(userService, times(1)).createUser(requester, user);
     }
 
+    @Test
+    public void testImportUsers() throws IOException {
+        String requester = "testUser";
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        ServletInputStream body = mock(ServletInputStream.class);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        mockSecurityUtil(requester, Collections.singletonList(WRITE_USER.name()));
+        UserImportService.UserImport userImport = mock(UserImportService.UserImport.class);
+        when(request.getInputStream()).thenReturn(body);
+        when(userImportService.openImport(requester, MediaType.APPLICATION_NDJSON, body)).thenReturn(userImport);
+
+        ResponseEntity<StreamingResponseBody> response = userController.importUsers(MediaType.APPLICATION_NDJSON, request);
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(userImport, times(1)).writeTo(output);
+    }
+
+    @Test
+    public void testExportUsers() throws IOException {
+        String requester = "testUser";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        mockSecurityUtil(requester, Collections.singletonList(READ_USER.name()));
+
+        ResponseEntity<StreamingResponseBody> response = userController.exportUsers();
+        response.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        verify(exportService, times(1)).exportUsers(output);
+    }
+
     @Test
     public void testGetUserById() {
         String requester = "testUser";
@@ -104,13 +177,13 @@ public class UserControllerTest {
         User updatedUser = new User();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_USER.name()));
-        when(userService.updateUser(requester, userId, userDetails)).thenReturn(updatedUser);
+        when(userService.updateUser(requester, userId, userDetails, 2L)).thenReturn(updatedUser);
 
-        ResponseEntity<User> response = userController.updateUser(userId, userDetails);
+        ResponseEntity<User> response = userController.updateUser(userId, userDetails, "\"2\"");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedUser, response.getBody());
-        verify(userService, times(1)).updateUser(requester, userId, userDetails);
+        verify(userService, times(1)).updateUser(requester, userId, userDetails, 2L);
     }
 
     @Test
@@ -276,32 +349,45 @@ public class UserControllerTest {
     public void testActivateUser() {
         String requester = "testUser";
         Long userId = 1L;
-        User updatedUser = new User();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_USER.name()));
-        when(userService.activateUser(requester, userId)).thenReturn(updatedUser);
+        when(userService.activateUser(requester, userId, null)).thenReturn(2L);
 
-        ResponseEntity<User> response = userController.activateUser(userId);
+        ResponseEntity<Void> response = userController.activateUser(userId, null);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedUser, response.getBody());
-        verify(userService, times(1)).activateUser(requester, userId);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        verify(userService, times(1)).activateUser(requester, userId, null);
     }
 
     @Test
     public void testDeactivateUser() {
         String requester = "testUser";
         Long userId = 1L;
-        User updatedUser = new User();
 
         mockSecurityUtil(requester, Collections.singletonList(WRITE_USER.name()));
-        when(userService.deactivateUser(requester, userId)).thenReturn(updatedUser);
+        when(userService.deactivateUser(requester, userId, 3L)).thenReturn(4L);
+
+        ResponseEntity<Void> response = userController.deactivateUser(userId, "W/\"3\"");
 
-        ResponseEntity<User> response = userController.deactivateUser(userId);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        verify(userService, times(1)).deactivateUser(requester, userId, 3L);
+    }
+
+    @Test
+    public void testDeactivateUsers() {
+        String requester = "testUser";
+        BulkUpdateRequestDTO request = new BulkUpdateRequestDTO(List.of(1L, 2L), null, null, null);
+        BulkUpdateResultDTO result = new BulkUpdateResultDTO(BulkUpdateResultDTO.Action.DEACTIVATE, 2, 1, 2L);
+
+        mockSecurityUtil(requester, Collections.singletonList(WRITE_USER.name()));
+        when(bulkUpdateService.updateUsers(requester, BulkUpdateResultDTO.Action.DEACTIVATE, request)).thenReturn(result);
+
+        ResponseEntity<BulkUpdateResultDTO> response = userController.deactivateUsers(request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(updatedUser, response.getBody());
-        verify(userService, times(1)).deactivateUser(requester, userId);
+        assertEquals(result, response.getBody());
     }
 
     private void mockSecurityUtil(String requester, List<String> permissions) {
@@ -0,0 +1,173 @@
+package com.example.campus.service;
+
+import com.example.campus.util.PermissionSet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static com.example.campus.util.Permissions.READ_USER;
+import static com.example.campus.util.Permissions.WRITE_USER;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testIssuedTokenIsVerified() {
+        AccessTokenService accessTokenService = createService(SECRET, NOW, new TokenRevocationList(Duration.ofMinutes(15)));
+        PermissionSet permissionSet = PermissionSet.of(READ_USER, WRITE_USER).or(PermissionSet.ofNames(List.of("EXPORT_REPORTS")));
+
+        AccessTokenService.AccessToken accessToken = accessTokenService.verify(accessTokenService.issue("jdoe", permissionSet)).orElseThrow();
+
+        assertEquals("jdoe", accessToken.username());
+        assertEquals(permissionSet, accessToken.permissionSet());
+        assertEquals(NOW.plus(Duration.ofMinutes(15)), accessToken.expiresAt());
+    }
+
+    @Test
+    public void testTokenIsVerifiedByAnotherNodeWithTheSameKey() {
+        String token = createService(SECRET, NOW, new TokenRevocationList(Duration.ofMinutes(15))).issue("jdoe", PermissionSet.of(READ_USER));
+
+        assertTrue(createService(SECRET, NOW, new TokenRevocationList(Duration.ofMinutes(15))).verify(token).isPresent());
+        String otherSecret = Base64.getEncoder().encodeToString(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+                17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+        assertTrue(createService(otherSecret, NOW, new TokenRevocationList(Duration.ofMinutes(15))).verify(token).isEmpty());
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() {
+        AccessTokenService accessTokenService = createService(SECRET, NOW, new TokenRevocationList(Duration.ofMinutes(15)));
+        String token = accessTokenService.issue("jdoe", PermissionSet.of(READ_USER));
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("{\"sub\":\"jdoe\",\"perm\":" + Long.MAX_VALUE + ",\"ext\":[],\"iat\":0,\"exp\":" + Long.MAX_VALUE + "}").getBytes());
+
+        assertTrue(accessTokenService.verify(forgedPayload + token.substring(token.indexOf('.'))).isEmpty());
+        assertTrue(accessTokenService.verify("not-a-token").isEmpty());
+        assertTrue(accessTokenService.verify("a.b.c").isEmpty());
+    }
+
+    @Test
+    public void testExpiredTokenIsRejected() {
+        String token = createService(SECRET, NOW, new TokenRevocationList(Duration.ofMinutes(15))).issue("jdoe", PermissionSet.of(READ_USER));
+
+        AccessTokenService later = createService(SECRET, NOW.plus(Duration.ofMinutes(15)), new TokenRevocationList(Duration.ofMinutes(15)));
+
+        assertTrue(later.verify(token).isEmpty());
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() {
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15), Clock.fixed(NOW.plusSeconds(1), ZoneOffset.UTC));
+        AccessTokenService accessTokenService = createService(SECRET, NOW, tokenRevocationList);
+        String token = accessTokenService.issue("jdoe", PermissionSet.of(READ_USER));
+        String otherToken = accessTokenService.issue("asmith", PermissionSet.of(READ_USER));
+
+        tokenRevocationList.revoke("jdoe");
+
+        assertTrue(accessTokenService.verify(token).isEmpty());
+        assertTrue(accessTokenService.verify(otherToken).isPresent());
+        assertTrue(createService(SECRET, NOW.plusSeconds(2), tokenRevocationList).verify(
+                createService(SECRET, NOW.plusSeconds(2), tokenRevocationList).issue("jdoe", PermissionSet.of(READ_USER))).isPresent());
+    }
+
+    @Test
+    public void testRevokeAllRejectsEveryEarlierToken() {
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15), Clock.fixed(NOW.plusSeconds(1), ZoneOffset.UTC));
+        AccessTokenService accessTokenService = createService(SECRET, NOW, tokenRevocationList);
+        String token = accessTokenService.issue("jdoe", PermissionSet.of(READ_USER));
+        String otherToken = accessTokenService.issue("asmith", PermissionSet.of(READ_USER));
+
+        tokenRevocationList.revokeAll();
+
+        assertTrue(accessTokenService.verify(token).isEmpty());
+        assertTrue(accessTokenService.verify(otherToken).isEmpty());
+        AccessTokenService later = createService(SECRET, NOW.plusSeconds(2), tokenRevocationList);
+        assertTrue(later.verify(later.issue("jdoe", PermissionSet.of(READ_USER))).isPresent());
+    }
+
+    @Test
+    public void testRevocationListOnlyKeepsEntriesWithinTheTokenLifetime() {
+        MutableClock clock = new MutableClock();
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15), clock);
+
+        tokenRevocationList.revoke("jdoe");
+        clock.advance(Duration.ofMinutes(16));
+        tokenRevocationList.revoke("asmith");
+
+        assertEquals(2, tokenRevocationList.size());
+        tokenRevocationList.pruneExpired();
+        assertEquals(1, tokenRevocationList.size());
+        assertTrue(tokenRevocationList.isRevoked("asmith", clock.instant()));
+    }
+
+    @Test
+    public void testRevocationIsKeptAtTokenPrecision() {
+        Instant revokedAt = NOW.plusNanos(1_500_000);
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15), Clock.fixed(revokedAt, ZoneOffset.UTC));
+
+        tokenRevocationList.revoke("jdoe");
+
+        assertTrue(tokenRevocationList.isRevoked("jdoe", NOW.plusMillis(1)));
+        assertFalse(tokenRevocationList.isRevoked("jdoe", NOW.plusMillis(2)));
+    }
+
+    @Test
+    public void testRevocationIsRepeatedAfterCommit() {
+        MutableClock clock = new MutableClock();
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15), clock);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationList.revoke("jdoe");
+            clock.advance(Duration.ofSeconds(1));
+            Instant issuedBeforeCommit = clock.instant();
+            assertFalse(tokenRevocationList.isRevoked("jdoe", issuedBeforeCommit));
+
+            clock.advance(Duration.ofSeconds(1));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+
+            assertTrue(tokenRevocationList.isRevoked("jdoe", issuedBeforeCommit));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private AccessTokenService createService(String secret, Instant now, TokenRevocationList tokenRevocationList) {
+        return new AccessTokenService(secret, Duration.ofMinutes(15), Clock.fixed(now, ZoneOffset.UTC), objectMapper, tokenRevocationList);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = NOW;
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.Permission;
+import com.example.campus.entity.User;
+import com.example.campus.repository.PermissionRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import com.example.campus.util.PermissionSet;
+import com.example.campus.util.Permissions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AdminBootstrapTest {
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testCreatesAdminWithAllPermissionsOnce() {
+        Permission existing = new Permission();
+        existing.setName(Permissions.READ_USER.name());
+        permissionRepository.save(existing);
+
+        assertTrue(createBootstrap("admin", "secret123").bootstrap());
+        assertFalse(createBootstrap("admin", "other123").bootstrap());
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            User admin = userRepository.findByUsername("admin").orElseThrow();
+            assertTrue(new BCryptPasswordEncoder(4).matches("secret123", admin.getPassword()));
+            assertEquals(1, admin.getRoles().size());
+            assertEquals(PermissionSet.of(Permissions.values()), admin.getRoles().get(0).getPermissionSet());
+        });
+        assertEquals(1, userRepository.count());
+        assertEquals(1, roleRepository.count());
+        assertEquals(Permissions.values().length, permissionRepository.count());
+    }
+
+    @Test
+    public void testDisabledWithoutUsernameOrPassword() {
+        assertFalse(createBootstrap("", "secret123").bootstrap());
+        assertFalse(createBootstrap("admin", "").bootstrap());
+
+        assertEquals(0, userRepository.count());
+    }
+
+    private AdminBootstrap createBootstrap(String username, String password) {
+        return new AdminBootstrap(new BCryptPasswordEncoder(4), permissionRepository, roleRepository, userRepository,
+                new TransactionTemplate(transactionManager), username, password, "admin@example.com");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.campus.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class AsciiFoldingNormalizerTest {
+    private static final int[][] RANGES = {
+            {0x00, 0x7F}, {0x80, 0xFF}, {0x100, 0x24F}, {0x300, 0x36F}, {0x370, 0x3FF}, {0x400, 0x4FF},
+            {0x1E00, 0x1EFF}, {0x2000, 0x206F}, {0x2100, 0x214F}, {0xAC00, 0xD7A3}, {0xD800, 0xDFFF},
+            {0xFB00, 0xFB4F}, {0xFF00, 0xFFEF}, {0x1D15E, 0x1D1C0}, {0x1F600, 0x1F64F}, {0x2F800, 0x2FA1D}
+    };
+
+    private final AsciiFoldingNormalizer normalizer = new AsciiFoldingNormalizer();
+    private final NonAsciiNormalizer reference = new NonAsciiNormalizer();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Clàudia Martí", "Noé Juárez", "Asel·lia Purificació", "Raül Cañas", "Lluïs Crête", "Ǆemal Ǳ", "Ạ̊̊", "\t\nJo\u000B\f\r", ""})
+    public void testMatchesReference(String input) {
+        assertEquals(reference.normalize(input), normalizer.normalize(input));
+    }
+
+    @Test
+    public void testLowercaseAsciiIsReturnedAsIs() {
+        String input = "claudia-marti.1";
+        assertSame(input, normalizer.normalize(input));
+    }
+
+    @Test
+    public void testEveryBmpCharacterMatchesReference() {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            String input = "A" + (char) c + "b";
+            assertEquals(reference.normalize(input), normalizer.normalize(input), () -> "U+" + Integer.toHexString(input.charAt(1)));
+        }
+    }
+
+    @Test
+    public void testRandomUnicodeCorpusMatchesReference() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            String input = randomString(random);
+            assertEquals(reference.normalize(input), normalizer.normalize(input), () -> input.codePoints()
+                    .mapToObj(Integer::toHexString).toList().toString());
+        }
+    }
+
+    @Test
+    public void testMatchesReferenceUnderTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            Random random = new Random(7);
+            for (String input : new String[]{"IŞIK Ilgaz", "İsmail Ünal", "ILIK"}) {
+                assertEquals(reference.normalize(input), normalizer.normalize(input));
+            }
+            for (int i = 0; i < 1_000; i++) {
+                String input = randomString(random);
+                assertEquals(reference.normalize(input), normalizer.normalize(input));
+            }
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static String randomString(Random random) {
+        int length = random.nextInt(24);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int[] range = RANGES[random.nextInt(RANGES.length)];
+            int codePoint = range[0] + random.nextInt(range[1] - range[0] + 1);
+            if (codePoint >= 0xD800 && codePoint <= 0xDFFF) builder.append((char) codePoint);
+            else builder.appendCodePoint(codePoint);
+        }
+        return builder.toString();
+    }
+}
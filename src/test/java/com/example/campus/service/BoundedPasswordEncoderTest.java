@@ -0,0 +1,89 @@
+package com.example.campus.service;
+
+import com.example.campus.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (passwordEncoder != null) passwordEncoder.close();
+    }
+
+    @Test
+    public void testHashesOnExecutorThread() {
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(false), 1, 1);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        passwordEncoder.bindTo(registry);
+
+        assertEquals("password-hasher:secret", passwordEncoder.encode("secret"));
+        assertTrue(passwordEncoder.matches("secret", "password-hasher:secret"));
+        assertFalse(passwordEncoder.matches("other", "password-hasher:secret"));
+        assertEquals(3, registry.get("password.hashing").functionTimer().count());
+        assertEquals(0.0, registry.get("password.hashing.queue.size").gauge().value());
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(true), 1, 1);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        passwordEncoder.bindTo(registry);
+
+        Future<String> running = callers.submit(() -> passwordEncoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> queued = callers.submit(() -> passwordEncoder.encode("second"));
+        while (passwordEncoder.getQueueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.matches("third", "hash"));
+        assertEquals(1.0, registry.get("password.hashing.rejected").functionCounter().count());
+        assertEquals(1.0, registry.get("password.hashing.queue.size").gauge().value());
+
+        release.countDown();
+        assertEquals("password-hasher:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("password-hasher:second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, passwordEncoder.getRejected());
+    }
+
+    private class BlockingPasswordEncoder implements PasswordEncoder {
+        private final boolean block;
+
+        BlockingPasswordEncoder(boolean block) {
+            this.block = block;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (block) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Thread.currentThread().getName() + ":" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
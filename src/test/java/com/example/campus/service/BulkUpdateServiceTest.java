@@ -0,0 +1,202 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.BulkUpdateRequestDTO;
+import com.example.campus.dto.BulkUpdateResultDTO;
+import com.example.campus.dto.BulkUpdateResultDTO.Action;
+import com.example.campus.entity.*;
+import com.example.campus.exception.InvalidBulkUpdateException;
+import com.example.campus.repository.CourseRegistrationRepository;
+import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BulkUpdateServiceTest {
+
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private ChangeHistoryWriter changeHistoryWriter;
+    private CourseNotificationService courseNotificationService;
+    private CredentialCache credentialCache;
+    private TokenRevocationList tokenRevocationList;
+    private BulkUpdateService bulkUpdateService;
+
+    @BeforeEach
+    public void setup() {
+        changeHistoryWriter = mock(ChangeHistoryWriter.class);
+        courseNotificationService = mock(CourseNotificationService.class);
+        credentialCache = mock(CredentialCache.class);
+        tokenRevocationList = mock(TokenRevocationList.class);
+        bulkUpdateService = new BulkUpdateService(
+                changeHistoryWriter,
+                courseNotificationService,
+                credentialCache,
+                entityManager,
+                tokenRevocationList,
+                new TransactionTemplate(transactionManager)
+        );
+    }
+
+    @Test
+    public void testCloseCoursesEndedBeforeInChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        int ended = BulkUpdateService.CHUNK_SIZE + 10;
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < ended; i++) {
+            courses.add(createCourse("Ended " + i, now.minusDays(10), now.minusDays(5)));
+        }
+        courses.add(createCourse("Running", now.minusDays(1), now.plusDays(1)));
+        courseRepository.saveAll(courses);
+
+        BulkUpdateRequestDTO request = new BulkUpdateRequestDTO(null, now.minusDays(2), null, null);
+        BulkUpdateResultDTO result = bulkUpdateService.updateCourses("admin", Action.DEACTIVATE, request);
+
+        assertEquals(Action.DEACTIVATE, result.getAction());
+        assertEquals(ended, result.getUpdated());
+        assertEquals(2, result.getChunks());
+        assertEquals(courses.get(ended - 1).getId(), result.getLastId());
+        Course first = courseRepository.findById(courses.get(0).getId()).orElseThrow();
+        assertFalse(first.getIsActive());
+        assertEquals(1L, first.getVersion());
+        assertEquals("admin", first.getUpdatedBy());
+        assertNotNull(first.getUpdatedAt());
+        assertTrue(courseRepository.findById(courses.get(ended).getId()).orElseThrow().getIsActive());
+        verify(changeHistoryWriter, times(2)).record(anyCollection());
+
+        BulkUpdateResultDTO rerun = bulkUpdateService.updateCourses("admin", Action.DEACTIVATE, request);
+
+        assertEquals(0, rerun.getUpdated());
+        assertEquals(0, rerun.getChunks());
+        assertEquals(1L, courseRepository.findById(courses.get(0).getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    public void testResumeAfterLastId() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Course> courses = courseRepository.saveAll(List.of(
+                createCourse("Course 1", null, null),
+                createCourse("Course 2", null, null),
+                createCourse("Course 3", now.minusDays(1), now.plusDays(1))));
+        List<Long> ids = courses.stream().map(Course::getId).toList();
+
+        BulkUpdateResultDTO result = bulkUpdateService.updateCourses("admin", Action.OPEN, new BulkUpdateRequestDTO(ids, null, null, ids.get(0)));
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(ids.get(1), result.getLastId());
+        assertNull(courseRepository.findById(ids.get(0)).orElseThrow().getDates());
+        Course opened = courseRepository.findById(ids.get(1)).orElseThrow();
+        assertNotNull(opened.getDates().getStartDate());
+        assertNull(opened.getDates().getEndDate());
+        assertEquals(0L, courseRepository.findById(ids.get(2)).orElseThrow().getVersion());
+        verify(courseNotificationService).notifyRegistrants("admin", ids.get(1), CourseNotificationService.Event.OPENED);
+        verify(courseNotificationService, never()).notifyRegistrants("admin", ids.get(2), CourseNotificationService.Event.OPENED);
+        ArgumentCaptor<Collection<ChangeHistory>> changes = ArgumentCaptor.captor();
+        verify(changeHistoryWriter).record(changes.capture());
+        assertEquals(List.of(ids.get(1)), changes.getValue().stream().map(ChangeHistory::getEntityId).toList());
+    }
+
+    @Test
+    public void testOpenReopensCoursesThatAlreadyEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        Course ended = courseRepository.save(createCourse("Ended", now.minusDays(10), now.minusDays(5)));
+
+        BulkUpdateResultDTO result = bulkUpdateService.updateCourses("admin", Action.OPEN, new BulkUpdateRequestDTO(List.of(ended.getId()), null, null, null));
+
+        assertEquals(1, result.getUpdated());
+        Course reopened = courseRepository.findById(ended.getId()).orElseThrow();
+        assertTrue(reopened.getDates().getStartDate().isAfter(now.minusDays(1)));
+        assertNull(reopened.getDates().getEndDate());
+    }
+
+    @Test
+    public void testDeactivateUsersWithoutActiveCourses() {
+        User registered = createUser("100");
+        User idle = createUser("101");
+        User inactive = createUser("102");
+        inactive.setIsActive(false);
+        userRepository.saveAll(List.of(registered, idle, inactive));
+        Role role = new Role();
+        role.setName("Student");
+        role = roleRepository.save(role);
+        CourseRegistration registration = new CourseRegistration();
+        registration.setUser(registered);
+        registration.setRole(role);
+        registration.setCourse(courseRepository.save(createCourse("Course", null, null)));
+        courseRegistrationRepository.save(registration);
+
+        BulkUpdateResultDTO result = bulkUpdateService.updateUsers("admin", Action.DEACTIVATE, new BulkUpdateRequestDTO(null, null, true, null));
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(idle.getId(), result.getLastId());
+        assertTrue(userRepository.findById(registered.getId()).orElseThrow().getIsActive());
+        User deactivated = userRepository.findById(idle.getId()).orElseThrow();
+        assertFalse(deactivated.getIsActive());
+        assertEquals("admin", deactivated.getUpdatedBy());
+        verify(credentialCache).evictUser("user101");
+        verify(tokenRevocationList).revoke("user101");
+        verify(tokenRevocationList, never()).revoke("user100");
+    }
+
+    @Test
+    public void testRequiresIdsOrFilter() {
+        BulkUpdateRequestDTO empty = new BulkUpdateRequestDTO(List.of(), null, null, null);
+
+        assertThrows(InvalidBulkUpdateException.class, () -> bulkUpdateService.updateCourses("admin", Action.CLOSE, empty));
+        assertThrows(InvalidBulkUpdateException.class, () -> bulkUpdateService.updateUsers("admin", Action.ACTIVATE, empty));
+        assertThrows(InvalidBulkUpdateException.class,
+                () -> bulkUpdateService.updateUsers("admin", Action.OPEN, new BulkUpdateRequestDTO(List.of(1L), null, null, null)));
+    }
+
+    private Course createCourse(String name, LocalDateTime startDate, LocalDateTime endDate) {
+        return Course.builder()
+                .name(name)
+                .dates(startDate != null || endDate != null ? new DateRange(startDate, endDate) : null)
+                .build();
+    }
+
+    private User createUser(String nationalId) {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("user" + nationalId);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.campus.service;
+
+import com.example.campus.config.ChangeHistoryListener;
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.entity.ChangeHistory;
+import com.example.campus.entity.ChangeHistory.Action;
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.User;
+import com.example.campus.repository.ChangeHistoryRepository;
+import com.example.campus.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({ChangeHistoryListener.class, ChangeHistoryWriter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChangeHistoryWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ChangeHistoryRepository changeHistoryRepository;
+    @Autowired
+    private ChangeHistoryWriter changeHistoryWriter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testStopFlushesQueuedChanges() {
+        changeHistoryWriter.stop();
+        changeHistoryRepository.deleteAll();
+        ChangeHistoryWriter writer = new ChangeHistoryWriter(jdbcTemplate, 10_000, 50, Duration.ofSeconds(30));
+        writer.start();
+
+        int changes = 2_000;
+        for (int i = 0; i < changes; i++) {
+            writer.record(List.of(createChange(i)));
+        }
+        writer.stop();
+
+        assertFalse(writer.isRunning());
+        assertEquals(0, writer.getQueued());
+        assertEquals(changes, writer.getWritten());
+        assertEquals(changes, changeHistoryRepository.count());
+    }
+
+    @Test
+    public void testFullBufferDropsChanges() throws InterruptedException {
+        changeHistoryWriter.stop();
+        changeHistoryRepository.deleteAll();
+        CountDownLatch workerWriting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JdbcTemplate blockingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize, ParameterizedPreparedStatementSetter<T> pss) {
+                if (Thread.currentThread().getName().equals("change-history-writer")) {
+                    workerWriting.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, pss);
+            }
+        };
+        ChangeHistoryWriter writer = new ChangeHistoryWriter(blockingJdbcTemplate, 2, 10, Duration.ofSeconds(30));
+        writer.start();
+
+        writer.record(List.of(createChange(0)));
+        assertTrue(workerWriting.await(5, TimeUnit.SECONDS));
+        List<ChangeHistory> burst = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            burst.add(createChange(i));
+        }
+        writer.record(burst);
+
+        assertEquals(2, writer.getQueued());
+        assertEquals(3, writer.getDropped());
+        assertEquals(0, changeHistoryRepository.count());
+
+        release.countDown();
+        writer.stop();
+
+        assertEquals(3, writer.getWritten());
+        assertEquals(3, changeHistoryRepository.count());
+    }
+
+    @Test
+    public void testRecordBeforeStartIsWrittenOnceStarted() {
+        changeHistoryWriter.stop();
+        changeHistoryRepository.deleteAll();
+        ChangeHistoryWriter writer = new ChangeHistoryWriter(jdbcTemplate, 10, 10, Duration.ofSeconds(30));
+
+        writer.record(List.of(createChange(1), createChange(2)));
+
+        assertEquals(2, writer.getQueued());
+        assertEquals(0, changeHistoryRepository.count());
+
+        writer.start();
+        writer.stop();
+
+        assertEquals(2, writer.getWritten());
+        assertEquals(2, changeHistoryRepository.count());
+
+        writer.record(List.of(createChange(3)));
+
+        assertEquals(1, writer.getDropped());
+        assertEquals(0, writer.getQueued());
+    }
+
+    @Test
+    public void testUpdatesAreRecordedOnlyAfterCommit() {
+        changeHistoryWriter.stop();
+        changeHistoryRepository.deleteAll();
+        ChangeHistoryWriter writer = new ChangeHistoryWriter(jdbcTemplate, 10, 10, Duration.ofSeconds(30));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.recordUpdate("admin", "Course", 1L, "isActive", false);
+            assertEquals(0, writer.getQueued());
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> writer.recordUpdate("admin", "Course", 2L, "isActive", true));
+
+        assertEquals(1, writer.getQueued());
+        writer.start();
+        writer.stop();
+        assertEquals(List.of(2L), changeHistoryRepository.findAll().stream().map(ChangeHistory::getEntityId).toList());
+    }
+
+    @Test
+    public void testEntityChangesAreRecorded() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+        User user = createUser();
+        user.setPassword("secret-password");
+        user = userRepository.save(user);
+        user.setEmail("jane@example.com");
+        user = userRepository.save(user);
+        userRepository.delete(user);
+        changeHistoryWriter.stop();
+
+        CursorPageDTO<ChangeHistory> history = new ChangeHistoryService(changeHistoryRepository)
+                .findEntityHistory("User", user.getId(), null, null, null, 100);
+
+        List<ChangeHistory> changes = history.getItems();
+        assertNull(history.getNextCursor());
+        assertTrue(changes.stream().allMatch(change -> "admin".equals(change.getChangedBy())));
+        assertTrue(changes.stream().noneMatch(change -> "createdAt".equals(change.getField()) || "roles".equals(change.getField())));
+        assertTrue(changes.stream().anyMatch(change -> change.getAction() == Action.CREATE
+                && "password".equals(change.getField()) && "[REDACTED]".equals(change.getNewValue())));
+        ChangeHistory update = changes.stream().filter(change -> change.getAction() == Action.UPDATE).findFirst().orElseThrow();
+        assertEquals("email", update.getField());
+        assertEquals("jo@example.com", update.getOldValue());
+        assertEquals("jane@example.com", update.getNewValue());
+        assertEquals(1, changes.stream().filter(change -> change.getAction() == Action.UPDATE).count());
+        assertEquals(Action.DELETE, changes.get(changes.size() - 1).getAction());
+    }
+
+    @Test
+    public void testHistoryPagesByTimeRange() {
+        changeHistoryWriter.stop();
+        changeHistoryRepository.deleteAll();
+        ChangeHistoryWriter writer = new ChangeHistoryWriter(jdbcTemplate, 10, 10, Duration.ofSeconds(30));
+        List<ChangeHistory> changes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            changes.add(createChange(i));
+        }
+        writer.record(changes);
+        writer.start();
+        writer.stop();
+        ChangeHistoryService changeHistoryService = new ChangeHistoryService(changeHistoryRepository);
+
+        CursorPageDTO<ChangeHistory> first = changeHistoryService.findHistory(null, null, null, 3);
+        CursorPageDTO<ChangeHistory> second = changeHistoryService.findHistory(null, null, first.getNextCursor(), 3);
+        CursorPageDTO<ChangeHistory> none = changeHistoryService.findHistory(null, LocalDateTime.of(2000, 1, 1, 0, 0), null, 3);
+
+        assertEquals(3, first.getItems().size());
+        assertEquals(2, second.getItems().size());
+        assertNull(second.getNextCursor());
+        assertTrue(none.getItems().isEmpty());
+    }
+
+    private ChangeHistory createChange(long entityId) {
+        return new ChangeHistory(null, "Course", entityId, Action.UPDATE, "name", "old", "new", "admin", LocalDateTime.now());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId("100");
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("JDoe");
+        user.setIsActive(true);
+        return user;
+    }
+}
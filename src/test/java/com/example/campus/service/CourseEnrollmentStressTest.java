@@ -0,0 +1,254 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.EnrollmentResultDTO;
+import com.example.campus.dto.EnrollmentResultDTO.Status;
+import com.example.campus.entity.*;
+import com.example.campus.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CourseEnrollmentStressTest {
+    private static final int ATTEMPTS = Boolean.getBoolean("benchmark") ? 10_000 : 500;
+    private static final int CAPACITY = 100;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private CourseWaitlistRepository courseWaitlistRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CourseService courseService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        courseService = createCourseService(Duration.ofSeconds(1));
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentEnrollmentNeverOverbooks() throws Exception {
+        Course course = courseRepository.save(Course.builder().name("Popular").capacity(CAPACITY).build());
+        Role role = new Role();
+        role.setName("Student");
+        Long roleId = roleRepository.save(role).getId();
+        List<Long> userIds = createUsers(ATTEMPTS);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EnrollmentResultDTO>> attempts = new ArrayList<>();
+        for (Long userId : userIds) {
+            attempts.add(executor.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> courseService.addUserToCourse("student", course.getId(), userId, roleId));
+            }));
+        }
+        start.countDown();
+        Map<Status, Integer> outcomes = new EnumMap<>(Status.class);
+        for (Future<EnrollmentResultDTO> attempt : attempts) {
+            outcomes.merge(attempt.get(2, TimeUnit.MINUTES).getStatus(), 1, Integer::sum);
+        }
+
+        assertEquals(CAPACITY, outcomes.get(Status.ENROLLED));
+        assertEquals(ATTEMPTS - CAPACITY, outcomes.get(Status.WAITLISTED));
+        assertEquals(CAPACITY, registrations(course.getId()).size());
+        assertEquals(CAPACITY, courseRepository.findById(course.getId()).orElseThrow().getSeatsTaken());
+        assertEquals(ATTEMPTS - CAPACITY, courseWaitlistRepository.countByCourseId(course.getId()));
+
+        CourseWaitlistEntry first = courseWaitlistRepository.findFirstByCourseIdOrderByRequestedAtAscIdAsc(course.getId()).orElseThrow();
+        Long firstWaitlistedUserId = first.getUser().getId();
+        Long enrolledUserId = registrations(course.getId()).get(0).getUser().getId();
+        transactionTemplate.executeWithoutResult(status -> courseService.removeUserFromCourse("student", course.getId(), enrolledUserId));
+
+        List<CourseRegistration> registrations = registrations(course.getId());
+        assertEquals(CAPACITY, registrations.size());
+        assertTrue(registrations.stream().anyMatch(registration -> registration.getUser().getId().equals(firstWaitlistedUserId)));
+        assertTrue(registrations.stream().noneMatch(registration -> registration.getUser().getId().equals(enrolledUserId)));
+        assertEquals(CAPACITY, courseRepository.findById(course.getId()).orElseThrow().getSeatsTaken());
+        assertEquals(ATTEMPTS - CAPACITY - 1, courseWaitlistRepository.countByCourseId(course.getId()));
+    }
+
+    @Test
+    public void testConcurrentRetriesOfOneEnrollmentAllSucceed() throws Exception {
+        Course course = courseRepository.save(Course.builder().name("Popular").capacity(CAPACITY).build());
+        Role role = new Role();
+        role.setName("Student");
+        Long roleId = roleRepository.save(role).getId();
+        Long userId = createUsers(1).get(0);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EnrollmentResultDTO>> attempts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            attempts.add(executor.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> courseService.addUserToCourse("student", course.getId(), userId, roleId));
+            }));
+        }
+        start.countDown();
+        for (Future<EnrollmentResultDTO> attempt : attempts) {
+            assertEquals(Status.ENROLLED, attempt.get(2, TimeUnit.MINUTES).getStatus());
+        }
+
+        assertEquals(1, registrations(course.getId()).size());
+        assertEquals(1, courseRepository.findById(course.getId()).orElseThrow().getSeatsTaken());
+    }
+
+    @Test
+    public void testRaisingCapacityPromotesWaitlistInOrder() {
+        Course course = courseRepository.save(Course.builder().name("Small").capacity(1).build());
+        Role role = new Role();
+        role.setName("Student");
+        Long roleId = roleRepository.save(role).getId();
+        List<Long> userIds = createUsers(4);
+
+        List<EnrollmentResultDTO> results = new ArrayList<>();
+        for (Long userId : userIds) {
+            results.add(transactionTemplate.execute(status -> courseService.addUserToCourse("student", course.getId(), userId, roleId)));
+        }
+
+        assertEquals(List.of(Status.ENROLLED, Status.WAITLISTED, Status.WAITLISTED, Status.WAITLISTED),
+                results.stream().map(EnrollmentResultDTO::getStatus).toList());
+        assertEquals(Status.WAITLISTED, transactionTemplate.execute(status ->
+                courseService.addUserToCourse("student", course.getId(), userIds.get(3), roleId)).getStatus());
+        assertEquals(3, courseWaitlistRepository.countByCourseId(course.getId()));
+
+        Long version = courseRepository.findById(course.getId()).orElseThrow().getVersion();
+        transactionTemplate.executeWithoutResult(status ->
+                courseService.updateCourse("admin", course.getId(), Course.builder().capacity(3).build(), version));
+
+        assertEquals(userIds.subList(0, 3), registrations(course.getId()).stream().map(registration -> registration.getUser().getId()).sorted().toList());
+        assertEquals(userIds.get(3), courseWaitlistRepository.findFirstByCourseIdOrderByRequestedAtAscIdAsc(course.getId()).orElseThrow().getUser().getId());
+        assertEquals(3, courseRepository.findById(course.getId()).orElseThrow().getSeatsTaken());
+    }
+
+    @Test
+    public void testWaitlistedUserWhoFindsAFreeSeatLeavesTheWaitlist() {
+        courseService = createCourseService(Duration.ZERO);
+        Course course = courseRepository.save(Course.builder().name("Small").capacity(1).build());
+        Role role = new Role();
+        role.setName("Student");
+        Long roleId = roleRepository.save(role).getId();
+        List<Long> userIds = createUsers(3);
+
+        assertEquals(Status.ENROLLED, enroll(course.getId(), userIds.get(0), roleId));
+        assertEquals(Status.WAITLISTED, enroll(course.getId(), userIds.get(1), roleId));
+        // A seat freed on another node never reaches this node's counter.
+        transactionTemplate.executeWithoutResult(status -> {
+            courseRegistrationRepository.deleteAll(registrations(course.getId()));
+            courseRepository.releaseSeat(course.getId());
+        });
+
+        assertEquals(Status.ENROLLED, enroll(course.getId(), userIds.get(1), roleId));
+        assertEquals(0, courseWaitlistRepository.countByCourseId(course.getId()));
+        assertEquals(Status.WAITLISTED, enroll(course.getId(), userIds.get(2), roleId));
+
+        transactionTemplate.executeWithoutResult(status -> courseService.removeUserFromCourse("student", course.getId(), userIds.get(1)));
+
+        assertEquals(List.of(userIds.get(2)), registrations(course.getId()).stream().map(registration -> registration.getUser().getId()).toList());
+        assertEquals(0, courseWaitlistRepository.countByCourseId(course.getId()));
+    }
+
+    @Test
+    public void testPromotionSkipsWaitlistEntriesOfEnrolledUsers() {
+        Course course = courseRepository.save(Course.builder().name("Small").capacity(2).build());
+        Role role = new Role();
+        role.setName("Student");
+        Role savedRole = roleRepository.save(role);
+        List<Long> userIds = createUsers(3);
+        assertEquals(Status.ENROLLED, enroll(course.getId(), userIds.get(0), savedRole.getId()));
+        assertEquals(Status.ENROLLED, enroll(course.getId(), userIds.get(1), savedRole.getId()));
+        assertEquals(Status.WAITLISTED, enroll(course.getId(), userIds.get(2), savedRole.getId()));
+        CourseWaitlistEntry leftover = new CourseWaitlistEntry();
+        leftover.setCourse(course);
+        leftover.setUser(userRepository.findById(userIds.get(0)).orElseThrow());
+        leftover.setRole(savedRole);
+        leftover.setRequestedAt(LocalDateTime.now().minusDays(1));
+        courseWaitlistRepository.save(leftover);
+
+        transactionTemplate.executeWithoutResult(status -> courseService.removeUserFromCourse("student", course.getId(), userIds.get(1)));
+
+        assertEquals(List.of(userIds.get(0), userIds.get(2)), registrations(course.getId()).stream().map(registration -> registration.getUser().getId()).sorted().toList());
+        assertEquals(2, courseRepository.findById(course.getId()).orElseThrow().getSeatsTaken());
+        assertEquals(0, courseWaitlistRepository.countByCourseId(course.getId()));
+    }
+
+    private CourseService createCourseService(Duration seatRecheckInterval) {
+        PermissionCache permissionCache = new PermissionCache(100);
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15));
+        RoleService roleService = new RoleService(permissionCache, new PermissionService(permissionCache, permissionRepository, tokenRevocationList), roleRepository, tokenRevocationList, userRepository);
+        CourseService courseService = new CourseService(Mockito.mock(ChangeHistoryWriter.class), Mockito.mock(CourseNotificationService.class), courseRepository, courseRegistrationRepository, new CourseRegistrationWriter(jdbcTemplate), new CourseSeatCounter(seatRecheckInterval), new CourseStateWriter(jdbcTemplate), courseWaitlistRepository, permissionCache, roleService);
+        UserService userService = new UserService(Mockito.mock(ChangeHistoryWriter.class), new CredentialCache(100, Duration.ofMinutes(5), Clock.systemUTC()), permissionCache, roleService, tokenRevocationList, new UsernameAllocator(new DummyNormalizer(), userRepository), userRepository);
+        userService.setCourseService(courseService);
+        courseService.setUserService(userService);
+        return courseService;
+    }
+
+    private Status enroll(Long courseId, Long userId, Long roleId) {
+        return transactionTemplate.execute(status -> courseService.addUserToCourse("student", courseId, userId, roleId)).getStatus();
+    }
+
+    private List<CourseRegistration> registrations(Long courseId) {
+        return courseRegistrationRepository.findAll().stream()
+                .filter(registration -> registration.getCourse().getId().equals(courseId))
+                .toList();
+    }
+
+    private List<Long> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setName("Jo");
+            user.setFirstSurname("Doe");
+            user.setEmail("jo@example.com");
+            NationalIdInfo nationalIdInfo = new NationalIdInfo();
+            nationalIdInfo.setNationalId(String.valueOf(100 + i));
+            nationalIdInfo.setCountry("Canada");
+            user.setNationalIdInfo(nationalIdInfo);
+            user.setUsername("user" + i);
+            user.setIsActive(true);
+            users.add(user);
+        }
+        return userRepository.saveAll(users).stream().map(User::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.*;
+import com.example.campus.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CourseNotificationBenchmarkTest {
+    private static final int RECIPIENTS = Integer.getInteger("benchmark.recipients", 2_000);
+
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private LocalSmtpServer smtpServer;
+    private JavaMailSenderImpl mailSender;
+    private MailDispatcher mailDispatcher;
+    private Long courseId;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        smtpServer = new LocalSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+        Course course = courseRepository.save(Course.builder().name("Algebra").build());
+        courseId = course.getId();
+        Role role = new Role();
+        role.setName("Student");
+        Role student = roleRepository.save(role);
+        List<User> users = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            User user = new User();
+            user.setName("Jo");
+            user.setFirstSurname("Doe");
+            user.setEmail("user" + i + "@example.com");
+            NationalIdInfo nationalIdInfo = new NationalIdInfo();
+            nationalIdInfo.setNationalId(String.valueOf(100 + i));
+            nationalIdInfo.setCountry("Canada");
+            user.setNationalIdInfo(nationalIdInfo);
+            user.setUsername("user" + i);
+            users.add(user);
+        }
+        List<CourseRegistration> registrations = new ArrayList<>(RECIPIENTS);
+        for (User user : userRepository.saveAll(users)) {
+            CourseRegistration registration = new CourseRegistration();
+            registration.setUser(user);
+            registration.setCourse(course);
+            registration.setRole(student);
+            registrations.add(registration);
+        }
+        courseRegistrationRepository.saveAll(registrations);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (mailDispatcher != null) mailDispatcher.stop();
+        smtpServer.close();
+    }
+
+    @Test
+    public void testSendOneByOne() throws InterruptedException {
+        long start = System.nanoTime();
+        for (String recipient : courseRegistrationRepository.findRecipientEmailsByCourseId(courseId)) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(recipient);
+            message.setSubject("Algebra is now open");
+            message.setText("The course Algebra is now open.");
+            mailSender.send(message);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(RECIPIENTS, smtpServer.awaitMessages(RECIPIENTS, 1, TimeUnit.MINUTES).size());
+        log.info("Sent {} mails one by one in {} ms ({} mails/s) over {} connections",
+                RECIPIENTS, TimeUnit.NANOSECONDS.toMillis(elapsed), rate(elapsed), smtpServer.getConnections());
+    }
+
+    @Test
+    public void testSendThroughOutboxPipeline() throws InterruptedException {
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setCourseOpenedSubject("%1$s is now open");
+        mailProperties.setCourseOpenedText("The course %1$s is now open.");
+        mailDispatcher = new MailDispatcher(mailSender, mailOutboxRepository, transactionTemplate, 4, 50, 3, 0,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofSeconds(30));
+        CourseNotificationService courseNotificationService = new CourseNotificationService(
+                courseRegistrationRepository, courseRepository, jdbcTemplate, mailDispatcher, mailProperties);
+        mailDispatcher.start();
+
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status ->
+                courseNotificationService.notifyRegistrants("admin", courseId, CourseNotificationService.Event.OPENED));
+        long queued = System.nanoTime() - start;
+        assertEquals(RECIPIENTS, smtpServer.awaitMessages(RECIPIENTS, 1, TimeUnit.MINUTES).size());
+        long elapsed = System.nanoTime() - start;
+
+        log.info("Queued {} mails in {} ms and sent them in {} ms ({} mails/s) over {} connections",
+                RECIPIENTS, TimeUnit.NANOSECONDS.toMillis(queued), TimeUnit.NANOSECONDS.toMillis(elapsed), rate(elapsed), smtpServer.getConnections());
+    }
+
+    private static long rate(long elapsedNanos) {
+        return RECIPIENTS * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+    }
+}
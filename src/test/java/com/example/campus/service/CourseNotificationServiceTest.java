@@ -0,0 +1,127 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.*;
+import com.example.campus.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CourseNotificationServiceTest {
+
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private MailDispatcher mailDispatcher;
+    private TransactionTemplate transactionTemplate;
+    private CourseNotificationService courseNotificationService;
+
+    @BeforeEach
+    public void setup() {
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setCourseOpenedSubject("%1$s is now open");
+        mailProperties.setCourseOpenedText("The course %1$s opened on %2$s.");
+        mailProperties.setCourseRescheduledSubject("%1$s has new dates");
+        mailProperties.setCourseRescheduledText("The course %1$s now runs from %2$s to %3$s.");
+        mailDispatcher = mock(MailDispatcher.class);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        courseNotificationService = new CourseNotificationService(courseRegistrationRepository, courseRepository, jdbcTemplate, mailDispatcher, mailProperties);
+    }
+
+    @Test
+    public void testQueuesOneMailPerActiveRegistrant() {
+        LocalDateTime start = LocalDateTime.of(2026, 9, 1, 9, 0);
+        Course course = courseRepository.save(Course.builder().name("Algebra").dates(new DateRange(start, null)).build());
+        Role role = new Role();
+        role.setName("Student");
+        role = roleRepository.save(role);
+        int registrants = Auditable.ID_ALLOCATION_SIZE + 10;
+        for (int i = 0; i < registrants; i++) {
+            register(createUser(String.valueOf(100 + i), true), course, role);
+        }
+        register(createUser("999", false), course, role);
+
+        int queued = transactionTemplate.execute(status ->
+                courseNotificationService.notifyRegistrants("admin", course.getId(), CourseNotificationService.Event.OPENED));
+
+        assertEquals(registrants, queued);
+        List<OutboxMail> mails = mailOutboxRepository.findAll();
+        assertEquals(registrants, mails.size());
+        assertEquals(registrants, mails.stream().map(OutboxMail::getId).distinct().count());
+        assertEquals(registrants, mails.stream().map(OutboxMail::getRecipient).distinct().count());
+        assertTrue(mails.stream().noneMatch(mail -> mail.getRecipient().equals("user999@example.com")));
+        OutboxMail mail = mails.get(0);
+        assertEquals("Algebra is now open", mail.getSubject());
+        assertEquals("The course Algebra opened on 2026-09-01 09:00.", mail.getText());
+        assertEquals(OutboxMail.Status.PENDING, mail.getStatus());
+        assertEquals("admin", mail.getCreatedBy());
+        verify(mailDispatcher).wakeUpAfterCommit();
+
+        OutboxMail entityMail = new OutboxMail();
+        entityMail.setRecipient("jo@example.com");
+        entityMail.setSubject("Hello");
+        entityMail.setText("Hello");
+        entityMail.setNextAttemptAt(LocalDateTime.now());
+        assertFalse(mails.stream().map(OutboxMail::getId).toList().contains(mailOutboxRepository.save(entityMail).getId()));
+    }
+
+    @Test
+    public void testSkipsCoursesWithoutRegistrants() {
+        Course course = courseRepository.save(Course.builder().name("Empty").build());
+
+        int queued = transactionTemplate.execute(status ->
+                courseNotificationService.notifyRegistrants("admin", course.getId(), CourseNotificationService.Event.RESCHEDULED));
+
+        assertEquals(0, queued);
+        assertEquals(0, mailOutboxRepository.count());
+        verifyNoInteractions(mailDispatcher);
+    }
+
+    private void register(User user, Course course, Role role) {
+        CourseRegistration registration = new CourseRegistration();
+        registration.setUser(user);
+        registration.setCourse(course);
+        registration.setRole(role);
+        courseRegistrationRepository.save(registration);
+    }
+
+    private User createUser(String nationalId, boolean active) {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("user" + nationalId + "@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("user" + nationalId);
+        user.setIsActive(active);
+        return userRepository.save(user);
+    }
+}
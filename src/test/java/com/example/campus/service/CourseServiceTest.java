@@ -1,20 +1,29 @@
 package com.example.campus.service;
 
+import com.example.campus.dto.CourseStateDTO;
+import com.example.campus.dto.EnrollmentResultDTO;
 import com.example.campus.dto.UserRoleDTO;
 import com.example.campus.entity.*;
 import com.example.campus.exception.CourseNotFoundException;
 import com.example.campus.exception.RoleNotFoundException;
 import com.example.campus.exception.UserNotFoundException;
+import com.example.campus.exception.VersionMismatchException;
 import com.example.campus.repository.CourseRegistrationRepository;
 import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.CourseWaitlistRepository;
+import com.example.campus.util.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,17 +34,26 @@ public class CourseServiceTest {
     private CourseService courseService;
     private CourseRepository courseRepository;
     private CourseRegistrationRepository courseRegistrationRepository;
+    private CourseRegistrationWriter courseRegistrationWriter;
+    private CourseStateWriter courseStateWriter;
+    private CourseWaitlistRepository courseWaitlistRepository;
     private UserService userService;
     private RoleService roleService;
+    private ChangeHistoryWriter changeHistoryWriter;
+    private CourseNotificationService courseNotificationService;
 
     @BeforeEach
     public void setup() {
         courseRepository = Mockito.mock(CourseRepository.class);
         courseRegistrationRepository = Mockito.mock(CourseRegistrationRepository.class);
+        courseRegistrationWriter = Mockito.mock(CourseRegistrationWriter.class);
+        courseStateWriter = Mockito.mock(CourseStateWriter.class);
         userService = Mockito.mock(UserService.class);
         roleService = Mockito.mock(RoleService.class);
-        AuditableService auditableService = Mockito.mock(AuditableService.class);
-        courseService = new CourseService(auditableService, courseRepository, courseRegistrationRepository, roleService);
+        changeHistoryWriter = Mockito.mock(ChangeHistoryWriter.class);
+        courseWaitlistRepository = Mockito.mock(CourseWaitlistRepository.class);
+        courseNotificationService = Mockito.mock(CourseNotificationService.class);
+        courseService = new CourseService(changeHistoryWriter, courseNotificationService, courseRepository, courseRegistrationRepository, courseRegistrationWriter, new CourseSeatCounter(Duration.ofSeconds(1)), courseStateWriter, courseWaitlistRepository, Mockito.mock(PermissionCache.class), roleService);
         courseService.setUserService(userService);
     }
 
@@ -47,9 +65,9 @@ public class CourseServiceTest {
         course2.setId(2L);
         List<Course> allCourses = List.of(course1, course2);
 
-        when(courseRepository.findAll()).thenReturn(allCourses);
+        when(courseRepository.findAfter("", 0L, Limit.of(Cursor.DEFAULT_LIMIT + 1))).thenReturn(allCourses);
 
-        List<Course> result = courseService.findAllCourses();
+        List<Course> result = courseService.findAllCourses(null, Cursor.DEFAULT_LIMIT).getItems();
 
         assertEquals(2, result.size());
         assertTrue(result.contains(course1));
@@ -80,9 +98,9 @@ public class CourseServiceTest {
         course2.setIsActive(true);
         List<Course> activeCourses = List.of(course1, course2);
 
-        when(courseRepository.findByIsActiveTrue()).thenReturn(activeCourses);
+        when(courseRepository.findActiveAfter("", 0L, Limit.of(Cursor.DEFAULT_LIMIT + 1))).thenReturn(activeCourses);
 
-        List<Course> result = courseService.getActiveCourses();
+        List<Course> result = courseService.getActiveCourses(null, Cursor.DEFAULT_LIMIT).getItems();
 
         assertEquals(2, result.size());
         assertTrue(result.contains(course1));
@@ -97,9 +115,9 @@ public class CourseServiceTest {
         course2.setId(2L);
         List<Course> openCourses = List.of(course1, course2);
 
-        when(courseRepository.findOpenCourses(any(LocalDateTime.class))).thenReturn(openCourses);
+        when(courseRepository.findOpenAfter(any(LocalDateTime.class), eq(""), eq(0L), eq(Limit.of(Cursor.DEFAULT_LIMIT + 1)))).thenReturn(openCourses);
 
-        List<Course> result = courseService.getOpenCourses();
+        List<Course> result = courseService.getOpenCourses(null, Cursor.DEFAULT_LIMIT).getItems();
 
         assertEquals(2, result.size());
         assertTrue(result.contains(course1));
@@ -136,7 +154,7 @@ public class CourseServiceTest {
         when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
         when(courseRepository.save(any(Course.class))).thenReturn(course);
 
-        Course updatedCourse = courseService.updateCourse("requester", 1L, courseDetails);
+        Course updatedCourse = courseService.updateCourse("requester", 1L, courseDetails, null);
 
         assertEquals("Updated Course", updatedCourse.getName());
         assertEquals(LocalDateTime.now().minusDays(1).getDayOfYear(), updatedCourse.getDates().getStartDate().getDayOfYear());
@@ -189,13 +207,159 @@ public class CourseServiceTest {
         role.setId(3L);
 
         when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.claimSeat(1L)).thenReturn(1);
         when(userService.findUserById(2L)).thenReturn(user);
         when(roleService.findRoleById(3L)).thenReturn(role);
+        when(courseRegistrationWriter.upsertRole("requester", 2L, 1L, 3L, true)).thenReturn(Optional.of(new CourseRegistrationWriter.Upserted(4L, 0L)));
 
-        courseService.addUserToCourse("requester", 1L, 2L, 3L);
+        EnrollmentResultDTO enrollment = courseService.addUserToCourse("requester", 1L, 2L, 3L);
 
-        verify(courseRegistrationRepository).save(any(CourseRegistration.class));
-        verify(courseRepository).save(course);
+        assertEquals(EnrollmentResultDTO.Status.ENROLLED, enrollment.getStatus());
+        verify(courseRegistrationRepository, never()).save(any(CourseRegistration.class));
+        verify(courseRegistrationRepository, never()).deleteRegistration(any());
+        verify(courseWaitlistRepository, never()).save(any(CourseWaitlistEntry.class));
+        verify(changeHistoryWriter).recordCreate("requester", "CourseRegistration", 4L, Map.of("user", 2L, "course", 1L, "role", 3L));
+    }
+
+    @Test
+    public void testAddEnrolledUserChangesRoleInPlace() throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
+        Course course = new Course();
+        course.setId(1L);
+        User user = new User();
+        user.setId(2L);
+        Role role = new Role();
+        role.setId(3L);
+
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(userService.findUserById(2L)).thenReturn(user);
+        when(roleService.findRoleById(3L)).thenReturn(role);
+        when(courseRegistrationWriter.upsertRole("requester", 2L, 1L, 3L, true)).thenReturn(Optional.of(new CourseRegistrationWriter.Upserted(4L, 2L)));
+
+        EnrollmentResultDTO enrollment = courseService.addUserToCourse("requester", 1L, 2L, 3L);
+
+        assertEquals(EnrollmentResultDTO.Status.ENROLLED, enrollment.getStatus());
+        verify(courseRepository, never()).claimSeat(1L);
+        verify(courseRegistrationRepository, never()).save(any(CourseRegistration.class));
+        verify(changeHistoryWriter).recordUpdate("requester", "CourseRegistration", 4L, "role", 3L);
+    }
+
+    @Test
+    public void testAddEnrolledUserWithSameRoleWritesNothing() throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
+        Course course = new Course();
+        course.setId(1L);
+        User user = new User();
+        user.setId(2L);
+        Role role = new Role();
+        role.setId(3L);
+
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(userService.findUserById(2L)).thenReturn(user);
+        when(roleService.findRoleById(3L)).thenReturn(role);
+        when(courseRegistrationWriter.upsertRole("requester", 2L, 1L, 3L, true)).thenReturn(Optional.empty());
+
+        EnrollmentResultDTO enrollment = courseService.addUserToCourse("requester", 1L, 2L, 3L);
+
+        assertEquals(EnrollmentResultDTO.Status.ENROLLED, enrollment.getStatus());
+        verify(courseRepository, never()).claimSeat(1L);
+        verify(courseRegistrationRepository, never()).existsByUserIdAndCourseId(2L, 1L);
+        verifyNoInteractions(changeHistoryWriter);
+    }
+
+    @Test
+    public void testAddUserToFullCourseWaitlistsUser() throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
+        Course course = new Course();
+        course.setId(1L);
+        course.setCapacity(1);
+        course.setSeatsTaken(1);
+        User user = new User();
+        user.setId(2L);
+        Role role = new Role();
+        role.setId(3L);
+
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(userService.findUserById(2L)).thenReturn(user);
+        when(roleService.findRoleById(3L)).thenReturn(role);
+
+        EnrollmentResultDTO enrollment = courseService.addUserToCourse("requester", 1L, 2L, 3L);
+
+        assertEquals(EnrollmentResultDTO.Status.WAITLISTED, enrollment.getStatus());
+        verify(courseRegistrationWriter).upsertRole("requester", 2L, 1L, 3L, false);
+        verify(courseWaitlistRepository).save(any(CourseWaitlistEntry.class));
+        verify(courseRepository, never()).claimSeat(1L);
+    }
+
+    @Test
+    public void testAddEnrolledUserToFullCourseKeepsRegistration() throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
+        Course course = new Course();
+        course.setId(1L);
+        course.setCapacity(1);
+        course.setSeatsTaken(1);
+        User user = new User();
+        user.setId(2L);
+        Role role = new Role();
+        role.setId(3L);
+
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(userService.findUserById(2L)).thenReturn(user);
+        when(roleService.findRoleById(3L)).thenReturn(role);
+        when(courseRegistrationRepository.existsByUserIdAndCourseId(2L, 1L)).thenReturn(true);
+
+        EnrollmentResultDTO enrollment = courseService.addUserToCourse("requester", 1L, 2L, 3L);
+
+        assertEquals(EnrollmentResultDTO.Status.ENROLLED, enrollment.getStatus());
+        verify(courseWaitlistRepository, never()).save(any(CourseWaitlistEntry.class));
+        verify(courseRepository, never()).claimSeat(1L);
+    }
+
+    @Test
+    public void testAddUserWhoLosesTheLastSeatIsWaitlisted() throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
+        Course course = new Course();
+        course.setId(1L);
+        course.setCapacity(1);
+        course.setSeatsTaken(0);
+        User user = new User();
+        user.setId(2L);
+        Role role = new Role();
+        role.setId(3L);
+
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(userService.findUserById(2L)).thenReturn(user);
+        when(roleService.findRoleById(3L)).thenReturn(role);
+        when(courseRegistrationWriter.upsertRole("requester", 2L, 1L, 3L, true)).thenReturn(Optional.of(new CourseRegistrationWriter.Upserted(4L, 0L)));
+
+        EnrollmentResultDTO enrollment = courseService.addUserToCourse("requester", 1L, 2L, 3L);
+
+        assertEquals(EnrollmentResultDTO.Status.WAITLISTED, enrollment.getStatus());
+        verify(courseRegistrationRepository).deleteRegistration(4L);
+        verify(courseWaitlistRepository).save(any(CourseWaitlistEntry.class));
+        verifyNoInteractions(changeHistoryWriter);
+    }
+
+    @Test
+    public void testAddUserRechecksAnEmptySeatCounter() throws CourseNotFoundException, RoleNotFoundException, UserNotFoundException {
+        courseService = new CourseService(changeHistoryWriter, courseNotificationService, courseRepository, courseRegistrationRepository, courseRegistrationWriter, new CourseSeatCounter(Duration.ZERO), courseStateWriter, courseWaitlistRepository, Mockito.mock(PermissionCache.class), roleService);
+        courseService.setUserService(userService);
+        Course course = new Course();
+        course.setId(1L);
+        course.setCapacity(1);
+        course.setSeatsTaken(1);
+        User user = new User();
+        user.setId(2L);
+        Role role = new Role();
+        role.setId(3L);
+
+        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.claimSeat(1L)).thenReturn(1);
+        when(userService.findUserById(2L)).thenReturn(user);
+        when(roleService.findRoleById(3L)).thenReturn(role);
+        when(courseRegistrationWriter.upsertRole("requester", 2L, 1L, 3L, true)).thenReturn(Optional.of(new CourseRegistrationWriter.Upserted(4L, 0L)));
+
+        assertEquals(EnrollmentResultDTO.Status.WAITLISTED, courseService.addUserToCourse("requester", 1L, 2L, 3L).getStatus());
+        course.setSeatsTaken(0);
+        assertEquals(EnrollmentResultDTO.Status.ENROLLED, courseService.addUserToCourse("requester", 1L, 2L, 3L).getStatus());
+
+        verify(courseRepository).claimSeat(1L);
+        verify(courseWaitlistRepository).deleteByCourseIdAndUserId(1L, 2L);
     }
 
     @Test
@@ -223,55 +387,48 @@ public class CourseServiceTest {
 
     @Test
     public void testGetUsersAndRolesByCourseId() throws CourseNotFoundException {
-        Course course = new Course();
-        course.setId(1L);
-        Role role = new Role();
-        role.setId(2L);
-        User user = new User();
-        user.setId(3L);
-
-        CourseRegistration courseRegistration = new CourseRegistration();
-        courseRegistration.setCourse(course);
-        courseRegistration.setRole(role);
-        courseRegistration.setUser(user);
-        course.setRegistrations(List.of(courseRegistration));
+        UserRoleDTO userRole = new UserRoleDTO(3L, "jdoe", "Jo", "Doe", null, 2L, "Student");
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
-        when(roleService.findRoleById(2L)).thenReturn(role);
-        when(userService.findUserById(3L)).thenReturn(user);
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(courseRegistrationRepository.findUserRolesByCourseId(1L, Pageable.unpaged())).thenReturn(List.of(userRole));
 
-        List<UserRoleDTO> userRoles = courseService.getUsersAndRolesByCourseId(course.getId());
+        List<UserRoleDTO> userRoles = courseService.getUsersAndRolesByCourseId(1L);
 
         assertEquals(1, userRoles.size());
-        assertEquals(user.getId(), userRoles.get(0).getUserId());
-        assertEquals(role.getId(), userRoles.get(0).getRoleId());
+        assertEquals(3L, userRoles.get(0).getUserId());
+        assertEquals(2L, userRoles.get(0).getRoleId());
+    }
+
+    @Test
+    public void testGetUsersAndRolesByCourseIdSortedBySurname() throws CourseNotFoundException {
+        UserRoleDTO userRole = new UserRoleDTO(3L, "jdoe", "Jo", "Doe", null, 2L, "Student");
+        Pageable pageable = PageRequest.of(1, 10);
+
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(courseRegistrationRepository.findUserRolesByCourseIdOrderBySurname(1L, pageable)).thenReturn(List.of(userRole));
+
+        List<UserRoleDTO> userRoles = courseService.getUsersAndRolesByCourseId(1L, UserRoleDTO.Sort.SURNAME, pageable);
+
+        assertEquals(List.of(userRole), userRoles);
+        verify(courseRegistrationRepository, never()).findUserRolesByCourseId(any(), any());
+    }
+
+    @Test
+    public void testGetUsersAndRolesByCourseIdWithUnknownCourse() {
+        when(courseRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(CourseNotFoundException.class, () -> courseService.getUsersAndRolesByCourseId(1L));
     }
 
     @Test
     public void testGetUsersWithRole() {
-        Course course = new Course();
-        course.setId(1L);
-        Role role = new Role();
-        role.setId(2L);
         User user1 = new User();
         user1.setId(3L);
         User user2 = new User();
         user2.setId(4L);
 
-        CourseRegistration registration1 = new CourseRegistration();
-        registration1.setCourse(course);
-        registration1.setRole(role);
-        registration1.setUser(user1);
-
-        CourseRegistration registration2 = new CourseRegistration();
-        registration2.setCourse(course);
-        registration2.setRole(role);
-        registration2.setUser(user2);
-
-        course.setRegistrations(Arrays.asList(registration1, registration2));
-
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
-        when(roleService.findRoleById(2L)).thenReturn(role);
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(courseRegistrationRepository.findUsersByCourseIdAndRoleIdIn(1L, List.of(2L), 0L, Limit.of(Cursor.UNPAGED_LIMIT))).thenReturn(List.of(user1, user2));
 
         List<User> result = courseService.getUsersWithRole(1L, 2L);
 
@@ -281,37 +438,38 @@ public class CourseServiceTest {
     }
 
     @Test
-    public void testGetUsersWithoutRole() {
-        Course course = new Course();
-        course.setId(1L);
-        Role role1 = new Role();
-        role1.setId(2L);
-        Role role2 = new Role();
-        role2.setId(3L);
-        User user1 = new User();
-        user1.setId(4L);
-        User user2 = new User();
-        user2.setId(5L);
+    public void testGetUsersWithRolesAfterCursor() {
+        User user = new User();
+        user.setId(5L);
 
-        CourseRegistration registration1 = new CourseRegistration();
-        registration1.setCourse(course);
-        registration1.setRole(role1);
-        registration1.setUser(user1);
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(courseRegistrationRepository.findUsersByCourseIdAndRoleIdIn(1L, List.of(2L, 3L), 4L, Limit.of(10))).thenReturn(List.of(user));
 
-        CourseRegistration registration2 = new CourseRegistration();
-        registration2.setCourse(course);
-        registration2.setRole(role2);
-        registration2.setUser(user2);
+        List<User> result = courseService.getUsersWithRoles(1L, List.of(2L, 3L), 4L, 10);
 
-        course.setRegistrations(Arrays.asList(registration1, registration2));
+        assertEquals(List.of(user), result);
+    }
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
-        when(roleService.findRoleById(2L)).thenReturn(role1);
+    @Test
+    public void testGetUsersWithoutRole() {
+        User user = new User();
+        user.setId(5L);
+
+        when(courseRepository.existsById(1L)).thenReturn(true);
+        when(courseRegistrationRepository.findUsersByCourseIdAndRoleIdNotIn(1L, List.of(2L), 0L, Limit.of(Cursor.UNPAGED_LIMIT))).thenReturn(List.of(user));
 
         List<User> result = courseService.getUsersWithoutRole(1L, 2L);
 
         assertEquals(1, result.size());
-        assertTrue(result.contains(user2));
+        assertTrue(result.contains(user));
+    }
+
+    @Test
+    public void testGetUsersWithRoleWithUnknownCourse() {
+        when(courseRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(CourseNotFoundException.class, () -> courseService.getUsersWithRole(1L, 2L));
+        verify(courseRegistrationRepository, never()).findUsersByCourseIdAndRoleIdIn(any(), any(), anyLong(), any());
     }
 
     @Test
@@ -323,15 +481,9 @@ public class CourseServiceTest {
         User user = new User();
         user.setId(3L);
 
-        CourseRegistration courseRegistration = new CourseRegistration();
-        courseRegistration.setCourse(course);
-        courseRegistration.setRole(role);
-        courseRegistration.setUser(user);
-        course.setRegistrations(List.of(courseRegistration));
-
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
-        when(roleService.findRoleById(2L)).thenReturn(role);
+        when(courseRepository.existsById(1L)).thenReturn(true);
         when(userService.findUserById(3L)).thenReturn(user);
+        when(courseRegistrationRepository.findRoleByUserIdAndCourseId(3L, 1L)).thenReturn(Optional.of(role));
 
         Optional<Role> result = courseService.getRoleByUserIdAndCourseId(user.getId(), course.getId());
 
@@ -341,63 +493,113 @@ public class CourseServiceTest {
 
     @Test
     public void testOpenCourse() throws CourseNotFoundException {
-        Course course = new Course();
-        course.setId(1L);
-        DateRange dates = new DateRange();
-        dates.setEndDate(LocalDateTime.now().minusDays(1));
-        course.setDates(dates);
+        when(courseStateWriter.open(eq("requester"), eq(1L), eq(3L), any(LocalDateTime.class))).thenReturn(Optional.of(new CourseStateDTO(3L, null, LocalDateTime.now().plusDays(1))));
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        assertEquals(4L, courseService.openCourse("requester", 1L, 3L));
 
-        courseService.openCourse("requester", 1L);
+        verify(courseStateWriter).open(eq("requester"), eq(1L), eq(3L), any(LocalDateTime.class));
+        verify(courseRepository, never()).findById(1L);
+        verify(changeHistoryWriter).recordUpdate(eq("requester"), eq("Course"), eq(1L), eq("dates.startDate"), any(LocalDateTime.class));
+        verify(changeHistoryWriter, never()).recordUpdate(eq("requester"), eq("Course"), eq(1L), eq("dates.endDate"), any());
+        verify(courseNotificationService).notifyRegistrants("requester", 1L, CourseNotificationService.Event.OPENED);
+    }
 
-        assertEquals(LocalDateTime.now().getDayOfYear(), course.getDates().getStartDate().getDayOfYear());
-        assertNull(course.getDates().getEndDate());
-        verify(courseRepository).save(course);
+    @Test
+    public void testOpenCourseRecordsClearedEndDate() throws CourseNotFoundException {
+        when(courseStateWriter.open(eq("requester"), eq(1L), isNull(), any(LocalDateTime.class))).thenReturn(Optional.of(new CourseStateDTO(3L, null, LocalDateTime.now().minusDays(1))));
+
+        assertEquals(4L, courseService.openCourse("requester", 1L, null));
+
+        verify(changeHistoryWriter).recordUpdate(eq("requester"), eq("Course"), eq(1L), eq("dates.startDate"), any(LocalDateTime.class));
+        verify(changeHistoryWriter).recordUpdate("requester", "Course", 1L, "dates.endDate", null);
+    }
+
+    @Test
+    public void testOpenCourseWithStaleVersion() {
+        when(courseRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(VersionMismatchException.class, () -> courseService.openCourse("requester", 1L, 3L));
+        verifyNoInteractions(changeHistoryWriter, courseNotificationService);
     }
 
     @Test
     public void testCloseCourse() throws CourseNotFoundException {
-        Course course = new Course();
-        course.setId(1L);
-        DateRange dates = new DateRange();
-        dates.setStartDate(LocalDateTime.now().plusDays(1));
-        course.setDates(dates);
+        when(courseStateWriter.close(eq("requester"), eq(1L), isNull(), any(LocalDateTime.class))).thenReturn(Optional.of(new CourseStateDTO(2L, LocalDateTime.now().minusDays(1), null)));
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        assertEquals(3L, courseService.closeCourse("requester", 1L, null));
+
+        verify(courseStateWriter).close(eq("requester"), eq(1L), isNull(), any(LocalDateTime.class));
+        verify(courseRepository, never()).findById(1L);
+        verify(changeHistoryWriter).recordUpdate(eq("requester"), eq("Course"), eq(1L), eq("dates.endDate"), any(LocalDateTime.class));
+        verify(changeHistoryWriter, never()).recordUpdate(eq("requester"), eq("Course"), eq(1L), eq("dates.startDate"), any());
+        verify(courseNotificationService).notifyRegistrants("requester", 1L, CourseNotificationService.Event.CLOSED);
+    }
 
-        courseService.closeCourse("requester", 1L);
+    @Test
+    public void testCloseCourseRecordsClearedStartDate() throws CourseNotFoundException {
+        when(courseStateWriter.close(eq("requester"), eq(1L), eq(2L), any(LocalDateTime.class))).thenReturn(Optional.of(new CourseStateDTO(2L, LocalDateTime.now().plusDays(1), null)));
 
-        assertEquals(LocalDateTime.now().getDayOfYear(), course.getDates().getEndDate().getDayOfYear());
-        assertNull(course.getDates().getStartDate());
-        verify(courseRepository).save(course);
+        courseService.closeCourse("requester", 1L, 2L);
+
+        verify(changeHistoryWriter).recordUpdate(eq("requester"), eq("Course"), eq(1L), eq("dates.endDate"), any(LocalDateTime.class));
+        verify(changeHistoryWriter).recordUpdate("requester", "Course", 1L, "dates.startDate", null);
     }
 
     @Test
-    public void testActivateCourse() throws CourseNotFoundException {
-        Course course = new Course();
-        course.setId(1L);
-        course.setIsActive(false);
+    public void testCloseCourseNotFound() {
+        assertThrows(CourseNotFoundException.class, () -> courseService.closeCourse("requester", 1L, null));
+        verifyNoInteractions(changeHistoryWriter, courseNotificationService);
+    }
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+    @Test
+    public void testActivateCourse() throws CourseNotFoundException {
+        when(courseRepository.updateIsActive(eq(1L), isNull(), eq(true), eq("requester"), any(LocalDateTime.class))).thenReturn(1);
+        when(courseRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
 
-        courseService.activateCourse("requester", 1L);
+        assertEquals(5L, courseService.activateCourse("requester", 1L, null));
 
-        assertTrue(course.getIsActive());
-        verify(courseRepository).save(course);
+        verify(courseRepository).updateIsActive(eq(1L), isNull(), eq(true), eq("requester"), any(LocalDateTime.class));
+        verify(changeHistoryWriter).recordUpdate("requester", "Course", 1L, "isActive", true);
     }
 
     @Test
     public void testDeactivateCourse() throws CourseNotFoundException {
+        when(courseRepository.updateIsActive(eq(1L), eq(2L), eq(false), eq("requester"), any(LocalDateTime.class))).thenReturn(1);
+
+        assertEquals(3L, courseService.deactivateCourse("requester", 1L, 2L));
+
+        verify(courseRepository, never()).findVersionById(1L);
+
+        verify(courseRepository).updateIsActive(eq(1L), eq(2L), eq(false), eq("requester"), any(LocalDateTime.class));
+        verify(changeHistoryWriter).recordUpdate("requester", "Course", 1L, "isActive", false);
+    }
+
+    @Test
+    public void testDeactivateCourseWithStaleVersion() {
+        when(courseRepository.updateIsActive(eq(1L), eq(2L), eq(false), eq("requester"), any(LocalDateTime.class))).thenReturn(0);
+        when(courseRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(VersionMismatchException.class, () -> courseService.deactivateCourse("requester", 1L, 2L));
+        verifyNoInteractions(changeHistoryWriter);
+    }
+
+    @Test
+    public void testDeactivateCourseNotFound() {
+        when(courseRepository.updateIsActive(eq(1L), isNull(), eq(false), eq("requester"), any(LocalDateTime.class))).thenReturn(0);
+        when(courseRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(CourseNotFoundException.class, () -> courseService.deactivateCourse("requester", 1L, null));
+    }
+
+    @Test
+    public void testUpdateCourseWithStaleVersion() {
         Course course = new Course();
         course.setId(1L);
-        course.setIsActive(true);
+        course.setVersion(4L);
 
         when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
 
-        courseService.deactivateCourse("requester", 1L);
-
-        assertFalse(course.getIsActive());
-        verify(courseRepository).save(course);
+        assertThrows(VersionMismatchException.class, () -> courseService.updateCourse("requester", 1L, new Course(), 3L));
+        verify(courseRepository, never()).save(course);
     }
 }
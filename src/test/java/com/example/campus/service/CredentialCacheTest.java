@@ -0,0 +1,99 @@
+package com.example.campus.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CredentialCacheTest {
+
+    private static final String HASH = "$2a$10$hash";
+
+    @Test
+    public void testVerifiedCredentialsAreCached() {
+        CredentialCache credentialCache = new CredentialCache(10, Duration.ofMinutes(5), Clock.systemUTC());
+
+        assertFalse(credentialCache.isVerified("jdoe", "secret", HASH));
+        credentialCache.put("jdoe", "secret", HASH);
+
+        assertTrue(credentialCache.isVerified("jdoe", "secret", HASH));
+        assertFalse(credentialCache.isVerified("jdoe", "wrong", HASH));
+        assertFalse(credentialCache.isVerified("other", "secret", HASH));
+        assertFalse(credentialCache.isVerified("jdoe", "secret", "$2a$10$changed"));
+        assertEquals(1, credentialCache.getHits());
+        assertEquals(4, credentialCache.getMisses());
+    }
+
+    @Test
+    public void testEntriesExpire() {
+        MutableClock clock = new MutableClock();
+        CredentialCache credentialCache = new CredentialCache(10, Duration.ofMinutes(5), clock);
+        credentialCache.put("jdoe", "secret", HASH);
+
+        clock.advance(Duration.ofMinutes(4));
+        assertTrue(credentialCache.isVerified("jdoe", "secret", HASH));
+
+        clock.advance(Duration.ofMinutes(2));
+        assertFalse(credentialCache.isVerified("jdoe", "secret", HASH));
+        assertEquals(0, credentialCache.size());
+    }
+
+    @Test
+    public void testEvictUser() {
+        CredentialCache credentialCache = new CredentialCache(10, Duration.ofMinutes(5), Clock.systemUTC());
+        credentialCache.put("jdoe", "secret", HASH);
+        credentialCache.put("jdoe", "other", HASH);
+        credentialCache.put("asmith", "secret", HASH);
+
+        credentialCache.evictUser("jdoe");
+
+        assertFalse(credentialCache.isVerified("jdoe", "secret", HASH));
+        assertFalse(credentialCache.isVerified("jdoe", "other", HASH));
+        assertTrue(credentialCache.isVerified("asmith", "secret", HASH));
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        CredentialCache credentialCache = new CredentialCache(2, Duration.ofMinutes(5), Clock.systemUTC());
+        MeterRegistry registry = new SimpleMeterRegistry();
+        credentialCache.bindTo(registry);
+
+        credentialCache.put("a", "secret", HASH);
+        credentialCache.put("b", "secret", HASH);
+        credentialCache.put("c", "secret", HASH);
+
+        assertEquals(2, credentialCache.size());
+        assertFalse(credentialCache.isVerified("a", "secret", HASH));
+        assertEquals(1.0, registry.get("cache.evictions").tag("cache", "credentials").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.size").tag("cache", "credentials").gauge().value());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
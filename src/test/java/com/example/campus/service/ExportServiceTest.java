@@ -0,0 +1,131 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.CourseRegistrationDTO;
+import com.example.campus.entity.*;
+import com.example.campus.repository.CourseRegistrationRepository;
+import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ExportServiceTest {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ExportService exportService;
+
+    @BeforeEach
+    public void setup() {
+        exportService = new ExportService(courseRegistrationRepository, courseRepository, entityManager, objectMapper, userRepository);
+    }
+
+    @Test
+    public void testExportUsersClearsPersistenceContext() throws IOException {
+        int rows = ExportService.CLEAR_INTERVAL * 2 + 10;
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            users.add(createUser(String.valueOf(i)));
+        }
+        userRepository.saveAll(users);
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.exportUsers(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(rows, lines.length);
+        assertEquals("user0", objectMapper.readValue(lines[0], User.class).getUsername());
+        assertEquals("user" + (rows - 1), objectMapper.readValue(lines[rows - 1], User.class).getUsername());
+        assertFalse(lines[0].contains("password"));
+        assertTrue(entityManager.unwrap(Session.class).getStatistics().getEntityCount() < ExportService.CLEAR_INTERVAL);
+    }
+
+    @Test
+    public void testExportCourses() throws IOException {
+        courseRepository.save(Course.builder().name("Algebra").build());
+        courseRepository.save(Course.builder().name("Biology").build());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.exportCourses(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Algebra", objectMapper.readValue(lines[0], Course.class).getName());
+        assertEquals("Biology", objectMapper.readValue(lines[1], Course.class).getName());
+    }
+
+    @Test
+    public void testExportRegistrations() throws IOException {
+        User user = userRepository.save(createUser("1"));
+        Course course = courseRepository.save(Course.builder().name("Algebra").build());
+        Role role = new Role();
+        role.setName("Student");
+        role = roleRepository.save(role);
+        saveCourseRegistration(user, course, role);
+        saveCourseRegistration(user, courseRepository.save(Course.builder().name("Biology").build()), null);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.exportRegistrations(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        CourseRegistrationDTO first = objectMapper.readValue(lines[0], CourseRegistrationDTO.class);
+        assertEquals(user.getId(), first.getUserId());
+        assertEquals("user1", first.getUsername());
+        assertEquals(course.getId(), first.getCourseId());
+        assertEquals("Algebra", first.getCourseName());
+        assertEquals("Student", first.getRoleName());
+        CourseRegistrationDTO second = objectMapper.readValue(lines[1], CourseRegistrationDTO.class);
+        assertNull(second.getRoleId());
+        assertNull(second.getRoleName());
+    }
+
+    private void saveCourseRegistration(User user, Course course, Role role) {
+        CourseRegistration courseRegistration = new CourseRegistration();
+        courseRegistration.setUser(user);
+        courseRegistration.setCourse(course);
+        courseRegistration.setRole(role);
+        courseRegistrationRepository.save(courseRegistration);
+    }
+
+    private User createUser(String nationalId) {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("user" + nationalId);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.*;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IdGenerationBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+    private Long courseId;
+    private Long roleId;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setName("Jo");
+            user.setFirstSurname("Doe");
+            user.setEmail("jo@example.com");
+            NationalIdInfo nationalIdInfo = new NationalIdInfo();
+            nationalIdInfo.setNationalId("100");
+            nationalIdInfo.setCountry("Canada");
+            user.setNationalIdInfo(nationalIdInfo);
+            user.setUsername("JDoe");
+            entityManager.persist(user);
+            Course course = Course.builder().name("Course").build();
+            entityManager.persist(course);
+            Role role = new Role();
+            role.setName("Student");
+            entityManager.persist(role);
+            userId = user.getId();
+            courseId = course.getId();
+            roleId = role.getId();
+        });
+    }
+
+    @Test
+    public void testInsertRegistrationsWithIdentityIds() {
+        long elapsed = insert(() -> {
+            IdentityCourseRegistration registration = new IdentityCourseRegistration();
+            registration.setUser(entityManager.getReference(User.class, userId));
+            registration.setCourse(entityManager.getReference(Course.class, courseId));
+            registration.setRole(entityManager.getReference(Role.class, roleId));
+            return registration;
+        });
+
+        log.info("Inserted {} registrations with IDENTITY ids in {} ms", ROWS, elapsed);
+        assertEquals(ROWS, count(IdentityCourseRegistration.class));
+    }
+
+    @Test
+    public void testInsertRegistrationsWithPooledSequenceIds() {
+        long elapsed = insert(() -> {
+            CourseRegistration registration = new CourseRegistration();
+            registration.setUser(entityManager.getReference(User.class, userId));
+            registration.setCourse(entityManager.getReference(Course.class, courseId));
+            registration.setRole(entityManager.getReference(Role.class, roleId));
+            return registration;
+        });
+
+        log.info("Inserted {} registrations with pooled-lo sequence ids in {} ms", ROWS, elapsed);
+        assertEquals(ROWS, count(CourseRegistration.class));
+    }
+
+    private long insert(Supplier<Object> registrations) {
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < ROWS; inserted += CHUNK_SIZE) {
+            int chunk = Math.min(CHUNK_SIZE, ROWS - inserted);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < chunk; i++) {
+                    entityManager.persist(registrations.get());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private long count(Class<?> entityType) {
+        return entityManager.createQuery("SELECT COUNT(e) FROM " + entityType.getSimpleName() + " e", Long.class)
+                .getSingleResult();
+    }
+
+    @Entity(name = "IdentityCourseRegistration")
+    @EntityListeners(AuditingEntityListener.class)
+    @Getter
+    @Setter
+    @Table(
+            name = "identity_course_registrations",
+            indexes = @Index(name = "idx_identity_course_registrations_course_role", columnList = "course_id, role_id")
+    )
+    public static class IdentityCourseRegistration {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "created_at")
+        @CreatedDate
+        private LocalDateTime createdAt;
+
+        @Column(name = "created_by")
+        @CreatedBy
+        private String createdBy;
+
+        @Column(name = "updated_at")
+        @LastModifiedDate
+        private LocalDateTime updatedAt;
+
+        @Column(name = "updated_by")
+        @LastModifiedBy
+        private String updatedBy;
+
+        @Version
+        private Long version;
+
+        @ManyToOne
+        @JoinColumn(name = "user_id")
+        private User user;
+
+        @ManyToOne
+        @JoinColumn(name = "course_id")
+        private Course course;
+
+        @ManyToOne
+        @JoinColumn(name = "role_id")
+        private Role role;
+    }
+}
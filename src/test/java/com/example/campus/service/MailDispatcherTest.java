@@ -0,0 +1,209 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.OutboxMail;
+import com.example.campus.entity.OutboxMail.Status;
+import com.example.campus.entity.User;
+import com.example.campus.repository.MailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MailDispatcherTest {
+    private static final Duration INITIAL_BACKOFF = Duration.ofMinutes(1);
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+    private LocalSmtpServer smtpServer;
+    private JavaMailSenderImpl mailSender;
+    private MailDispatcher mailDispatcher;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        smtpServer = new LocalSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (mailDispatcher != null) mailDispatcher.stop();
+        smtpServer.close();
+    }
+
+    @Test
+    public void testSendsBatchesOverOneConnectionEach() {
+        MutableClock clock = new MutableClock();
+        mailDispatcher = dispatcher(clock);
+        for (int i = 0; i < 5; i++) {
+            queue("user" + i + "@example.com", clock);
+        }
+
+        assertEquals(5, mailDispatcher.dispatchDue());
+
+        List<LocalSmtpServer.Message> messages = smtpServer.getMessages();
+        assertEquals(5, messages.size());
+        assertEquals(List.of("user0@example.com"), messages.get(0).recipients());
+        assertTrue(messages.get(0).data().contains("Subject: Hello"));
+        assertEquals(2, smtpServer.getConnections());
+        assertEquals(5, mailOutboxRepository.countByStatus(Status.SENT));
+        assertTrue(mailOutboxRepository.findAll().stream().allMatch(mail -> mail.getText() == null));
+        assertEquals(5, mailDispatcher.getSent());
+        assertEquals(0, mailDispatcher.dispatchDue());
+    }
+
+    @Test
+    public void testRetriesWithBackoffUntilDeadLetter() {
+        MutableClock clock = new MutableClock();
+        mailDispatcher = dispatcher(clock);
+        smtpServer.reject("bounce@example.com");
+        queue("user@example.com", clock);
+        Long bounceId = queue("bounce@example.com", clock).getId();
+
+        assertEquals(2, mailDispatcher.dispatchDue());
+
+        OutboxMail bounce = mailOutboxRepository.findById(bounceId).orElseThrow();
+        assertEquals(Status.PENDING, bounce.getStatus());
+        assertEquals(1, bounce.getAttempts());
+        assertEquals(clock.now().plus(INITIAL_BACKOFF), bounce.getNextAttemptAt());
+        assertNotNull(bounce.getLastError());
+        assertNotNull(bounce.getText());
+        assertNull(bounce.getClaim());
+        assertEquals(1, mailOutboxRepository.countByStatus(Status.SENT));
+        assertEquals(0, mailDispatcher.dispatchDue());
+
+        clock.advance(INITIAL_BACKOFF);
+        assertEquals(1, mailDispatcher.dispatchDue());
+        bounce = mailOutboxRepository.findById(bounceId).orElseThrow();
+        assertEquals(2, bounce.getAttempts());
+        assertEquals(clock.now().plus(INITIAL_BACKOFF.multipliedBy(2)), bounce.getNextAttemptAt());
+
+        clock.advance(INITIAL_BACKOFF.multipliedBy(2));
+        assertEquals(1, mailDispatcher.dispatchDue());
+        bounce = mailOutboxRepository.findById(bounceId).orElseThrow();
+        assertEquals(Status.DEAD, bounce.getStatus());
+        assertEquals(3, bounce.getAttempts());
+        assertNull(bounce.getText());
+
+        clock.advance(Duration.ofDays(1));
+        assertEquals(0, mailDispatcher.dispatchDue());
+        assertEquals(1, mailDispatcher.getDead());
+        assertEquals(3, mailDispatcher.getFailed());
+        assertEquals(1, smtpServer.getMessages().size());
+    }
+
+    @Test
+    public void testThrottlesSendRate() {
+        MutableClock clock = new MutableClock();
+        mailDispatcher = dispatcher(clock, 10);
+        for (int i = 0; i < 9; i++) {
+            queue("user" + i + "@example.com", clock);
+        }
+
+        long start = System.nanoTime();
+        assertEquals(6, mailDispatcher.dispatchDue());
+        assertEquals(3, mailDispatcher.dispatchDue());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(9, smtpServer.getMessages().size());
+        assertTrue(elapsed >= 550, "elapsed " + elapsed + " ms");
+    }
+
+    @Test
+    public void testBackoffIsCapped() {
+        mailDispatcher = dispatcher(new MutableClock());
+
+        assertEquals(INITIAL_BACKOFF, mailDispatcher.backoff(1));
+        assertEquals(INITIAL_BACKOFF.multipliedBy(4), mailDispatcher.backoff(3));
+        assertEquals(Duration.ofMinutes(5), mailDispatcher.backoff(40));
+    }
+
+    @Test
+    public void testQueuedMailIsSentAfterCommit() throws InterruptedException {
+        mailDispatcher = dispatcher(Clock.systemDefaultZone());
+        mailDispatcher.start();
+        MailProperties mailProperties = Mockito.mock(MailProperties.class);
+        when(mailProperties.getResetPasswordUrl()).thenReturn("http://localhost/reset?token=%s");
+        when(mailProperties.getResetPasswordSubject()).thenReturn("Reset");
+        when(mailProperties.getResetPasswordText()).thenReturn("Reset at %s");
+        MailService mailService = new MailService(mailDispatcher, mailOutboxRepository, mailProperties);
+        User user = new User();
+        user.setEmail("jo@example.com");
+
+        transactionTemplate.executeWithoutResult(status -> mailService.queuePasswordResetMail(user, "abc"));
+
+        List<LocalSmtpServer.Message> messages = smtpServer.awaitMessages(1, 10, TimeUnit.SECONDS);
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).data().contains("http://localhost/reset?token=abc"));
+    }
+
+    private MailDispatcher dispatcher(Clock clock) {
+        return dispatcher(clock, 0);
+    }
+
+    private MailDispatcher dispatcher(Clock clock, int maxPerSecond) {
+        return new MailDispatcher(mailSender, mailOutboxRepository, transactionTemplate, clock, 2, 3, 3, maxPerSecond,
+                Duration.ofMinutes(1), INITIAL_BACKOFF, Duration.ofMinutes(5), Duration.ofMinutes(5), Duration.ofSeconds(5));
+    }
+
+    private OutboxMail queue(String recipient, MutableClock clock) {
+        OutboxMail mail = new OutboxMail();
+        mail.setRecipient(recipient);
+        mail.setSubject("Hello");
+        mail.setText("Hello " + recipient);
+        mail.setNextAttemptAt(clock.now());
+        return mailOutboxRepository.save(mail);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        LocalDateTime now() {
+            return LocalDateTime.now(this);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
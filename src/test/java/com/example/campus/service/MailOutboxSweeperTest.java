@@ -0,0 +1,66 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.OutboxMail;
+import com.example.campus.entity.OutboxMail.Status;
+import com.example.campus.repository.MailOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MailOutboxSweeperTest {
+    private static final int CHUNK_SIZE = 10;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testSweepsSentAndDeadMailsPastRetention() {
+        MailOutboxSweeper sweeper = new MailOutboxSweeper(mailOutboxRepository, new TransactionTemplate(transactionManager),
+                Duration.ofHours(1), Duration.ofDays(7), CHUNK_SIZE);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<OutboxMail> mails = new ArrayList<>();
+        for (int i = 0; i < CHUNK_SIZE * 2 + 3; i++) {
+            mails.add(mail(Status.SENT, now.minusHours(2)));
+        }
+        mails.add(mail(Status.SENT, now.minusMinutes(30)));
+        mails.add(mail(Status.DEAD, now.minusDays(8)));
+        mails.add(mail(Status.DEAD, now.minusDays(1)));
+        mails.add(mail(Status.PENDING, now.minusDays(30)));
+        mailOutboxRepository.saveAll(mails);
+
+        assertEquals(CHUNK_SIZE * 2 + 4, sweeper.sweepFinishedBefore(now));
+        assertEquals(1, mailOutboxRepository.countByStatus(Status.SENT));
+        assertEquals(1, mailOutboxRepository.countByStatus(Status.DEAD));
+        assertEquals(1, mailOutboxRepository.countByStatus(Status.PENDING));
+        assertEquals(0, sweeper.sweepFinishedBefore(now));
+    }
+
+    private static OutboxMail mail(Status status, LocalDateTime finishedAt) {
+        OutboxMail mail = new OutboxMail();
+        mail.setRecipient("jo@example.com");
+        mail.setSubject("Hello");
+        mail.setText(status == Status.PENDING ? "Hello" : null);
+        mail.setStatus(status);
+        mail.setNextAttemptAt(finishedAt);
+        if (status == Status.SENT) mail.setSentAt(finishedAt);
+        return mail;
+    }
+}
@@ -6,11 +6,13 @@ import com.example.campus.exception.InvalidTokenException;
 import com.example.campus.repository.PasswordResetTokenRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -18,6 +20,9 @@ import static org.mockito.Mockito.*;
 
 public class PasswordResetServiceTest {
 
+    @Mock
+    private CredentialCache credentialCache;
+
     @Mock
     private UserService userService;
 
@@ -25,7 +30,7 @@ public class PasswordResetServiceTest {
     private PasswordResetTokenRepository passwordResetTokenRepository;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordEncoder passwordEncoder;
 
     @Mock
     private MailService mailService;
@@ -44,7 +49,7 @@ public class PasswordResetServiceTest {
             return null;
         }).when(mockUser).setPassword(anyString());
         when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
-        passwordResetService = new PasswordResetService(userService, passwordResetTokenRepository, passwordEncoder, mailService);
+        passwordResetService = new PasswordResetService(credentialCache, userService, passwordResetTokenRepository, passwordEncoder, mailService);
     }
 
     @Test
@@ -52,18 +57,21 @@ public class PasswordResetServiceTest {
         String username = "testUser";
 
         when(userService.findUserByUsername(username)).thenReturn(mockUser);
-        doAnswer(invocation -> {
-            PasswordResetToken token = invocation.getArgument(0);
-            assertEquals(mockUser, token.getUser());
-            assertTrue(token.getExpiryDate().isAfter(LocalDateTime.now()));
-            assertNotNull(token.getToken());
-            return null;
-        }).when(passwordResetTokenRepository).save(any(PasswordResetToken.class));
+        when(mockUser.getId()).thenReturn(7L);
 
         passwordResetService.createPasswordResetTokenForUser(username);
 
-        verify(passwordResetTokenRepository, times(1)).save(any(PasswordResetToken.class));
-        verify(mailService, times(1)).sendPasswordResetMail(eq(mockUser), anyString());
+        ArgumentCaptor<PasswordResetToken> saved = ArgumentCaptor.forClass(PasswordResetToken.class);
+        ArgumentCaptor<String> mailed = ArgumentCaptor.forClass(String.class);
+        verify(passwordResetTokenRepository, times(1)).deleteByUserId(7L);
+        verify(passwordResetTokenRepository, times(1)).save(saved.capture());
+        verify(mailService, times(1)).queuePasswordResetMail(eq(mockUser), mailed.capture());
+        PasswordResetToken token = saved.getValue();
+        assertEquals(mockUser, token.getUser());
+        assertTrue(token.getExpiryDate().isAfter(LocalDateTime.now()));
+        assertEquals(PasswordResetToken.TOKEN_HASH_LENGTH, token.getTokenHash().length());
+        assertNotEquals(mailed.getValue(), token.getTokenHash());
+        assertEquals(PasswordResetService.hash(mailed.getValue()), token.getTokenHash());
     }
 
     @Test
@@ -72,14 +80,14 @@ public class PasswordResetServiceTest {
         PasswordResetToken mockToken = mock(PasswordResetToken.class);
 
         when(mockToken.getExpiryDate()).thenReturn(LocalDateTime.now().plusHours(1));
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(mockToken);
+        when(passwordResetTokenRepository.findByTokenHash(PasswordResetService.hash(token))).thenReturn(Optional.of(mockToken));
         assertTrue(passwordResetService.validatePasswordResetToken(token));
 
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(null);
+        when(passwordResetTokenRepository.findByTokenHash(PasswordResetService.hash(token))).thenReturn(Optional.empty());
         assertFalse(passwordResetService.validatePasswordResetToken(token));
 
         when(mockToken.getExpiryDate()).thenReturn(LocalDateTime.now().minusHours(1));
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(mockToken);
+        when(passwordResetTokenRepository.findByTokenHash(PasswordResetService.hash(token))).thenReturn(Optional.of(mockToken));
         assertFalse(passwordResetService.validatePasswordResetToken(token));
     }
 
@@ -89,14 +97,18 @@ public class PasswordResetServiceTest {
         String newPassword = "newPassword";
         PasswordResetToken mockToken = mock(PasswordResetToken.class);
 
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(mockToken);
+        when(passwordResetTokenRepository.findByTokenHash(PasswordResetService.hash(token))).thenReturn(Optional.of(mockToken));
         when(mockToken.getExpiryDate()).thenReturn(LocalDateTime.now().plusHours(1));
         when(mockToken.getUser()).thenReturn(mockUser);
+        when(mockUser.getUsername()).thenReturn("testUser");
 
         passwordResetService.resetPassword(token, newPassword);
 
+        verify(mockUser, times(1)).setUpdatedBy("testUser");
         verify(mockUser, times(1)).setPassword(newPassword);
         verify(userService, times(1)).saveUser("testUser", mockUser);
+        verify(credentialCache, times(1)).evictUser(mockUser.getUsername());
+        verify(userService, times(1)).revokeTokens(mockUser.getUsername());
         verify(passwordResetTokenRepository, times(1)).delete(mockToken);
     }
 
@@ -105,7 +117,7 @@ public class PasswordResetServiceTest {
         String token = "invalidToken";
         String newPassword = "newPassword";
 
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(null);
+        when(passwordResetTokenRepository.findByTokenHash(PasswordResetService.hash(token))).thenReturn(Optional.empty());
 
         assertThrows(InvalidTokenException.class, () -> passwordResetService.resetPassword(token, newPassword));
 
@@ -120,7 +132,7 @@ public class PasswordResetServiceTest {
         String newPassword = "newPassword";
         PasswordResetToken mockToken = mock(PasswordResetToken.class);
 
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(mockToken);
+        when(passwordResetTokenRepository.findByTokenHash(PasswordResetService.hash(token))).thenReturn(Optional.of(mockToken));
         when(mockToken.getExpiryDate()).thenReturn(LocalDateTime.now().minusHours(1));
 
         assertThrows(InvalidTokenException.class, () -> passwordResetService.resetPassword(token, newPassword));
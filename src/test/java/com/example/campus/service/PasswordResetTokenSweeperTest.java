@@ -0,0 +1,84 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.PasswordResetToken;
+import com.example.campus.entity.User;
+import com.example.campus.repository.PasswordResetTokenRepository;
+import com.example.campus.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PasswordResetTokenSweeperTest {
+    private static final int CHUNK_SIZE = 100;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testSweepsExpiredTokensInChunks() {
+        PasswordResetTokenSweeper sweeper = new PasswordResetTokenSweeper(passwordResetTokenRepository, new TransactionTemplate(transactionManager), CHUNK_SIZE);
+        User user = userRepository.save(createUser());
+        LocalDateTime now = LocalDateTime.now();
+        List<PasswordResetToken> tokens = new ArrayList<>();
+        for (int i = 0; i < CHUNK_SIZE * 2 + 5; i++) {
+            tokens.add(createToken(user, "expired" + i, now.minusMinutes(i + 1)));
+        }
+        tokens.add(createToken(user, "live", now.plusHours(1)));
+        passwordResetTokenRepository.saveAll(tokens);
+
+        assertEquals(CHUNK_SIZE * 2 + 5, sweeper.sweepExpiredBefore(now));
+        assertEquals(1, passwordResetTokenRepository.count());
+        assertTrue(passwordResetTokenRepository.findByTokenHash(PasswordResetService.hash("live")).isPresent());
+        assertEquals(0, sweeper.sweepExpiredBefore(now));
+    }
+
+    @Test
+    public void testTokenHashIsUnique() {
+        User user = userRepository.save(createUser());
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1);
+        passwordResetTokenRepository.save(createToken(user, "token", expiry));
+
+        assertThrows(DataIntegrityViolationException.class, () -> passwordResetTokenRepository.save(createToken(user, "token", expiry)));
+    }
+
+    private PasswordResetToken createToken(User user, String token, LocalDateTime expiryDate) {
+        PasswordResetToken passwordResetToken = new PasswordResetToken();
+        passwordResetToken.setUser(user);
+        passwordResetToken.setTokenHash(PasswordResetService.hash(token));
+        passwordResetToken.setExpiryDate(expiryDate);
+        return passwordResetToken;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId("100");
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("JDoe");
+        return user;
+    }
+}
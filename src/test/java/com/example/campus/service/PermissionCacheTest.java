@@ -0,0 +1,279 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.*;
+import com.example.campus.repository.*;
+import com.example.campus.util.PermissionSet;
+import com.example.campus.util.Permissions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class PermissionCacheTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private CourseWaitlistRepository courseWaitlistRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private PermissionCache permissionCache;
+    private TokenRevocationList tokenRevocationList;
+    private RoleService roleService;
+    private UserService userService;
+    private CourseService courseService;
+
+    @BeforeEach
+    public void setup() {
+        permissionCache = new PermissionCache(100);
+        tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15));
+        PermissionService permissionService = new PermissionService(permissionCache, permissionRepository, tokenRevocationList);
+        roleService = new RoleService(permissionCache, permissionService, roleRepository, tokenRevocationList, userRepository);
+        courseService = new CourseService(Mockito.mock(ChangeHistoryWriter.class), Mockito.mock(CourseNotificationService.class), courseRepository, courseRegistrationRepository, new CourseRegistrationWriter(jdbcTemplate), new CourseSeatCounter(Duration.ofSeconds(1)), new CourseStateWriter(jdbcTemplate), courseWaitlistRepository, permissionCache, roleService);
+        userService = new UserService(Mockito.mock(ChangeHistoryWriter.class), new CredentialCache(100, Duration.ofMinutes(5), Clock.systemUTC()), permissionCache, roleService, tokenRevocationList, new UsernameAllocator(new DummyNormalizer(), userRepository), userRepository);
+        userService.setCourseService(courseService);
+        courseService.setUserService(userService);
+    }
+
+    @Test
+    public void testCachedPermissionsAreReused() {
+        Permission read = createPermission("READ_USER");
+        User user = createUser("100", createRole("Reader", read));
+
+        assertEquals(List.of(read.getName()), names(userService.getPermissionsByUserId(user.getId())));
+        assertEquals(List.of(read.getName()), names(userService.getPermissionsByUserId(user.getId())));
+        assertEquals(List.of(read.getName()), names(userService.getPermissionsByUsername(user.getUsername())));
+
+        assertEquals(2, permissionCache.getHits());
+        assertEquals(1, permissionCache.getMisses());
+    }
+
+    @Test
+    public void testPermissionsAreDeduplicated() {
+        Permission read = createPermission("READ_USER");
+        User user = createUser("100", createRole("Reader", read), createRole("Other reader", read));
+
+        assertEquals(List.of(read.getName()), names(userService.getPermissionsByUserId(user.getId())));
+        assertEquals(PermissionSet.of(Permissions.READ_USER), userService.getPermissionSetByUsername(user.getUsername()));
+    }
+
+    @Test
+    public void testAddAndRemoveRoleToUserEvictsUser() {
+        Permission read = createPermission("READ_USER");
+        Role role = createRole("Reader", read);
+        User user = createUser("100");
+
+        assertTrue(userService.getPermissionsByUsername(user.getUsername()).isEmpty());
+
+        userService.addRoleToUser("requester", user.getId(), role.getId());
+        newRequest();
+        assertEquals(List.of(read.getName()), names(userService.getPermissionsByUsername(user.getUsername())));
+
+        Instant issuedAt = Instant.now().minusSeconds(1);
+        userService.removeRoleFromUser("requester", user.getId(), role.getId());
+        newRequest();
+        assertTrue(userService.getPermissionsByUsername(user.getUsername()).isEmpty());
+        assertTrue(tokenRevocationList.isRevoked(user.getUsername(), issuedAt));
+    }
+
+    @Test
+    public void testAddAndRemovePermissionToRoleEvictsRoleHolders() {
+        Permission read = createPermission("READ_USER");
+        Permission write = createPermission("WRITE_USER");
+        Role role = createRole("Editor", read);
+        User user = createUser("100", role);
+
+        assertEquals(List.of(read.getName()), names(userService.getPermissionsByUserId(user.getId())));
+
+        roleService.addPermissionToRole("requester", role.getId(), write.getId());
+        newRequest();
+        assertEquals(List.of(read.getName(), write.getName()), names(userService.getPermissionsByUserId(user.getId())));
+
+        roleService.removePermissionFromRole("requester", role.getId(), read.getId());
+        newRequest();
+        assertEquals(List.of(write.getName()), names(userService.getPermissionsByUserId(user.getId())));
+        assertEquals(PermissionSet.of(Permissions.WRITE_USER), userService.getPermissionSetByUsername(user.getUsername()));
+    }
+
+    @Test
+    public void testRemovingPermissionRevokesHolderTokens() {
+        Permission read = createPermission("READ_USER");
+        Role role = createRole("Reader", read);
+        Role other = createRole("Other");
+        User holder = createUser("100", role);
+        User bystander = createUser("101", other);
+        Course course = courseRepository.save(Course.builder().name("Course").build());
+        User student = createUser("102");
+        courseService.addUserToCourse("requester", course.getId(), student.getId(), role.getId());
+        newRequest();
+        Instant issuedAt = Instant.now().minusSeconds(1);
+
+        roleService.removePermissionFromRole("requester", role.getId(), read.getId());
+
+        assertTrue(tokenRevocationList.isRevoked(holder.getUsername(), issuedAt));
+        assertTrue(tokenRevocationList.isRevoked(student.getUsername(), issuedAt));
+        assertFalse(tokenRevocationList.isRevoked(bystander.getUsername(), issuedAt));
+    }
+
+    @Test
+    public void testAddAndRemoveUserToCourseEvictsUser() {
+        Permission read = createPermission("READ_COURSE");
+        Role student = createRole("Student", read);
+        Course course = courseRepository.save(Course.builder().name("Course").build());
+        User user = createUser("100");
+
+        assertTrue(userService.getPermissionsByUserId(user.getId()).isEmpty());
+
+        courseService.addUserToCourse("requester", course.getId(), user.getId(), student.getId());
+        newRequest();
+        assertEquals(List.of(read.getName()), names(userService.getPermissionsByUserId(user.getId())));
+
+        courseService.removeUserFromCourse("requester", course.getId(), user.getId());
+        newRequest();
+        assertTrue(userService.getPermissionsByUserId(user.getId()).isEmpty());
+    }
+
+    @Test
+    public void testRoleChangeOnlyEvictsRoleHolders() {
+        Permission read = createPermission("READ_USER");
+        Permission write = createPermission("WRITE_USER");
+        Role reader = createRole("Reader", read);
+        Role writer = createRole("Writer", write);
+        User readerUser = createUser("100", reader);
+        User writerUser = createUser("101", writer);
+        userService.getPermissionsByUserId(readerUser.getId());
+        userService.getPermissionsByUserId(writerUser.getId());
+
+        roleService.addPermissionToRole("requester", reader.getId(), write.getId());
+
+        assertEquals(1, permissionCache.size());
+        assertTrue(permissionCache.getByUserId(writerUser.getId()).isPresent());
+        assertTrue(permissionCache.getByUserId(readerUser.getId()).isEmpty());
+    }
+
+    @Test
+    public void testLoadStartedBeforeEvictionIsNotCached() {
+        User user = createUser("100");
+        long generation = permissionCache.generation();
+
+        permissionCache.evictUser(user.getId());
+        permissionCache.put(generation, user);
+
+        assertEquals(0, permissionCache.size());
+    }
+
+    @Test
+    public void testLoadBeforeCommitIsEvictedAfterCommit() {
+        User user = createUser("100");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            permissionCache.evictUser(user.getId());
+            permissionCache.put(permissionCache.generation(), user);
+            assertEquals(1, permissionCache.size());
+        });
+
+        assertEquals(0, permissionCache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        PermissionCache boundedCache = new PermissionCache(2);
+        User first = createUser("100");
+        User second = createUser("101");
+        User third = createUser("102");
+
+        boundedCache.put(boundedCache.generation(), first);
+        boundedCache.put(boundedCache.generation(), second);
+        boundedCache.getByUserId(first.getId());
+        boundedCache.put(boundedCache.generation(), third);
+
+        assertEquals(2, boundedCache.size());
+        assertTrue(boundedCache.getByUserId(first.getId()).isPresent());
+        assertTrue(boundedCache.getByUsername(second.getUsername()).isEmpty());
+        assertTrue(boundedCache.getByUsername(third.getUsername()).isPresent());
+    }
+
+    @Test
+    public void testMetrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        permissionCache.bindTo(registry);
+        User user = createUser("100");
+
+        userService.getPermissionsByUserId(user.getId());
+        userService.getPermissionsByUserId(user.getId());
+        userService.getPermissionsByUserId(user.getId());
+
+        assertEquals(2, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.size").gauge().value());
+    }
+
+    private List<String> names(List<Permission> permissions) {
+        return permissions.stream().map(Permission::getName).toList();
+    }
+
+    private void newRequest() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Permission createPermission(String name) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        return permissionRepository.save(permission);
+    }
+
+    private Role createRole(String name, Permission... permissions) {
+        Role role = new Role();
+        role.setName(name);
+        role.getPermissions().addAll(List.of(permissions));
+        return roleRepository.save(role);
+    }
+
+    private User createUser(String nationalId, Role... roles) {
+        User user = new User();
+        user.setName("Alice");
+        user.setFirstSurname("Doe");
+        user.setEmail("alice@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.getRoles().addAll(List.of(roles));
+        User createdUser = userService.createUser("requester", user);
+        newRequest();
+        return createdUser;
+    }
+}
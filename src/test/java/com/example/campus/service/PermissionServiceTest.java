@@ -3,9 +3,11 @@ package com.example.campus.service;
 import com.example.campus.entity.Permission;
 import com.example.campus.exception.PermissionNotFoundException;
 import com.example.campus.repository.PermissionRepository;
+import com.example.campus.util.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,8 +24,7 @@ public class PermissionServiceTest {
     @BeforeEach
     public void setUp() {
         permissionRepository = Mockito.mock(PermissionRepository.class);
-        AuditableService auditableService = Mockito.mock(AuditableService.class);
-        permissionService = new PermissionService(auditableService, permissionRepository);
+        permissionService = new PermissionService(Mockito.mock(PermissionCache.class), permissionRepository, Mockito.mock(TokenRevocationList.class));
     }
 
     @Test
@@ -34,9 +35,9 @@ public class PermissionServiceTest {
         permission2.setId(2L);
         List<Permission> permissions = List.of(permission1, permission2);
 
-        when(permissionRepository.findAll()).thenReturn(permissions);
+        when(permissionRepository.findAfter("", 0L, Limit.of(Cursor.DEFAULT_LIMIT + 1))).thenReturn(permissions);
 
-        List<Permission> result = permissionService.findAllPermissions();
+        List<Permission> result = permissionService.findAllPermissions(null, Cursor.DEFAULT_LIMIT).getItems();
 
         assertEquals(2, result.size());
         assertTrue(result.contains(permission1));
@@ -85,14 +86,14 @@ public class PermissionServiceTest {
         when(permissionRepository.findById(1L)).thenReturn(Optional.of(permission));
         when(permissionRepository.save(permission)).thenReturn(permission);
 
-        Permission updatePermission = permissionService.updatePermission(requester, 1L, permissionDetails);
+        Permission updatePermission = permissionService.updatePermission(requester, 1L, permissionDetails, null);
 
         assertEquals("new name", updatePermission.getName());
         verify(permissionRepository).save(permission);
 
         when(permissionRepository.findById(2L)).thenReturn(Optional.empty());
 
-        assertThrows(PermissionNotFoundException.class, () -> permissionService.updatePermission(requester, 2L, permissionDetails));
+        assertThrows(PermissionNotFoundException.class, () -> permissionService.updatePermission(requester, 2L, permissionDetails, null));
     }
 
     @Test
@@ -0,0 +1,352 @@
+package com.example.campus.service;
+
+import com.example.campus.config.JpaAuditingConfig;
+import com.example.campus.dto.UserRoleDTO;
+import com.example.campus.entity.*;
+import com.example.campus.repository.*;
+import com.example.campus.util.Cursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.campus.service.QueryCountTest$WriteStatementRecorder"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import(JpaAuditingConfig.class)
+public class QueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private CourseWaitlistRepository courseWaitlistRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+    private CourseService courseService;
+    private PermissionService permissionService;
+    private RoleService roleService;
+    private UserService userService;
+
+    @BeforeEach
+    public void setup() {
+        PermissionCache permissionCache = new PermissionCache(100);
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15));
+        permissionService = new PermissionService(permissionCache, permissionRepository, tokenRevocationList);
+        roleService = new RoleService(permissionCache, permissionService, roleRepository, tokenRevocationList, userRepository);
+        courseService = new CourseService(Mockito.mock(ChangeHistoryWriter.class), Mockito.mock(CourseNotificationService.class), courseRepository, courseRegistrationRepository, new CourseRegistrationWriter(jdbcTemplate), new CourseSeatCounter(Duration.ofSeconds(1)), new CourseStateWriter(jdbcTemplate), courseWaitlistRepository, permissionCache, roleService);
+        userService = new UserService(Mockito.mock(ChangeHistoryWriter.class), new CredentialCache(100, Duration.ofMinutes(5), Clock.systemUTC()), permissionCache, roleService, tokenRevocationList, new UsernameAllocator(new DummyNormalizer(), userRepository), userRepository);
+        userService.setCourseService(courseService);
+        courseService.setUserService(userService);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testEachServiceWriteIssuesOneStatement() {
+        authenticate("creator");
+        Permission permission = assertSingleWrite("insert into permissions", () -> permissionService.savePermission("creator", createPermission("READ_THINGS")));
+        Role role = assertSingleWrite("insert into roles", () -> roleService.saveRole("creator", createRole("Student")));
+        Course course = assertSingleWrite("insert into courses", () -> courseService.saveCourse("creator", Course.builder()
+                .name("Course")
+                .dates(new DateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)))
+                .build()));
+        User user = assertSingleWrite("insert into users", () -> userService.createUser("creator", createUser("100")));
+
+        authenticate("editor");
+        assertSingleWrite("update permissions", () -> permissionService.updatePermission("editor", permission.getId(), createPermission("WRITE_THINGS"), null));
+        assertSingleWrite("update roles", () -> roleService.updateRole("editor", role.getId(), createRole("Teacher"), null));
+        assertSingleWrite("insert into role_permissions", () -> roleService.addPermissionToRole("editor", role.getId(), permission.getId()));
+        assertSingleWrite("update courses", () -> courseService.updateCourse("editor", course.getId(), Course.builder().name("Renamed").build(), 0L));
+        // Open and close are single UPDATEs issued through JDBC that return the previous row.
+        assertEquals(2L, assertWrites(List.of(), () -> courseService.closeCourse("editor", course.getId(), 1L)));
+        assertEquals(3L, assertWrites(List.of(), () -> courseService.openCourse("editor", course.getId(), 2L)));
+        assertSingleWrite("update courses", () -> courseService.deactivateCourse("editor", course.getId(), null));
+        assertSingleWrite("update courses", () -> courseService.activateCourse("editor", course.getId(), null));
+        // The registration itself is a single MERGE issued through JDBC, so only the seat claim goes through Hibernate.
+        assertSingleWrite("update courses", () -> courseService.addUserToCourse("editor", course.getId(), user.getId(), role.getId()));
+        assertWrites(List.of(), () -> courseService.addUserToCourse("editor", course.getId(), user.getId(), role.getId()));
+        assertEquals(1, courseRegistrationRepository.count());
+        assertSingleWrite("update users", () -> userService.updateUser("editor", user.getId(), User.builder().name("Jane").build(), null));
+        assertSingleWrite("insert into user_roles", () -> userService.addRoleToUser("editor", user.getId(), role.getId()));
+        assertSingleWrite("update users", () -> userService.deactivateUser("editor", user.getId(), null));
+        assertSingleWrite("update users", () -> userService.activateUser("editor", user.getId(), null));
+
+        User audited = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("creator", audited.getCreatedBy());
+        assertEquals("editor", audited.getUpdatedBy());
+        assertNotNull(audited.getCreatedAt());
+        assertTrue(!audited.getUpdatedAt().isBefore(audited.getCreatedAt()));
+        Course transitioned = courseRepository.findById(course.getId()).orElseThrow();
+        assertEquals("creator", transitioned.getCreatedBy());
+        assertEquals("editor", transitioned.getUpdatedBy());
+        assertEquals(5L, transitioned.getVersion());
+        assertNotNull(transitioned.getDates().getStartDate());
+        assertNull(transitioned.getDates().getEndDate());
+        assertTrue(transitioned.getIsActive());
+    }
+
+    @Test
+    public void testCourseRoleQueriesDoNotDependOnCourseCount() {
+        User fewCourses = createUserWithCourses("100", 2);
+        User manyCourses = createUserWithCourses("101", 12);
+        entityManager.flush();
+
+        long fewCoursesStatements = countCourseRoleStatements(fewCourses.getId(), 2);
+        long manyCoursesStatements = countCourseRoleStatements(manyCourses.getId(), 12);
+
+        assertEquals(fewCoursesStatements, manyCoursesStatements);
+        assertEquals(6, manyCoursesStatements);
+    }
+
+    @Test
+    public void testUserRoleQueriesDoNotDependOnRegistrationCount() {
+        Course smallCourse = createCourseWithUsers("Small", 10);
+        Course largeCourse = createCourseWithUsers("Large", 100);
+        entityManager.flush();
+
+        long smallCourseStatements = countUserRoleStatements(smallCourse.getId(), 10);
+        long largeCourseStatements = countUserRoleStatements(largeCourse.getId(), 100);
+
+        assertEquals(smallCourseStatements, largeCourseStatements);
+        assertEquals(8, largeCourseStatements);
+    }
+
+    @Test
+    public void testUserRolesSortedBySurnameAndPaged() {
+        Course course = createCourseWithUsers("Course", 30);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<UserRoleDTO> all = courseService.getUsersAndRolesByCourseId(course.getId(), UserRoleDTO.Sort.SURNAME, Pageable.unpaged());
+        List<UserRoleDTO> secondPage = courseService.getUsersAndRolesByCourseId(course.getId(), UserRoleDTO.Sort.SURNAME, PageRequest.of(1, 10));
+        List<UserRoleDTO> streamed = new ArrayList<>();
+        courseService.forEachUserAndRoleByCourseId(course.getId(), UserRoleDTO.Sort.SURNAME, streamed::add);
+
+        List<String> surnames = all.stream().map(UserRoleDTO::getFirstSurname).toList();
+        assertEquals(surnames.stream().sorted().toList(), surnames);
+        assertEquals(all.subList(10, 20), secondPage);
+        assertEquals(all, streamed);
+        assertEquals("Student Course", all.get(0).getRoleName());
+    }
+
+    @Test
+    public void testUsersWithRolesAreFilteredInTheDatabase() {
+        Course course = createCourseWithUsers("Course", 40);
+        Role assistant = new Role();
+        assistant.setName("Assistant");
+        assistant = roleRepository.save(assistant);
+        Role teacher = new Role();
+        teacher.setName("Teacher");
+        teacher = roleRepository.save(teacher);
+        List<CourseRegistration> registrations = courseRegistrationRepository.findAll();
+        for (int i = 0; i < 12; i++) {
+            registrations.get(i * 3).setRole(i < 10 ? assistant : teacher);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<User> firstPage = courseService.getUsersWithRoles(course.getId(), List.of(assistant.getId(), teacher.getId()), null, 5);
+        List<User> rest = courseService.getUsersWithRoles(course.getId(), List.of(assistant.getId(), teacher.getId()), firstPage.get(4).getId(), 50);
+        List<User> others = courseService.getUsersWithoutRoles(course.getId(), List.of(assistant.getId(), teacher.getId()), null, Cursor.UNPAGED_LIMIT);
+
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(5, firstPage.size());
+        assertEquals(7, rest.size());
+        assertTrue(firstPage.get(4).getId() < rest.get(0).getId());
+        assertEquals(28, others.size());
+        assertEquals(10, courseService.getUsersWithRole(course.getId(), assistant.getId()).size());
+    }
+
+    private void assertSingleWrite(String statement, Runnable mutation) {
+        assertSingleWrite(statement, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    private <T> T assertSingleWrite(String statement, Supplier<T> mutation) {
+        return assertWrites(List.of(statement), mutation);
+    }
+
+    private <T> T assertWrites(List<String> statements, Supplier<T> mutation) {
+        entityManager.flush();
+        entityManager.clear();
+        WriteStatementRecorder.clear();
+        T result = mutation.get();
+        entityManager.flush();
+        List<String> writes = WriteStatementRecorder.getWrites();
+        assertEquals(statements.size(), writes.size(), writes::toString);
+        for (int i = 0; i < statements.size(); i++) {
+            assertTrue(writes.get(i).startsWith(statements.get(i)), writes::toString);
+        }
+        return result;
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private long countUserRoleStatements(Long courseId, int registrations) {
+        entityManager.clear();
+        statistics.clear();
+        assertEquals(registrations, courseService.getUsersAndRolesByCourseId(courseId).size());
+        assertEquals(registrations, courseService.getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.SURNAME, Pageable.unpaged()).size());
+        assertEquals(5, courseService.getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.SURNAME, PageRequest.of(1, 5)).size());
+        List<UserRoleDTO> streamed = new ArrayList<>();
+        courseService.forEachUserAndRoleByCourseId(courseId, UserRoleDTO.Sort.REGISTRATION, streamed::add);
+        assertEquals(registrations, streamed.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countCourseRoleStatements(Long userId, int courses) {
+        entityManager.clear();
+        statistics.clear();
+        assertEquals(courses, userService.getCoursesAndRolesByUserId(userId).size());
+        assertEquals(courses, userService.getActiveCoursesAndRolesByUserId(userId).size());
+        assertEquals(courses, userService.getOpenCoursesAndRolesByUserId(userId).size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Course createCourseWithUsers(String name, int users) {
+        Course course = courseRepository.save(Course.builder().name(name).build());
+        Role role = new Role();
+        role.setName("Student " + name);
+        role = roleRepository.save(role);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setName("Jo");
+            user.setFirstSurname("Doe" + ((i * 7) % users));
+            user.setEmail("jo@example.com");
+            NationalIdInfo nationalIdInfo = new NationalIdInfo();
+            nationalIdInfo.setNationalId(name + i);
+            nationalIdInfo.setCountry("Canada");
+            user.setNationalIdInfo(nationalIdInfo);
+            user.setUsername(name + i);
+            user = userRepository.save(user);
+            CourseRegistration registration = new CourseRegistration();
+            registration.setUser(user);
+            registration.setCourse(course);
+            registration.setRole(role);
+            courseRegistrationRepository.save(registration);
+        }
+        return course;
+    }
+
+    private Permission createPermission(String name) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        return permission;
+    }
+
+    private Role createRole(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    private User createUser(String nationalId) {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setIsActive(true);
+        return user;
+    }
+
+    private User createUserWithCourses(String nationalId, int courses) {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("user" + nationalId);
+        user = userRepository.save(user);
+        Role role = new Role();
+        role.setName("Student " + nationalId);
+        role = roleRepository.save(role);
+        for (int i = 0; i < courses; i++) {
+            Course course = courseRepository.save(Course.builder()
+                    .name("Course " + i)
+                    .dates(new DateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)))
+                    .build());
+            CourseRegistration registration = new CourseRegistration();
+            registration.setUser(user);
+            registration.setCourse(course);
+            registration.setRole(role);
+            courseRegistrationRepository.save(registration);
+        }
+        return user;
+    }
+
+    public static class WriteStatementRecorder implements StatementInspector {
+        private static final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.trim().toLowerCase();
+            if (statement.startsWith("insert") || statement.startsWith("update") || statement.startsWith("delete")) {
+                writes.add(statement);
+            }
+            return sql;
+        }
+
+        static List<String> getWrites() {
+            return List.copyOf(writes);
+        }
+
+        static void clear() {
+            writes.clear();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.campus.service;
+
+import com.example.campus.exception.RateLimitExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class RateLimiterBenchmarkTest {
+    private static final int THREADS = 8;
+    private static final int REQUESTS = Integer.getInteger("benchmark.iterations", 50_000);
+    private static final int CLIENT_IPS = 100;
+    private static final int CAPACITY = 20;
+
+    @Test
+    public void testConcurrentThroughput() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(CAPACITY, Duration.ofMinutes(1), CAPACITY, Duration.ofMinutes(1),
+                Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC));
+        String[] keys = new String[CLIENT_IPS];
+        for (int i = 0; i < CLIENT_IPS; i++) {
+            keys[i] = "10.0.0." + i;
+        }
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = next.getAndIncrement(); i < REQUESTS; i = next.getAndIncrement()) {
+                        try {
+                            rateLimiter.acquire(keys[i % CLIENT_IPS], null);
+                            granted.incrementAndGet();
+                        } catch (RateLimitExceededException e) {
+                            // expected once a bucket is drained
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            long elapsed = System.nanoTime() - startedAt;
+            log.info("RateLimiter/{} threads: {} requests in {} ms ({} requests/s, {} granted)", THREADS, REQUESTS,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), String.format("%.0f", REQUESTS * 1e9 / elapsed), granted.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.campus.service;
+
+import com.example.campus.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testUsernameBucketRefills() {
+        MutableClock clock = new MutableClock();
+        RateLimiter rateLimiter = new RateLimiter(3, Duration.ofMinutes(1), 100, Duration.ofMillis(10), clock);
+
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("10.0.0.1", "jdoe");
+        }
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire("10.0.0.1", "jdoe"));
+        assertEquals(Duration.ofMinutes(1), exception.getRetryAfter());
+        rateLimiter.acquire("10.0.0.1", "asmith");
+
+        clock.advance(Duration.ofSeconds(30));
+        exception = assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire("10.0.0.2", "jdoe"));
+        assertEquals(Duration.ofSeconds(30), exception.getRetryAfter());
+
+        clock.advance(Duration.ofSeconds(30));
+        rateLimiter.acquire("10.0.0.2", "jdoe");
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire("10.0.0.2", "jdoe"));
+        assertEquals(3, rateLimiter.getRejected());
+    }
+
+    @Test
+    public void testClientIpBucketCoversAllUsernames() {
+        MutableClock clock = new MutableClock();
+        RateLimiter rateLimiter = new RateLimiter(5, Duration.ofMinutes(1), 2, Duration.ofSeconds(1), clock);
+
+        rateLimiter.acquire("10.0.0.1", "a");
+        rateLimiter.acquire("10.0.0.1", null);
+        assertThrows(RateLimitExceededException.class, () -> rateLimiter.acquire("10.0.0.1", "b"));
+        rateLimiter.acquire("10.0.0.2", "b");
+
+        clock.advance(Duration.ofSeconds(1));
+        rateLimiter.acquire("10.0.0.1", "c");
+    }
+
+    @Test
+    public void testUsernameIsOnlyLimitedByCharges() {
+        MutableClock clock = new MutableClock();
+        RateLimiter rateLimiter = new RateLimiter(2, Duration.ofMinutes(1), 100, Duration.ofMillis(10), clock);
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.checkUsername("jdoe");
+        }
+        rateLimiter.chargeUsername("jdoe");
+        rateLimiter.checkUsername("jdoe");
+        rateLimiter.chargeUsername("jdoe");
+        rateLimiter.chargeUsername("jdoe");
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class, () -> rateLimiter.checkUsername("jdoe"));
+        assertEquals(Duration.ofMinutes(1), exception.getRetryAfter());
+        rateLimiter.checkUsername("asmith");
+
+        clock.advance(Duration.ofMinutes(1));
+        rateLimiter.checkUsername("jdoe");
+        assertEquals(1, rateLimiter.getRejected());
+    }
+
+    @Test
+    public void testIdleBucketsAreEvicted() {
+        MutableClock clock = new MutableClock();
+        RateLimiter rateLimiter = new RateLimiter(5, Duration.ofMinutes(1), 10, Duration.ofSeconds(1), clock);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        rateLimiter.bindTo(registry);
+
+        rateLimiter.acquire("10.0.0.1", "jdoe");
+        rateLimiter.acquire("10.0.0.2", "asmith");
+        rateLimiter.acquire("10.0.0.2", "asmith");
+        assertEquals(4, rateLimiter.size());
+
+        clock.advance(Duration.ofMinutes(1));
+        rateLimiter.evictIdle();
+        assertEquals(1, rateLimiter.size());
+        assertEquals(1.0, registry.get("rate.limit.buckets").tag("key", "username").gauge().value());
+        assertEquals(1.0, registry.get("rate.limit.evictions").tag("key", "username").functionCounter().count());
+        assertEquals(2.0, registry.get("rate.limit.evictions").tag("key", "client-ip").functionCounter().count());
+
+        clock.advance(Duration.ofMinutes(1));
+        rateLimiter.evictIdle();
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    public void testConcurrentRequestsNeverExceedCapacity() throws Exception {
+        int threads = 8;
+        int requests = 50_000;
+        int clientIps = 100;
+        int capacity = 20;
+        RateLimiter rateLimiter = new RateLimiter(capacity, Duration.ofMinutes(1), capacity, Duration.ofMinutes(1), new MutableClock());
+        String[] keys = new String[clientIps];
+        for (int i = 0; i < clientIps; i++) {
+            keys[i] = "10.0.0." + i;
+        }
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        try {
+                            rateLimiter.acquire(keys[i % clientIps], null);
+                            granted.incrementAndGet();
+                        } catch (RateLimitExceededException e) {
+                            // expected once a bucket is drained
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(clientIps * capacity, granted.get());
+            assertEquals(requests - clientIps * capacity, rateLimiter.getRejected());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.RegistrationDedupResultDTO;
+import com.example.campus.entity.*;
+import com.example.campus.repository.CourseRegistrationRepository;
+import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RegistrationDedupServiceTest {
+
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private ChangeHistoryWriter changeHistoryWriter;
+    private CourseSeatCounter courseSeatCounter;
+    private TransactionTemplate transactionTemplate;
+    private RegistrationDedupService registrationDedupService;
+
+    @BeforeEach
+    public void setup() {
+        changeHistoryWriter = mock(ChangeHistoryWriter.class);
+        courseSeatCounter = mock(CourseSeatCounter.class);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        registrationDedupService = new RegistrationDedupService(
+                changeHistoryWriter,
+                courseSeatCounter,
+                entityManager,
+                new PermissionCache(100),
+                transactionTemplate
+        );
+    }
+
+    @Test
+    public void testUniqueConstraintRejectsDuplicateRegistration() {
+        Course course = courseRepository.save(Course.builder().name("Course").build());
+        User user = userRepository.save(createUser("100"));
+        Role role = roleRepository.save(createRole("Student"));
+        courseRegistrationRepository.save(createRegistration(user, course, role));
+
+        assertThrows(DataIntegrityViolationException.class, () -> courseRegistrationRepository.save(createRegistration(user, course, role)));
+    }
+
+    @Test
+    public void testRemovesDuplicatesInChunksKeepingNewest() {
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createNativeQuery("ALTER TABLE course_registrations DROP CONSTRAINT uk_course_registrations_user_course")
+                .executeUpdate());
+        Course course = courseRepository.save(Course.builder().name("Course").capacity(10).build());
+        Role student = roleRepository.save(createRole("Student"));
+        Role teacher = roleRepository.save(createRole("Teacher"));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < RegistrationDedupService.CHUNK_SIZE + 1; i++) {
+            users.add(createUser(String.valueOf(100 + i)));
+        }
+        userRepository.saveAll(users);
+        List<CourseRegistration> registrations = new ArrayList<>();
+        for (User user : users) {
+            registrations.add(createRegistration(user, course, student));
+        }
+        User first = users.get(0);
+        User last = users.get(users.size() - 1);
+        registrations.add(createRegistration(first, course, student));
+        registrations.add(createRegistration(first, course, teacher));
+        registrations.add(createRegistration(last, course, teacher));
+        courseRegistrationRepository.saveAll(registrations);
+
+        RegistrationDedupResultDTO result = registrationDedupService.deduplicate("admin", null);
+
+        assertEquals(3, result.getRemoved());
+        assertEquals(2, result.getChunks());
+        assertEquals(last.getId(), result.getLastUserId());
+        assertEquals(users.size(), courseRegistrationRepository.count());
+        assertEquals(teacher.getName(), courseRegistrationRepository.findRoleByUserIdAndCourseId(first.getId(), course.getId()).orElseThrow().getName());
+        assertEquals(teacher.getName(), courseRegistrationRepository.findRoleByUserIdAndCourseId(last.getId(), course.getId()).orElseThrow().getName());
+        assertEquals(users.size(), courseRepository.findById(course.getId()).orElseThrow().getSeatsTaken());
+        verify(courseSeatCounter, times(2)).evict(course.getId());
+        verify(changeHistoryWriter, times(2)).record(anyCollection());
+
+        RegistrationDedupResultDTO rerun = registrationDedupService.deduplicate("admin", null);
+
+        assertEquals(0, rerun.getRemoved());
+        assertEquals(users.size(), courseRegistrationRepository.count());
+    }
+
+    private CourseRegistration createRegistration(User user, Course course, Role role) {
+        CourseRegistration registration = new CourseRegistration();
+        registration.setUser(user);
+        registration.setCourse(course);
+        registration.setRole(role);
+        return registration;
+    }
+
+    private Role createRole(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    private User createUser(String nationalId) {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setUsername("user" + nationalId);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -4,9 +4,12 @@ import com.example.campus.entity.Permission;
 import com.example.campus.entity.Role;
 import com.example.campus.exception.RoleNotFoundException;
 import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import com.example.campus.util.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,8 +28,8 @@ public class RoleServiceTest {
     public void setUp() {
         roleRepository = Mockito.mock(RoleRepository.class);
         permissionService = Mockito.mock(PermissionService.class);
-        AuditableService auditableService = Mockito.mock(AuditableService.class);
-        roleService = new RoleService(auditableService, permissionService, roleRepository);
+        roleService = new RoleService(Mockito.mock(PermissionCache.class), permissionService, roleRepository,
+                Mockito.mock(TokenRevocationList.class), Mockito.mock(UserRepository.class));
     }
 
     @Test
@@ -37,9 +40,9 @@ public class RoleServiceTest {
         role2.setId(2L);
         List<Role> roles = List.of(role1, role2);
 
-        when(roleRepository.findAll()).thenReturn(roles);
+        when(roleRepository.findAfter("", 0L, Limit.of(Cursor.DEFAULT_LIMIT + 1))).thenReturn(roles);
 
-        List<Role> result = roleService.findAllRoles();
+        List<Role> result = roleService.findAllRoles(null, Cursor.DEFAULT_LIMIT).getItems();
 
         assertEquals(2, result.size());
         assertTrue(result.contains(role1));
@@ -88,14 +91,14 @@ public class RoleServiceTest {
         when(roleRepository.findById(1L)).thenReturn(Optional.of(role));
         when(roleRepository.save(role)).thenReturn(role);
 
-        Role updateRole = roleService.updateRole(requester, 1L, roleDetails);
+        Role updateRole = roleService.updateRole(requester, 1L, roleDetails, null);
 
         assertEquals("new name", updateRole.getName());
         verify(roleRepository).save(role);
 
         when(roleRepository.findById(2L)).thenReturn(Optional.empty());
 
-        assertThrows(RoleNotFoundException.class, () -> roleService.updateRole(requester, 2L, roleDetails));
+        assertThrows(RoleNotFoundException.class, () -> roleService.updateRole(requester, 2L, roleDetails, null));
     }
 
     @Test
@@ -0,0 +1,127 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.UserRoleDTO;
+import com.example.campus.entity.Course;
+import com.example.campus.entity.CourseRegistration;
+import com.example.campus.entity.Role;
+import com.example.campus.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RosterBenchmarkTest {
+    private static final int[] REGISTRATIONS = {100, 1_000, 10_000};
+    private static final int REPETITIONS = Integer.getInteger("benchmark.iterations", 20);
+    private static final String INSERT_USER_SQL = "INSERT INTO users (id, name, first_surname, email, national_id, country, " +
+            "username, is_active, version) VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, 0)";
+    private static final String INSERT_REGISTRATION_SQL = "INSERT INTO course_registrations (id, user_id, course_id, role_id, version) " +
+            "VALUES (?, ?, ?, ?, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private CourseWaitlistRepository courseWaitlistRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+    private CourseService courseService;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        PermissionCache permissionCache = new PermissionCache(100);
+        RoleService roleService = new RoleService(permissionCache, new PermissionService(permissionCache, permissionRepository, Mockito.mock(TokenRevocationList.class)), roleRepository,
+                Mockito.mock(TokenRevocationList.class), Mockito.mock(UserRepository.class));
+        courseService = new CourseService(Mockito.mock(ChangeHistoryWriter.class), Mockito.mock(CourseNotificationService.class), courseRepository,
+                courseRegistrationRepository, new CourseRegistrationWriter(jdbcTemplate), new CourseSeatCounter(Duration.ofSeconds(1)), new CourseStateWriter(jdbcTemplate), courseWaitlistRepository, permissionCache, roleService);
+    }
+
+    @Test
+    public void testRosterAtGrowingCourseSizes() {
+        Role role = new Role();
+        role.setName("Student");
+        Long roleId = roleRepository.save(role).getId();
+        long nextId = 1_000_000_000L;
+        for (int size : REGISTRATIONS) {
+            Long courseId = courseRepository.save(Course.builder().name("Course " + size).build()).getId();
+            seed(courseId, roleId, nextId, size);
+            nextId += size;
+
+            double entities = measure(() -> transactionTemplate.execute(status -> {
+                List<UserRoleDTO> userRoles = new ArrayList<>();
+                for (CourseRegistration registration : courseRepository.findById(courseId).orElseThrow().getRegistrations()) {
+                    userRoles.add(new UserRoleDTO(registration.getUser().getId(), registration.getUser().getUsername(), registration.getUser().getName(),
+                            registration.getUser().getFirstSurname(), registration.getUser().getSecondSurname(), registration.getRole().getId(), registration.getRole().getName()));
+                }
+                return userRoles.size();
+            }), size);
+            double projection = measure(() -> courseService.getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.REGISTRATION, Pageable.unpaged()).size(), size);
+            double bySurname = measure(() -> courseService.getUsersAndRolesByCourseId(courseId, UserRoleDTO.Sort.SURNAME, Pageable.unpaged()).size(), size);
+            double streamed = measure(() -> transactionTemplate.execute(status -> {
+                AtomicInteger count = new AtomicInteger();
+                courseService.forEachUserAndRoleByCourseId(courseId, UserRoleDTO.Sort.REGISTRATION, userRole -> count.incrementAndGet());
+                return count.get();
+            }), size);
+
+            log.info("{} registrations: entity traversal {} ms, projection {} ms, projection by surname {} ms, streamed projection {} ms",
+                    size, format(entities), format(projection), format(bySurname), format(streamed));
+        }
+    }
+
+    private void seed(Long courseId, Long roleId, long firstId, int size) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, IntStream.range(0, size)
+                    .mapToObj(i -> new Object[]{firstId + i, "Seed", "User " + (size - i), "seed" + (firstId + i) + "@example.com", "S" + (firstId + i), "Canada", "u" + (firstId + i)})
+                    .toList());
+            jdbcTemplate.batchUpdate(INSERT_REGISTRATION_SQL, IntStream.range(0, size)
+                    .mapToObj(i -> new Object[]{firstId + i, firstId + i, courseId, roleId})
+                    .toList());
+        });
+    }
+
+    private static double measure(IntSupplier roster, int expectedSize) {
+        assertEquals(expectedSize, roster.getAsInt());
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            roster.getAsInt();
+        }
+        return (System.nanoTime() - startedAt) / 1e6 / REPETITIONS;
+    }
+
+    private static String format(double millis) {
+        return String.format("%.2f", millis);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.campus.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class TextSanitizerBenchmarkTest {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2_000_000);
+    private static final String[] ASCII_NAMES = {"jo", "doe", "martinez", "smith"};
+    private static final String[] MIXED_NAMES = {"Clàudia Martí", "Noé Juárez", "Jo", "Raül Cañas"};
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void testCompareNormalizers() {
+        for (String[] names : new String[][]{ASCII_NAMES, MIXED_NAMES}) {
+            String corpus = names == ASCII_NAMES ? "ascii" : "mixed";
+            run("NonAsciiNormalizer/" + corpus, new NonAsciiNormalizer(), names);
+            run("AsciiFoldingNormalizer/" + corpus, new AsciiFoldingNormalizer(), names);
+        }
+    }
+
+    private void run(String name, TextSanitizer sanitizer, String[] inputs) {
+        int length = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            length += sanitizer.normalize(inputs[i % inputs.length]).length();
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            length += sanitizer.normalize(inputs[i % inputs.length]).length();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        log.info("{}: {} ns/op, {} bytes/op ({} chars)", name, String.format("%.1f", (double) elapsed / ITERATIONS),
+                String.format("%.1f", (double) allocated / ITERATIONS), length);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.User;
+import com.example.campus.repository.PermissionRepository;
+import com.example.campus.repository.RoleRepository;
+import com.example.campus.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserCreationBenchmarkTest {
+    private static final int[] USER_COUNTS = Arrays.stream(System.getProperty("benchmark.user-counts", "10000,100000,1000000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private static final int CREATES = Integer.getInteger("benchmark.iterations", 200);
+    private static final int SEED_CHUNK_SIZE = 10_000;
+    private static final long SEED_ID_OFFSET = 1_000_000_000L;
+    private static final String INSERT_USER_SQL = "INSERT INTO users (id, name, first_surname, email, national_id, country, " +
+            "username, is_active, version) VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testCreateUserLatencyAsUsersGrow() {
+        PermissionCache permissionCache = new PermissionCache(100);
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15));
+        RoleService roleService = new RoleService(permissionCache, new PermissionService(permissionCache, permissionRepository, tokenRevocationList), roleRepository, tokenRevocationList, userRepository);
+        UserService userService = new UserService(Mockito.mock(ChangeHistoryWriter.class), new CredentialCache(100, Duration.ofMinutes(5), Clock.systemUTC()),
+                permissionCache, roleService, tokenRevocationList, new UsernameAllocator(new DummyNormalizer(), userRepository), userRepository);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int seeded = 0;
+        int created = 0;
+        for (int i = 0; i < CREATES; i++) {
+            userService.createUser("benchmark", createUser(created++));
+        }
+        for (int userCount : USER_COUNTS) {
+            seeded = seed(transactionTemplate, seeded, userCount - seeded - created);
+
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < CREATES; i++) {
+                userService.createUser("benchmark", createUser(created++));
+            }
+            long createNanos = (System.nanoTime() - startedAt) / CREATES;
+
+            startedAt = System.nanoTime();
+            Set<String> usernames = new HashSet<>(jdbcTemplate.queryForList("SELECT username FROM users", String.class));
+            long scanMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+            log.info("{} users: createUser {} ms/op, full username scan (previous allocator, per call) {} ms",
+                    usernames.size(), String.format("%.1f", createNanos / 1_000_000.0), scanMillis);
+            assertEquals(seeded + created, usernames.size());
+        }
+    }
+
+    // Seeded usernames share no prefix with the created users, so each level measures the
+    // allocator against table size rather than against a growing set of colliding names.
+    private int seed(TransactionTemplate transactionTemplate, int from, int count) {
+        for (int inserted = 0; inserted < count; inserted += SEED_CHUNK_SIZE) {
+            int start = from + inserted;
+            List<Object[]> rows = IntStream.range(start, start + Math.min(SEED_CHUNK_SIZE, count - inserted))
+                    .mapToObj(i -> new Object[]{SEED_ID_OFFSET + i, "Seed", "User", "seed" + i + "@example.com", "S" + i, "Canada", "u" + Integer.toString(i, 36)})
+                    .toList();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER_SQL, rows));
+        }
+        return from + Math.max(count, 0);
+    }
+
+    private static User createUser(int index) {
+        User user = new User();
+        user.setName("Jo");
+        user.setFirstSurname("Doe");
+        user.setSecondSurname("Park");
+        user.setEmail("jo" + index + "@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId("N" + index);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        return user;
+    }
+}
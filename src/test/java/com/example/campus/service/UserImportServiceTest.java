@@ -0,0 +1,221 @@
+package com.example.campus.service;
+
+import com.example.campus.dto.UserImportResultDTO;
+import com.example.campus.dto.UserImportResultDTO.Status;
+import com.example.campus.entity.Auditable;
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.User;
+import com.example.campus.exception.InvalidImportException;
+import com.example.campus.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UserImportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private final ChangeHistoryWriter changeHistoryWriter = mock(ChangeHistoryWriter.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserImportService userImportService;
+
+    @BeforeEach
+    public void setup() {
+        userImportService = new UserImportService(
+                changeHistoryWriter,
+                new UsernameAllocator(new DummyNormalizer(), userRepository),
+                userRepository,
+                jdbcTemplate,
+                new TransactionTemplate(transactionManager),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                objectMapper
+        );
+    }
+
+    @Test
+    public void testImportNdjson() throws IOException {
+        User existing = createUser("Jo", "100");
+        existing.setUsername("JDoe");
+        userRepository.save(existing);
+
+        String body = String.join("\n",
+                toJson(createUser("Jo", "101")),
+                toJson(createUser("Jo", "102")),
+                "",
+                toJson(createUser("Jo", "100")),
+                toJson(createUser("Jo", "101")),
+                "{\"name\": ",
+                toJson(createUser(null, "103")));
+
+        List<UserImportResultDTO> results = importUsers(MediaType.APPLICATION_NDJSON, body);
+
+        assertEquals(6, results.size());
+        assertResult(results.get(0), 1, Status.CREATED, "101", "JDoeP");
+        assertResult(results.get(1), 2, Status.CREATED, "102", "JDoePo");
+        assertResult(results.get(2), 4, Status.DUPLICATE, "100", null);
+        assertResult(results.get(3), 5, Status.DUPLICATE, "101", null);
+        assertResult(results.get(4), 6, Status.INVALID, null, null);
+        assertResult(results.get(5), 7, Status.INVALID, "103", null);
+        assertTrue(results.get(5).getMessage().contains("name"));
+
+        User imported = userRepository.findByUsername("JDoeP").orElseThrow();
+        assertEquals("101", imported.getNationalIdInfo().getNationalId());
+        assertEquals("importer", imported.getCreatedBy());
+        assertNotNull(imported.getCreatedAt());
+        assertEquals(imported.getCreatedAt(), imported.getUpdatedAt());
+        assertEquals(0L, imported.getVersion());
+        assertTrue(imported.getIsActive());
+        assertEquals(3, userRepository.count());
+        verify(changeHistoryWriter).recordCreate(eq("importer"), eq("User"), eq(imported.getId()), argThat(values ->
+                "JDoeP".equals(values.get("username")) && "Jo".equals(values.get("name")) && Boolean.TRUE.equals(values.get("isActive"))));
+        verify(changeHistoryWriter, times(2)).recordCreate(eq("importer"), eq("User"), anyLong(), anyMap());
+    }
+
+    @Test
+    public void testImportCsv() throws IOException {
+        String body = String.join("\n",
+                "name,firstSurname,secondSurname,email,nationalId,country,gender",
+                "Jo,Doe,Pou,jo@example.com,200,Canada,female",
+                "\"J, Jr.\",Doe,,jojr@example.com,201,Canada,",
+                "Jo,Doe,Pou,jo@example.com,202,Canada,unknown",
+                "Jo,Doe,Pou,not-an-email,203,Canada,male");
+
+        List<UserImportResultDTO> results = importUsers(UserImportService.TEXT_CSV, body);
+
+        assertEquals(4, results.size());
+        assertResult(results.get(0), 2, Status.CREATED, "200", "JDoe");
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        assertTrue(results.get(1).getMessage().contains("username"));
+        assertResult(results.get(2), 4, Status.INVALID, null, null);
+        assertResult(results.get(3), 5, Status.INVALID, "203", null);
+        assertTrue(results.get(3).getMessage().contains("email"));
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    public void testImportCsvRejectsHeaderBeforeStreaming() {
+        String body = String.join("\n",
+                "name,firstSurname,email,nationalId",
+                "Jo,Doe,jo@example.com,200");
+
+        assertThrows(InvalidImportException.class, () -> userImportService.openImport("importer", UserImportService.TEXT_CSV, toStream(body)));
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    public void testImportAcrossBatches() throws IOException {
+        int rows = UserImportService.BATCH_SIZE * 2 + 10;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            lines.add(toJson(createUser("Jo", String.valueOf(1000 + i))));
+        }
+
+        List<UserImportResultDTO> results = importUsers(MediaType.APPLICATION_NDJSON, String.join("\n", lines));
+
+        assertEquals(rows, results.size());
+        Set<String> usernames = new HashSet<>();
+        for (UserImportResultDTO result : results) {
+            assertEquals(Status.CREATED, result.getStatus());
+            assertTrue(usernames.add(result.getUsername()));
+        }
+        assertEquals(rows, userRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testDatabaseRejectionFailsOnlyTheOffendingRow() throws IOException {
+        // Only the database rejects this row, so its whole batch fails until the row is isolated
+        jdbcTemplate.execute("ALTER TABLE users ADD CONSTRAINT rejects_one_national_id CHECK (national_id <> '1013')");
+        int rows = 40;
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            lines.add(toJson(createUser("Jo", String.valueOf(1000 + i))));
+        }
+
+        List<UserImportResultDTO> results = importUsers(MediaType.APPLICATION_NDJSON, String.join("\n", lines));
+
+        assertEquals(rows, results.size());
+        for (UserImportResultDTO result : results) {
+            assertEquals("1013".equals(result.getNationalId()) ? Status.FAILED : Status.CREATED, result.getStatus());
+        }
+        assertEquals(rows - 1, userRepository.count());
+        verify(changeHistoryWriter, times(rows - 1)).recordCreate(eq("importer"), eq("User"), anyLong(), anyMap());
+    }
+
+    @Test
+    public void testUserSequenceHandsOutAllocationSizedBlocks() {
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'USERS_SEQ'", Long.class);
+
+        assertEquals(Auditable.ID_ALLOCATION_SIZE, increment);
+    }
+
+    private List<UserImportResultDTO> importUsers(MediaType contentType, String body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        userImportService.openImport("importer", contentType, toStream(body)).writeTo(output);
+        List<UserImportResultDTO> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, UserImportResultDTO.class));
+        }
+        return results;
+    }
+
+    private static InputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertResult(UserImportResultDTO result, long row, Status status, String nationalId, String username) {
+        assertEquals(row, result.getRow());
+        assertEquals(status, result.getStatus());
+        assertEquals(nationalId, result.getNationalId());
+        assertEquals(username, result.getUsername());
+    }
+
+    private String toJson(User user) throws IOException {
+        return objectMapper.writeValueAsString(user);
+    }
+
+    private User createUser(String name, String nationalId) {
+        User user = new User();
+        user.setName(name);
+        user.setFirstSurname("Doe");
+        user.setSecondSurname("Pou");
+        user.setEmail("jo@example.com");
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        user.setNationalIdInfo(nationalIdInfo);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -1,47 +1,63 @@
 package com.example.campus.service;
 
 import com.example.campus.dto.CourseRoleDTO;
+import com.example.campus.dto.CursorPageDTO;
 import com.example.campus.entity.*;
-import com.example.campus.exception.CourseNotFoundException;
+import com.example.campus.exception.InvalidCursorException;
 import com.example.campus.exception.RoleNotFoundException;
 import com.example.campus.exception.UserNotFoundException;
+import com.example.campus.exception.VersionMismatchException;
+import com.example.campus.repository.CourseRegistrationRepository;
+import com.example.campus.repository.CourseRepository;
+import com.example.campus.repository.PermissionRepository;
 import com.example.campus.repository.RoleRepository;
 import com.example.campus.repository.UserRepository;
+import com.example.campus.util.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @DataJpaTest
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class UserServiceTest {
 
-    @Mock
-    private AuditableService auditableService;
     @Mock
     private RoleService roleService;
     @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private CourseRegistrationRepository courseRegistrationRepository;
+    @Autowired
+    private PermissionRepository permissionRepository;
+    @Autowired
     private RoleRepository roleRepository;
     @Autowired
     private UserRepository userRepository;
     private UserService userService;
     @Mock
     private CourseService courseService;
+    private final ChangeHistoryWriter changeHistoryWriter = Mockito.mock(ChangeHistoryWriter.class);
+    private final CredentialCache credentialCache = new CredentialCache(100, Duration.ofMinutes(5), Clock.systemUTC());
+    private final TokenRevocationList tokenRevocationList = new TokenRevocationList(Duration.ofMinutes(15));
 
     @BeforeEach
     public void setup() {
-        userService = new UserService(auditableService, roleService, new DummyNormalizer(), userRepository);
+        userService = new UserService(changeHistoryWriter, credentialCache, new PermissionCache(100), roleService, tokenRevocationList, new UsernameAllocator(new DummyNormalizer(), userRepository), userRepository);
         userService.setCourseService(courseService);
     }
 
@@ -50,13 +66,41 @@ public class UserServiceTest {
         User user1 = getUser();
         User user2 = getUser2();
 
-        List<User> users = userService.findAllUsers();
+        List<User> users = userService.findAllUsers(null, Cursor.DEFAULT_LIMIT).getItems();
 
         assertEquals(2, users.size());
         assertTrue(users.contains(user1));
         assertTrue(users.contains(user2));
     }
 
+    @Test
+    public void testFindAllUsersAcrossPages() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(userService.createUser("requester", createUser("Jo", "12345" + i, "jo@example.com")).getUsername());
+        }
+        expected.sort(null);
+
+        List<String> usernames = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<User> page = userService.findAllUsers(after, 2);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(user -> usernames.add(user.getUsername()));
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        assertEquals(expected, usernames);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    public void testFindAllUsersWithInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> userService.findAllUsers("not a cursor", Cursor.DEFAULT_LIMIT));
+    }
+
     @Test
     public void testCreateUser() {
         List<Arguments> usersAndUsernames = new ArrayList<>();
@@ -125,11 +169,20 @@ public class UserServiceTest {
         User userDetails = new User();
         userDetails.setName("Alice Updated");
 
-        User updatedUser = userService.updateUser("requester", user.getId(), userDetails);
+        User updatedUser = userService.updateUser("requester", user.getId(), userDetails, user.getVersion());
 
         assertEquals("Alice Updated", updatedUser.getName());
     }
 
+    @Test
+    public void testUpdateUserWithStaleVersion() {
+        User user = getUser();
+        User userDetails = new User();
+        userDetails.setName("Alice Updated");
+
+        assertThrows(VersionMismatchException.class, () -> userService.updateUser("requester", user.getId(), userDetails, user.getVersion() + 1));
+    }
+
     @Test
     public void testDeleteUser() {
         User user = getUser();
@@ -217,53 +270,55 @@ public class UserServiceTest {
     }
 
     @Test
-    public void testGetCoursesAndRolesByUserId() throws UserNotFoundException, CourseNotFoundException {
+    public void testGetCoursesAndRolesByUserId() throws UserNotFoundException {
         User user = getUser();
+        Role role1 = roleRepository.save(createRole("Role 1"));
+        Role role2 = roleRepository.save(createRole("Role 2"));
 
-        Course course1 = getCourse(1L, "Course 1", true);
-        Course course2 = getCourse(2L, "Course 2", true);
-
-        CourseRegistration registration1 = getCourseRegistration(user, course1, createRole());
-        user.getRegistrations().add(registration1);
-
-        CourseRegistration registration2 = getCourseRegistration(user, course2, createRole2());
-        user.getRegistrations().add(registration2);
-
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course1.getId())).thenReturn(Optional.of(createRole()));
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course2.getId())).thenReturn(Optional.of(createRole2()));
+        Course course1 = saveCourse("Course 1", true, null);
+        Course course2 = saveCourse("Course 2", true, null);
+        Course course3 = saveCourse("Course 3", true, null);
+        saveCourseRegistration(user, course1, role1);
+        saveCourseRegistration(user, course2, role2);
+        saveCourseRegistration(user, course3, null);
+        saveCourseRegistration(getUser2(), course1, role2);
 
         List<CourseRoleDTO> courseRoleDTOs = userService.getCoursesAndRolesByUserId(user.getId());
 
-        assertEquals(2, courseRoleDTOs.size());
+        assertEquals(3, courseRoleDTOs.size());
 
         CourseRoleDTO dto1 = courseRoleDTOs.get(0);
         assertEquals(course1.getId(), dto1.getCourseId());
         assertEquals(course1.getName(), dto1.getCourseName());
-        assertEquals(1L, dto1.getRoleId());
+        assertEquals(role1.getId(), dto1.getRoleId());
         assertEquals("Role 1", dto1.getRoleName());
 
         CourseRoleDTO dto2 = courseRoleDTOs.get(1);
         assertEquals(course2.getId(), dto2.getCourseId());
         assertEquals(course2.getName(), dto2.getCourseName());
-        assertEquals(2L, dto2.getRoleId());
+        assertEquals(role2.getId(), dto2.getRoleId());
         assertEquals("Role 2", dto2.getRoleName());
+
+        CourseRoleDTO dto3 = courseRoleDTOs.get(2);
+        assertEquals(course3.getId(), dto3.getCourseId());
+        assertNull(dto3.getRoleId());
+        assertEquals("No Role", dto3.getRoleName());
     }
 
     @Test
-    public void testGetActiveCoursesAndRolesByUserId() throws UserNotFoundException, CourseNotFoundException {
-        User user = getUser();
-
-        Course course1 = getCourse(1L, "Course 1", true);
-        Course course2 = getCourse(2L, "Course 2", false);
-
-        CourseRegistration registration1 = getCourseRegistration(user, course1, createRole());
-        user.getRegistrations().add(registration1);
+    public void testGetCoursesAndRolesByUserIdWithUnknownUser() {
+        assertThrows(UserNotFoundException.class, () -> userService.getCoursesAndRolesByUserId(999L));
+    }
 
-        CourseRegistration registration2 = getCourseRegistration(user, course2, createRole());
-        user.getRegistrations().add(registration2);
+    @Test
+    public void testGetActiveCoursesAndRolesByUserId() throws UserNotFoundException {
+        User user = getUser();
+        Role role1 = roleRepository.save(createRole("Role 1"));
 
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course1.getId())).thenReturn(Optional.of(createRole()));
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course2.getId())).thenReturn(Optional.of(createRole2()));
+        Course course1 = saveCourse("Course 1", true, null);
+        Course course2 = saveCourse("Course 2", false, null);
+        saveCourseRegistration(user, course1, role1);
+        saveCourseRegistration(user, course2, role1);
 
         List<CourseRoleDTO> courseRoleDTOs = userService.getActiveCoursesAndRolesByUserId(user.getId());
 
@@ -272,49 +327,31 @@ public class UserServiceTest {
         CourseRoleDTO dto1 = courseRoleDTOs.get(0);
         assertEquals(course1.getId(), dto1.getCourseId());
         assertEquals(course1.getName(), dto1.getCourseName());
-        assertEquals(1L, dto1.getRoleId());
+        assertEquals(role1.getId(), dto1.getRoleId());
         assertEquals("Role 1", dto1.getRoleName());
     }
 
     @Test
     public void testGetOpenCoursesAndRolesByUserId() {
         User user = getUser();
-
-        Course course1 = getCourse(1L, "Course 1", true);
-        course1.setDates(new DateRange());
-        course1.getDates().setStartDate(LocalDateTime.now().minusDays(1));
-        course1.getDates().setEndDate(LocalDateTime.now().plusDays(1));
-        Course course2 = getCourse(2L, "Course 2", true);
-        course2.setDates(new DateRange());
-        course2.getDates().setStartDate(LocalDateTime.now().minusDays(2));
-        course2.getDates().setEndDate(LocalDateTime.now().minusDays(1));
-        Course course3 = getCourse(3L, "Course 3", true);
-        course3.setDates(new DateRange());
-        course3.getDates().setStartDate(LocalDateTime.now().plusDays(1));
-        course3.getDates().setEndDate(LocalDateTime.now().plusDays(2));
-        Course course4 = getCourse(4L, "Course 4", true);
-        course4.setDates(new DateRange());
-        course4.getDates().setStartDate(LocalDateTime.now().minusDays(1));
-        course4.getDates().setEndDate(LocalDateTime.now().plusDays(1));
-
-        CourseRegistration registration1 = getCourseRegistration(user, course1, createRole());
-        user.getRegistrations().add(registration1);
-        CourseRegistration registration2 = getCourseRegistration(user, course2, createRole());
-        user.getRegistrations().add(registration2);
-        CourseRegistration registration3 = getCourseRegistration(user, course3, createRole());
-        user.getRegistrations().add(registration3);
-
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course1.getId())).thenReturn(Optional.of(createRole()));
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course2.getId())).thenReturn(Optional.of(createRole()));
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course3.getId())).thenReturn(Optional.of(createRole()));
-        when(courseService.getRoleByUserIdAndCourseId(user.getId(), course4.getId())).thenReturn(Optional.of(createRole()));
+        Role role1 = roleRepository.save(createRole("Role 1"));
+
+        Course course1 = saveCourse("Course 1", true, new DateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)));
+        Course course2 = saveCourse("Course 2", true, new DateRange(LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+        Course course3 = saveCourse("Course 3", true, new DateRange(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)));
+        saveCourse("Course 4", true, new DateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)));
+        Course course5 = saveCourse("Course 5", true, null);
+        saveCourseRegistration(user, course1, role1);
+        saveCourseRegistration(user, course2, role1);
+        saveCourseRegistration(user, course3, role1);
+        saveCourseRegistration(user, course5, role1);
 
         List<CourseRoleDTO> courseRoleDTOs = userService.getOpenCoursesAndRolesByUserId(user.getId());
 
         assertEquals(1, courseRoleDTOs.size());
         assertEquals(courseRoleDTOs.get(0).getCourseId(), course1.getId());
         assertEquals(courseRoleDTOs.get(0).getCourseName(), course1.getName());
-        assertEquals(courseRoleDTOs.get(0).getRoleId(), 1L);
+        assertEquals(courseRoleDTOs.get(0).getRoleId(), role1.getId());
         assertEquals(courseRoleDTOs.get(0).getRoleName(), "Role 1");
     }
 
@@ -341,13 +378,14 @@ public class UserServiceTest {
     @Test
     public void testGetPermissionsByUsername() throws UserNotFoundException {
         User user = getUser();
-        Role role1 = createRole();
-        Role role2 = createRole2();
-        Permission permission1 = createPermission();
-        Permission permission2 = createPermission2();
+        Permission permission1 = permissionRepository.save(createPermission("Permission 1"));
+        Permission permission2 = permissionRepository.save(createPermission("Permission 2"));
+        Role role1 = createRole("Role 1");
+        Role role2 = createRole("Role 2");
 
         role1.getPermissions().add(permission1);
         role2.getPermissions().add(permission2);
+        roleRepository.saveAll(List.of(role1, role2));
         user.getRoles().add(role1);
         user.getRoles().add(role2);
 
@@ -361,8 +399,7 @@ public class UserServiceTest {
     @Test
     public void testAddRoleToUser() {
         User user = getUser();
-        Role role = createRole();
-        roleRepository.save(role);
+        Role role = roleRepository.save(createRole("Role 1"));
 
         when(roleService.findRoleById(role.getId())).thenReturn(role);
 
@@ -374,8 +411,7 @@ public class UserServiceTest {
     @Test
     public void testRemoveRoleFromUser() throws RoleNotFoundException, UserNotFoundException {
         User user = getUser();
-        Role role = createRole();
-        roleRepository.save(role);
+        Role role = roleRepository.save(createRole("Role 1"));
         user.getRoles().add(role);
         userRepository.save(user);
 
@@ -390,24 +426,44 @@ public class UserServiceTest {
     public void testActivateUser() {
         User user = getUser();
         user.setIsActive(false);
-        userRepository.save(user);
+        userRepository.saveAndFlush(user);
 
-        userService.activateUser("requester", user.getId());
+        long version = userService.activateUser("requester", user.getId(), user.getVersion());
 
         User updatedUser = userRepository.findById(user.getId()).orElseThrow();
         assertTrue(updatedUser.getIsActive());
+        assertEquals(user.getVersion() + 1, updatedUser.getVersion());
+        assertEquals(updatedUser.getVersion(), version);
+        assertEquals("requester", updatedUser.getUpdatedBy());
+        verify(changeHistoryWriter).recordUpdate("requester", "User", user.getId(), "isActive", true);
+    }
+
+    @Test
+    public void testActivateUserWithStaleVersion() {
+        User user = getUser();
+        user.setIsActive(false);
+        userRepository.saveAndFlush(user);
+
+        assertThrows(VersionMismatchException.class, () -> userService.activateUser("requester", user.getId(), user.getVersion() + 1));
+        assertThrows(UserNotFoundException.class, () -> userService.activateUser("requester", user.getId() + 1, null));
+        assertFalse(userRepository.findById(user.getId()).orElseThrow().getIsActive());
+        verifyNoInteractions(changeHistoryWriter);
     }
 
     @Test
     public void testDeactivateUser() {
         User user = getUser();
         user.setIsActive(true);
+        user.setPassword("$2a$10$hash");
         userRepository.save(user);
+        credentialCache.put(user.getUsername(), "password", user.getPassword());
 
-        userService.deactivateUser("requester", user.getId());
+        userService.deactivateUser("requester", user.getId(), null);
 
         User updatedUser = userRepository.findById(user.getId()).orElseThrow();
         assertFalse(updatedUser.getIsActive());
+        assertFalse(credentialCache.isVerified(user.getUsername(), "password", user.getPassword()));
+        assertTrue(tokenRevocationList.isRevoked(user.getUsername(), Instant.now().minusSeconds(1)));
     }
 
     @Test
@@ -432,6 +488,7 @@ public class UserServiceTest {
     private Role createRole() {
         Role role = new Role();
         role.setId(1L);
+        role.setVersion(0L);
         role.setName("Role 1");
         return role;
     }
@@ -439,6 +496,7 @@ public class UserServiceTest {
     private Role createRole2() {
         Role role = new Role();
         role.setId(2L);
+        role.setVersion(0L);
         role.setName("Role 2");
         return role;
     }
@@ -446,6 +504,7 @@ public class UserServiceTest {
     private Permission createPermission() {
         Permission permission = new Permission();
         permission.setId(1L);
+        permission.setVersion(0L);
         permission.setName("Permission 1");
         return permission;
     }
@@ -453,6 +512,7 @@ public class UserServiceTest {
     private Permission createPermission2() {
         Permission permission = new Permission();
         permission.setId(2L);
+        permission.setVersion(0L);
         permission.setName("Permission 2");
         return permission;
     }
@@ -483,6 +543,30 @@ public class UserServiceTest {
         return registration1;
     }
 
+    private Permission createPermission(String name) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        return permission;
+    }
+
+    private Role createRole(String name) {
+        Role role = new Role();
+        role.setName(name);
+        return role;
+    }
+
+    private Course saveCourse(String name, Boolean active, DateRange dates) {
+        Course course = new Course();
+        course.setName(name);
+        course.setIsActive(active);
+        course.setDates(dates);
+        return courseRepository.save(course);
+    }
+
+    private void saveCourseRegistration(User user, Course course, Role role) {
+        courseRegistrationRepository.save(getCourseRegistration(user, course, role));
+    }
+
     private Course getCourse(Long id, String name, Boolean active) {
         Course course = new Course();
         course.setId(id);
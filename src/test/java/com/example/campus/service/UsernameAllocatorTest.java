@@ -0,0 +1,120 @@
+package com.example.campus.service;
+
+import com.example.campus.entity.NationalIdInfo;
+import com.example.campus.entity.User;
+import com.example.campus.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UsernameAllocatorTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    private UsernameAllocator usernameAllocator;
+
+    @BeforeEach
+    public void setup() {
+        usernameAllocator = new UsernameAllocator(new DummyNormalizer(), userRepository);
+    }
+
+    @Test
+    public void testAllocateSkipsStoredUsernames() {
+        saveUser("Jo", "JDoe", "1");
+        saveUser("Jo", "JDoeP", "2");
+
+        assertEquals("JDoePo", usernameAllocator.allocate(createUser("Jo", null)));
+    }
+
+    @Test
+    public void testAllocateIgnoresUsernamesOutsideThePrefix() {
+        saveUser("Jo", "JDoX", "1");
+        saveUser("Jo", "XJDoe", "2");
+
+        assertEquals("JDoe", usernameAllocator.allocate(createUser("Jo", null)));
+    }
+
+    @Test
+    public void testAllocateWithoutSecondSurname() {
+        saveUser("Jo", "JDoe", "1");
+
+        User user = createUser("Jo", null);
+        user.setSecondSurname(null);
+
+        assertEquals("JoDoe", usernameAllocator.allocate(user));
+    }
+
+    @Test
+    public void testAllocateTruncatesLongUsernames() {
+        User user = createUser("Maximilian", "0");
+        user.setFirstSurname("Vanderbiltsworthington");
+
+        String username = usernameAllocator.allocate(user);
+
+        assertEquals("MVanderbiltsworthing", username);
+        assertEquals(UsernameAllocator.USERNAME_MAX_LENGTH, username.length());
+    }
+
+    @Test
+    public void testBatchAllocationsAreUnique() {
+        saveUser("Jo", "JDoe", "1");
+        UsernameAllocator.Batch batch = usernameAllocator.newBatch();
+
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(usernames.add(batch.allocate(createUser("Jo", null))));
+        }
+
+        assertFalse(usernames.contains("JDoe"));
+        assertTrue(usernames.contains("JDoeP"));
+        assertTrue(usernames.contains("JDoe1"));
+    }
+
+    @Test
+    public void testAllocateResumesFromLastSuffix() {
+        for (int i = 0; i < 9; i++) {
+            User user = createUser("Jo", String.valueOf(i));
+            user.setUsername(usernameAllocator.allocate(user));
+            userRepository.save(user);
+        }
+        assertTrue(userRepository.findByUsername("JDoe1").isPresent());
+
+        userRepository.delete(userRepository.findByUsername("JDoe").orElseThrow());
+
+        assertEquals("JDoeP1", usernameAllocator.allocate(createUser("Jo", null)));
+        assertEquals("JDoe", new UsernameAllocator(new DummyNormalizer(), userRepository).allocate(createUser("Jo", null)));
+    }
+
+    private void saveUser(String name, String username, String nationalId) {
+        User user = createUser(name, nationalId);
+        user.setUsername(username);
+        userRepository.save(user);
+    }
+
+    private User createUser(String name, String nationalId) {
+        User user = new User();
+        user.setName(name);
+        user.setFirstSurname("Doe");
+        user.setSecondSurname("Pou");
+        user.setEmail("jo@example.com");
+        user.setNationalIdInfo(createNationalIdInfo(nationalId != null ? nationalId : "0"));
+        user.setIsActive(true);
+        return user;
+    }
+
+    private NationalIdInfo createNationalIdInfo(String nationalId) {
+        NationalIdInfo nationalIdInfo = new NationalIdInfo();
+        nationalIdInfo.setNationalId(nationalId);
+        nationalIdInfo.setCountry("Canada");
+        return nationalIdInfo;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.campus.util;
+
+import com.example.campus.dto.CursorPageDTO;
+import com.example.campus.exception.InvalidCursorException;
+import com.example.campus.exception.InvalidLimitException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        Cursor cursor = new Cursor("Álgebra: grupo 1", 42L);
+
+        assertEquals(cursor, Cursor.decode(cursor.encode()));
+        assertFalse(cursor.encode().contains(":"));
+    }
+
+    @Test
+    public void testMissingCursorStartsFromTheBeginning() {
+        assertEquals(Cursor.START, Cursor.decode(null));
+        assertEquals(Cursor.START, Cursor.decode(""));
+    }
+
+    @Test
+    public void testDecodeRejectsMalformedCursors() {
+        assertThrows(InvalidCursorException.class, () -> Cursor.decode("%%%"));
+        assertThrows(InvalidCursorException.class, () -> Cursor.decode(new Cursor("x", 1L).encode().substring(1)));
+    }
+
+    @Test
+    public void testResolveLimit() {
+        assertEquals(Cursor.DEFAULT_LIMIT, Cursor.resolveLimit(null, false));
+        assertThrows(InvalidLimitException.class, () -> Cursor.resolveLimit(0, false));
+        assertEquals(Cursor.UNPAGED_LIMIT, Cursor.resolveLimit(0, true));
+        assertEquals(10, Cursor.resolveLimit(10, false));
+        assertEquals(Cursor.MAX_LIMIT, Cursor.resolveLimit(Cursor.MAX_LIMIT + 1, false));
+        assertEquals(Cursor.UNPAGED_LIMIT, Cursor.resolveLimit(10, true));
+    }
+
+    @Test
+    public void testPage() {
+        CursorPageDTO<String> last = Cursor.page(List.of("a", "b"), 2, value -> new Cursor(value, 1L));
+        assertEquals(List.of("a", "b"), last.getItems());
+        assertNull(last.getNextCursor());
+
+        CursorPageDTO<String> partial = Cursor.page(List.of("a", "b", "c"), 2, value -> new Cursor(value, 1L));
+        assertEquals(List.of("a", "b"), partial.getItems());
+        assertEquals(new Cursor("b", 1L), Cursor.decode(partial.getNextCursor()));
+    }
+}
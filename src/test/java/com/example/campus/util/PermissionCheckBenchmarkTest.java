@@ -0,0 +1,65 @@
+package com.example.campus.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import static com.example.campus.util.Permissions.*;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class PermissionCheckBenchmarkTest {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2_000_000);
+    private static final Permissions[][] REQUIRED = {{READ_COURSE}, {READ_COURSE, READ_ROLE, READ_USER}, {WRITE_USER}};
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void testCompareChecks() {
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("READ_COURSE", "WRITE_COURSE", "READ_ROLE", "READ_USER", "READ_HISTORY");
+        List<List<String>> requiredNames = Arrays.stream(REQUIRED)
+                .map(required -> Arrays.stream(required).map(Permissions::name).toList())
+                .toList();
+        PermissionSet cached = PermissionSet.ofAuthorities(authorities);
+
+        run("string set", i -> {
+            Set<String> granted = authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+            return granted.containsAll(requiredNames.get(i % REQUIRED.length));
+        });
+        run("PermissionSet rebuilt per check", i ->
+                PermissionSet.ofAuthorities(authorities).containsAll(PermissionSet.ofNames(requiredNames.get(i % REQUIRED.length))));
+        run("cached mask", i -> {
+            long requiredMask = 0L;
+            for (Permissions permission : REQUIRED[i % REQUIRED.length]) {
+                requiredMask |= permission.mask();
+            }
+            return cached.containsAll(requiredMask);
+        });
+    }
+
+    private void run(String name, IntPredicate check) {
+        int granted = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            if (check.test(i)) granted++;
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (check.test(i)) granted++;
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        log.info("{}: {} ns/op, {} bytes/op ({} granted)", name, String.format("%.1f", (double) elapsed / ITERATIONS),
+                String.format("%.1f", (double) allocated / ITERATIONS), granted);
+    }
+}
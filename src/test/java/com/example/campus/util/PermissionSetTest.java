@@ -0,0 +1,85 @@
+package com.example.campus.util;
+
+import com.example.campus.entity.Permission;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.example.campus.util.Permissions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PermissionSetTest {
+
+    @Test
+    public void testMasksAreDistinctBits() {
+        long combined = 0L;
+        for (Permissions permission : Permissions.values()) {
+            assertEquals(1, Long.bitCount(permission.mask()));
+            assertEquals(0, combined & permission.mask());
+            combined |= permission.mask();
+        }
+    }
+
+    @Test
+    public void testMasksAreStable() {
+        assertEquals(1L, READ_COURSE.mask());
+        assertEquals(1L << 6, READ_USER.mask());
+        assertEquals(1L << 8, READ_HISTORY.mask());
+    }
+
+    @Test
+    public void testContainsAll() {
+        PermissionSet granted = PermissionSet.of(READ_USER, WRITE_USER, READ_ROLE);
+
+        assertTrue(granted.containsAll(PermissionSet.of(READ_USER, READ_ROLE)));
+        assertTrue(granted.containsAll(PermissionSet.EMPTY));
+        assertFalse(granted.containsAll(PermissionSet.of(READ_USER, WRITE_ROLE)));
+        assertFalse(PermissionSet.EMPTY.containsAll(PermissionSet.of(READ_COURSE)));
+    }
+
+    @Test
+    public void testContainsAllMaskAndNames() {
+        PermissionSet granted = PermissionSet.ofNames(List.of("READ_USER", "READ_ROLE", "EXPORT_REPORTS"));
+
+        assertTrue(granted.containsAll(READ_USER.mask() | READ_ROLE.mask()));
+        assertFalse(granted.containsAll(READ_USER.mask() | WRITE_ROLE.mask()));
+        assertTrue(granted.containsAllNames(List.of("READ_USER", "EXPORT_REPORTS")));
+        assertTrue(granted.containsAllNames(List.of()));
+        assertFalse(granted.containsAllNames(List.of("READ_USER", "WRITE_USER")));
+        assertFalse(granted.containsAllNames(List.of("IMPORT_REPORTS")));
+    }
+
+    @Test
+    public void testOfNamesKeepsUnknownNamesInOverflow() {
+        PermissionSet granted = PermissionSet.ofNames(List.of("READ_USER", "EXPORT_REPORTS"));
+
+        assertEquals(READ_USER.mask(), granted.getMask());
+        assertEquals(Set.of("EXPORT_REPORTS"), granted.getOverflow());
+        assertTrue(granted.containsAll(PermissionSet.ofNames(List.of("EXPORT_REPORTS", "READ_USER"))));
+        assertFalse(granted.containsAll(PermissionSet.ofNames(List.of("IMPORT_REPORTS"))));
+        assertFalse(PermissionSet.of(READ_USER).containsAll(PermissionSet.ofNames(List.of("EXPORT_REPORTS"))));
+    }
+
+    @Test
+    public void testOrCombinesMasksAndOverflow() {
+        PermissionSet first = PermissionSet.ofNames(List.of("READ_USER", "EXPORT_REPORTS"));
+        PermissionSet second = PermissionSet.ofNames(List.of("WRITE_COURSE", "IMPORT_REPORTS"));
+
+        PermissionSet combined = first.or(second);
+
+        assertEquals(PermissionSet.ofNames(List.of("READ_USER", "WRITE_COURSE", "EXPORT_REPORTS", "IMPORT_REPORTS")), combined);
+        assertSame(first.getOverflow(), first.or(PermissionSet.of(WRITE_USER)).getOverflow());
+    }
+
+    @Test
+    public void testOfPermissionsAndAuthorities() {
+        Permission permission = new Permission();
+        permission.setName("READ_COURSE");
+
+        assertEquals(PermissionSet.of(READ_COURSE), PermissionSet.ofPermissions(List.of(permission)));
+        assertEquals(PermissionSet.of(READ_COURSE, WRITE_COURSE),
+                PermissionSet.ofAuthorities(List.of(new SimpleGrantedAuthority("READ_COURSE"), new SimpleGrantedAuthority("WRITE_COURSE"))));
+    }
+}
@@ -35,6 +35,19 @@ public class ChileNationalIdValidatorTest {
         assertFalse(validator.validate(nationalId, context));
     }
 
+    @Test
+    public void testCheckDigitK() {
+        assertTrue(validator.validate("12345670-K", context));
+        assertFalse(validator.validate("12345678-K", context));
+        assertFalse(validator.validate("12345670-k", context));
+    }
+
+    @Test
+    public void testMissingDash() {
+        assertFalse(validator.validate("123456785", context));
+        assertFalse(validator.validate("1234567-85", context));
+    }
+
     @Test
     public void testEmptyId() {
         String nationalId = "";
@@ -0,0 +1,65 @@
+package com.example.campus.validation;
+
+import com.example.campus.entity.NationalIdInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+public class NationalIdValidatorBenchmarkTest {
+    private static final int WARMUP = 500_000;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5_000_000);
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void testChile() {
+        ChileNationalIdValidator validator = new ChileNationalIdValidator();
+        run("chile", new String[]{"12345678-5", "12345670-K", "1234567-4", "12345678-9"}, id -> validator.validate(id, null));
+    }
+
+    @Test
+    public void testSpain() {
+        SpainNationalIdValidator validator = new SpainNationalIdValidator();
+        run("spain", new String[]{"12345678-Z", "X1234567-L", "Y1234567-X", "X1234567-A"}, id -> validator.validate(id, null));
+    }
+
+    @Test
+    public void testNationalIdValidator() {
+        NationalIdValidator validator = new NationalIdValidator();
+        NationalIdInfo[] infos = {info("Chile", "12345678-5"), info("spain", "12345678-Z"), info("Canada", "AB-1234"), info("Canada", "AB 1234")};
+        run("registry", infos, info -> validator.isValid(info, null));
+    }
+
+    private <T> void run(String name, T[] inputs, Predicate<T> validator) {
+        int valid = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            if (validator.test(inputs[i % inputs.length])) valid++;
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (validator.test(inputs[i % inputs.length])) valid++;
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        double bytesPerOp = (double) allocated / ITERATIONS;
+        log.info("{}: {} ns/op, {} bytes/op ({} valid)", name, String.format("%.1f", (double) elapsed / ITERATIONS),
+                String.format("%.3f", bytesPerOp), valid);
+        assertTrue(bytesPerOp < 1, name + " allocated " + bytesPerOp + " bytes/op");
+    }
+
+    private static NationalIdInfo info(String country, String nationalId) {
+        NationalIdInfo info = new NationalIdInfo();
+        info.setCountry(country);
+        info.setNationalId(nationalId);
+        return info;
+    }
+}
@@ -6,8 +6,9 @@ import jakarta.validation.ConstraintValidatorContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -67,6 +68,53 @@ public class NationalIdValidatorTest {
         assertTrue(validator.isValid(user.getNationalIdInfo(), context));
     }
 
+    @Test
+    public void testCountryIsCaseInsensitive() {
+        when(user.getNationalIdInfo().getCountry()).thenReturn("Spain");
+        when(user.getNationalIdInfo().getNationalId()).thenReturn("12345678-Z");
+        assertTrue(validator.isValid(user.getNationalIdInfo(), context));
+    }
+
+    @Test
+    public void testUnknownCountryRequiresAlphanumericOrDash() {
+        when(user.getNationalIdInfo().getCountry()).thenReturn("Canada");
+        when(user.getNationalIdInfo().getNationalId()).thenReturn("AB-12");
+        assertTrue(validator.isValid(user.getNationalIdInfo(), context));
+        when(user.getNationalIdInfo().getNationalId()).thenReturn("AB 12");
+        assertFalse(validator.isValid(user.getNationalIdInfo(), context));
+        when(user.getNationalIdInfo().getNationalId()).thenReturn("ÁB12");
+        assertFalse(validator.isValid(user.getNationalIdInfo(), context));
+    }
+
+    @Test
+    public void testValidatorsAreLoadedThroughServiceLoader() {
+        assertInstanceOf(ChileNationalIdValidator.class, NationalIdValidator.getRegisteredValidators().get("chile"));
+        assertInstanceOf(SpainNationalIdValidator.class, NationalIdValidator.getRegisteredValidators().get("SPAIN"));
+    }
+
+    @Test
+    public void testAdditionalCountry() {
+        CountryNationalIdValidator peru = new CountryNationalIdValidator() {
+            @Override
+            public String country() {
+                return "peru";
+            }
+
+            @Override
+            public boolean validate(String nationalId, ConstraintValidatorContext context) {
+                return nationalId.length() == 8;
+            }
+        };
+        validator = new NationalIdValidator(List.of(new ChileNationalIdValidator(), peru));
+        when(user.getNationalIdInfo().getCountry()).thenReturn("Peru");
+        when(user.getNationalIdInfo().getNationalId()).thenReturn("12345678");
+        assertTrue(validator.isValid(user.getNationalIdInfo(), context));
+        when(user.getNationalIdInfo().getNationalId()).thenReturn("1234567");
+        assertFalse(validator.isValid(user.getNationalIdInfo(), context));
+
+        assertThrows(IllegalStateException.class, () -> new NationalIdValidator(List.of(peru, peru)));
+    }
+
     @Test
     public void testEmptyId() {
         when(user.getNationalIdInfo().getCountry()).thenReturn("chile");
@@ -53,6 +53,23 @@ public class SpainNationalIdValidatorTest {
         assertFalse(validator.validate(nationalId, context));
     }
 
+    @Test
+    public void testDNIRequiresEightDigits() {
+        assertFalse(validator.validate("1234567-L", context));
+        assertFalse(validator.validate("123456789-Z", context));
+    }
+
+    @Test
+    public void testNIEWithEightDigitsUsesFirstSeven() {
+        assertTrue(validator.validate("X12345678-L", context));
+        assertFalse(validator.validate("X1234567A-L", context));
+    }
+
+    @Test
+    public void testLowercaseLetter() {
+        assertFalse(validator.validate("12345678-z", context));
+    }
+
     @Test
     public void testEmptyId() {
         String nationalId = "";